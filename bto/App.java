@@ -1,10 +1,16 @@
 package bto;
 import bto.View.LoginView;
 import bto.Controller.*;
+import bto.Data.StorageProvider;
+import bto.Data.StorageProviders;
+import bto.Server.SessionServer;
+import java.io.IOException;
 
 /**
  * The App class serves as the entry point for the application.
- * It initializes the system and displays the login prompt to the user.
+ * It initializes the system and displays the login prompt to the user, or with {@code --server [port]}
+ * serves many concurrent sessions over a local socket instead. The storage backend is selected once, by the
+ * {@code bto.storage} system property, and shared by every session.
  */
 public class App {
 
@@ -14,17 +20,28 @@ public class App {
     public App() {
     }
 
+    private static final int DEFAULT_PORT = 7070;
+
     /**
      * The main method is the entry point of the application.
      * It initializes the system by reading data from CSV files and starts the login process.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: {@code --server [port]} starts the session server
+     *             (port 7070 by default) instead of a single console session.
+     * @throws IOException If the session server cannot be started.
      */
-    public static void main(String[] args) {
-        InitController initController = new InitController();
+    public static void main(String[] args) throws IOException {
+        StorageProvider storage = StorageProviders.getDefault();
+        InitController initController = new InitController(storage.getUserDao());
         initController.readCSV();
 
-        LoginView login = new LoginView();
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            new SessionServer(port).serve();
+            return;
+        }
+
+        LoginView login = new LoginView(storage);
         login.displayLoginPrompt();
     }
 }
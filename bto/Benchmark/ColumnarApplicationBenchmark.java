@@ -0,0 +1,130 @@
+package bto.Benchmark;
+
+import bto.Data.ApplicationCSVDao;
+import bto.Data.ColumnarApplicationDao;
+import bto.Data.ColumnarConverter;
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark comparing the columnar application store with the CSV file on the reporting paths.
+ * It generates a temporary applications CSV file, migrates it with {@link ColumnarConverter}, and times a status
+ * filter, a project filter and a count by status through both stores.
+ * <p>
+ * Usage: {@code java bto.Benchmark.ColumnarApplicationBenchmark [rows] [projects] [iterations]}
+ */
+public class ColumnarApplicationBenchmark {
+
+    /**
+     * Default constructor for the ColumnarApplicationBenchmark class.
+     */
+    public ColumnarApplicationBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional row count (default 200000), project count (default 50) and iteration count (default 20).
+     * @throws IOException If the temporary files cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int projects = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Path directory = Files.createTempDirectory("applications");
+        try {
+            Path csv = directory.resolve("Applications.csv");
+            Path col = directory.resolve("Applications.col");
+            writeApplications(csv, rows, projects);
+            ColumnarConverter.convert(csv.toString(), col.toString(), true);
+            ApplicationCSVDao csvDao = new ApplicationCSVDao(csv.toString());
+            ColumnarApplicationDao columnarDao = new ColumnarApplicationDao(col.toString(), null);
+            String project = "Project " + (projects / 2);
+
+            System.out.printf("%d applications across %d projects, %d iterations (CSV %d bytes, columnar %d bytes)%n",
+                rows, projects, iterations, Files.size(csv), Files.size(col));
+            time("CSV status filter", iterations, () -> csvDao.getApplicationsByStatus("BOOKED").size());
+            time("Columnar status filter", iterations, () -> columnarDao.getApplicationsByStatus("BOOKED").size());
+            time("CSV project filter", iterations, () -> csvDao.getApplicationsByProject(project).size());
+            time("Columnar project filter", iterations, () -> columnarDao.getApplicationsByProject(project).size());
+            time("CSV count by status", iterations, () -> countByStatus(csvDao.getAllApplications()).size());
+            time("Columnar count by status", iterations, () -> columnarDao.countByStatus().size());
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Times a lookup after a warm-up run and prints the average time per iteration.
+     *
+     * @param label The name of the lookup path.
+     * @param iterations The number of timed iterations.
+     * @param lookup The lookup to time.
+     */
+    private static void time(String label, int iterations, Lookup lookup) {
+        int results = lookup.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lookup.run();
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%-26s %8.2f ms/op (%d results)%n", label, avgMs, results);
+    }
+
+    /**
+     * A lookup under test.
+     */
+    private interface Lookup {
+        /**
+         * Runs the lookup.
+         *
+         * @return The number of results.
+         */
+        int run();
+    }
+
+    /**
+     * Counts applications by status the way a caller of the CSV store has to, after reading every row.
+     *
+     * @param applications The applications.
+     * @return The number of applications of each status found.
+     */
+    private static Map<ApplicationStatus, Integer> countByStatus(List<Application> applications) {
+        Map<ApplicationStatus, Integer> counts = new EnumMap<>(ApplicationStatus.class);
+        for (Application app : applications) {
+            counts.merge(app.getStatus(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Writes a synthetic applications file in the format used by {@link ApplicationCSVDao}.
+     *
+     * @param file The file to write.
+     * @param rows The number of applications to write.
+     * @param projects The number of distinct projects to spread the applications across.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeApplications(Path file, int rows, int projects) throws IOException {
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("ApplicationID,ProjectName,ApplicantNRIC,FlatType,Status,CreatedTime,WithdrawalStatus,Version\n");
+            for (int i = 1; i <= rows; i++) {
+                writer.write(i + ",Project " + (i % projects) + ",S" + String.format("%07d", i % 10_000_000) + "A,"
+                    + (i % 2 == 0 ? "2-Room" : "3-Room") + "," + statuses[i % statuses.length].name()
+                    + ",2025-04-25 08:59:32," + (i % 10 == 0) + ",0\n");
+            }
+        }
+    }
+}
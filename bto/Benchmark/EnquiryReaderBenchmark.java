@@ -0,0 +1,100 @@
+package bto.Benchmark;
+
+import bto.Data.EnquiryCSVDao;
+import bto.Model.Enquiry;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark comparing the memory-mapped enquiry reader with the line-by-line CSV parsing path.
+ * It generates a temporary enquiries file and times a single-project lookup through both paths.
+ * <p>
+ * Usage: {@code java bto.Benchmark.EnquiryReaderBenchmark [rows] [projects] [iterations]}
+ */
+public class EnquiryReaderBenchmark {
+
+    /**
+     * Default constructor for the EnquiryReaderBenchmark class.
+     */
+    public EnquiryReaderBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional row count (default 200000), project count (default 50) and iteration count (default 20).
+     * @throws IOException If the temporary enquiries file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int projects = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Path file = Files.createTempFile("enquiries", ".csv");
+        try {
+            writeEnquiries(file, rows, projects);
+            EnquiryCSVDao dao = new EnquiryCSVDao(file.toString());
+            String project = "Project " + (projects / 2);
+
+            System.out.printf("%d enquiries across %d projects, %d iterations%n", rows, projects, iterations);
+            time("BufferedReader + split", iterations, () -> dao.readAllEnquiries().stream()
+                .filter(e -> e.getProjectName().equalsIgnoreCase(project))
+                .collect(Collectors.toList()));
+            time("Memory-mapped scan", iterations, () -> dao.getEnquiriesByProject(project));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Times a lookup after a warm-up run and prints the average time per iteration.
+     *
+     * @param label The name of the lookup path.
+     * @param iterations The number of timed iterations.
+     * @param lookup The lookup to time.
+     */
+    private static void time(String label, int iterations, Lookup lookup) {
+        int matches = lookup.run().size();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lookup.run();
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%-24s %8.2f ms/op (%d matches)%n", label, avgMs, matches);
+    }
+
+    /**
+     * A lookup under test.
+     */
+    private interface Lookup {
+        /**
+         * Runs the lookup.
+         *
+         * @return The enquiries found.
+         */
+        List<Enquiry> run();
+    }
+
+    /**
+     * Writes a synthetic enquiries file in the format used by {@link EnquiryCSVDao}.
+     *
+     * @param file The file to write.
+     * @param rows The number of enquiries to write.
+     * @param projects The number of distinct projects to spread the enquiries across.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeEnquiries(Path file, int rows, int projects) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("EnquiryID,ApplicantNRIC,ProjectName,EnquiryDetails,CreatedTime,Reply,RepliedBy,RepliedTime\n");
+            for (int i = 1; i <= rows; i++) {
+                boolean replied = i % 3 == 0;
+                writer.write(i + ",S" + String.format("%07d", i % 10_000_000) + "A,Project " + (i % projects)
+                    + ",Is there any unit facing north for enquiry " + i + "?,2025-04-25 08:59:32,"
+                    + (replied ? "Yes there is,Daniel,2025-04-26 10:00:00" : "null,null,null") + "\n");
+            }
+        }
+    }
+}
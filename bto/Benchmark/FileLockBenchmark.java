@@ -0,0 +1,93 @@
+package bto.Benchmark;
+
+import bto.Data.FileLockManager;
+import bto.Data.LockTimeoutException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of a {@link FileLockManager} with a writer under read load.
+ * Several threads take the shared lock in a tight loop while one writer repeatedly takes the exclusive lock, and the
+ * benchmark reports the read throughput and how long the writer waited. A writer that times out means readers are
+ * starving writers.
+ * <p>
+ * Usage: {@code java bto.Benchmark.FileLockBenchmark [readers] [writes]}
+ */
+public class FileLockBenchmark {
+
+    /**
+     * Default constructor for the FileLockBenchmark class.
+     */
+    public FileLockBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional reader thread count (default 16) and number of exclusive acquisitions (default 200).
+     * @throws IOException If the temporary directory cannot be created.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int writes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Path directory = Files.createTempDirectory("lock-benchmark");
+        try {
+            FileLockManager locks = FileLockManager.forFile(directory.resolve("Data.csv").toString());
+            AtomicBoolean running = new AtomicBoolean(true);
+            LongAdder reads = new LongAdder();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < readers; t++) {
+                Thread worker = new Thread(() -> {
+                    while (running.get()) {
+                        FileLockManager.Held held = locks.acquireShared();
+                        try {
+                            reads.increment();
+                        } finally {
+                            held.close();
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+
+            LatencyHistogram writeWaits = new LatencyHistogram();
+            int timeouts = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < writes; i++) {
+                long requested = System.nanoTime();
+                try {
+                    FileLockManager.Held held = locks.acquireExclusive();
+                    writeWaits.record(System.nanoTime() - requested);
+                    held.close();
+                } catch (LockTimeoutException e) {
+                    timeouts++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            running.set(false);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            System.out.printf("%d readers: %.0f reads/s; %d writes, %d timed out, writer wait p50 %.3f ms, "
+                    + "p99 %.3f ms, max %.3f ms%n",
+                readers, reads.sum() / seconds, writes, timeouts, writeWaits.getPercentileMillis(50),
+                writeWaits.getPercentileMillis(99), writeWaits.getMaxMillis());
+            System.out.println(timeouts == 0 ? "Writers not starved" : "WRITERS STARVED");
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
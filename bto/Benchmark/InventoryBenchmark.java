@@ -0,0 +1,91 @@
+package bto.Benchmark;
+
+import bto.Data.InventoryService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the {@link InventoryService} on the booking path.
+ * It fills a temporary inventory file with the flat types of many projects, then has several threads book and
+ * withdraw units of random flat types and reports the throughput. Every reservation that succeeds is released again,
+ * so the final counts must equal the starting counts.
+ * <p>
+ * Usage: {@code java bto.Benchmark.InventoryBenchmark [projects] [threads] [operations per thread]}
+ */
+public class InventoryBenchmark {
+
+    /**
+     * Default constructor for the InventoryBenchmark class.
+     */
+    public InventoryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional project count (default 200), thread count (default 4) and operation count per thread
+     *             (default 20000).
+     * @throws IOException If the temporary directory cannot be created.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int projects = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        String[] flatTypes = {"2-Room", "3-Room"};
+
+        Path directory = Files.createTempDirectory("inventory-benchmark");
+        try {
+            InventoryService inventory = InventoryService.forFile(directory.resolve("Inventory.dat").toString());
+            for (int p = 0; p < projects; p++) {
+                for (String flatType : flatTypes) {
+                    inventory.set("Project " + p, flatType, 100);
+                }
+            }
+
+            AtomicInteger booked = new AtomicInteger();
+            List<Thread> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < operations; i++) {
+                        int n = (i * 31 + seed * 7919) % (projects * flatTypes.length);
+                        String project = "Project " + (n / flatTypes.length);
+                        String flatType = flatTypes[n % flatTypes.length];
+                        if (inventory.tryReserve(project, flatType, 1)) {
+                            booked.incrementAndGet();
+                            inventory.release(project, flatType, 1);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int total = 0;
+            for (int p = 0; p < projects; p++) {
+                for (String flatType : flatTypes) {
+                    total += inventory.getAvailableUnits("Project " + p, flatType);
+                }
+            }
+            System.out.printf("%d flat types, %d threads x %d bookings: %.0f bookings/s, %d booked, units %s%n",
+                projects * flatTypes.length, threads, operations, threads * operations / seconds, booked.get(),
+                total == projects * flatTypes.length * 100 ? "consistent" : "INCONSISTENT (" + total + ")");
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package bto.Benchmark;
+
+import bto.Data.ApplicationCSVDao;
+import bto.Data.ApplicationDao;
+import bto.Data.ConnectionPool;
+import bto.Data.EnquiryCSVDao;
+import bto.Data.EnquiryDao;
+import bto.Data.JdbcStorageProvider;
+import bto.Model.ApplicationStatus;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark comparing the JDBC DAOs with the CSV DAOs on the indexed lookups.
+ * It generates temporary applications and enquiries CSV files, loads the same rows into a fresh database, and
+ * times lookups by project and by applicant through both stores.
+ * <p>
+ * The database is an H2 database in the temporary directory unless {@code bto.jdbc.url} names another one; either
+ * way its JDBC driver must be on the class path.
+ * <p>
+ * Usage: {@code java bto.Benchmark.JdbcBenchmark [rows] [projects] [iterations]}
+ */
+public class JdbcBenchmark {
+
+    /**
+     * Default constructor for the JdbcBenchmark class.
+     */
+    public JdbcBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional row count (default 100000), project count (default 50) and iteration count (default 20).
+     * @throws IOException If the temporary files cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int projects = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Path directory = Files.createTempDirectory("jdbc-benchmark");
+        String url = System.getProperty("bto.jdbc.url", "jdbc:h2:" + directory.resolve("bto").toAbsolutePath());
+        try (ConnectionPool pool = new ConnectionPool(url, System.getProperty("bto.jdbc.user"),
+                 System.getProperty("bto.jdbc.password"), Integer.getInteger("bto.jdbc.poolSize", 8), 10_000)) {
+            Path applicationsCsv = directory.resolve("Applications.csv");
+            Path enquiriesCsv = directory.resolve("Enquiries.csv");
+            writeApplications(applicationsCsv, rows, projects);
+            writeEnquiries(enquiriesCsv, rows, projects);
+            ApplicationDao csvApplications = new ApplicationCSVDao(applicationsCsv.toString());
+            EnquiryDao csvEnquiries = new EnquiryCSVDao(enquiriesCsv.toString());
+
+            JdbcStorageProvider provider = new JdbcStorageProvider(pool, false);
+            ApplicationDao jdbcApplications = provider.getApplicationDao();
+            EnquiryDao jdbcEnquiries = provider.getEnquiryDao();
+            long start = System.nanoTime();
+            jdbcApplications.saveAll(csvApplications.getAllApplications());
+            jdbcEnquiries.saveAll(csvEnquiries.getAllEnquiries());
+            System.out.printf("%d applications and %d enquiries across %d projects, %d iterations, loaded into %s in %.0f ms%n",
+                rows, rows, projects, iterations, url, (System.nanoTime() - start) / 1e6);
+
+            String project = "Project " + (projects / 2);
+            String nric = nric(rows / 2);
+            time("CSV applications by project", iterations, () -> csvApplications.getApplicationsByProject(project).size());
+            time("JDBC applications by project", iterations, () -> jdbcApplications.getApplicationsByProject(project).size());
+            time("CSV applications by NRIC", iterations, () -> csvApplications.getApplicationsByApplicant(nric).size());
+            time("JDBC applications by NRIC", iterations, () -> jdbcApplications.getApplicationsByApplicant(nric).size());
+            time("CSV enquiries by project", iterations, () -> csvEnquiries.getEnquiriesByProject(project).size());
+            time("JDBC enquiries by project", iterations, () -> jdbcEnquiries.getEnquiriesByProject(project).size());
+            time("CSV enquiries by NRIC", iterations, () -> csvEnquiries.getEnquiriesByApplicant(nric).size());
+            time("JDBC enquiries by NRIC", iterations, () -> jdbcEnquiries.getEnquiriesByApplicant(nric).size());
+            System.out.println(pool);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Times a lookup after a warm-up run and prints the average time per iteration.
+     *
+     * @param label The name of the lookup path.
+     * @param iterations The number of timed iterations.
+     * @param lookup The lookup to time.
+     */
+    private static void time(String label, int iterations, Lookup lookup) {
+        int results = lookup.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lookup.run();
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%-30s %8.2f ms/op (%d results)%n", label, avgMs, results);
+    }
+
+    /**
+     * A lookup under test.
+     */
+    private interface Lookup {
+        /**
+         * Runs the lookup.
+         *
+         * @return The number of results.
+         */
+        int run();
+    }
+
+    /**
+     * Gets the synthetic NRIC of a row.
+     *
+     * @param row The row.
+     * @return The NRIC.
+     */
+    private static String nric(int row) {
+        return "S" + String.format("%07d", row % 10_000_000) + "A";
+    }
+
+    /**
+     * Writes a synthetic applications file in the format used by {@link ApplicationCSVDao}.
+     *
+     * @param file The file to write.
+     * @param rows The number of applications to write.
+     * @param projects The number of distinct projects to spread the applications across.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeApplications(Path file, int rows, int projects) throws IOException {
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("ApplicationID,ProjectName,ApplicantNRIC,FlatType,Status,CreatedTime,WithdrawalStatus,Version\n");
+            for (int i = 1; i <= rows; i++) {
+                writer.write(i + ",Project " + (i % projects) + "," + nric(i) + ","
+                    + (i % 2 == 0 ? "2-Room" : "3-Room") + "," + statuses[i % statuses.length].name()
+                    + ",2025-04-25 08:59:32," + (i % 10 == 0) + ",0\n");
+            }
+        }
+    }
+
+    /**
+     * Writes a synthetic enquiries file in the format used by {@link EnquiryCSVDao}.
+     *
+     * @param file The file to write.
+     * @param rows The number of enquiries to write.
+     * @param projects The number of distinct projects to spread the enquiries across.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeEnquiries(Path file, int rows, int projects) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("EnquiryID,ApplicantNRIC,ProjectName,EnquiryDetails,CreatedTime,Reply,RepliedBy,RepliedTime,Version\n");
+            for (int i = 1; i <= rows; i++) {
+                boolean replied = i % 3 == 0;
+                writer.write(i + "," + nric(i) + ",Project " + (i % projects)
+                    + ",Is there any unit facing north for enquiry " + i + "?,2025-04-25 08:59:32,"
+                    + (replied ? "Yes there is,Daniel,2025-04-26 10:00:00" : "null,null,null") + ",0\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package bto.Benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies, safe to record into from many threads at once.
+ * <p>
+ * Latencies are kept in microseconds. Values below 32 microseconds each get their own bucket; larger values share
+ * buckets sixteen to a power of two, so a reported percentile is never more than about 6% below the true value.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    private static final int FIRST_EXPONENT = 5;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(LINEAR + (63 - FIRST_EXPONENT) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     *
+     * @return The number of latencies.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return The mean latency in milliseconds, or 0 if nothing was recorded.
+     */
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : totalMicros.sum() / 1000.0 / n;
+    }
+
+    /**
+     * Gets the largest latency recorded.
+     *
+     * @return The largest latency in milliseconds.
+     */
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The lower bound of the bucket holding the percentile, in milliseconds, or 0 if nothing was recorded.
+     */
+    public double getPercentileMillis(double percentile) {
+        long n = getCount();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(lowerBound(i), maxMicros.get()) / 1000.0;
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Gets the bucket a latency falls in.
+     *
+     * @param micros The latency in microseconds.
+     * @return The index of its bucket.
+     */
+    private static int indexOf(long micros) {
+        if (micros < LINEAR) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the smallest latency that falls in a bucket.
+     *
+     * @param index The index of the bucket.
+     * @return The smallest latency of the bucket in microseconds.
+     */
+    private static long lowerBound(int index) {
+        if (index < LINEAR) return index;
+        int exponent = (index - LINEAR) / SUB_BUCKETS + FIRST_EXPONENT;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,580 @@
+package bto.Benchmark;
+
+import bto.Controller.ApplicantController;
+import bto.Controller.ManagerController;
+import bto.Controller.OfficerController;
+import bto.Data.*;
+import bto.Model.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Load generator driving the real controllers and DAOs with many simulated users at once.
+ * <p>
+ * Every user runs on its own thread (a virtual thread if the JDK supports them) and acts as an applicant, an officer
+ * or a manager according to the mix. Applicants browse projects, apply through
+ * {@link ApplicantController#applyProject(String, String)} and check their application; managers approve or reject
+ * pending applications through {@link ManagerController#approveApplication(String)}; officers book successful ones
+ * through {@link OfficerController#updateStatus(String)}. The users work on synthetic projects added for the run.
+ * <p>
+ * Operations are paced to the target rate across all users, and latency is measured from the moment an operation was
+ * due, so time spent queueing behind a slow operation is counted. At the end the generator reports throughput,
+ * latency percentiles per operation, the lock metrics, and violations of the invariants: no flat type may be
+ * overbooked or lose units, nobody may hold two active applications, and every successful apply and booking must
+ * be on disk.
+ * <p>
+ * The data files are copied to a temporary directory and the run happens in a child JVM working there, so the real
+ * data is never touched. {@code --in-place} runs against {@code ./bto/Data/CSV} of the working directory instead.
+ * The DAOs come from the {@link StorageProvider} selected by {@code bto.storage}; that and the other system properties
+ * are passed on to the child.
+ * <p>
+ * Usage: {@code java bto.Benchmark.LoadGenerator [--in-place] [users] [seconds] [rate] [mix] [projects] [units]}
+ */
+public class LoadGenerator {
+    private static final String DATA_DIR = "./bto/Data/CSV";
+    private static final String IN_PLACE = "--in-place";
+    private static final List<String> FLAT_TYPES = List.of("2-Room", "3-Room");
+    private static final int MAX_ERROR_SAMPLES = 5;
+
+    private final int users;
+    private final long durationNanos;
+    private final long intervalNanos;
+    private final int[] mix;
+    private final int projectCount;
+    private final int unitsPerType;
+
+    private final StorageProvider storage = StorageProviders.getDefault();
+    private final ApplicationDao applicationDao = storage.getApplicationDao();
+    private final ProjectDao projectDao = storage.getProjectDao();
+    private final EnquiryDao enquiryDao = storage.getEnquiryDao();
+
+    private final List<String> projectNames = new ArrayList<>();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Set<String> errorSamples = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final CountDownLatch startGate = new CountDownLatch(1);
+    private volatile long deadline;
+    private final LongAdder appliesOk = new LongAdder();
+    private final LongAdder bookingsOk = new LongAdder();
+
+    /**
+     * Counters and latencies of one kind of operation.
+     */
+    private static class Operation {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder idle = new LongAdder();
+    }
+
+    /**
+     * What became of one operation.
+     */
+    private enum Outcome {
+        /** The operation succeeded. */
+        OK,
+        /** The controller refused the operation under a business rule. */
+        REJECTED,
+        /** The operation failed unexpectedly. */
+        ERROR,
+        /** There was nothing for the user to do. */
+        IDLE
+    }
+
+    /**
+     * One step taken by a simulated user.
+     */
+    private interface Step {
+        /**
+         * Takes the step.
+         *
+         * @return {@link Outcome#OK} or {@link Outcome#IDLE}.
+         * @throws Exception If the controller refuses the step.
+         */
+        Outcome run() throws Exception;
+    }
+
+    /**
+     * Constructs a LoadGenerator.
+     *
+     * @param users The number of simulated users.
+     * @param seconds How long the users keep working.
+     * @param rate The target number of operations per second across all users, or 0 for no limit.
+     * @param mix The shares of applicants, officers and managers among the users.
+     * @param projectCount The number of synthetic projects.
+     * @param unitsPerType The number of units of each flat type in each synthetic project.
+     */
+    public LoadGenerator(int users, int seconds, int rate, int[] mix, int projectCount, int unitsPerType) {
+        this.users = users;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        this.intervalNanos = rate <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / rate;
+        this.mix = mix;
+        this.projectCount = projectCount;
+        this.unitsPerType = unitsPerType;
+    }
+
+    /**
+     * Runs the load generator.
+     *
+     * @param args Optional {@code --in-place}, followed by the user count (default 10000), the duration in seconds
+     *             (default 30), the target rate in operations per second (default 500, 0 for no limit), the mix of
+     *             applicants, officers and managers (default {@code 90:5:5}), the number of synthetic projects
+     *             (default 20) and the units of each flat type per project (default 50).
+     * @throws Exception If the data files cannot be copied or the run is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !args[0].equals(IN_PLACE)) {
+            System.exit(runInTemporaryCopy(args));
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        int users = rest.length > 0 ? Integer.parseInt(rest[0]) : 10_000;
+        int seconds = rest.length > 1 ? Integer.parseInt(rest[1]) : 30;
+        int rate = rest.length > 2 ? Integer.parseInt(rest[2]) : 500;
+        int[] mix = parseMix(rest.length > 3 ? rest[3] : "90:5:5");
+        int projects = rest.length > 4 ? Integer.parseInt(rest[4]) : 20;
+        int units = rest.length > 5 ? Integer.parseInt(rest[5]) : 50;
+
+        new LoadGenerator(users, seconds, rate, mix, projects, units).run();
+    }
+
+    /**
+     * Sets up the synthetic projects, runs every user until the time is up and prints the report.
+     *
+     * @throws InterruptedException If interrupted while waiting for the users to finish.
+     */
+    public void run() throws InterruptedException {
+        int total = mix[0] + mix[1] + mix[2];
+        int officers = Math.max(mix[1] == 0 ? 0 : 1, users * mix[1] / total);
+        int managers = Math.max(mix[2] == 0 ? 0 : 1, users * mix[2] / total);
+        int applicants = Math.max(0, users - officers - managers);
+        createProjects(officers);
+
+        ExecutorService executor = newUserExecutor();
+        System.out.printf("%s storage, %d applicants, %d officers, %d managers on %s threads, %d projects x %d units, %s%n",
+            storage.getName(), applicants, officers, managers, executor instanceof ThreadPoolExecutor ? "platform" : "virtual",
+            projectCount, unitsPerType,
+            intervalNanos == 0 ? "no rate limit" : TimeUnit.SECONDS.toNanos(1) / intervalNanos + " ops/s target");
+
+        for (int i = 0; i < applicants; i++) {
+            Applicant applicant = new Applicant("Load Applicant " + i, String.format("L%07dA", i), 35, "Married",
+                "password");
+            executor.execute(gated(() -> runApplicant(applicant)));
+        }
+        for (int i = 0; i < officers; i++) {
+            Officer officer = new Officer("Load Officer " + i, String.format("L%07dO", i), 30, "Married", "password");
+            String project = projectNames.get(i % projectNames.size());
+            executor.execute(gated(() -> runOfficer(officer, project)));
+        }
+        for (int i = 0; i < managers; i++) {
+            Manager manager = new Manager("Load Manager " + i, String.format("L%07dM", i), 45, "Married", "password");
+            List<String> managed = new ArrayList<>();
+            for (int p = i % projectNames.size(); p < projectNames.size(); p += managers) {
+                managed.add(projectNames.get(p));
+            }
+            if (managed.isEmpty()) managed.add(projectNames.get(i % projectNames.size()));
+            executor.execute(gated(() -> runManager(manager, managed)));
+        }
+        // Start the clock only once every user is waiting at the gate, so slow thread start-up does not eat the run.
+        long start = System.nanoTime();
+        deadline = start + durationNanos;
+        nextSlot.set(start);
+        startGate.countDown();
+
+        executor.shutdown();
+        executor.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(5), TimeUnit.NANOSECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        printReport(elapsed);
+    }
+
+    /**
+     * Runs one applicant: browses the projects, applies while it has no active application and checks it otherwise.
+     *
+     * @param applicant The applicant.
+     */
+    private void runApplicant(Applicant applicant) {
+        ApplicantController controller = new ApplicantController(applicant, applicationDao, projectDao, enquiryDao);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean[] applied = {false};
+        while (true) {
+            long due = awaitSlot();
+            if (due < 0) return;
+            if (random.nextInt(4) == 0) {
+                perform("browse", due, () -> controller.getAvailableProjects().isEmpty() ? Outcome.IDLE : Outcome.OK);
+            } else if (applied[0]) {
+                perform("view", due, () -> {
+                    try {
+                        controller.viewActiveApplication();
+                    } catch (Exception e) {
+                        applied[0] = false;
+                        return Outcome.IDLE;
+                    }
+                    return Outcome.OK;
+                });
+            } else {
+                String project = projectNames.get(random.nextInt(projectNames.size()));
+                String flatType = FLAT_TYPES.get(random.nextInt(FLAT_TYPES.size()));
+                Outcome outcome = perform("apply", due, () -> {
+                    controller.applyProject(project, flatType);
+                    appliesOk.increment();
+                    return Outcome.OK;
+                });
+                applied[0] = outcome == Outcome.OK || outcome == Outcome.REJECTED;
+            }
+        }
+    }
+
+    /**
+     * Runs one officer: books a random successful application of its project.
+     *
+     * @param officer The officer.
+     * @param project The project the officer is assigned to.
+     */
+    private void runOfficer(Officer officer, String project) {
+        OfficerController controller =
+            new OfficerController(officer, applicationDao, projectDao, enquiryDao, storage.getName());
+        while (true) {
+            long due = awaitSlot();
+            if (due < 0) return;
+            perform("book", due, () -> {
+                Application application = pick(project, ApplicationStatus.SUCCESS);
+                if (application == null) return Outcome.IDLE;
+                controller.updateStatus(application.getId());
+                bookingsOk.increment();
+                return Outcome.OK;
+            });
+        }
+    }
+
+    /**
+     * Runs one manager: approves a random pending application of its projects, or sometimes rejects it.
+     *
+     * @param manager The manager.
+     * @param projects The projects the manager decides on.
+     */
+    private void runManager(Manager manager, List<String> projects) {
+        ManagerController controller =
+            new ManagerController(manager, projectDao, applicationDao, enquiryDao, storage.getName());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long due = awaitSlot();
+            if (due < 0) return;
+            boolean approve = random.nextInt(5) != 0;
+            perform(approve ? "approve" : "reject", due, () -> {
+                String project = projects.get(random.nextInt(projects.size()));
+                Application application = pick(project, ApplicationStatus.PENDING);
+                if (application == null) return Outcome.IDLE;
+                if (approve) {
+                    controller.approveApplication(application.getId());
+                } else {
+                    controller.rejectApplication(application.getId());
+                }
+                return Outcome.OK;
+            });
+        }
+    }
+
+    /**
+     * Wraps a user so it waits for every other user to be ready before it starts.
+     *
+     * @param user The user.
+     * @return The wrapped user.
+     */
+    private Runnable gated(Runnable user) {
+        return () -> {
+            try {
+                startGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            user.run();
+        };
+    }
+
+    /**
+     * Waits until the next operation is due under the target rate.
+     *
+     * @return The {@link System#nanoTime()} at which the operation was due, or -1 if the time is up.
+     */
+    private long awaitSlot() {
+        long deadline = this.deadline;
+        long now = System.nanoTime();
+        if (now >= deadline) return -1;
+        if (intervalNanos == 0) return now;
+
+        long due = nextSlot.getAndAdd(intervalNanos);
+        if (due >= deadline) return -1;
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return due;
+    }
+
+    /**
+     * Takes a step and records its latency and outcome.
+     *
+     * @param name The name of the operation.
+     * @param due The {@link System#nanoTime()} at which the operation was due.
+     * @param step The step to take.
+     * @return The outcome of the step.
+     */
+    private Outcome perform(String name, long due, Step step) {
+        Operation operation = operations.computeIfAbsent(name, k -> new Operation());
+        Outcome outcome;
+        try {
+            outcome = step.run();
+        } catch (RuntimeException e) {
+            outcome = Outcome.ERROR;
+            if (errorSamples.size() < MAX_ERROR_SAMPLES) errorSamples.add(name + ": " + e);
+        } catch (Exception e) {
+            outcome = Outcome.REJECTED;
+        }
+        switch (outcome) {
+            case OK:
+                operation.ok.increment();
+                break;
+            case REJECTED:
+                operation.rejected.increment();
+                break;
+            case ERROR:
+                operation.errors.increment();
+                break;
+            default:
+                operation.idle.increment();
+        }
+        if (outcome != Outcome.IDLE) operation.latency.record(System.nanoTime() - due);
+        return outcome;
+    }
+
+    /**
+     * Picks a random application of a project with the specified status.
+     *
+     * @param project The name of the project.
+     * @param status The status.
+     * @return The application, or {@code null} if there is none.
+     */
+    private Application pick(String project, ApplicationStatus status) {
+        List<Application> candidates = applicationDao.getApplicationsByProject(project).stream()
+            .filter(a -> a.getStatus() == status)
+            .collect(Collectors.toList());
+        return candidates.isEmpty() ? null : candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    /**
+     * Saves the synthetic projects, open for applications and visible, with the officers assigned round-robin.
+     *
+     * @param officers The number of officers.
+     */
+    private void createProjects(int officers) {
+        LocalDate today = LocalDate.now();
+        String suffix = Long.toString(System.currentTimeMillis(), 36);
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < projectCount; i++) {
+            Map<String, Project.FlatTypeDetails> flatTypes = new HashMap<>();
+            for (String type : FLAT_TYPES) {
+                flatTypes.put(type, new Project.FlatTypeDetails(unitsPerType, 300_000));
+            }
+            Project project = new Project("Load " + suffix + " " + i, "Loadville", flatTypes, today.minusDays(1),
+                today.plusDays(30), "Load Manager", Integer.MAX_VALUE, new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), true);
+            projects.add(project);
+            projectNames.add(project.getName());
+        }
+        for (int i = 0; i < officers; i++) {
+            projects.get(i % projectCount).addAssignedOfficer("Load Officer " + i);
+        }
+        projectDao.saveProjects(projects);
+    }
+
+    /**
+     * Prints throughput, latencies, invariant violations and lock metrics.
+     *
+     * @param elapsedSeconds How long the run took.
+     */
+    private void printReport(double elapsedSeconds) {
+        long completed = operations.values().stream()
+            .mapToLong(o -> o.ok.sum() + o.rejected.sum() + o.errors.sum()).sum();
+        System.out.printf("%n%d operations in %.1f s: %.1f ops/s%n",
+            completed, elapsedSeconds, completed / elapsedSeconds);
+        System.out.printf("%-8s %8s %8s %8s %8s %10s %10s %10s %10s%n",
+            "op", "ok", "rejected", "errors", "idle", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        new TreeMap<>(operations).forEach((name, o) -> System.out.printf(
+            "%-8s %8d %8d %8d %8d %10.2f %10.2f %10.2f %10.2f%n", name, o.ok.sum(), o.rejected.sum(),
+            o.errors.sum(), o.idle.sum(), o.latency.getPercentileMillis(50), o.latency.getPercentileMillis(90),
+            o.latency.getPercentileMillis(99), o.latency.getMaxMillis()));
+        errorSamples.forEach(e -> System.out.println("  error: " + e));
+
+        System.out.println();
+        List<String> violations = checkInvariants();
+        System.out.println(violations.isEmpty()
+            ? "Invariants: no violations"
+            : "Invariants: " + violations.size() + " violations");
+        violations.forEach(v -> System.out.println("  " + v));
+
+        System.out.println();
+        System.out.println("Locks:");
+        System.out.println("  project stripes: " + StripedLock.projects());
+        FileLockManager.getAll().forEach(m -> System.out.println("  " + m));
+        if (storage instanceof JdbcStorageProvider) {
+            System.out.println("  connection pool: " + ((JdbcStorageProvider) storage).getPool());
+        }
+        if (storage instanceof SnapshotStorageProvider) {
+            System.out.println("  " + ((SnapshotStorageProvider) storage).getStore());
+        }
+    }
+
+    /**
+     * Checks the data left by the run against the invariants.
+     *
+     * @return A description of every violation found.
+     */
+    private List<String> checkInvariants() {
+        List<String> violations = new ArrayList<>();
+        List<Application> applications = applicationDao.getAllApplications().stream()
+            .filter(a -> projectNames.contains(a.getProjectName()))
+            .collect(Collectors.toList());
+
+        for (String name : projectNames) {
+            Project project = projectDao.getProjectById(name);
+            for (String type : FLAT_TYPES) {
+                long booked = applications.stream()
+                    .filter(a -> a.getProjectName().equals(name) && a.getFlatType().equals(type))
+                    .filter(a -> a.getStatus() == ApplicationStatus.BOOKED)
+                    .count();
+                int available = project.getFlatTypes().get(type).getAvailableUnits();
+                if (booked > unitsPerType || available < 0) {
+                    violations.add(String.format("overbooked: %s %s has %d booked of %d units, %d available",
+                        name, type, booked, unitsPerType, available));
+                } else if (booked + available != unitsPerType) {
+                    violations.add(String.format("units lost: %s %s has %d booked + %d available != %d units",
+                        name, type, booked, available, unitsPerType));
+                }
+            }
+        }
+
+        applications.stream()
+            .filter(a -> !a.getStatus().isTerminal())
+            .collect(Collectors.groupingBy(Application::getApplicantNric, Collectors.counting()))
+            .forEach((nric, active) -> {
+                if (active > 1) violations.add("duplicate active applications: " + nric + " has " + active);
+            });
+
+        if (applications.size() != appliesOk.sum()) {
+            violations.add(String.format("lost applications: %d applies succeeded, %d on disk",
+                appliesOk.sum(), applications.size()));
+        }
+        long booked = applications.stream().filter(a -> a.getStatus() == ApplicationStatus.BOOKED).count();
+        if (booked != bookingsOk.sum()) {
+            violations.add(String.format("lost bookings: %d bookings succeeded, %d on disk", bookingsOk.sum(), booked));
+        }
+        return violations;
+    }
+
+    /**
+     * Copies the data files to a temporary directory and runs the generator there in a child JVM.
+     *
+     * @param args The arguments to pass on.
+     * @return The exit code of the child JVM.
+     * @throws IOException If the data files cannot be copied.
+     * @throws InterruptedException If interrupted while waiting for the child JVM.
+     */
+    private static int runInTemporaryCopy(String[] args) throws IOException, InterruptedException {
+        Path source = Paths.get(DATA_DIR);
+        if (!Files.isDirectory(source)) {
+            System.err.println("Data directory not found: " + source.toAbsolutePath());
+            return 1;
+        }
+        Path workDir = Files.createTempDirectory("bto-load");
+        try {
+            Path target = workDir.resolve(DATA_DIR);
+            Files.createDirectories(target);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+                for (Path file : files) {
+                    if (Files.isRegularFile(file) && !file.getFileName().toString().endsWith(".lock")) {
+                        Files.copy(file, target.resolve(file.getFileName()));
+                    }
+                }
+            }
+
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(entry -> Paths.get(entry).toAbsolutePath().toString())
+                .collect(Collectors.joining(File.pathSeparator)));
+            command.add(LoadGenerator.class.getName());
+            command.add(IN_PLACE);
+            command.addAll(Arrays.asList(args));
+
+            System.out.println("Running against a copy of the data in " + workDir);
+            return new ProcessBuilder(command).directory(workDir.toFile()).inheritIO().start().waitFor();
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     *
+     * @param dir The directory.
+     */
+    private static void deleteRecursively(Path dir) {
+        try (java.util.stream.Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a mix of the form {@code applicants:officers:managers}.
+     *
+     * @param mix The mix.
+     * @return The three shares.
+     */
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Mix must be applicants:officers:managers, got " + mix);
+        }
+        int[] shares = new int[3];
+        for (int i = 0; i < 3; i++) {
+            shares[i] = Integer.parseInt(parts[i].trim());
+        }
+        if (shares[0] + shares[1] + shares[2] <= 0) throw new IllegalArgumentException("Mix must not be all zero");
+        return shares;
+    }
+
+    /**
+     * Creates the executor users run on: one virtual thread per user if the JDK supports it,
+     * or else a cached pool of daemon platform threads.
+     *
+     * @return The user executor.
+     */
+    private static ExecutorService newUserExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadIds = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "bto-load-user-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package bto.Benchmark;
+
+import bto.Data.EnquiryCSVDao;
+import bto.Data.EnquiryDao;
+import bto.Data.LsmEnquiryDao;
+import bto.Model.Enquiry;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark comparing the write throughput of {@link LsmEnquiryDao} with {@link EnquiryCSVDao}.
+ * It generates a temporary enquiries CSV file, fills a log-structured store from it, and runs the same mix of
+ * submissions, replies and deletions against both stores, followed by lookups by ID and a range scan.
+ * <p>
+ * Usage: {@code java bto.Benchmark.LsmEnquiryBenchmark [rows] [writes]}
+ */
+public class LsmEnquiryBenchmark {
+
+    /**
+     * Default constructor for the LsmEnquiryBenchmark class.
+     */
+    public LsmEnquiryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional row count (default 20000) and write count (default 1000).
+     * @throws IOException If the temporary files cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int writes = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        Path directory = Files.createTempDirectory("lsm-benchmark");
+        try {
+            Path csv = directory.resolve("Enquiries.csv");
+            writeEnquiries(csv, rows);
+            LsmEnquiryDao lsm = new LsmEnquiryDao(directory.resolve("Enquiries.lsm").toString(), csv.toString(),
+                Integer.getInteger("bto.enquiry.lsm.memtableSize", 1000),
+                Integer.getInteger("bto.enquiry.lsm.compactThreshold", 4));
+            EnquiryDao csvDao = new EnquiryCSVDao(csv.toString());
+            System.out.printf("%d enquiries, %d writes%n", rows, writes);
+
+            runWrites("CSV", csvDao, rows, writes);
+            runWrites("LSM", lsm, rows, writes);
+            System.out.printf("LSM after writes: %d segments, %d memtable entries%n",
+                lsm.getSegmentCount(), lsm.getMemtableSize());
+
+            time("CSV findById", writes, i -> csvDao.findById(1 + i % rows) != null ? 1 : 0);
+            time("LSM findById", writes, i -> lsm.findById(1 + i % rows) != null ? 1 : 0);
+            time("CSV range of 100", 20, i -> (int) csvDao.getAllEnquiries().stream()
+                .filter(e -> e.getId() >= rows / 2 && e.getId() < rows / 2 + 100).count());
+            time("LSM range of 100", 20, i -> lsm.getEnquiriesInRange(rows / 2, rows / 2 + 99).size());
+
+            long start = System.nanoTime();
+            lsm.compact();
+            System.out.printf("LSM compaction to %d segment(s) in %.0f ms%n",
+                lsm.getSegmentCount(), (System.nanoTime() - start) / 1e6);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Runs a mix of submissions, replies and deletions against a store and prints the throughput.
+     *
+     * @param label The name of the store.
+     * @param dao The store.
+     * @param rows The number of generated enquiries, whose IDs run from 1.
+     * @param writes The number of writes.
+     */
+    private static void runWrites(String label, EnquiryDao dao, int rows, int writes) {
+        long start = System.nanoTime();
+        for (int i = 0; i < writes; i++) {
+            switch (i % 3) {
+                case 0:
+                    dao.save(new Enquiry(0, nric(i), "Project " + (i % 50), "Benchmark enquiry " + i,
+                        null, null, null, null));
+                    break;
+                case 1:
+                    Enquiry enquiry = dao.findById(1 + (i * 7) % rows);
+                    if (enquiry != null) {
+                        enquiry.setReply("Benchmark reply " + i, "Benchmark");
+                        dao.update(enquiry);
+                    }
+                    break;
+                default:
+                    dao.delete(1 + (i * 13) % rows);
+                    break;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-20s %10.0f writes/s%n", label + " writes", writes / seconds);
+    }
+
+    /**
+     * Times an operation after a warm-up run and prints the average time per iteration.
+     *
+     * @param label The name of the operation.
+     * @param iterations The number of timed iterations.
+     * @param operation The operation to time, given the iteration number.
+     */
+    private static void time(String label, int iterations, Operation operation) {
+        int results = operation.run(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run(i);
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / iterations;
+        System.out.printf("%-20s %8.3f ms/op (%d results)%n", label, avgMs, results);
+    }
+
+    /**
+     * An operation under test.
+     */
+    private interface Operation {
+        /**
+         * Runs the operation.
+         *
+         * @param iteration The iteration number.
+         * @return The number of results.
+         */
+        int run(int iteration);
+    }
+
+    /**
+     * Gets the synthetic NRIC of a row.
+     *
+     * @param row The row.
+     * @return The NRIC.
+     */
+    private static String nric(int row) {
+        return "S" + String.format("%07d", row % 10_000_000) + "A";
+    }
+
+    /**
+     * Writes a synthetic enquiries file in the format used by {@link EnquiryCSVDao}.
+     *
+     * @param file The file to write.
+     * @param rows The number of enquiries to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeEnquiries(Path file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("EnquiryID,ApplicantNRIC,ProjectName,EnquiryDetails,CreatedTime,Reply,RepliedBy,RepliedTime,Version\n");
+            for (int i = 1; i <= rows; i++) {
+                writer.write(i + "," + nric(i) + ",Project " + (i % 50)
+                    + ",Is there any unit facing north for enquiry " + i + "?,2025-04-25 08:59:32,null,null,null,0\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package bto.Benchmark;
+
+import bto.Data.EnquiryDao;
+import bto.Data.SnapshotEnquiryDao;
+import bto.Data.SnapshotStore;
+import bto.Model.Enquiry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the startup time of a {@link SnapshotStore}.
+ * It submits a thousand enquiries to each of two temporary stores and then keeps editing them, so the history
+ * grows with every write while the state stays the same size. One store takes a snapshot at the given interval and
+ * the other never takes one after the first. Both are then reopened, reporting how many log records each replayed
+ * and how long recovery took: with snapshots, recovery replays at most an interval of records however long the
+ * history is; without them, it replays every write.
+ * <p>
+ * Usage: {@code java bto.Benchmark.SnapshotRecoveryBenchmark [writes] [snapshot interval]}
+ */
+public class SnapshotRecoveryBenchmark {
+    private static final int ENQUIRIES = 1000;
+
+    /**
+     * Default constructor for the SnapshotRecoveryBenchmark class.
+     */
+    public SnapshotRecoveryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional write count (default 100000) and snapshot interval (default 1000).
+     * @throws IOException If the temporary directories cannot be created or a store cannot be closed.
+     */
+    public static void main(String[] args) throws IOException {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int interval = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        Path directory = Files.createTempDirectory("snapshot-benchmark");
+        try {
+            run("snapshot every " + interval, directory.resolve("snapshots").toString(), interval, writes);
+            run("no snapshots", directory.resolve("log-only").toString(), 0, writes);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Writes to a new store, closes it and reports how reopening it went.
+     *
+     * @param label The label of the result line.
+     * @param directory The store directory.
+     * @param interval The snapshot interval, or 0 for none.
+     * @param writes The number of writes.
+     * @throws IOException If the store cannot be closed.
+     */
+    private static void run(String label, String directory, int interval, int writes) throws IOException {
+        long start = System.nanoTime();
+        try (SnapshotStore store = new SnapshotStore(directory, interval, false)) {
+            EnquiryDao dao = new SnapshotEnquiryDao(store);
+            for (int i = 0; i < writes; i++) {
+                if (i < ENQUIRIES) {
+                    dao.save(new Enquiry(0, "S" + i, "Project " + (i % 50), "Enquiry " + i, null, null, null, null));
+                } else {
+                    Enquiry enquiry = dao.findById(i % ENQUIRIES + 1);
+                    enquiry.setDetails("Enquiry " + i);
+                    dao.update(enquiry);
+                }
+            }
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+
+        try (SnapshotStore store = new SnapshotStore(directory, interval, false)) {
+            System.out.printf("%-20s %d writes at %.0f/s; reopened at LSN %d from the snapshot at LSN %d, "
+                + "replaying %d records in %d ms%n", label, writes, writes / writeSeconds, store.getLastLsn(),
+                store.getSnapshotLsn(), store.getReplayedRecords(), store.getRecoveryMillis());
+        }
+    }
+}
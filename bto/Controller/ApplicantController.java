@@ -43,7 +43,7 @@ public class ApplicantController {
      */
     public List<Project> getAvailableProjects() {
         List<Project> visibleProjects = new ArrayList<>();
-        List<Project> allProjects = projectDao.getAllProjects();
+        List<Project> allProjects = projectDao.getProjectCatalog();
         for (Project project : allProjects) {
             if (!project.isVisible()) continue;
             if (applicant instanceof Officer) {
@@ -60,14 +60,7 @@ public class ApplicantController {
      * @return A list of applications associated with the applicant.
      */
     public List<Application> getAllApplications() {
-        List<Application> allApplications = applicationDao.getAllApplications();
-        List<Application> result = new ArrayList<>();
-        for (Application app : allApplications) {
-            if (app.getApplicantNric().equals(applicant.getNric())) {
-                result.add(app);
-            }
-        }
-        return result;
+        return applicationDao.getApplicationsByApplicant(applicant.getNric());
     }
 
     /**
@@ -7,6 +7,16 @@ import bto.Data.*;
  * Controller class for handling authentication-related operations.
  */
 public class AuthController {
+    private final UserDao userDao;
+
+    /**
+     * Constructs an AuthController that saves password changes through the specified DAO.
+     *
+     * @param userDao The DAO for managing user accounts.
+     */
+    public AuthController(UserDao userDao) {
+        this.userDao = userDao;
+    }
 
     /**
      * Validates the login credentials of a user.
@@ -35,13 +45,18 @@ public class AuthController {
      */
     public void changePassword(User user, String newPassword) {
         if (user != null) {
-            if (user.getPassword().equals(newPassword)) {
+            // The registry holds the current password; the caller's copy may be from before an earlier change.
+            User current = UserRegistry.getInstance().get(user.getNric());
+            if (current != null && current.getPassword().equals(newPassword)) {
                 System.out.println("New password cannot be the same as the old password.");
                 return;
             }
-            user.setPassword(newPassword);
-            UserCSVDao userDao = new UserCSVDao();
-            userDao.updateUser(user);
+            User updated = UserRegistry.getInstance().update(user.getNric(),
+                u -> u.setPassword(newPassword), userDao::updateUser);
+            if (updated == null) {
+                System.out.println("User not found.");
+                return;
+            }
             System.out.println("Password changed successfully.");
         } else {
             System.out.println("User not found.");
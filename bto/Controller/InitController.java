@@ -6,13 +6,21 @@ import bto.Data.*;
  * Controller class for initializing the application by reading data from CSV files.
  */
 public class InitController {
+    private final UserDao userDao;
+
+    /**
+     * Constructs an InitController that reads the users through the specified DAO.
+     *
+     * @param userDao The DAO for managing user accounts.
+     */
+    public InitController(UserDao userDao) {
+        this.userDao = userDao;
+    }
 
     /**
      * Reads user data from predefined CSV files and loads it into the system.
      */
     public void readCSV() {
-        UserDao userDao = new UserCSVDao();
-
         // Read user data from CSV files
         userDao.readUsers("./bto/Data/CSV/ApplicantList.csv");
         userDao.readUsers("./bto/Data/CSV/ManagerList.csv");
@@ -6,16 +6,23 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Controller class for managing operations related to managers, such as creating, editing, and deleting projects,
  * handling officer registrations, managing applications, and responding to enquiries.
+ * <p>
+ * Registration, application and withdrawal decisions check a project's state before changing it, so each one holds
+ * the project's {@link StripedLock stripe} throughout. Decisions on different projects run in parallel.
  */
 public class ManagerController {
     private final Manager manager;
     private final ProjectDao projectDao;
     private final ApplicationDao applicationDao;
     private final EnquiryDao enquiryDao;
+    private final String storage;
+    private final StripedLock projectLocks = StripedLock.projects();
 
     /**
      * Constructs a ManagerController with the specified dependencies.
@@ -24,13 +31,15 @@ public class ManagerController {
      * @param projectDao The DAO for managing projects.
      * @param applicationDao The DAO for managing applications.
      * @param enquiryDao The DAO for managing enquiries.
+     * @param storage The name of the storage backend the DAOs belong to.
      */
     public ManagerController(Manager manager, ProjectDao projectDao, 
-                            ApplicationDao applicationDao, EnquiryDao enquiryDao) {
+                            ApplicationDao applicationDao, EnquiryDao enquiryDao, String storage) {
         this.manager = manager;
         this.projectDao = projectDao;
         this.applicationDao = applicationDao;
         this.enquiryDao = enquiryDao;
+        this.storage = storage;
     }
 
     /**
@@ -80,17 +89,23 @@ public class ManagerController {
 
     /**
      * Edits an existing project.
+     * Only the available units of the flat types in {@code changedUnits} are written; the other counts keep their
+     * stored values, which bookings and withdrawals may have moved while the project was being edited. The project
+     * and the changed counts are written in one {@link UnitOfWork} under the project's stripe lock.
      *
      * @param name The name of the project.
+     * @param version The version of the project the edit is based on, as read before the manager made the changes.
      * @param neighborhood The neighborhood of the project.
      * @param flatTypes A map of flat types and their details.
      * @param openingDate The opening date for applications.
      * @param closingDate The closing date for applications.
      * @param officerSlots The number of officer slots available for the project.
-     * @throws Exception If the project cannot be updated.
+     * @param changedUnits The flat types whose available units the manager changed.
+     * @throws Exception If the project is not found or was changed by someone else while it was being edited.
      */
-    public void editProject(String name, String neighborhood, Map<String, Project.FlatTypeDetails> flatTypes,
-                             LocalDate openingDate, LocalDate closingDate, int officerSlots) throws Exception {
+    public void editProject(String name, int version, String neighborhood,
+                             Map<String, Project.FlatTypeDetails> flatTypes, LocalDate openingDate, LocalDate closingDate, int officerSlots,
+                             Set<String> changedUnits) throws Exception {
         Project newProject = new Project(
             name,
             neighborhood,
@@ -104,7 +119,29 @@ public class ManagerController {
             new ArrayList<>(),
             true
         );
-        projectDao.updateProject(newProject);
+        StripedLock.Held held = projectLocks.lock(name);
+        try {
+            Project stored;
+            try {
+                stored = projectDao.getProjectById(name);
+            } catch (NoSuchElementException e) {
+                throw new Exception("Project not found");
+            }
+            if (stored.getVersion() != version) {
+                throw new VersionConflictException("Project", name, version, stored.getVersion());
+            }
+            newProject.setVersion(version);
+            UnitOfWork work = new UnitOfWork(projectDao, applicationDao, storage).updateProject(newProject);
+            for (String type : changedUnits) {
+                // A flat type new to the project is seeded with its units when the project is written.
+                if (stored.getFlatTypes().containsKey(type) && flatTypes.containsKey(type)) {
+                    work.setAvailableUnits(name, type, flatTypes.get(type).getAvailableUnits());
+                }
+            }
+            work.commit();
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -113,7 +150,7 @@ public class ManagerController {
      * @return A list of all projects.
      */
     public List<Project> viewAllProject() {
-        return projectDao.getAllProjects();
+        return projectDao.getProjectCatalog();
     }
 
     /**
@@ -122,7 +159,7 @@ public class ManagerController {
      * @return A list of projects managed by the manager.
      */
     public List<Project> viewOwnProjects() {
-        List<Project> allProjects = projectDao.getAllProjects();
+        List<Project> allProjects = projectDao.getProjectCatalog();
         List<Project> ownProjects = new ArrayList<>();
         for (Project p : allProjects) {
             if (p.getManager().toString().equals(manager.getName())) {
@@ -139,7 +176,7 @@ public class ManagerController {
      */
     public List<String> viewRequestedOfficer() {
         List<String> requests = new ArrayList<>();
-        List<Project> allProjects = projectDao.getAllProjects();
+        List<Project> allProjects = projectDao.getProjectCatalog();
     
         for (Project project : allProjects) {
             List<String> requestedOfficers = project.getRequestedOfficers();
@@ -175,25 +212,30 @@ public class ManagerController {
      * @throws Exception If the officer is already assigned, not requested, or there are no available officer slots for the project.
      */
     public void approveRegistration(String projectName, String officerName) throws Exception{
-        Project project = projectDao.getProjectById(projectName);
-
-        if (project.getAssignedOfficers().contains(officerName)) throw new Exception("Officer " + officerName + " is already assigned to this project.");
-        if (!project.getRequestedOfficers().contains(officerName)) {
-            if (!project.getRejectedOfficers().contains(officerName)) {
-                throw new Exception("Officer " + officerName + " is already assigned to this project.");
+        StripedLock.Held held = projectLocks.lock(projectName);
+        try {
+            Project project = projectDao.getProjectById(projectName);
+
+            if (project.getAssignedOfficers().contains(officerName)) throw new Exception("Officer " + officerName + " is already assigned to this project.");
+            if (!project.getRequestedOfficers().contains(officerName)) {
+                if (!project.getRejectedOfficers().contains(officerName)) {
+                    throw new Exception("Officer " + officerName + " is already assigned to this project.");
+                }
+                else {
+                    project.removeRejectedOfficer(officerName);
+                }
             }
             else {
-                project.removeRejectedOfficer(officerName);
+                if (project.getOfficerSlots() <= 0) throw new Exception("No available officer slots for project: " + projectName);
             }
-        }
-        else {
-            if (project.getOfficerSlots() <= 0) throw new Exception("No available officer slots for project: " + projectName);
-        }
 
-        project.addAssignedOfficer(officerName);
-        project.removeRequestedOfficer(officerName);
-        project.setOfficerSlots(project.getOfficerSlots() - 1);
-        projectDao.updateProject(project);
+            project.addAssignedOfficer(officerName);
+            project.removeRequestedOfficer(officerName);
+            project.setOfficerSlots(project.getOfficerSlots() - 1);
+            projectDao.updateProject(project);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -204,26 +246,31 @@ public class ManagerController {
      * @throws Exception If the officer is already rejected, not requested, or assigned to the project.
      */
     public void rejectRegistration(String projectName, String officerName) throws Exception {
-        Project project = projectDao.getProjectById(projectName);
-
-        if (project.getRejectedOfficers().contains(officerName)) throw new Exception("Officer " + officerName + " has already been rejected for this project.");
-        if (!project.getRequestedOfficers().contains(officerName)) {
-            if (!project.getAssignedOfficers().contains(officerName)) {
-                throw new Exception("Officer " + officerName + " is already assigned to this project.");
+        StripedLock.Held held = projectLocks.lock(projectName);
+        try {
+            Project project = projectDao.getProjectById(projectName);
+
+            if (project.getRejectedOfficers().contains(officerName)) throw new Exception("Officer " + officerName + " has already been rejected for this project.");
+            if (!project.getRequestedOfficers().contains(officerName)) {
+                if (!project.getAssignedOfficers().contains(officerName)) {
+                    throw new Exception("Officer " + officerName + " is already assigned to this project.");
+                }
+                else {
+                    project.removeAssignedOfficer(officerName);
+                }
             }
             else {
-                project.removeAssignedOfficer(officerName);
+                if (project.getOfficerSlots() <= 0) throw new Exception("No available officer slots for project: " + projectName);
             }
-        }
-        else {
-            if (project.getOfficerSlots() <= 0) throw new Exception("No available officer slots for project: " + projectName);
-        }
         
 
-        project.addRejectedOfficer(officerName);
-        project.removeRequestedOfficer(officerName);
-        project.setOfficerSlots(project.getOfficerSlots() + 1);
-        projectDao.updateProject(project);
+            project.addRejectedOfficer(officerName);
+            project.removeRequestedOfficer(officerName);
+            project.setOfficerSlots(project.getOfficerSlots() + 1);
+            projectDao.updateProject(project);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -233,22 +280,28 @@ public class ManagerController {
      * @throws Exception If the application is not found, is not pending, or there are no available units for the flat type.
      */
     public void approveApplication(String applicationId) throws Exception {
-        Application application = applicationDao.getApplicationById(applicationId)
-            .orElseThrow(() -> new Exception("Application not found"));
+        StripedLock.Held held = projectLocks.lock(applicationDao.getProjectName(applicationId)
+            .orElseThrow(() -> new Exception("Application not found")));
+        try {
+            Application application = applicationDao.getApplicationById(applicationId)
+                .orElseThrow(() -> new Exception("Application not found"));
 
-        Project project = projectDao.getProjectById(application.getProjectName());
-        if (project == null) {throw new Exception("Associated project not found");}
+            Project project = projectDao.getProjectById(application.getProjectName());
+            if (project == null) {throw new Exception("Associated project not found");}
 
-        if (application.getStatus() != ApplicationStatus.PENDING) throw new Exception("Only pending applications can be approved");
+            if (application.getStatus() != ApplicationStatus.PENDING) throw new Exception("Only pending applications can be approved");
 
-        String flatType = application.getFlatType();
-        Project.FlatTypeDetails flatDetails = project.getFlatTypes().get(flatType);
+            String flatType = application.getFlatType();
+            Project.FlatTypeDetails flatDetails = project.getFlatTypes().get(flatType);
         
-        if (flatDetails == null || flatDetails.getAvailableUnits() <= 0) throw new Exception("No available units for " + flatType + " flats");
+            if (flatDetails == null || flatDetails.getAvailableUnits() <= 0) throw new Exception("No available units for " + flatType + " flats");
 
-        application.setStatus(ApplicationStatus.SUCCESS);
-        applicationDao.update(application);
+            application.setStatus(ApplicationStatus.SUCCESS);
+            applicationDao.update(application);
 
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -258,50 +311,61 @@ public class ManagerController {
      * @throws Exception If the application is not found, is not pending, or there are no available units for the flat type.
      */
     public void rejectApplication(String applicationId) throws Exception {
-        Application application = applicationDao.getApplicationById(applicationId)
-            .orElseThrow(() -> new Exception("Application not found"));
+        StripedLock.Held held = projectLocks.lock(applicationDao.getProjectName(applicationId)
+            .orElseThrow(() -> new Exception("Application not found")));
+        try {
+            Application application = applicationDao.getApplicationById(applicationId)
+                .orElseThrow(() -> new Exception("Application not found"));
 
-        Project project = projectDao.getProjectById(application.getProjectName());
-        if (project == null) {throw new Exception("Associated project not found");}
+            Project project = projectDao.getProjectById(application.getProjectName());
+            if (project == null) {throw new Exception("Associated project not found");}
 
-        if (application.getStatus() != ApplicationStatus.PENDING) throw new Exception("Only pending applications can be rejected");
+            if (application.getStatus() != ApplicationStatus.PENDING) throw new Exception("Only pending applications can be rejected");
 
-        String flatType = application.getFlatType();
-        Project.FlatTypeDetails flatDetails = project.getFlatTypes().get(flatType);
+            String flatType = application.getFlatType();
+            Project.FlatTypeDetails flatDetails = project.getFlatTypes().get(flatType);
         
-        if (flatDetails == null || flatDetails.getAvailableUnits() <= 0) throw new Exception("No available units for " + flatType + " flats");
+            if (flatDetails == null || flatDetails.getAvailableUnits() <= 0) throw new Exception("No available units for " + flatType + " flats");
 
-        application.setStatus(ApplicationStatus.UNSUCCESSFUL);
-        applicationDao.update(application);
+            application.setStatus(ApplicationStatus.UNSUCCESSFUL);
+            applicationDao.update(application);
+        } finally {
+            held.close();
+        }
     }
 
     /**
      * Approves a withdrawal request for an application.
+     * A booked unit is returned and the application updated in one {@link UnitOfWork}.
      *
      * @param applicationId The ID of the application to approve withdrawal for.
      * @throws Exception If the application is not found, no withdrawal is requested, or the associated project is not found.
      */
     public void approveWithdrawal(String applicationId) throws Exception {
-        Application application = applicationDao.getApplicationById(applicationId)
-            .orElseThrow(() -> new Exception("Application not found"));
+        StripedLock.Held held = projectLocks.lock(applicationDao.getProjectName(applicationId)
+            .orElseThrow(() -> new Exception("Application not found")));
+        try {
+            Application application = applicationDao.getApplicationById(applicationId)
+                .orElseThrow(() -> new Exception("Application not found"));
     
-        if (!application.getWithdrawalRequested()) throw new Exception("No withdrawal requested for this application.");
+            if (!application.getWithdrawalRequested()) throw new Exception("No withdrawal requested for this application.");
     
-        Project project = projectDao.getProjectById(application.getProjectName());
-        if (project == null) throw new Exception("Associated project not found");
+            Project project = projectDao.getProjectById(application.getProjectName());
+            if (project == null) throw new Exception("Associated project not found");
 
-        if (application.getStatus() == ApplicationStatus.BOOKED) {
+            boolean booked = application.getStatus() == ApplicationStatus.BOOKED;
             String flatType = application.getFlatType();
-            Project.FlatTypeDetails flatDetails = project.getFlatTypes().get(flatType);
-            if (flatDetails != null) {
-                flatDetails.setAvailableUnits(flatDetails.getAvailableUnits() + 1);
-                projectDao.updateProject(project);
+
+            UnitOfWork work = new UnitOfWork(projectDao, applicationDao, storage);
+            if (booked && project.getFlatTypes().containsKey(flatType)) {
+                work.releaseUnits(project.getName(), flatType, 1);
             }
+            application.setStatus(ApplicationStatus.UNSUCCESSFUL);
+            application.setWithdrawalRequested(false);
+            work.updateApplication(application).commit();
+        } finally {
+            held.close();
         }
-
-        application.setStatus(ApplicationStatus.UNSUCCESSFUL);
-        application.setWithdrawalRequested(false);
-        applicationDao.update(application);
     }
     
     /**
@@ -355,16 +419,7 @@ public class ManagerController {
      * @return A list of applications with the status {@code BOOKED}.
      */
     public List<Application> generateReport() {
-        List<Application> allApplications = applicationDao.getAllApplications();
-        List<Application> bookedApplications = new ArrayList<>();
-        if (allApplications != null) {
-            for (Application app : allApplications) {
-                if (app.getStatus() == ApplicationStatus.BOOKED) {
-                    bookedApplications.add(app);
-                }
-            }
-        }
-        return bookedApplications;
+        return applicationDao.getApplicationsByStatus(ApplicationStatus.BOOKED.name());
     }
 
     /**
@@ -386,7 +441,7 @@ public class ManagerController {
      * @return {@code true} if the manager has an active project, {@code false} otherwise.
      */
     private boolean hasActiveProject() {
-        return projectDao.getAllProjects().stream()
+        return projectDao.getProjectCatalog().stream()
             .filter(p -> p.getManager().equals(manager.getName()))
             .anyMatch(p -> p.isVisible() && p.isApplicationOpen());
     }
@@ -9,12 +9,17 @@ import java.util.NoSuchElementException;
 /**
  * Controller class for managing officer-related operations, such as project registration,
  * application management, and enquiry handling.
+ * <p>
+ * Registering for a project and booking a flat check a project's state before changing it, so each one holds the
+ * project's {@link StripedLock stripe} throughout.
  */
 public class OfficerController {
     private final Officer officer;
     private final ApplicationDao applicationDao;
     private final ProjectDao projectDao;
     private final EnquiryDao enquiryDao;
+    private final String storage;
+    private final StripedLock projectLocks = StripedLock.projects();
 
     /**
      * Constructs an OfficerController with the specified dependencies.
@@ -23,15 +28,18 @@ public class OfficerController {
      * @param applicationDao The DAO for managing applications.
      * @param projectDao The DAO for managing projects.
      * @param enquiryDao The DAO for managing enquiries.
+     * @param storage The name of the storage backend the DAOs belong to.
      */
     public OfficerController(Officer officer, 
                             ApplicationDao applicationDao,
                             ProjectDao projectDao,
-                            EnquiryDao enquiryDao) {
+                            EnquiryDao enquiryDao,
+                            String storage) {
         this.officer = officer;
         this.applicationDao = applicationDao;
         this.projectDao = projectDao;
         this.enquiryDao = enquiryDao;
+        this.storage = storage;
     }
 
     /**
@@ -41,45 +49,50 @@ public class OfficerController {
      * @throws Exception If the registration fails due to validation issues.
      */
     public void registerProject(String projectName) throws Exception {
-        if (projectName == null || projectName.trim().isEmpty()) {
-            throw new Exception("Project name cannot be empty");
-        }
+        StripedLock.Held held = projectLocks.lock(projectName);
+        try {
+            if (projectName == null || projectName.trim().isEmpty()) {
+                throw new Exception("Project name cannot be empty");
+            }
 
-        if (hasAppliedToProject(projectName)) {
-            throw new Exception("Cannot register for a project you've applied to as an applicant.");
-        }
+            if (hasAppliedToProject(projectName)) {
+                throw new Exception("Cannot register for a project you've applied to as an applicant.");
+            }
         
-        Project targetProject;
-        try {
-            targetProject = projectDao.getProjectById(projectName);
-            if (targetProject == null) {
+            Project targetProject;
+            try {
+                targetProject = projectDao.getProjectById(projectName);
+                if (targetProject == null) {
+                    throw new Exception("Project not found: " + projectName);
+                }
+            } catch (NoSuchElementException e) {
                 throw new Exception("Project not found: " + projectName);
             }
-        } catch (NoSuchElementException e) {
-            throw new Exception("Project not found: " + projectName);
-        }
         
-        if (targetProject.getOpeningDate() == null || targetProject.getClosingDate() == null) {
-            throw new Exception("Project has invalid dates");
-        }
+            if (targetProject.getOpeningDate() == null || targetProject.getClosingDate() == null) {
+                throw new Exception("Project has invalid dates");
+            }
         
-        for (Project p : projectDao.getAllProjects()) {
-            boolean isRegistered = p.getRequestedOfficers().contains(officer.getName()) || p.getAssignedOfficers().contains(officer.getName());
-            boolean overlap = !(targetProject.getClosingDate().isBefore(p.getOpeningDate()) || targetProject.getOpeningDate().isAfter(p.getClosingDate()));
+            for (Project p : projectDao.getProjectCatalog()) {
+                boolean isRegistered = p.getRequestedOfficers().contains(officer.getName()) || p.getAssignedOfficers().contains(officer.getName());
+                boolean overlap = !(targetProject.getClosingDate().isBefore(p.getOpeningDate()) || targetProject.getOpeningDate().isAfter(p.getClosingDate()));
                                 
-            if (isRegistered && overlap) {
-                throw new Exception("Already registered or assigned to another project during this period.");
+                if (isRegistered && overlap) {
+                    throw new Exception("Already registered or assigned to another project during this period.");
+                }
             }
-        }
 
-        if (targetProject.getRejectedOfficers().contains(officer.getName())) {
-            throw new Exception("You have been rejected for this project.");
-        }
+            if (targetProject.getRejectedOfficers().contains(officer.getName())) {
+                throw new Exception("You have been rejected for this project.");
+            }
 
-        if (!targetProject.getRequestedOfficers().contains(officer.getName())) {
-            targetProject.addRequestedOfficer(officer.getName());
-            projectDao.updateProject(targetProject);
-        } else throw new Exception("Already requested registration for this project.");
+            if (!targetProject.getRequestedOfficers().contains(officer.getName())) {
+                targetProject.addRequestedOfficer(officer.getName());
+                projectDao.updateProject(targetProject);
+            } else throw new Exception("Already requested registration for this project.");
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -88,7 +101,7 @@ public class OfficerController {
      * @return A list of registration statuses for the officer.
      */
     public List<RegistrationStatus> viewRegistrationStatus() {
-        List<Project> projects = projectDao.getAllProjects();
+        List<Project> projects = projectDao.getProjectCatalog();
         List<RegistrationStatus> output = new ArrayList<>();
         for (Project p : projects) {
             if (p.getAssignedOfficers().contains(officer.getName())) {
@@ -144,7 +157,7 @@ public class OfficerController {
      */
     public List<Application> viewApplicationsForMyProjects() throws Exception {
         List<Application> result = new ArrayList<>();
-        List<Project> allProjects = projectDao.getAllProjects();
+        List<Project> allProjects = projectDao.getProjectCatalog();
         List<String> myProjectNames = new ArrayList<>();
         for (Project p : allProjects) {
             if (p.getAssignedOfficers().contains(officer.getName())) {
@@ -152,39 +165,50 @@ public class OfficerController {
             }
         }
         if (myProjectNames.isEmpty()) throw new Exception("You are not assigned to any projects");
-        for (Application app : applicationDao.getAllApplications()) {
-            if (myProjectNames.contains(app.getProjectName())) {
-                result.add(app);
-            }
+        for (String projectName : myProjectNames) {
+            result.addAll(applicationDao.getApplicationsByProject(projectName));
         }
         return result;
     }
 
     /**
      * Updates the status of an application to "booked".
+     * The unit is reserved and the application updated in one {@link UnitOfWork}, so either both are written or
+     * neither is.
      *
      * @param applicationId The ID of the application to update.
      * @throws Exception If the application cannot be updated.
      */
     public void updateStatus(String applicationId) throws Exception {
-        Application application = applicationDao.getApplicationById(applicationId)
-            .orElseThrow(() -> new Exception("Application not found"));
-        Project project = projectDao.getProjectById(application.getProjectName());
-        if (project == null) throw new Exception("Project not found for this application");
-        if (!project.getAssignedOfficers().contains(officer.getName())) throw new Exception("You are not assigned to this project.");
-        if (application.getStatus() == ApplicationStatus.BOOKED) throw new Exception("Application is already booked.");
-        if (application.getStatus() != ApplicationStatus.SUCCESS) throw new Exception("Only successful applications can be updated to booked.");
+        StripedLock.Held held = projectLocks.lock(applicationDao.getProjectName(applicationId)
+            .orElseThrow(() -> new Exception("Application not found")));
+        try {
+            Application application = applicationDao.getApplicationById(applicationId)
+                .orElseThrow(() -> new Exception("Application not found"));
+            Project project = projectDao.getProjectById(application.getProjectName());
+            if (project == null) throw new Exception("Project not found for this application");
+            if (!project.getAssignedOfficers().contains(officer.getName())) throw new Exception("You are not assigned to this project.");
+            if (application.getStatus() == ApplicationStatus.BOOKED) throw new Exception("Application is already booked.");
+            if (application.getStatus() != ApplicationStatus.SUCCESS) throw new Exception("Only successful applications can be updated to booked.");
         
-        String flatType = application.getFlatType();
-        if (flatType != null && !flatType.isEmpty()) {
-            Project.FlatTypeDetails details = project.getFlatTypes().get(flatType);
-            if (details == null) {
-                throw new Exception("Flat type not found in project.");
+            String flatType = application.getFlatType();
+            UnitOfWork work = new UnitOfWork(projectDao, applicationDao, storage);
+            if (flatType != null && !flatType.isEmpty()) {
+                Project.FlatTypeDetails details = project.getFlatTypes().get(flatType);
+                if (details == null) {
+                    throw new Exception("Flat type not found in project.");
+                }
+                work.reserveUnits(project.getName(), flatType, 1);
             }
-            if (details.getAvailableUnits() < 1) {
-                throw new Exception("No available units for flat type: " + flatType);
+
+            application.setStatus(ApplicationStatus.BOOKED);
+            try {
+                work.updateApplication(application).commit();
+            } catch (IllegalStateException e) {
+                throw new Exception(e.getMessage());
             }
-            projectDao.decreaseAvailableUnits(application.getProjectName(), flatType, 1);
+        } finally {
+            held.close();
         }
     }
 
@@ -195,7 +219,7 @@ public class OfficerController {
      * @throws Exception If no projects are assigned to the officer.
      */
     public List<Enquiry> viewEnquiriesForMyProjects() throws Exception {
-        List<Project> allProjects = projectDao.getAllProjects();
+        List<Project> allProjects = projectDao.getProjectCatalog();
         if (allProjects == null) throw new Exception("No projects found");
         List<String> assignedProjectNames = new ArrayList<>();
         for (Project p : allProjects) {
@@ -240,9 +264,9 @@ public class OfficerController {
      * @return {@code true} if the officer has applied, {@code false} otherwise.
      */
     private boolean hasAppliedToProject(String projectName) {
-        List<Application> applications = applicationDao.getAllApplications();
+        List<Application> applications = applicationDao.getApplicationsByApplicant(officer.getNric());
         for (Application app : applications) {
-            if (officer.getNric().equals(app.getApplicantNric()) && projectName.equals(app.getProjectName())) return true;
+            if (projectName.equals(app.getProjectName())) return true;
         }
         return false;
     }
@@ -279,6 +303,6 @@ public class OfficerController {
      * @return A list of all projects.
      */
     public List<Project> getAllProjects() {
-        return projectDao.getAllProjects();
+        return projectDao.getProjectCatalog();
     }
 }
@@ -1,8 +1,12 @@
 package bto.Data;
 
+import bto.Event.ApplicationStatusEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
 import bto.Model.Application;
 import bto.Model.ApplicationStatus;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -10,11 +14,35 @@ import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link ApplicationDao} interface for managing applications using a CSV file as the data source.
+ * Writes hold an exclusive {@link FileLockManager} lock on the file and reads hold a shared one, so threads and
+ * processes sharing the file never lose each other's changes.
+ * <p>
+ * Every row carries a version. An update must be based on the stored version, or it fails with a
+ * {@link VersionConflictException}; a successful update increments the version of both the row and the caller's copy.
  */
 public class ApplicationCSVDao implements ApplicationDao {
-    private static final String FILEPATH = "./bto/Data/CSV/Applications.csv";
-    private static final String HEADER = "ApplicationID,ProjectName,ApplicantNRIC,FlatType,Status,CreatedTime,WithdrawalStatus;";
+    static final String FILEPATH = "./bto/Data/CSV/Applications.csv";
+    static final String HEADER = "ApplicationID,ProjectName,ApplicantNRIC,FlatType,Status,CreatedTime,WithdrawalStatus,Version";
     private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final String filePath;
+    private final FileLockManager locks;
+
+    /**
+     * Constructs an ApplicationCSVDao backed by the default applications CSV file.
+     */
+    public ApplicationCSVDao() {
+        this(FILEPATH);
+    }
+
+    /**
+     * Constructs an ApplicationCSVDao backed by the specified CSV file.
+     *
+     * @param filePath The path to the applications CSV file.
+     */
+    public ApplicationCSVDao(String filePath) {
+        this.filePath = filePath;
+        this.locks = FileLockManager.forFile(filePath);
+    }
 
     /**
      * Saves a new application to the CSV file.
@@ -23,30 +51,61 @@ public class ApplicationCSVDao implements ApplicationDao {
      */
     @Override
     public void save(Application application) {
-        if (application.getId() == null || application.getId().isEmpty()) {
-            application.setId(generateNewApplicationId());
+        saveAll(List.of(application));
+    }
+
+    /**
+     * Saves several new applications to the CSV file with a single rewrite.
+     *
+     * @param applications The applications to save.
+     */
+    @Override
+    public void saveAll(List<Application> applications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            assignNewIds(applications);
+
+            List<Application> allApps = getAllApplications();
+            allApps.addAll(applications);
+            writeAllApplications(allApps);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Assigns new unique IDs to the applications that do not have one yet.
+     * The IDs are reserved from the application ID sequence as a single block.
+     *
+     * @param applications The applications about to be saved.
+     */
+    private void assignNewIds(List<Application> applications) {
+        int missing = (int) applications.stream()
+            .filter(app -> app.getId() == null || app.getId().isEmpty())
+            .count();
+        if (missing == 0) return;
+
+        long nextId = IdSequence.forFile(filePath, this::maxApplicationId).nextBlock(missing);
+        for (Application app : applications) {
+            if (app.getId() == null || app.getId().isEmpty()) {
+                app.setId(String.valueOf(nextId++));
+            }
         }
-        
-        List<Application> allApps = getAllApplications();
-        allApps.add(application);
-        writeAllApplications(allApps);
     }
 
     /**
-     * Generates a new unique application ID.
+     * Finds the largest numeric application ID in the CSV file.
+     * Keeps the ID sequence from handing out an ID already in use.
      *
-     * @return A new application ID as a string.
+     * @return The largest application ID, or 0 if there are none.
      */
-    private String generateNewApplicationId() {
-        List<Application> apps = getAllApplications();
-        int maxId = apps.stream()
+    private long maxApplicationId() {
+        return getAllApplications().stream()
             .map(Application::getId)
-            .filter(id -> id.matches("\\d+")) 
-            .mapToInt(Integer::parseInt)
+            .filter(id -> id.matches("\\d+"))
+            .mapToLong(Long::parseLong)
             .max()
             .orElse(0);
-    
-        return String.valueOf(maxId + 1);
     }
 
     /**
@@ -56,10 +115,58 @@ public class ApplicationCSVDao implements ApplicationDao {
      */
     @Override
     public void update(Application application) {
-        List<Application> allApps = getAllApplications().stream()
-            .map(app -> app.getId().equals(application.getId()) ? application : app)
-            .collect(Collectors.toList());
-        writeAllApplications(allApps);
+        updateAll(List.of(application));
+    }
+
+    /**
+     * Updates several existing applications in the CSV file with a single rewrite.
+     * Either every application is updated or, if any of them is stale, none is.
+     *
+     * @param applications The applications to update.
+     * @throws VersionConflictException If an application was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Application> applications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Event> events = new ArrayList<>();
+            Map<String, Application> changed = new HashMap<>();
+            for (Application app : applications) {
+                changed.put(app.getId(), app);
+            }
+            List<Application> allApps = getAllApplications();
+            List<Application> updated = new ArrayList<>();
+            for (Application stored : allApps) {
+                Application app = changed.get(stored.getId());
+                if (app == null) continue;
+                if (app.getVersion() != stored.getVersion()) {
+                    throw new VersionConflictException("Application", stored.getId(), app.getVersion(), stored.getVersion());
+                }
+                if (app.getStatus() != stored.getStatus()) {
+                    events.add(new ApplicationStatusEvent(app, stored.getStatus()));
+                }
+                updated.add(app);
+            }
+            allApps = allApps.stream()
+                .map(app -> changed.containsKey(app.getId()) ? nextVersion(changed.get(app.getId())) : app)
+                .collect(Collectors.toList());
+            writeAllApplications(allApps);
+            updated.forEach(app -> app.setVersion(app.getVersion() + 1));
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Copies an application about to be written with its version incremented. The caller's copy is only
+     * incremented once the write succeeded.
+     *
+     * @param app The application.
+     * @return The copy to write.
+     */
+    private static Application nextVersion(Application app) {
+        return new Application(app).setVersion(app.getVersion() + 1);
     }
 
     /**
@@ -69,10 +176,15 @@ public class ApplicationCSVDao implements ApplicationDao {
      */
     @Override
     public void delete(String applicationId) {
-        List<Application> filtered = getAllApplications().stream()
-            .filter(app -> !app.getId().equals(applicationId))
-            .collect(Collectors.toList());
-        writeAllApplications(filtered);
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Application> filtered = getAllApplications().stream()
+                .filter(app -> !app.getId().equals(applicationId))
+                .collect(Collectors.toList());
+            writeAllApplications(filtered);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -102,6 +214,19 @@ public class ApplicationCSVDao implements ApplicationDao {
             .findFirst();
     }
 
+    /**
+     * Retrieves all applications submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of applications submitted by the applicant.
+     */
+    @Override
+    public List<Application> getApplicationsByApplicant(String applicantNric) {
+        return getAllApplications().stream()
+            .filter(app -> app.getApplicantNric().equals(applicantNric))
+            .collect(Collectors.toList());
+    }
+
     /**
      * Retrieves all applications with a specific status.
      *
@@ -135,37 +260,45 @@ public class ApplicationCSVDao implements ApplicationDao {
      */
     @Override
     public List<Application> getAllApplications() {
-        List<Application> applications = new ArrayList<>();
-        File file = new File(FILEPATH);
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            List<Application> applications = new ArrayList<>();
+            File file = new File(filePath);
         
-        if (!file.exists()) initializeCsvFile();
+            if (!file.exists()) initializeCsvFile();
         
-        try (BufferedReader br = new BufferedReader(new FileReader(FILEPATH))) {
-            br.readLine(); 
-            String line;
-            while ((line = br.readLine()) != null) {
-                Application app = parseApplication(line);
-                if (app != null) applications.add(app);
+            try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+                br.readLine(); 
+                String line;
+                while ((line = br.readLine()) != null) {
+                    Application app = parseApplication(line);
+                    if (app != null) applications.add(app);
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
+            return applications;
+        } finally {
+            held.close();
         }
-        return applications;
     }
 
     /**
-     * Writes all applications to the CSV file.
+     * Writes all applications to the CSV file, leaving the file as it was if the write fails.
      *
      * @param applications The list of applications to write.
+     * @throws UncheckedIOException If the file cannot be written.
      */
     private void writeAllApplications(List<Application> applications) {
-        try (FileWriter writer = new FileWriter(FILEPATH)) {
-            writer.write(HEADER + "\n");
-            for (Application app : applications) {
-                writer.write(toCsvLine(app) + "\n");
-            }
+        try {
+            DurableFiles.replaceText(filePath, writer -> {
+                writer.write(HEADER + "\n");
+                for (Application app : applications) {
+                    writer.write(toCsvLine(app) + "\n");
+                }
+            });
         } catch (IOException e) {
-            System.err.println(e.getMessage());
+            throw new UncheckedIOException("Could not write applications to " + filePath, e);
         }
     }
 
@@ -175,7 +308,7 @@ public class ApplicationCSVDao implements ApplicationDao {
      * @param csvLine The CSV line to parse.
      * @return The parsed {@link Application} object, or {@code null} if parsing fails.
      */
-    private Application parseApplication(String csvLine) {
+    static Application parseApplication(String csvLine) {
         try {
             String[] parts = csvLine.split(",", -1);
             Application app = new Application(
@@ -188,6 +321,9 @@ public class ApplicationCSVDao implements ApplicationDao {
             if (parts.length > 6) {
                 app.setWithdrawalRequested(Boolean.parseBoolean(parts[6]));
             }
+            if (parts.length > 7 && !parts[7].isEmpty()) {
+                app.setVersion(Integer.parseInt(parts[7]));
+            }
             return app;
         } catch (Exception e) {
             System.err.println("Error parsing application: " + csvLine);
@@ -201,7 +337,7 @@ public class ApplicationCSVDao implements ApplicationDao {
      * @param app The application to convert.
      * @return A string representing the application in CSV format.
      */
-    private String toCsvLine(Application app) {
+    static String toCsvLine(Application app) {
         return String.join(",",
             app.getId(),
             app.getProjectName(),
@@ -209,7 +345,8 @@ public class ApplicationCSVDao implements ApplicationDao {
             app.getFlatType(),
             app.getStatus().name(),
             app.getCreatedTime().format(DT_FORMATTER),
-            String.valueOf(app.getWithdrawalRequested())
+            String.valueOf(app.getWithdrawalRequested()),
+            String.valueOf(app.getVersion())
         );
     }
 
@@ -217,8 +354,8 @@ public class ApplicationCSVDao implements ApplicationDao {
      * Initializes the CSV file by creating it and writing the header.
      */
     private void initializeCsvFile() {
-        try (FileWriter writer = new FileWriter(FILEPATH)) {
-            writer.write(HEADER + "\n");
+        try {
+            DurableFiles.replaceText(filePath, writer -> writer.write(HEADER + "\n"));
         } catch (IOException e) {
             System.err.println(e.getMessage());
         }
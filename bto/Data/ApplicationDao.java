@@ -6,6 +6,7 @@ import java.util.Optional;
 
 /**
  * Data Access Object (DAO) interface for managing application-related operations.
+ * Writes that cannot be stored throw an unchecked exception and leave the stored data unchanged.
  */
 public interface ApplicationDao {
 
@@ -16,6 +17,13 @@ public interface ApplicationDao {
      */
     void save(Application application);
 
+    /**
+     * Saves several new applications to the data source in a single write.
+     *
+     * @param applications The applications to save.
+     */
+    void saveAll(List<Application> applications);
+
     /**
      * Updates an existing application in the data source.
      *
@@ -23,6 +31,14 @@ public interface ApplicationDao {
      */
     void update(Application application);
 
+    /**
+     * Updates several existing applications in the data source in a single write.
+     * An {@link bto.Event.ApplicationStatusEvent} is published for every application whose status changes.
+     *
+     * @param applications The applications to update.
+     */
+    void updateAll(List<Application> applications);
+
     /**
      * Deletes an application from the data source by its ID.
      *
@@ -38,6 +54,17 @@ public interface ApplicationDao {
      */
     Optional<Application> getApplicationById(String applicationId);
 
+    /**
+     * Retrieves the name of the project an application belongs to, such as to take the project's lock before the
+     * application is read again under it.
+     *
+     * @param applicationId The ID of the application.
+     * @return An {@code Optional} containing the project name if the application is found, or empty if not found.
+     */
+    default Optional<String> getProjectName(String applicationId) {
+        return getApplicationById(applicationId).map(Application::getProjectName);
+    }
+
     /**
      * Retrieves the active application for a specific applicant by their NRIC.
      *
@@ -46,6 +73,14 @@ public interface ApplicationDao {
      */
     Optional<Application> getActiveApplication(String applicantNric);
 
+    /**
+     * Retrieves all applications submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of applications submitted by the applicant.
+     */
+    List<Application> getApplicationsByApplicant(String applicantNric);
+
     /**
      * Retrieves all applications with a specific status.
      *
@@ -0,0 +1,124 @@
+package bto.Data;
+
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.util.*;
+
+/**
+ * Incremental secondary indexes over a set of applications, mapping applicant NRIC, case-folded project name
+ * and status to the IDs of the matching applications.
+ * Each index keeps IDs in insertion order, so lookups return applications in the order they were stored.
+ */
+class ApplicationIndex {
+    private final Map<String, Set<String>> byNric = new HashMap<>();
+    private final Map<String, Set<String>> byProject = new HashMap<>();
+    private final EnumMap<ApplicationStatus, Set<String>> byStatus = new EnumMap<>(ApplicationStatus.class);
+
+    /**
+     * Adds an application to every index.
+     *
+     * @param app The application to index.
+     */
+    void add(Application app) {
+        byNric.computeIfAbsent(app.getApplicantNric(), k -> new LinkedHashSet<>()).add(app.getId());
+        byProject.computeIfAbsent(projectKey(app.getProjectName()), k -> new LinkedHashSet<>()).add(app.getId());
+        byStatus.computeIfAbsent(app.getStatus(), k -> new LinkedHashSet<>()).add(app.getId());
+    }
+
+    /**
+     * Moves an application between index entries after an update.
+     * Only the indexes whose key changed are touched, so unchanged entries keep their order.
+     *
+     * @param previous The application as it was indexed before the update.
+     * @param current The application after the update.
+     */
+    void update(Application previous, Application current) {
+        if (!previous.getApplicantNric().equals(current.getApplicantNric())) {
+            removeFrom(byNric, previous.getApplicantNric(), previous.getId());
+            byNric.computeIfAbsent(current.getApplicantNric(), k -> new LinkedHashSet<>()).add(current.getId());
+        }
+        if (!projectKey(previous.getProjectName()).equals(projectKey(current.getProjectName()))) {
+            removeFrom(byProject, projectKey(previous.getProjectName()), previous.getId());
+            byProject.computeIfAbsent(projectKey(current.getProjectName()), k -> new LinkedHashSet<>()).add(current.getId());
+        }
+        if (previous.getStatus() != current.getStatus()) {
+            removeFrom(byStatus, previous.getStatus(), previous.getId());
+            byStatus.computeIfAbsent(current.getStatus(), k -> new LinkedHashSet<>()).add(current.getId());
+        }
+    }
+
+    /**
+     * Removes an application from every index.
+     *
+     * @param app The application to remove, as it was last indexed.
+     */
+    void remove(Application app) {
+        removeFrom(byNric, app.getApplicantNric(), app.getId());
+        removeFrom(byProject, projectKey(app.getProjectName()), app.getId());
+        removeFrom(byStatus, app.getStatus(), app.getId());
+    }
+
+    /**
+     * Removes every entry from the indexes.
+     */
+    void clear() {
+        byNric.clear();
+        byProject.clear();
+        byStatus.clear();
+    }
+
+    /**
+     * Gets the IDs of the applications submitted by an applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return The matching application IDs, or an empty set if there are none.
+     */
+    Set<String> byApplicant(String applicantNric) {
+        return byNric.getOrDefault(applicantNric, Collections.emptySet());
+    }
+
+    /**
+     * Gets the IDs of the applications for a project, ignoring case.
+     *
+     * @param projectName The name of the project.
+     * @return The matching application IDs, or an empty set if there are none.
+     */
+    Set<String> byProject(String projectName) {
+        return byProject.getOrDefault(projectKey(projectName), Collections.emptySet());
+    }
+
+    /**
+     * Gets the IDs of the applications with a status.
+     *
+     * @param status The status of the applications.
+     * @return The matching application IDs, or an empty set if there are none.
+     */
+    Set<String> byStatus(ApplicationStatus status) {
+        return byStatus.getOrDefault(status, Collections.emptySet());
+    }
+
+    /**
+     * Case-folds a project name into its index key.
+     *
+     * @param projectName The name of the project.
+     * @return The index key for the project.
+     */
+    private static String projectKey(String projectName) {
+        return projectName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Removes an ID from an index entry, dropping the entry once it is empty.
+     *
+     * @param index The index to remove from.
+     * @param key The key of the entry.
+     * @param id The application ID to remove.
+     * @param <K> The key type of the index.
+     */
+    private static <K> void removeFrom(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) index.remove(key);
+    }
+}
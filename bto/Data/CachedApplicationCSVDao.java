@@ -0,0 +1,443 @@
+package bto.Data;
+
+import bto.Event.ApplicationStatusEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Caching implementation of the {@link ApplicationDao} interface backed by the applications CSV file.
+ * The file is parsed once and every lookup is served from memory. Mutations are written through to the
+ * CSV file immediately, and the cache is only reloaded when the file changes behind this DAO's
+ * back, including when another process rewrites it. Secondary indexes on applicant NRIC, project and status are maintained alongside the
+ * cache, so filtered lookups cost O(result) instead of O(table).
+ * <p>
+ * Updates are checked against the cached row's version, as in {@link ApplicationCSVDao}, after the cache has been
+ * refreshed under the exclusive lock, so a stale copy is rejected even if another process made the newer change.
+ * <p>
+ * Subclasses may change how mutations reach disk by overriding {@link #persistUpserts(List)},
+ * {@link #persistDelete(String)}, {@link #loadInto(Map)} and {@link #trackedFiles()}.
+ */
+public class CachedApplicationCSVDao implements ApplicationDao {
+    /**
+     * The applications CSV file backing this cache.
+     */
+    protected final File file = new File(ApplicationCSVDao.FILEPATH);
+    private final Map<String, Application> applications = new LinkedHashMap<>();
+    private final ApplicationIndex index = new ApplicationIndex();
+    private final FileLockManager locks = FileLockManager.forFile(ApplicationCSVDao.FILEPATH);
+    private long[] loadedState = new long[0];
+
+    /**
+     * Default constructor for the CachedApplicationCSVDao class.
+     * The CSV file is loaded lazily on first access.
+     */
+    public CachedApplicationCSVDao() {
+    }
+
+    /**
+     * Saves a new application to the cache and writes it through to the CSV file.
+     *
+     * @param application The application to save.
+     */
+    @Override
+    public void save(Application application) {
+        saveAll(List.of(application));
+    }
+
+    /**
+     * Saves new applications to the cache and writes them through to disk in a single flush.
+     *
+     * @param newApplications The applications to save.
+     */
+    @Override
+    public synchronized void saveAll(List<Application> newApplications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            assignNewIds(newApplications);
+
+            List<Application> stored = new ArrayList<>(newApplications.size());
+            for (Application application : newApplications) {
+                Application copy = new Application(application);
+                Application previous = applications.put(copy.getId(), copy);
+                if (previous != null) index.remove(previous);
+                index.add(copy);
+                stored.add(copy);
+            }
+            if (!stored.isEmpty()) persist(() -> persistUpserts(stored));
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Assigns IDs from the shared application ID sequence to the applications that do not have one yet.
+     * The IDs are reserved as a single block.
+     *
+     * @param newApplications The applications about to be saved.
+     */
+    private void assignNewIds(List<Application> newApplications) {
+        int missing = (int) newApplications.stream()
+            .filter(app -> app.getId() == null || app.getId().isEmpty())
+            .count();
+        if (missing == 0) return;
+
+        long nextId = IdSequence.forFile(ApplicationCSVDao.FILEPATH, this::maxApplicationId).nextBlock(missing);
+        for (Application app : newApplications) {
+            if (app.getId() == null || app.getId().isEmpty()) {
+                app.setId(String.valueOf(nextId++));
+            }
+        }
+    }
+
+    /**
+     * Finds the largest numeric application ID in the cache.
+     * Keeps the ID sequence from handing out an ID already in use.
+     *
+     * @return The largest application ID, or 0 if there are none.
+     */
+    private long maxApplicationId() {
+        return applications.keySet().stream()
+            .filter(id -> id.matches("\\d+"))
+            .mapToLong(Long::parseLong)
+            .max()
+            .orElse(0);
+    }
+
+    /**
+     * Updates an existing application in the cache and writes it through to the CSV file.
+     *
+     * @param application The application to update.
+     */
+    @Override
+    public void update(Application application) {
+        updateAll(List.of(application));
+    }
+
+    /**
+     * Updates existing applications in the cache and writes them through to disk in a single flush.
+     * Applications that are not in the cache are ignored. Either every application is updated or, if any of them is
+     * stale, none is.
+     *
+     * @param changedApplications The applications to update.
+     * @throws VersionConflictException If an application was updated by someone else since it was read.
+     */
+    @Override
+    public synchronized void updateAll(List<Application> changedApplications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            for (Application application : changedApplications) {
+                Application previous = applications.get(application.getId());
+                if (previous != null && previous.getVersion() != application.getVersion()) {
+                    throw new VersionConflictException("Application", application.getId(),
+                        application.getVersion(), previous.getVersion());
+                }
+            }
+
+            List<Application> updated = new ArrayList<>(changedApplications.size());
+            List<Application> stored = new ArrayList<>(changedApplications.size());
+            List<Event> events = new ArrayList<>();
+            for (Application application : changedApplications) {
+                Application previous = applications.get(application.getId());
+                if (previous == null) continue;
+                if (previous.getStatus() != application.getStatus()) {
+                    events.add(new ApplicationStatusEvent(application, previous.getStatus()));
+                }
+
+                Application copy = new Application(application).setVersion(application.getVersion() + 1);
+                applications.put(copy.getId(), copy);
+                index.update(previous, copy);
+                updated.add(application);
+                stored.add(copy);
+            }
+            if (!stored.isEmpty()) persist(() -> persistUpserts(stored));
+            updated.forEach(application -> application.setVersion(application.getVersion() + 1));
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Deletes an application from the cache and the CSV file by its ID.
+     *
+     * @param applicationId The ID of the application to delete.
+     */
+    @Override
+    public synchronized void delete(String applicationId) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            Application removed = applications.remove(applicationId);
+            if (removed != null) {
+                index.remove(removed);
+                persist(() -> persistDelete(applicationId));
+            }
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Retrieves an application by its ID.
+     *
+     * @param applicationId The ID of the application.
+     * @return An {@code Optional} containing a copy of the application if found, or empty if not found.
+     */
+    @Override
+    public synchronized Optional<Application> getApplicationById(String applicationId) {
+        refreshIfStale();
+        return Optional.ofNullable(applications.get(applicationId)).map(Application::new);
+    }
+
+    /**
+     * Retrieves the active application for a specific applicant by their NRIC.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return An {@code Optional} containing a copy of the active application if found, or empty if not found.
+     */
+    @Override
+    public synchronized Optional<Application> getActiveApplication(String applicantNric) {
+        refreshIfStale();
+        return index.byApplicant(applicantNric).stream()
+            .map(applications::get)
+            .filter(app -> !app.getStatus().isTerminal())
+            .findFirst()
+            .map(Application::new);
+    }
+
+    /**
+     * Retrieves all applications submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of copies of the applications submitted by the applicant.
+     */
+    @Override
+    public synchronized List<Application> getApplicationsByApplicant(String applicantNric) {
+        refreshIfStale();
+        return copiesOf(index.byApplicant(applicantNric));
+    }
+
+    /**
+     * Retrieves all applications with a specific status.
+     *
+     * @param status The status to filter applications by.
+     * @return A list of copies of the applications with the specified status.
+     */
+    @Override
+    public synchronized List<Application> getApplicationsByStatus(String status) {
+        refreshIfStale();
+        ApplicationStatus parsed;
+        try {
+            parsed = ApplicationStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ArrayList<>();
+        }
+        return copiesOf(index.byStatus(parsed));
+    }
+
+    /**
+     * Retrieves all applications for a specific project.
+     *
+     * @param projectName The name of the project.
+     * @return A list of copies of the applications for the specified project.
+     */
+    @Override
+    public synchronized List<Application> getApplicationsByProject(String projectName) {
+        refreshIfStale();
+        return copiesOf(index.byProject(projectName));
+    }
+
+    /**
+     * Retrieves all applications from the cache.
+     *
+     * @return A list of copies of all applications.
+     */
+    @Override
+    public synchronized List<Application> getAllApplications() {
+        refreshIfStale();
+        return applications.values().stream()
+            .map(Application::new)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs a write of changes already made to the cache. If the write fails, the cache is marked stale so the next
+     * access reloads it from disk instead of serving changes that were never written.
+     *
+     * @param write The write.
+     * @throws RuntimeException If the write fails.
+     */
+    private void persist(Runnable write) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            loadedState = new long[0];
+            throw e;
+        }
+    }
+
+    /**
+     * Writes saved or updated applications to disk in a single flush. The default implementation rewrites the CSV file.
+     * Implementations throw an unchecked exception if the applications cannot be written.
+     *
+     * @param changed The applications that were saved or updated.
+     */
+    protected void persistUpserts(List<Application> changed) {
+        writeAll();
+    }
+
+    /**
+     * Removes a deleted application from disk. The default implementation rewrites the CSV file.
+     * Implementations throw an unchecked exception if the deletion cannot be written.
+     *
+     * @param applicationId The ID of the application that was deleted.
+     */
+    protected void persistDelete(String applicationId) {
+        writeAll();
+    }
+
+    /**
+     * Loads every stored application into the given map, keyed by application ID.
+     * The default implementation parses the CSV file.
+     *
+     * @param target The map to fill.
+     */
+    protected void loadInto(Map<String, Application> target) {
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                Application app = ApplicationCSVDao.parseApplication(line);
+                if (app != null) target.put(app.getId(), app);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the files whose stamps decide whether the cache is stale.
+     *
+     * @return The files backing this cache.
+     */
+    protected List<File> trackedFiles() {
+        return List.of(file);
+    }
+
+    /**
+     * Gets a read-only view of the cached applications, keyed by application ID.
+     *
+     * @return The cached applications.
+     */
+    protected Map<String, Application> cachedApplications() {
+        return Collections.unmodifiableMap(applications);
+    }
+
+    /**
+     * Writes every cached application to the CSV file and records the new file state.
+     *
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    protected void writeAll() {
+        try {
+            DurableFiles.replaceText(file.getPath(), writer -> {
+                writer.write(ApplicationCSVDao.HEADER + "\n");
+                for (Application app : applications.values()) {
+                    writer.write(ApplicationCSVDao.toCsvLine(app) + "\n");
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write applications to " + file, e);
+        }
+        recordFileState();
+    }
+
+    /**
+     * Records the stamp of every tracked file as seen by this cache.
+     * Must be called after every write made by this DAO so the write is not mistaken for an external change.
+     */
+    protected void recordFileState() {
+        loadedState = currentFileState();
+    }
+
+    /**
+     * Reloads the cache if any tracked file has been modified since it was last loaded or written, by this process
+     * or another one. The reload holds the shared lock so it never sees a half-applied mutation.
+     */
+    protected void refreshIfStale() {
+        if (!file.exists()) initializeCsvFile();
+        if (Arrays.equals(currentFileState(), loadedState)) return;
+
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            applications.clear();
+            loadInto(applications);
+            index.clear();
+            applications.values().forEach(index::add);
+            recordFileState();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Gets the lock on the applications CSV file, which also guards every other file backing this cache.
+     * Mutations hold it exclusively.
+     *
+     * @return The lock manager of the applications CSV file.
+     */
+    protected FileLockManager locks() {
+        return locks;
+    }
+
+    /**
+     * Copies the cached applications with the given IDs.
+     *
+     * @param ids The IDs of the applications, taken from an index.
+     * @return A list of copies of the applications, in index order.
+     */
+    private List<Application> copiesOf(Collection<String> ids) {
+        List<Application> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(new Application(applications.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Initializes the CSV file by creating it and writing the header.
+     */
+    private void initializeCsvFile() {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            if (file.exists()) return;
+            DurableFiles.replaceText(file.getPath(), writer -> writer.write(ApplicationCSVDao.HEADER + "\n"));
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Reads the {@link DurableFiles#stamp(File) stamp} of every tracked file.
+     *
+     * @return The stamps of the tracked files, one after another.
+     */
+    private long[] currentFileState() {
+        List<File> files = trackedFiles();
+        long[] state = new long[files.size() * 3];
+        for (int i = 0; i < files.size(); i++) {
+            System.arraycopy(DurableFiles.stamp(files.get(i)), 0, state, 3 * i, 3);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,428 @@
+package bto.Data;
+
+import bto.Data.ColumnarApplicationFile.Column;
+import bto.Event.ApplicationStatusEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link ApplicationDao} interface that stores applications in a columnar binary file
+ * (see {@link ColumnarApplicationFile}).
+ * <p>
+ * Lookups and filters read only the columns they test, and then decode only the rows that match, so filtering by
+ * status or project never parses the other fields of every application. Writes rewrite the whole file, hold an
+ * exclusive {@link FileLockManager} lock and check versions exactly as {@link ApplicationCSVDao} does.
+ * <p>
+ * If the columnar file does not exist yet, it is created from the applications CSV file.
+ */
+public class ColumnarApplicationDao implements ApplicationDao {
+    static final String FILEPATH = "./bto/Data/CSV/Applications.col";
+    private final String filePath;
+    private final FileLockManager locks;
+
+    /**
+     * Constructs a ColumnarApplicationDao backed by the default columnar file, migrating the default applications CSV
+     * file into it if it does not exist yet.
+     */
+    public ColumnarApplicationDao() {
+        this(FILEPATH, ApplicationCSVDao.FILEPATH);
+    }
+
+    /**
+     * Constructs a ColumnarApplicationDao backed by the specified columnar file.
+     *
+     * @param filePath The path to the columnar applications file.
+     * @param csvFilePath The applications CSV file to migrate if the columnar file does not exist yet, or
+     *                    {@code null} to start empty.
+     */
+    public ColumnarApplicationDao(String filePath, String csvFilePath) {
+        this.filePath = filePath;
+        this.locks = FileLockManager.forFile(filePath);
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            if (!new File(filePath).exists()) {
+                List<Application> applications = csvFilePath != null && new File(csvFilePath).exists()
+                    ? new ApplicationCSVDao(csvFilePath).getAllApplications()
+                    : new ArrayList<>();
+                write(filePath, applications);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Saves a new application to the columnar file.
+     *
+     * @param application The application to save.
+     */
+    @Override
+    public void save(Application application) {
+        saveAll(List.of(application));
+    }
+
+    /**
+     * Saves several new applications to the columnar file with a single rewrite.
+     *
+     * @param applications The applications to save.
+     */
+    @Override
+    public void saveAll(List<Application> applications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            assignNewIds(applications);
+
+            List<Application> allApps = getAllApplications();
+            allApps.addAll(applications);
+            writeAllApplications(allApps);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Updates an existing application in the columnar file.
+     *
+     * @param application The application to update.
+     */
+    @Override
+    public void update(Application application) {
+        updateAll(List.of(application));
+    }
+
+    /**
+     * Updates several existing applications in the columnar file with a single rewrite.
+     * Either every application is updated or, if any of them is stale, none is.
+     *
+     * @param applications The applications to update.
+     * @throws VersionConflictException If an application was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Application> applications) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Event> events = new ArrayList<>();
+            Map<String, Application> changed = new HashMap<>();
+            for (Application app : applications) {
+                changed.put(app.getId(), app);
+            }
+            List<Application> allApps = getAllApplications();
+            List<Application> updated = new ArrayList<>();
+            for (Application stored : allApps) {
+                Application app = changed.get(stored.getId());
+                if (app == null) continue;
+                if (app.getVersion() != stored.getVersion()) {
+                    throw new VersionConflictException("Application", stored.getId(), app.getVersion(), stored.getVersion());
+                }
+                if (app.getStatus() != stored.getStatus()) {
+                    events.add(new ApplicationStatusEvent(app, stored.getStatus()));
+                }
+                updated.add(app);
+            }
+            allApps = allApps.stream()
+                .map(app -> changed.containsKey(app.getId()) ? nextVersion(changed.get(app.getId())) : app)
+                .collect(Collectors.toList());
+            writeAllApplications(allApps);
+            updated.forEach(app -> app.setVersion(app.getVersion() + 1));
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Deletes an application from the columnar file by its ID.
+     *
+     * @param applicationId The ID of the application to delete.
+     */
+    @Override
+    public void delete(String applicationId) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Application> filtered = getAllApplications().stream()
+                .filter(app -> !app.getId().equals(applicationId))
+                .collect(Collectors.toList());
+            writeAllApplications(filtered);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Retrieves an application by its ID, reading only the ID column to find it.
+     *
+     * @param applicationId The ID of the application.
+     * @return An {@code Optional} containing the application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getApplicationById(String applicationId) {
+        byte[] target = applicationId.getBytes(StandardCharsets.UTF_8);
+        return scan(file -> {
+            ColumnarApplicationFile.Strings ids = ColumnarApplicationFile.strings(file.read(Column.ID));
+            return first(file, row -> ids.matches(row, target));
+        }).stream().findFirst();
+    }
+
+    /**
+     * Retrieves the active application for a specific applicant by their NRIC, reading only the NRIC and status
+     * columns to find it.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return An {@code Optional} containing the active application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getActiveApplication(String applicantNric) {
+        byte[] target = applicantNric.getBytes(StandardCharsets.UTF_8);
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        return scan(file -> {
+            ColumnarApplicationFile.Strings nrics = ColumnarApplicationFile.strings(file.read(Column.NRIC));
+            ByteBuffer status = file.read(Column.STATUS);
+            return first(file, row -> nrics.matches(row, target) && !statuses[status.get(row)].isTerminal());
+        }).stream().findFirst();
+    }
+
+    /**
+     * Retrieves all applications submitted by a specific applicant, reading only the NRIC column to find them.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of applications submitted by the applicant.
+     */
+    @Override
+    public List<Application> getApplicationsByApplicant(String applicantNric) {
+        byte[] target = applicantNric.getBytes(StandardCharsets.UTF_8);
+        return scan(file -> {
+            ColumnarApplicationFile.Strings nrics = ColumnarApplicationFile.strings(file.read(Column.NRIC));
+            return file.decode(select(file.rows(), row -> nrics.matches(row, target)));
+        });
+    }
+
+    /**
+     * Retrieves all applications with a specific status, reading only the status column to find them.
+     *
+     * @param status The status to filter applications by.
+     * @return A list of applications with the specified status.
+     */
+    @Override
+    public List<Application> getApplicationsByStatus(String status) {
+        ApplicationStatus wanted = Arrays.stream(ApplicationStatus.values())
+            .filter(s -> s.name().equalsIgnoreCase(status))
+            .findFirst()
+            .orElse(null);
+        if (wanted == null) return new ArrayList<>();
+        byte code = (byte) wanted.ordinal();
+        return scan(file -> {
+            ByteBuffer statuses = file.read(Column.STATUS);
+            return file.decode(select(file.rows(), row -> statuses.get(row) == code));
+        });
+    }
+
+    /**
+     * Retrieves all applications for a specific project, matching the project name against the dictionary once
+     * and then comparing only the codes of the project column.
+     *
+     * @param projectName The name of the project.
+     * @return A list of applications for the specified project.
+     */
+    @Override
+    public List<Application> getApplicationsByProject(String projectName) {
+        return scan(file -> {
+            ColumnarApplicationFile.Dictionary projects = ColumnarApplicationFile.dictionary(file.read(Column.PROJECT));
+            String[] names = projects.values();
+            boolean[] wanted = new boolean[names.length];
+            boolean any = false;
+            for (int code = 0; code < names.length; code++) {
+                wanted[code] = names[code] != null && names[code].equalsIgnoreCase(projectName);
+                any |= wanted[code];
+            }
+            if (!any) return new ArrayList<>();
+            return file.decode(select(file.rows(), row -> wanted[projects.code(row)]));
+        });
+    }
+
+    /**
+     * Retrieves all applications from the columnar file.
+     *
+     * @return A list of all applications.
+     */
+    @Override
+    public List<Application> getAllApplications() {
+        return scan(file -> file.decode(null));
+    }
+
+    /**
+     * Counts the applications of each status, reading only the status column.
+     *
+     * @return The number of applications of each status; statuses with no applications map to 0.
+     */
+    public Map<ApplicationStatus, Integer> countByStatus() {
+        Map<ApplicationStatus, Integer> counts = new EnumMap<>(ApplicationStatus.class);
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        int[] totals = new int[statuses.length];
+        scan(file -> {
+            ByteBuffer status = file.read(Column.STATUS);
+            for (int row = 0; row < file.rows(); row++) {
+                totals[status.get(row)]++;
+            }
+            return new ArrayList<>();
+        });
+        for (ApplicationStatus s : statuses) {
+            counts.put(s, totals[s.ordinal()]);
+        }
+        return counts;
+    }
+
+    /**
+     * Writes applications to a columnar file, replacing it atomically.
+     *
+     * @param filePath The path to the columnar file.
+     * @param applications The applications to write.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(String filePath, List<Application> applications) throws IOException {
+        DurableFiles.replace(filePath, out -> ColumnarApplicationFile.write(out, applications));
+    }
+
+    /**
+     * Reads the columnar file under a shared lock.
+     */
+    private interface Scan {
+        /**
+         * Reads the applications wanted from the file.
+         *
+         * @param file The open file.
+         * @return The applications read.
+         * @throws IOException If a column cannot be read.
+         */
+        List<Application> read(ColumnarApplicationFile file) throws IOException;
+    }
+
+    /**
+     * Opens the columnar file under a shared lock and runs a scan over it.
+     *
+     * @param scan The scan.
+     * @return The applications read, or an empty list if the file is missing or unreadable.
+     */
+    private List<Application> scan(Scan scan) {
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            if (!new File(filePath).exists()) return new ArrayList<>();
+            try (ColumnarApplicationFile file = new ColumnarApplicationFile(new File(filePath).toPath())) {
+                return scan.read(file);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return new ArrayList<>();
+            }
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Decodes the first row matching a predicate.
+     *
+     * @param file The open file.
+     * @param predicate Tests a row by its position.
+     * @return A list holding the first matching application, or an empty list if no row matches.
+     * @throws IOException If a column cannot be read.
+     */
+    private static List<Application> first(ColumnarApplicationFile file, IntPredicate predicate) throws IOException {
+        for (int row = 0; row < file.rows(); row++) {
+            if (predicate.test(row)) return file.decode(new int[] {row});
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Collects the positions of the rows matching a predicate.
+     *
+     * @param rows The number of rows.
+     * @param predicate Tests a row by its position.
+     * @return The matching positions, in ascending order.
+     */
+    private static int[] select(int rows, IntPredicate predicate) {
+        int[] selected = new int[16];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!predicate.test(row)) continue;
+            if (count == selected.length) selected = Arrays.copyOf(selected, count * 2);
+            selected[count++] = row;
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Assigns new unique IDs to the applications that do not have one yet.
+     * The IDs are reserved from the application ID sequence as a single block.
+     *
+     * @param applications The applications about to be saved.
+     */
+    private void assignNewIds(List<Application> applications) {
+        int missing = (int) applications.stream()
+            .filter(app -> app.getId() == null || app.getId().isEmpty())
+            .count();
+        if (missing == 0) return;
+
+        long nextId = IdSequence.forFile(filePath, this::maxApplicationId).nextBlock(missing);
+        for (Application app : applications) {
+            if (app.getId() == null || app.getId().isEmpty()) {
+                app.setId(String.valueOf(nextId++));
+            }
+        }
+    }
+
+    /**
+     * Finds the largest numeric application ID, reading only the ID column.
+     * Keeps the ID sequence from handing out an ID already in use.
+     *
+     * @return The largest application ID, or 0 if there are none.
+     */
+    private long maxApplicationId() {
+        long[] max = {0};
+        scan(file -> {
+            ColumnarApplicationFile.Strings ids = ColumnarApplicationFile.strings(file.read(Column.ID));
+            for (int row = 0; row < file.rows(); row++) {
+                String id = ids.get(row);
+                if (id.matches("\\d+")) max[0] = Math.max(max[0], Long.parseLong(id));
+            }
+            return new ArrayList<>();
+        });
+        return max[0];
+    }
+
+    /**
+     * Copies an application about to be written with its version incremented. The caller's copy is only
+     * incremented once the write succeeded.
+     *
+     * @param app The application.
+     * @return The copy to write.
+     */
+    private static Application nextVersion(Application app) {
+        return new Application(app).setVersion(app.getVersion() + 1);
+    }
+
+    /**
+     * Writes all applications to the columnar file, leaving the file as it was if the write fails.
+     *
+     * @param applications The list of applications to write.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    private void writeAllApplications(List<Application> applications) {
+        try {
+            write(filePath, applications);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write applications to " + filePath, e);
+        }
+    }
+}
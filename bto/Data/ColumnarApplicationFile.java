@@ -0,0 +1,416 @@
+package bto.Data;
+
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads and writes the columnar binary applications file used by {@link ColumnarApplicationDao}.
+ * <p>
+ * The file starts with a fixed header (magic number, format version, row count and column count) and a directory
+ * giving the offset and length of each column. Each column then stores one field of every row, contiguously:
+ * <ul>
+ *   <li>ID and applicant NRIC: {@code rows + 1} int offsets followed by the UTF-8 bytes of every value;</li>
+ *   <li>project name and flat type: a dictionary of the distinct values followed by one int code per row;</li>
+ *   <li>status and withdrawal flag: one byte per row;</li>
+ *   <li>created time: one long per row, in epoch seconds, or {@link Long#MIN_VALUE} if unknown;</li>
+ *   <li>version: one int per row.</li>
+ * </ul>
+ * A scan reads only the columns it needs, and a filter on a dictionary column compares int codes instead of
+ * strings. All numbers are big-endian.
+ */
+final class ColumnarApplicationFile implements AutoCloseable {
+    private static final int MAGIC = 0x42544F43;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 2;
+    private static final int DIRECTORY_ENTRY_BYTES = 8 + 4;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * The columns of the file, in the order they are stored.
+     */
+    enum Column {
+        /** Application ID. */
+        ID,
+        /** Project name, dictionary-encoded. */
+        PROJECT,
+        /** Applicant NRIC. */
+        NRIC,
+        /** Flat type, dictionary-encoded. */
+        FLAT_TYPE,
+        /** Status ordinal. */
+        STATUS,
+        /** Created time in epoch seconds. */
+        CREATED,
+        /** Withdrawal requested flag. */
+        WITHDRAWAL,
+        /** Row version. */
+        VERSION
+    }
+
+    private final FileChannel channel;
+    private final int rows;
+    private final long[] offsets = new long[Column.values().length];
+    private final int[] lengths = new int[Column.values().length];
+
+    /**
+     * Opens a columnar file and reads its header.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be read or is not a columnar applications file.
+     */
+    ColumnarApplicationFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            int columns = Column.values().length;
+            ByteBuffer header = readFully(0, HEADER_BYTES + columns * DIRECTORY_ENTRY_BYTES);
+            if (header.getInt() != MAGIC) throw new IOException(file + " is not a columnar applications file");
+            short version = header.getShort();
+            if (version != FORMAT_VERSION) throw new IOException(file + " has unsupported format version " + version);
+            rows = header.getInt();
+            if (header.getShort() != columns) throw new IOException(file + " has an unexpected number of columns");
+            for (int i = 0; i < columns; i++) {
+                offsets[i] = header.getLong();
+                lengths[i] = header.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The number of rows.
+     */
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Reads one column.
+     *
+     * @param column The column.
+     * @return The bytes of the column.
+     * @throws IOException If the column cannot be read.
+     */
+    ByteBuffer read(Column column) throws IOException {
+        return readFully(offsets[column.ordinal()], lengths[column.ordinal()]);
+    }
+
+    /**
+     * Decodes the rows at the specified positions, reading every column once.
+     *
+     * @param selected The positions of the rows, in ascending order, or {@code null} for every row.
+     * @return The decoded applications.
+     * @throws IOException If a column cannot be read.
+     */
+    List<Application> decode(int[] selected) throws IOException {
+        int count = selected == null ? rows : selected.length;
+        List<Application> applications = new ArrayList<>(count);
+        if (count == 0) return applications;
+
+        Strings ids = strings(read(Column.ID));
+        Dictionary projects = dictionary(read(Column.PROJECT));
+        Strings nrics = strings(read(Column.NRIC));
+        Dictionary flatTypes = dictionary(read(Column.FLAT_TYPE));
+        ByteBuffer statuses = read(Column.STATUS);
+        ByteBuffer created = read(Column.CREATED);
+        ByteBuffer withdrawals = read(Column.WITHDRAWAL);
+        ByteBuffer versions = read(Column.VERSION);
+        ApplicationStatus[] statusValues = ApplicationStatus.values();
+
+        for (int i = 0; i < count; i++) {
+            int row = selected == null ? i : selected[i];
+            long seconds = created.getLong(row * Long.BYTES);
+            Application app = new Application(projects.get(row), nrics.get(row), flatTypes.get(row))
+                .setId(ids.get(row))
+                .setStatus(statusValues[statuses.get(row)])
+                .setCreatedTime(seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC))
+                .setVersion(versions.getInt(row * Integer.BYTES));
+            app.setWithdrawalRequested(withdrawals.get(row) != 0);
+            applications.add(app);
+        }
+        return applications;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes applications in the columnar format.
+     *
+     * @param out The stream to write to.
+     * @param applications The applications, in the order their rows are stored.
+     * @throws IOException If the stream cannot be written.
+     */
+    static void write(OutputStream out, List<Application> applications) throws IOException {
+        int rows = applications.size();
+        byte[][] columns = new byte[Column.values().length][];
+        columns[Column.ID.ordinal()] = encodeStrings(applications, Application::getId);
+        columns[Column.PROJECT.ordinal()] = encodeDictionary(applications, Application::getProjectName);
+        columns[Column.NRIC.ordinal()] = encodeStrings(applications, Application::getApplicantNric);
+        columns[Column.FLAT_TYPE.ordinal()] = encodeDictionary(applications, Application::getFlatType);
+
+        ByteBuffer statuses = ByteBuffer.allocate(rows);
+        ByteBuffer created = ByteBuffer.allocate(rows * Long.BYTES);
+        ByteBuffer withdrawals = ByteBuffer.allocate(rows);
+        ByteBuffer versions = ByteBuffer.allocate(rows * Integer.BYTES);
+        for (Application app : applications) {
+            statuses.put((byte) app.getStatus().ordinal());
+            created.putLong(app.getCreatedTime() == null ? NO_TIME : app.getCreatedTime().toEpochSecond(ZoneOffset.UTC));
+            withdrawals.put((byte) (app.getWithdrawalRequested() ? 1 : 0));
+            versions.putInt(app.getVersion());
+        }
+        columns[Column.STATUS.ordinal()] = statuses.array();
+        columns[Column.CREATED.ordinal()] = created.array();
+        columns[Column.WITHDRAWAL.ordinal()] = withdrawals.array();
+        columns[Column.VERSION.ordinal()] = versions.array();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(FORMAT_VERSION);
+        data.writeInt(rows);
+        data.writeShort(columns.length);
+        long offset = HEADER_BYTES + (long) columns.length * DIRECTORY_ENTRY_BYTES;
+        for (byte[] column : columns) {
+            data.writeLong(offset);
+            data.writeInt(column.length);
+            offset += column.length;
+        }
+        for (byte[] column : columns) {
+            data.write(column);
+        }
+        data.flush();
+    }
+
+    /**
+     * Decodes a string column.
+     *
+     * @param column The bytes of the column.
+     * @return The strings of the column.
+     */
+    static Strings strings(ByteBuffer column) {
+        return new Strings(column);
+    }
+
+    /**
+     * Decodes a dictionary column.
+     *
+     * @param column The bytes of the column.
+     * @return The dictionary and codes of the column.
+     */
+    static Dictionary dictionary(ByteBuffer column) {
+        return new Dictionary(column);
+    }
+
+    /**
+     * A string column: row offsets into a block of UTF-8 bytes, decoded only on demand.
+     */
+    static final class Strings {
+        private final ByteBuffer column;
+
+        /**
+         * Constructs a Strings view of a column.
+         *
+         * @param column The bytes of the column.
+         */
+        Strings(ByteBuffer column) {
+            this.column = column;
+        }
+
+        /**
+         * Gets the value of a row.
+         *
+         * @param row The row.
+         * @return The value.
+         */
+        String get(int row) {
+            int start = column.getInt(row * Integer.BYTES);
+            int end = column.getInt((row + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            column.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Compares the value of a row with the UTF-8 bytes of a string, without decoding the row.
+         *
+         * @param row The row.
+         * @param target The UTF-8 bytes to compare with.
+         * @return {@code true} if the value is exactly the target.
+         */
+        boolean matches(int row, byte[] target) {
+            int start = column.getInt(row * Integer.BYTES);
+            int end = column.getInt((row + 1) * Integer.BYTES);
+            if (end - start != target.length) return false;
+            for (int i = 0; i < target.length; i++) {
+                if (column.get(start + i) != target[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A dictionary column: the distinct values, followed by one code per row.
+     */
+    static final class Dictionary {
+        private final String[] values;
+        private final ByteBuffer column;
+        private final int codesStart;
+
+        /**
+         * Constructs a Dictionary view of a column.
+         *
+         * @param column The bytes of the column.
+         */
+        Dictionary(ByteBuffer column) {
+            this.column = column;
+            ByteBuffer reader = column.duplicate();
+            values = new String[reader.remaining() == 0 ? 0 : reader.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                int length = reader.getInt();
+                if (length < 0) continue;
+                byte[] bytes = new byte[length];
+                reader.get(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            codesStart = reader.position();
+        }
+
+        /**
+         * Gets the distinct values.
+         *
+         * @return The values, indexed by code.
+         */
+        String[] values() {
+            return values;
+        }
+
+        /**
+         * Gets the code of a row.
+         *
+         * @param row The row.
+         * @return The code, an index into {@link #values()}.
+         */
+        int code(int row) {
+            return column.getInt(codesStart + row * Integer.BYTES);
+        }
+
+        /**
+         * Gets the value of a row.
+         *
+         * @param row The row.
+         * @return The value.
+         */
+        String get(int row) {
+            return values[code(row)];
+        }
+    }
+
+    /**
+     * Reads a range of the file.
+     *
+     * @param position The offset of the range.
+     * @param length The length of the range.
+     * @return The bytes of the range.
+     * @throws IOException If the range cannot be read.
+     */
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Columnar applications file is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes a string field of every application as a string column.
+     *
+     * @param applications The applications.
+     * @param field The field.
+     * @return The bytes of the column.
+     */
+    private static byte[] encodeStrings(List<Application> applications, Function<Application, String> field) {
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        ByteBuffer offsets = ByteBuffer.allocate((applications.size() + 1) * Integer.BYTES);
+        int base = offsets.capacity();
+        for (Application app : applications) {
+            offsets.putInt(base + values.size());
+            String value = field.apply(app);
+            values.writeBytes((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+        }
+        offsets.putInt(base + values.size());
+
+        ByteArrayOutputStream column = new ByteArrayOutputStream(base + values.size());
+        column.writeBytes(offsets.array());
+        column.writeBytes(values.toByteArray());
+        return column.toByteArray();
+    }
+
+    /**
+     * Encodes a string field of every application as a dictionary column.
+     *
+     * @param applications The applications.
+     * @param field The field.
+     * @return The bytes of the column.
+     * @throws IOException Never; declared by the stream it writes to.
+     */
+    private static byte[] encodeDictionary(List<Application> applications,
+                                           Function<Application, String> field) throws IOException {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        int[] rowCodes = new int[applications.size()];
+        for (int i = 0; i < rowCodes.length; i++) {
+            String value = field.apply(applications.get(i));
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+            }
+            rowCodes[i] = code;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream column = new DataOutputStream(bytes);
+        column.writeInt(codes.size());
+        for (String value : codes.keySet()) {
+            if (value == null) {
+                column.writeInt(-1);
+                continue;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            column.writeInt(encoded.length);
+            column.write(encoded);
+        }
+        for (int code : rowCodes) {
+            column.writeInt(code);
+        }
+        column.flush();
+        return bytes.toByteArray();
+    }
+}
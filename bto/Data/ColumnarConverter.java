@@ -0,0 +1,69 @@
+package bto.Data;
+
+import bto.Model.Application;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Command-line tool migrating the applications CSV file to the columnar format read by
+ * {@link ColumnarApplicationDao}. The CSV file is left untouched.
+ * <p>
+ * Usage: {@code java bto.Data.ColumnarConverter [--force] [csvFile] [columnarFile]}
+ */
+public final class ColumnarConverter {
+
+    /**
+     * Prevents instantiation.
+     */
+    private ColumnarConverter() {
+    }
+
+    /**
+     * Runs the migration.
+     *
+     * @param args {@code --force} to overwrite an existing columnar file, then optionally the CSV file
+     *             (default {@code ./bto/Data/CSV/Applications.csv}) and the columnar file
+     *             (default {@code ./bto/Data/CSV/Applications.col}).
+     */
+    public static void main(String[] args) {
+        boolean force = args.length > 0 && args[0].equals("--force");
+        int first = force ? 1 : 0;
+        String csvFile = args.length > first ? args[first] : ApplicationCSVDao.FILEPATH;
+        String columnarFile = args.length > first + 1 ? args[first + 1] : ColumnarApplicationDao.FILEPATH;
+
+        try {
+            int rows = convert(csvFile, columnarFile, force);
+            System.out.printf("Migrated %d applications from %s to %s (%d -> %d bytes)%n",
+                rows, csvFile, columnarFile, new File(csvFile).length(), new File(columnarFile).length());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Migrates an applications CSV file to a columnar file, holding an exclusive lock on the columnar file.
+     *
+     * @param csvFile The applications CSV file.
+     * @param columnarFile The columnar file to write.
+     * @param force Whether an existing columnar file may be overwritten.
+     * @return The number of applications migrated.
+     * @throws IOException If the CSV file is missing, the columnar file exists and {@code force} is not set, or the
+     *                     columnar file cannot be written.
+     */
+    public static int convert(String csvFile, String columnarFile, boolean force) throws IOException {
+        if (!new File(csvFile).exists()) throw new IOException("CSV file not found: " + csvFile);
+        FileLockManager.Held held = FileLockManager.forFile(columnarFile).acquireExclusive();
+        try {
+            if (!force && new File(columnarFile).exists()) {
+                throw new IOException(columnarFile + " already exists; use --force to overwrite it");
+            }
+            List<Application> applications = new ApplicationCSVDao(csvFile).getAllApplications();
+            ColumnarApplicationDao.write(columnarFile, applications);
+            return applications.size();
+        } finally {
+            held.close();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package bto.Data;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size pool of JDBC connections to one database.
+ * <p>
+ * Connections are opened through {@link DriverManager} on first use and kept open for reuse, so a DAO call does
+ * not pay for opening a connection. At most {@code size} connections are lent at once; a caller that finds them all
+ * lent waits up to the timeout and then fails with a {@link LockTimeoutException}. A connection that is returned
+ * inside an unfinished transaction is rolled back before it is lent again, and a closed one is discarded.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int size;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * A connection lent by the pool, returned by {@link #close()}.
+     */
+    public interface Lease extends AutoCloseable {
+        /**
+         * Gets the lent connection. It must not be closed or used after the lease is.
+         *
+         * @return The connection.
+         */
+        Connection connection();
+
+        /**
+         * Returns the connection to the pool.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Work run inside a transaction.
+     *
+     * @param <T> The type of the result.
+     */
+    public interface Transaction<T> {
+        /**
+         * Runs the work.
+         *
+         * @param connection The connection, with auto-commit off.
+         * @return The result.
+         * @throws SQLException If a statement fails.
+         */
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Constructs a ConnectionPool.
+     *
+     * @param url The JDBC URL of the database.
+     * @param user The database user, or {@code null} for none.
+     * @param password The database password, or {@code null} for none.
+     * @param size The largest number of connections open at once.
+     * @param timeoutMillis How long to wait for a connection before giving up.
+     */
+    public ConnectionPool(String url, String user, String password, int size, long timeoutMillis) {
+        if (size < 1) throw new IllegalArgumentException("Pool size must be at least 1");
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Borrows a connection, opening one if none is idle.
+     *
+     * @return The lease of the connection.
+     * @throws SQLException If a connection cannot be opened.
+     * @throws LockTimeoutException If no connection becomes free in time.
+     */
+    public Lease acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new LockTimeoutException("Timed out after " + timeoutMillis + " ms waiting for a connection to " + url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection to " + url, e);
+        }
+        long waited = System.nanoTime() - start;
+        acquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        Connection connection = idle.poll();
+        try {
+            if (connection == null || connection.isClosed()) connection = open();
+        } catch (SQLException e) {
+            permits.release();
+            throw e;
+        }
+        Connection lent = connection;
+        return new Lease() {
+            private boolean returned;
+
+            @Override
+            public Connection connection() {
+                return lent;
+            }
+
+            @Override
+            public void close() {
+                if (returned) return;
+                returned = true;
+                release(lent);
+            }
+        };
+    }
+
+    /**
+     * Runs work inside a transaction on a borrowed connection, committing if it returns and rolling back if it
+     * throws.
+     *
+     * @param work The work.
+     * @param <T> The type of the result.
+     * @return The result of the work.
+     * @throws SQLException If a statement, the commit or the rollback fails.
+     */
+    public <T> T inTransaction(Transaction<T> work) throws SQLException {
+        try (Lease lease = acquire()) {
+            Connection connection = lease.connection();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Closes every idle connection. Lent connections are closed as they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Gets the JDBC URL of the database.
+     *
+     * @return The URL.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the largest number of connections open at once.
+     *
+     * @return The pool size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of connections lent.
+     *
+     * @return The number of acquisitions.
+     */
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Gets the number of connections opened.
+     *
+     * @return The number of connections opened.
+     */
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    /**
+     * Gets the number of times no connection became free in time.
+     *
+     * @return The number of timeouts.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Gets the mean time spent waiting for a connection.
+     *
+     * @return The mean wait in milliseconds, or 0 if none was lent.
+     */
+    public double getMeanWaitMillis() {
+        long n = getAcquisitions();
+        return n == 0 ? 0 : totalWaitNanos.sum() / 1e6 / n;
+    }
+
+    /**
+     * Gets the longest time spent waiting for a connection.
+     *
+     * @return The longest wait in milliseconds.
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * Summarizes the pool metrics.
+     *
+     * @return The URL, size and metrics of the pool.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d connections, %d opened, %d acquisitions, %d timeouts, avg wait %.3f ms, max wait %.3f ms",
+            url, size, getOpened(), getAcquisitions(), getTimeouts(), getMeanWaitMillis(), getMaxWaitMillis());
+    }
+
+    /**
+     * Opens a new connection.
+     *
+     * @return The connection.
+     * @throws SQLException If the connection cannot be opened.
+     */
+    private Connection open() throws SQLException {
+        Connection connection = user == null
+            ? DriverManager.getConnection(url)
+            : DriverManager.getConnection(url, user, password);
+        opened.increment();
+        return connection;
+    }
+
+    /**
+     * Puts a returned connection back in the pool, rolling back any unfinished transaction.
+     *
+     * @param connection The returned connection.
+     */
+    private void release(Connection connection) {
+        try {
+            if (connection.isClosed()) return;
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (closed) {
+                closeQuietly(connection);
+            } else {
+                idle.offer(connection);
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes a connection, ignoring failures.
+     *
+     * @param connection The connection.
+     */
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
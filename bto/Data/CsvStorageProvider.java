@@ -0,0 +1,110 @@
+package bto.Data;
+
+/**
+ * Storage backend keeping every entity in the CSV files under {@code ./bto/Data/CSV}.
+ * <p>
+ * The {@code csv} flavour reads and rewrites the files on every operation; {@code cached} serves applications from
+ * {@link CachedApplicationCSVDao}; {@code journal} uses {@link JournaledApplicationCSVDao}; {@code columnar} keeps
+ * applications in the binary file of {@link ColumnarApplicationDao}, migrated from the CSV file on first use. In
+ * every flavour the {@code bto.enquiry.lsm} system property keeps enquiries in a {@link LsmEnquiryDao}, and otherwise
+ * the {@code bto.enquiry.writeBehind} system property puts a {@link WriteBehindEnquiryDao} in front of the enquiries
+ * file. A unit of work left unfinished by a crash is recovered when the provider is built.
+ */
+public class CsvStorageProvider implements StorageProvider {
+    /** Name of the flavour that reads and rewrites the files on every operation. */
+    public static final String CSV = "csv";
+    /** Name of the flavour with write-through cached applications. */
+    public static final String CACHED = "cached";
+    /** Name of the flavour with journaled applications. */
+    public static final String JOURNAL = "journal";
+    /** Name of the flavour with applications in a columnar binary file. */
+    public static final String COLUMNAR = "columnar";
+
+    private final String name;
+    private final UserDao userDao = new UserCSVDao();
+    private final ApplicationDao applicationDao;
+    private final ProjectDao projectDao = new ProjectCSVDao();
+    private final EnquiryDao enquiryDao;
+
+    /**
+     * Constructs a CsvStorageProvider of the specified flavour and recovers any unfinished unit of work.
+     *
+     * @param name {@link #CSV}, {@link #CACHED}, {@link #JOURNAL} or {@link #COLUMNAR}.
+     * @throws IllegalArgumentException If the flavour is unknown.
+     */
+    public CsvStorageProvider(String name) {
+        this.name = name;
+        switch (name) {
+            case CSV:
+                applicationDao = new ApplicationCSVDao();
+                break;
+            case CACHED:
+                applicationDao = new CachedApplicationCSVDao();
+                break;
+            case JOURNAL:
+                applicationDao = new JournaledApplicationCSVDao();
+                break;
+            case COLUMNAR:
+                applicationDao = new ColumnarApplicationDao();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown CSV storage flavour: " + name);
+        }
+        if (Boolean.getBoolean("bto.enquiry.lsm")) {
+            enquiryDao = new LsmEnquiryDao();
+        } else {
+            enquiryDao = Boolean.getBoolean("bto.enquiry.writeBehind") ? new WriteBehindEnquiryDao() : new EnquiryCSVDao();
+        }
+        UnitOfWork.recover(projectDao, applicationDao, name);
+    }
+
+    /**
+     * Gets the name of the flavour.
+     *
+     * @return {@code csv}, {@code cached}, {@code journal} or {@code columnar}.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the DAO for user accounts.
+     *
+     * @return The user DAO.
+     */
+    @Override
+    public UserDao getUserDao() {
+        return userDao;
+    }
+
+    /**
+     * Gets the DAO for applications.
+     *
+     * @return The application DAO.
+     */
+    @Override
+    public ApplicationDao getApplicationDao() {
+        return applicationDao;
+    }
+
+    /**
+     * Gets the DAO for projects.
+     *
+     * @return The project DAO.
+     */
+    @Override
+    public ProjectDao getProjectDao() {
+        return projectDao;
+    }
+
+    /**
+     * Gets the DAO for enquiries.
+     *
+     * @return The enquiry DAO.
+     */
+    @Override
+    public EnquiryDao getEnquiryDao() {
+        return enquiryDao;
+    }
+}
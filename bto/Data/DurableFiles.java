@@ -0,0 +1,350 @@
+package bto.Data;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared write layer used by every file writer in the data package.
+ * <p>
+ * Whole-file rewrites go to a temporary file in the same directory, which is then atomically renamed over the
+ * target, so a crash mid-write leaves either the old or the new file and never a truncated one. When the written
+ * bytes are forced to stable storage is decided by the {@link FsyncPolicy} in the {@code bto.fsync} system property:
+ * <ul>
+ *   <li>{@code ALWAYS} forces the temporary file before the rename and the directory after it.</li>
+ *   <li>{@code BATCHED} also forces the temporary file before the rename, so a rename never exposes a file whose
+ *       content is not on disk yet, but writers replacing files at the same time share a group commit: the first
+ *       one to arrive forces every temporary file queued so far while the others wait, and those arriving during
+ *       that pass are forced together in the next one. Each rename waits for the pass its temporary file was forced
+ *       in, so concurrent rewrites cost one pass rather than one force each; a lone writer still pays for its own
+ *       force. The directory, and files appended to or changed in place, are recorded and forced together every
+ *       {@code bto.fsync.intervalMs} milliseconds (100 by default) or as soon as {@code bto.fsync.batchOps} writes
+ *       (64 by default) are waiting, whichever comes first, and once more on shutdown.</li>
+ *   <li>{@code NEVER} leaves flushing to the operating system.</li>
+ * </ul>
+ */
+public final class DurableFiles {
+    private static final FsyncPolicy POLICY = FsyncPolicy.fromSystemProperty();
+    private static final long BATCH_INTERVAL_MS = Long.getLong("bto.fsync.intervalMs", 100);
+    private static final int BATCH_OPS = Integer.getInteger("bto.fsync.batchOps", 64);
+    private static final AtomicLong TEMP_COUNTER = new AtomicLong();
+
+    private static final Set<Path> dirtyFiles = ConcurrentHashMap.newKeySet();
+    private static final Set<Path> dirtyDirectories = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger pendingWrites = new AtomicInteger();
+
+    private static final List<ForceRequest> forceQueue = new ArrayList<>();
+    private static boolean forcing;
+
+    static {
+        if (POLICY == FsyncPolicy.BATCHED) {
+            ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "durable-files-group-commit");
+                t.setDaemon(true);
+                return t;
+            });
+            committer.scheduleWithFixedDelay(DurableFiles::sync, BATCH_INTERVAL_MS, BATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(DurableFiles::sync, "durable-files-shutdown-sync"));
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DurableFiles() {
+    }
+
+    /**
+     * Writes the content of a file as bytes.
+     */
+    public interface Content {
+        /**
+         * Writes the content.
+         *
+         * @param out The stream to write to. It is flushed and closed by the caller.
+         * @throws IOException If the content cannot be written.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content of a file as UTF-8 text.
+     */
+    public interface TextContent {
+        /**
+         * Writes the content.
+         *
+         * @param writer The writer to write to. It is flushed and closed by the caller.
+         * @throws IOException If the content cannot be written.
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * A temporary file waiting for a group commit to force it.
+     */
+    private static final class ForceRequest {
+        final FileChannel channel;
+        boolean done;
+        IOException failure;
+
+        /**
+         * Constructs a ForceRequest.
+         *
+         * @param channel The open channel of the temporary file.
+         */
+        ForceRequest(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Gets the fsync policy in effect.
+     *
+     * @return The policy selected by the {@code bto.fsync} system property.
+     */
+    public static FsyncPolicy getPolicy() {
+        return POLICY;
+    }
+
+    /**
+     * Atomically replaces a file with new content.
+     *
+     * @param filePath The path of the file to replace. It is created if it does not exist.
+     * @param content Writes the new content.
+     * @throws IOException If the content cannot be written or the file cannot be replaced.
+     */
+    public static void replace(String filePath, Content content) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path directory = target.getParent();
+        Path temp = directory.resolve(target.getFileName() + "." + TEMP_COUNTER.incrementAndGet() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                     StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+                content.writeTo(out);
+                out.flush();
+                // The content must be durable before the rename can publish it.
+                if (POLICY == FsyncPolicy.ALWAYS) {
+                    channel.force(true);
+                } else if (POLICY == FsyncPolicy.BATCHED) {
+                    groupForce(channel);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        if (POLICY == FsyncPolicy.ALWAYS) {
+            force(directory, true);
+        } else if (POLICY == FsyncPolicy.BATCHED) {
+            markDirty(null, directory);
+        }
+    }
+
+    /**
+     * Atomically replaces a file with new text content.
+     *
+     * @param filePath The path of the file to replace. It is created if it does not exist.
+     * @param content Writes the new content.
+     * @throws IOException If the content cannot be written or the file cannot be replaced.
+     */
+    public static void replaceText(String filePath, TextContent content) throws IOException {
+        replace(filePath, out -> writeText(out, content));
+    }
+
+    /**
+     * Appends text to a file.
+     * Unlike {@link #replaceText(String, TextContent)} an append is not atomic; a crash mid-append can leave a
+     * partial last line, which readers of appended files are expected to skip.
+     *
+     * @param filePath The path of the file to append to. It is created if it does not exist.
+     * @param content Writes the text to append.
+     * @throws IOException If the text cannot be appended.
+     */
+    public static void appendText(String filePath, TextContent content) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        boolean created = !Files.exists(target);
+        try (FileChannel channel = FileChannel.open(target,
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+            writeText(out, content);
+            if (POLICY == FsyncPolicy.ALWAYS) channel.force(false);
+        }
+
+        if (POLICY == FsyncPolicy.ALWAYS) {
+            if (created) force(target.getParent(), true);
+        } else if (POLICY == FsyncPolicy.BATCHED) {
+            markDirty(target, created ? target.getParent() : null);
+        }
+    }
+
+    /**
+     * Reads a stamp that changes every time a file is written through this class, even by another process.
+     * Every rewrite creates a new file, so the stamp combines the file's identity with its modification time and size.
+     *
+     * @param file The file to stamp.
+     * @return The stamp, which is {@code {0, 0, -1}} if the file does not exist.
+     */
+    static long[] stamp(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            Object key = attributes.fileKey();
+            return new long[] {
+                key == null ? 0 : key.hashCode(),
+                attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                attributes.size()
+            };
+        } catch (IOException e) {
+            return new long[] {0, 0, -1};
+        }
+    }
+
+    /**
+     * Records a file that was changed in place, such as through a memory mapping, for the next group commit.
+     * Does nothing unless the policy is {@link FsyncPolicy#BATCHED}; under {@link FsyncPolicy#ALWAYS} the writer
+     * forces its own changes.
+     *
+     * @param filePath The path of the changed file.
+     */
+    static void markWritten(String filePath) {
+        if (POLICY == FsyncPolicy.BATCHED) markDirty(Paths.get(filePath).toAbsolutePath(), null);
+    }
+
+    /**
+     * Forces every write still waiting for a group commit to stable storage.
+     * Does nothing unless the policy is {@link FsyncPolicy#BATCHED}.
+     */
+    public static synchronized void sync() {
+        pendingWrites.set(0);
+        for (Path file : drain(dirtyFiles)) {
+            force(file, false);
+        }
+        for (Path directory : drain(dirtyDirectories)) {
+            force(directory, true);
+        }
+    }
+
+    /**
+     * Forces a temporary file in a group commit shared with every other writer waiting at the same time.
+     * The first writer to find no pass running leads one: it takes every queued file, forces them one after the
+     * other and wakes their writers. Writers arriving meanwhile queue for the next pass, which one of them leads.
+     * The caller's channel stays open until the pass that forces it is over, so waiting is not interruptible.
+     *
+     * @param channel The open channel of the temporary file.
+     * @throws IOException If the file cannot be forced.
+     */
+    private static void groupForce(FileChannel channel) throws IOException {
+        ForceRequest request = new ForceRequest(channel);
+        List<ForceRequest> batch = null;
+        boolean interrupted = false;
+        synchronized (forceQueue) {
+            forceQueue.add(request);
+            while (!request.done && forcing) {
+                try {
+                    forceQueue.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (!request.done) {
+                forcing = true;
+                batch = new ArrayList<>(forceQueue);
+                forceQueue.clear();
+            }
+        }
+        if (batch != null) {
+            try {
+                for (ForceRequest queued : batch) {
+                    try {
+                        queued.channel.force(true);
+                    } catch (IOException e) {
+                        queued.failure = e;
+                    }
+                }
+            } finally {
+                synchronized (forceQueue) {
+                    for (ForceRequest queued : batch) {
+                        queued.done = true;
+                    }
+                    forcing = false;
+                    forceQueue.notifyAll();
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (request.failure != null) throw request.failure;
+    }
+
+    /**
+     * Records a written file for the next group commit, and runs the commit right away if enough writes are waiting.
+     *
+     * @param file The written file, or {@code null} if its content is already durable.
+     * @param directory The directory whose entries changed, or {@code null} if none did.
+     */
+    private static void markDirty(Path file, Path directory) {
+        if (file != null) dirtyFiles.add(file);
+        if (directory != null) dirtyDirectories.add(directory);
+        if (pendingWrites.incrementAndGet() >= BATCH_OPS) sync();
+    }
+
+    /**
+     * Removes and returns every path in a set.
+     *
+     * @param paths The set to drain.
+     * @return The paths that were in the set.
+     */
+    private static List<Path> drain(Set<Path> paths) {
+        List<Path> drained = new ArrayList<>(paths);
+        paths.removeAll(drained);
+        return drained;
+    }
+
+    /**
+     * Forces a file or directory to stable storage.
+     * Files deleted since they were written are skipped, and directories are skipped on platforms that
+     * cannot open them.
+     *
+     * @param path The file or directory to force.
+     * @param directory Whether the path is a directory.
+     */
+    private static void force(Path path, boolean directory) {
+        try (FileChannel channel = FileChannel.open(path, directory ? StandardOpenOption.READ : StandardOpenOption.WRITE)) {
+            channel.force(true);
+        } catch (NoSuchFileException e) {
+            // Nothing left to make durable.
+        } catch (IOException e) {
+            if (!directory) System.err.println("Error syncing " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes text content to a stream as UTF-8, so files read the same whatever the platform default charset.
+     *
+     * @param out The stream to write to.
+     * @param content Writes the text.
+     * @throws IOException If the text cannot be written.
+     */
+    private static void writeText(OutputStream out, TextContent content) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        content.writeTo(writer);
+        writer.flush();
+    }
+}
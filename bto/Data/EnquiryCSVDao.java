@@ -1,7 +1,11 @@
 package bto.Data;
 
+import bto.Event.EnquiryReplyEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
 import bto.Model.Enquiry;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
@@ -9,11 +13,35 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * Implementation of the {@link EnquiryDao} interface for managing enquiries using a CSV file as the data source.
+ * Writes hold an exclusive {@link FileLockManager} lock on the file and reads hold a shared one, so threads and
+ * processes sharing the file never lose each other's changes. Every row carries a version, and an update based on
+ * anything but the stored version fails with a {@link VersionConflictException}.
  */
 public class EnquiryCSVDao implements EnquiryDao {
     private static final String CSV_FILE = "./bto/Data/CSV/Enquiries.csv";
-    private static final String HEADER = "EnquiryID,ApplicantNRIC,ProjectName,EnquiryDetails,CreatedTime,Reply,RepliedBy,RepliedTime";
+    private static final String HEADER = "EnquiryID,ApplicantNRIC,ProjectName,EnquiryDetails,CreatedTime,Reply,RepliedBy,RepliedTime,Version";
     private static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final String csvFile;
+    private final MappedEnquiryReader mappedReader;
+    private final FileLockManager locks;
+
+    /**
+     * Constructs an EnquiryCSVDao backed by the default enquiries CSV file.
+     */
+    public EnquiryCSVDao() {
+        this(CSV_FILE);
+    }
+
+    /**
+     * Constructs an EnquiryCSVDao backed by the specified CSV file.
+     *
+     * @param csvFile The path to the enquiries CSV file.
+     */
+    public EnquiryCSVDao(String csvFile) {
+        this.csvFile = csvFile;
+        this.mappedReader = new MappedEnquiryReader(csvFile, EnquiryCSVDao::parseEnquiry);
+        this.locks = FileLockManager.forFile(csvFile);
+    }
 
     /**
      * Saves a new enquiry to the CSV file.
@@ -22,17 +50,35 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public void save(Enquiry enquiry) {
-        List<Enquiry> allEnquiries = readAllEnquiries();
-        
-        if (enquiry.getId() == 0) {
-            int newId = generateNewId(allEnquiries);
-            enquiry = new Enquiry(newId, enquiry.getApplicantNric(), 
-                                enquiry.getProjectName(), enquiry.getDetails(), LocalDateTime.now(), 
-                                enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+        saveAll(List.of(enquiry));
+    }
+
+    /**
+     * Saves several new enquiries to the CSV file with a single rewrite.
+     * Enquiries without an ID are stored with IDs reserved from the enquiry ID sequence as a single block.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    @Override
+    public void saveAll(List<Enquiry> enquiries) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            int missing = (int) enquiries.stream().filter(e -> e.getId() == 0).count();
+            int nextId = missing == 0 ? 0 : generateNewIds(missing);
+
+            List<Enquiry> allEnquiries = readAllEnquiries();
+            for (Enquiry enquiry : enquiries) {
+                if (enquiry.getId() == 0) {
+                    enquiry = new Enquiry(nextId++, enquiry.getApplicantNric(),
+                                        enquiry.getProjectName(), enquiry.getDetails(), LocalDateTime.now(),
+                                        enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+                }
+                allEnquiries.add(enquiry);
+            }
+            writeAllEnquiries(allEnquiries);
+        } finally {
+            held.close();
         }
-        
-        allEnquiries.add(enquiry);
-        writeAllEnquiries(allEnquiries);
     }
 
     /**
@@ -42,10 +88,113 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public void update(Enquiry enquiry) {
-        List<Enquiry> updated = readAllEnquiries().stream()
-            .map(e -> e.getId() == enquiry.getId() ? enquiry : e)
-            .collect(Collectors.toList());
-        writeAllEnquiries(updated);
+        updateAll(List.of(enquiry));
+    }
+
+    /**
+     * Updates several existing enquiries in the CSV file with a single rewrite.
+     * Either every enquiry is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored enquiry and the given copy.
+     *
+     * @param enquiries The enquiries to update.
+     * @throws VersionConflictException If an enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Enquiry> enquiries) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Event> events = new ArrayList<>();
+            Map<Integer, Enquiry> changed = new HashMap<>();
+            for (Enquiry enquiry : enquiries) {
+                changed.put(enquiry.getId(), enquiry);
+            }
+            List<Enquiry> allEnquiries = readAllEnquiries();
+            List<Enquiry> matched = new ArrayList<>();
+            for (Enquiry stored : allEnquiries) {
+                Enquiry enquiry = changed.get(stored.getId());
+                if (enquiry == null) continue;
+                if (enquiry.getVersion() != stored.getVersion()) {
+                    throw new VersionConflictException("Enquiry", stored.getId(), enquiry.getVersion(), stored.getVersion());
+                }
+                if (EnquiryReplyEvent.isNewReply(stored, enquiry)) {
+                    events.add(new EnquiryReplyEvent(enquiry));
+                }
+                matched.add(enquiry);
+            }
+            List<Enquiry> updated = allEnquiries.stream()
+                .map(e -> changed.containsKey(e.getId()) ? nextVersion(changed.get(e.getId())) : e)
+                .collect(Collectors.toList());
+            writeAllEnquiries(updated);
+            matched.forEach(enquiry -> enquiry.setVersion(enquiry.getVersion() + 1));
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Copies an enquiry about to be written with its version incremented. The caller's copy is only incremented
+     * once the write succeeded.
+     *
+     * @param enquiry The enquiry.
+     * @return The copy to write.
+     */
+    private static Enquiry nextVersion(Enquiry enquiry) {
+        Enquiry copy = new Enquiry(enquiry);
+        copy.setVersion(enquiry.getVersion() + 1);
+        return copy;
+    }
+
+    /**
+     * Applies a batch of changes prepared by {@link WriteBehindEnquiryDao} with a single rewrite.
+     * The changed enquiries already carry their final versions. A change to a stored enquiry is only applied if the
+     * stored version is still the one the change was based on; deletions are applied unconditionally.
+     *
+     * @param changes The new state of each changed enquiry keyed by ID, or {@code null} for a deleted one.
+     * @param baseVersions The stored version each change to an existing enquiry was based on, keyed by ID.
+     *                     Enquiries without an entry are new.
+     * @return The IDs of the changes that were not applied because the stored enquiry had changed or was deleted.
+     * @throws UncheckedIOException If the CSV file cannot be written. None of the changes is applied then.
+     */
+    Set<Integer> applyBatch(Map<Integer, Enquiry> changes, Map<Integer, Integer> baseVersions) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            Set<Integer> conflicts = new HashSet<>();
+            Set<Integer> stored = new HashSet<>();
+            List<Enquiry> updated = new ArrayList<>();
+            for (Enquiry enquiry : readAllEnquiries()) {
+                stored.add(enquiry.getId());
+                if (!changes.containsKey(enquiry.getId())) {
+                    updated.add(enquiry);
+                    continue;
+                }
+                Enquiry change = changes.get(enquiry.getId());
+                Integer base = baseVersions.get(enquiry.getId());
+                if (change == null) continue;
+                if (base != null && base != enquiry.getVersion()) {
+                    conflicts.add(enquiry.getId());
+                    updated.add(enquiry);
+                } else {
+                    updated.add(change);
+                }
+            }
+            changes.forEach((id, change) -> {
+                if (change == null || stored.contains(id)) return;
+                if (baseVersions.containsKey(id)) {
+                    conflicts.add(id);
+                } else {
+                    updated.add(change);
+                }
+            });
+            try {
+                writeEnquiries(updated);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write enquiries to " + csvFile, e);
+            }
+            return conflicts;
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -55,10 +204,15 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public void delete(int enquiryId) {
-        List<Enquiry> filtered = readAllEnquiries().stream()
-            .filter(e -> e.getId() != enquiryId)
-            .collect(Collectors.toList());
-        writeAllEnquiries(filtered);
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Enquiry> filtered = readAllEnquiries().stream()
+                .filter(e -> e.getId() != enquiryId)
+                .collect(Collectors.toList());
+            writeAllEnquiries(filtered);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -69,10 +223,12 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public Enquiry findById(int enquiryId) {
-        return readAllEnquiries().stream()
-            .filter(e -> e.getId() == enquiryId)
-            .findFirst()
-            .orElse(null);
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            return mappedReader.findById(enquiryId);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -83,9 +239,12 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
-        return readAllEnquiries().stream()
-            .filter(e -> e.getApplicantNric().equalsIgnoreCase(applicantNric))
-            .collect(Collectors.toList());
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            return mappedReader.readWhere(MappedEnquiryReader.APPLICANT_NRIC, applicantNric);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -96,9 +255,12 @@ public class EnquiryCSVDao implements EnquiryDao {
      */
     @Override
     public List<Enquiry> getEnquiriesByProject(String projectName) {
-        return readAllEnquiries().stream()
-            .filter(e -> e.getProjectName().equalsIgnoreCase(projectName))
-            .collect(Collectors.toList());
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            return mappedReader.readWhere(MappedEnquiryReader.PROJECT_NAME, projectName);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -117,38 +279,56 @@ public class EnquiryCSVDao implements EnquiryDao {
      * @return A list of all enquiries.
      */
     public List<Enquiry> readAllEnquiries() {
-        List<Enquiry> enquiries = new ArrayList<>();
-        File file = new File(CSV_FILE);
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            List<Enquiry> enquiries = new ArrayList<>();
+            File file = new File(csvFile);
         
-        if (!file.exists()) initializeCsvFile();
+            if (!file.exists()) initializeCsvFile();
         
-        try (BufferedReader br = new BufferedReader(new FileReader(CSV_FILE))) {
-            br.readLine(); 
-            String line;
-            while ((line = br.readLine()) != null) {
-                Enquiry enq = parseEnquiry(line);
-                if (enq != null) enquiries.add(enq);
+            try (BufferedReader br = new BufferedReader(new FileReader(csvFile, StandardCharsets.UTF_8))) {
+                br.readLine(); 
+                String line;
+                while ((line = br.readLine()) != null) {
+                    Enquiry enq = parseEnquiry(line);
+                    if (enq != null) enquiries.add(enq);
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
+            return enquiries;
+        } finally {
+            held.close();
         }
-        return enquiries;
     }
 
     /**
-     * Writes all enquiries to the CSV file.
+     * Writes all enquiries to the CSV file, leaving the file as it was if the write fails.
      *
      * @param enquiries The list of enquiries to write.
+     * @throws UncheckedIOException If the file cannot be written.
      */
     private void writeAllEnquiries(List<Enquiry> enquiries) {
-        try (FileWriter writer = new FileWriter(CSV_FILE)) {
+        try {
+            writeEnquiries(enquiries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write enquiries to " + csvFile, e);
+        }
+    }
+
+    /**
+     * Writes all enquiries to the CSV file, leaving the file as it was if the write fails.
+     *
+     * @param enquiries The list of enquiries to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeEnquiries(List<Enquiry> enquiries) throws IOException {
+        DurableFiles.replaceText(csvFile, writer -> {
             writer.write(HEADER + "\n");
             for (Enquiry enq : enquiries) {
                 writer.write(toCsvLine(enq) + "\n");
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
-        }
+        });
     }
 
     /**
@@ -157,10 +337,10 @@ public class EnquiryCSVDao implements EnquiryDao {
      * @param csvLine The CSV line to parse.
      * @return The parsed {@link Enquiry} object, or {@code null} if parsing fails.
      */
-    private Enquiry parseEnquiry(String csvLine) {
+    static Enquiry parseEnquiry(String csvLine) {
         try {
             String[] parts = csvLine.split(",", -1);
-            return new Enquiry(
+            Enquiry enquiry = new Enquiry(
                 Integer.parseInt(parts[0]),
                 parts[1],
                 parts[2],
@@ -170,6 +350,10 @@ public class EnquiryCSVDao implements EnquiryDao {
                 parts[6].equals("null") ? null : parts[6],
                 parts[7].equals("null") ? null : LocalDateTime.parse(parts[7], DT_FORMATTER)
             );
+            if (parts.length > 8 && !parts[8].isEmpty()) {
+                enquiry.setVersion(Integer.parseInt(parts[8]));
+            }
+            return enquiry;
         } catch (Exception e) {
             System.err.println("Error parsing enquiry: " + csvLine);
             return null;
@@ -182,7 +366,7 @@ public class EnquiryCSVDao implements EnquiryDao {
      * @param enq The enquiry to convert.
      * @return A string representing the enquiry in CSV format.
      */
-    private String toCsvLine(Enquiry enq) {
+    static String toCsvLine(Enquiry enq) {
         return String.join(",",
             String.valueOf(enq.getId()),
             enq.getApplicantNric(),
@@ -191,29 +375,40 @@ public class EnquiryCSVDao implements EnquiryDao {
             enq.getCreatedTime() != null ? enq.getCreatedTime().format(DT_FORMATTER) : "null",
             enq.getReply() != null ? enq.getReply() : "null",
             enq.getRepliedBy() != null ? enq.getRepliedBy() : "null",
-            enq.getRepliedTime() != null ? enq.getRepliedTime().format(DT_FORMATTER) : "null"
+            enq.getRepliedTime() != null ? enq.getRepliedTime().format(DT_FORMATTER) : "null",
+            String.valueOf(enq.getVersion())
         );
     }
 
     /**
-     * Generates a new unique ID for an enquiry.
+     * Reserves a block of new unique enquiry IDs from the shared enquiry ID sequence.
      *
-     * @param existing The list of existing enquiries.
-     * @return A new unique ID.
+     * @param count The number of IDs to reserve.
+     * @return The first ID of the block.
      */
-    private int generateNewId(List<Enquiry> existing) {
-        return existing.stream()
+    int generateNewIds(int count) {
+        return Math.toIntExact(IdSequence.forFile(csvFile, this::maxEnquiryId).nextBlock(count));
+    }
+
+    /**
+     * Finds the largest enquiry ID in the CSV file.
+     * Keeps the ID sequence from handing out an ID already in use.
+     *
+     * @return The largest enquiry ID, or 0 if there are none.
+     */
+    private long maxEnquiryId() {
+        return readAllEnquiries().stream()
             .mapToInt(Enquiry::getId)
             .max()
-            .orElse(0) + 1;
+            .orElse(0);
     }
 
     /**
      * Initializes the CSV file by creating it and writing the header.
      */
     private void initializeCsvFile() {
-        try (FileWriter writer = new FileWriter(CSV_FILE)) {
-            writer.write(HEADER + "\n");
+        try {
+            DurableFiles.replaceText(csvFile, writer -> writer.write(HEADER + "\n"));
         } catch (IOException e) {
             System.err.println(e.getMessage());
         }
@@ -5,6 +5,7 @@ import java.util.List;
 
 /**
  * Data Access Object (DAO) interface for managing enquiry-related operations.
+ * Writes that cannot be stored throw an unchecked exception and leave the stored data unchanged.
  */
 public interface EnquiryDao {
 
@@ -15,6 +16,13 @@ public interface EnquiryDao {
      */
     void save(Enquiry enquiry);
 
+    /**
+     * Saves several new enquiries to the data source in a single write.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    void saveAll(List<Enquiry> enquiries);
+
     /**
      * Updates an existing enquiry in the data source.
      *
@@ -22,6 +30,14 @@ public interface EnquiryDao {
      */
     void update(Enquiry enquiry);
 
+    /**
+     * Updates several existing enquiries in the data source in a single write.
+     * An {@link bto.Event.EnquiryReplyEvent} is published for every enquiry that gets a new reply.
+     *
+     * @param enquiries The enquiries to update.
+     */
+    void updateAll(List<Enquiry> enquiries);
+
     /**
      * Deletes an enquiry from the data source by its ID.
      *
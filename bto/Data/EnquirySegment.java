@@ -0,0 +1,228 @@
+package bto.Data;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable segment file of the {@link LsmEnquiryDao}: enquiry records sorted by ID.
+ * <p>
+ * Each record is a kind byte ({@code 0} for a stored enquiry, {@code 1} for a tombstone), the length of its payload
+ * and the payload, which is the enquiry's CSV line. The records are followed by a footer holding every ID and the
+ * offset of its record, and a trailer giving the offset of the footer. Opening a segment reads only the footer; a
+ * lookup binary-searches it and reads a single record, and a range scan reads the records of the range in one read.
+ */
+final class EnquirySegment implements AutoCloseable {
+    private static final int MAGIC = 0x42544F53;
+    private static final byte PUT = 0;
+    private static final byte TOMBSTONE = 1;
+    private static final int TRAILER_BYTES = 8 + 4;
+
+    private final File file;
+    private final FileChannel channel;
+    private final int[] ids;
+    private final long[] offsets;
+
+    /**
+     * Opens a segment file and reads its footer.
+     *
+     * @param file The segment file.
+     * @throws IOException If the file cannot be read or is not a segment file.
+     */
+    EnquirySegment(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < TRAILER_BYTES) throw new IOException(file + " is not an enquiry segment");
+            ByteBuffer trailer = read(size - TRAILER_BYTES, TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || footerOffset < 0 || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException(file + " is not an enquiry segment");
+            }
+            ByteBuffer footer = read(footerOffset, (int) (size - TRAILER_BYTES - footerOffset));
+            int count = footer.getInt();
+            ids = new int[count];
+            offsets = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                ids[i] = footer.getInt();
+            }
+            for (int i = 0; i <= count; i++) {
+                offsets[i] = footer.getLong();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a segment file. The file is written through {@link DurableFiles}, so it appears whole or not at all.
+     *
+     * @param file The file to write.
+     * @param records The CSV line of each enquiry keyed by ID, or {@code null} for a tombstone.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(File file, NavigableMap<Integer, String> records) throws IOException {
+        DurableFiles.replace(file.getPath(), out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            int[] ids = new int[records.size()];
+            long[] offsets = new long[records.size() + 1];
+            int i = 0;
+            long offset = 0;
+            for (Map.Entry<Integer, String> record : records.entrySet()) {
+                byte[] payload = record.getValue() == null
+                    ? new byte[0]
+                    : record.getValue().getBytes(StandardCharsets.UTF_8);
+                ids[i] = record.getKey();
+                offsets[i++] = offset;
+                data.writeByte(record.getValue() == null ? TOMBSTONE : PUT);
+                data.writeInt(payload.length);
+                data.write(payload);
+                offset += 1 + 4 + payload.length;
+            }
+            offsets[i] = offset;
+
+            data.writeInt(ids.length);
+            for (int id : ids) {
+                data.writeInt(id);
+            }
+            for (long o : offsets) {
+                data.writeLong(o);
+            }
+            data.writeLong(offset);
+            data.writeInt(MAGIC);
+            data.flush();
+        });
+    }
+
+    /**
+     * Gets the segment file.
+     *
+     * @return The file.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of records, tombstones included.
+     *
+     * @return The number of records.
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Gets the largest ID in the segment.
+     *
+     * @return The largest ID, or 0 if the segment is empty.
+     */
+    int maxId() {
+        return ids.length == 0 ? 0 : ids[ids.length - 1];
+    }
+
+    /**
+     * Checks whether the segment has a record, stored or tombstone, for an ID.
+     *
+     * @param id The enquiry ID.
+     * @return {@code true} if the segment has a record for the ID.
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Reads the record of an ID.
+     *
+     * @param id The enquiry ID, which must be {@link #contains(int) contained} in the segment.
+     * @return The CSV line of the enquiry, or {@code null} for a tombstone.
+     * @throws IOException If the record cannot be read.
+     */
+    String get(int id) throws IOException {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) throw new IllegalArgumentException("Enquiry " + id + " is not in " + file);
+        ByteBuffer buffer = read(offsets[i], (int) (offsets[i + 1] - offsets[i]));
+        return decode(buffer);
+    }
+
+    /**
+     * Reads the records of a range of IDs in ascending order.
+     *
+     * @param fromId The smallest ID of the range.
+     * @param toId The largest ID of the range.
+     * @param consumer Takes each ID with its CSV line, or {@code null} for a tombstone.
+     * @throws IOException If the records cannot be read.
+     */
+    void scan(int fromId, int toId, BiConsumer<Integer, String> consumer) throws IOException {
+        int first = lowerBound(fromId);
+        int last = lowerBound(toId == Integer.MAX_VALUE ? toId : toId + 1);
+        if (toId == Integer.MAX_VALUE && last < ids.length && ids[last] == toId) last++;
+        if (first >= last) return;
+        ByteBuffer buffer = read(offsets[first], (int) (offsets[last] - offsets[first]));
+        for (int i = first; i < last; i++) {
+            consumer.accept(ids[i], decode(buffer));
+        }
+    }
+
+    /**
+     * Closes the segment file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds the position of the first ID not smaller than a value.
+     *
+     * @param id The value.
+     * @return The position, or the number of IDs if every ID is smaller.
+     */
+    private int lowerBound(int id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Decodes the record at the position of a buffer and advances past it.
+     *
+     * @param buffer The buffer.
+     * @return The CSV line, or {@code null} for a tombstone.
+     */
+    private static String decode(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        byte[] payload = new byte[buffer.getInt()];
+        buffer.get(payload);
+        return kind == TOMBSTONE ? null : new String(payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a range of the file.
+     *
+     * @param position The offset of the range.
+     * @param length The length of the range.
+     * @return The bytes of the range.
+     * @throws IOException If the range cannot be read.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(file + " is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,339 @@
+package bto.Data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Shared and exclusive locks on a data file that hold across threads and across processes.
+ * <p>
+ * Data files are replaced by renaming a new file over them, so the operating system lock is taken on a
+ * {@code .lock} sidecar next to the data file instead of on the data file itself. Within one process, a
+ * {@link ReentrantReadWriteLock} decides which threads may proceed, because the operating system lock is held by
+ * the whole process: the first reader takes the shared operating system lock and the last reader releases it,
+ * and a writer takes the exclusive operating system lock. A thread holding the exclusive lock may also take the
+ * shared lock, but not the other way round. New readers wait behind a writer that is already waiting, so writers
+ * are not starved by a steady stream of readers.
+ * <p>
+ * Acquisition gives up after {@code bto.lock.timeoutMs} milliseconds (10000 by default) with a
+ * {@link LockTimeoutException}. Every manager counts its acquisitions, timeouts and time spent waiting.
+ */
+public class FileLockManager {
+    private static final Map<Path, FileLockManager> MANAGERS = new ConcurrentHashMap<>();
+    private static final long DEFAULT_TIMEOUT_MS = 10_000;
+    private static final long MAX_BACKOFF_MS = 50;
+
+    private final Path lockFile;
+    private final long timeoutNanos;
+    private final ReentrantReadWriteLock local = new ReentrantReadWriteLock();
+    private final ReentrantLock osState = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock sharedLock;
+    private int sharedHolders;
+    private FileLock exclusiveLock;
+
+    private final LongAdder sharedAcquisitions = new LongAdder();
+    private final LongAdder exclusiveAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * A held lock, released by {@link #close()}.
+     */
+    public interface Held extends AutoCloseable {
+        /**
+         * Releases the lock.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Constructs a FileLockManager on the specified lock file.
+     *
+     * @param lockFile The sidecar file the operating system lock is taken on.
+     * @param timeoutMillis How long to wait for a lock before giving up.
+     */
+    FileLockManager(Path lockFile, long timeoutMillis) {
+        this.lockFile = lockFile;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Gets the lock manager of a data file, creating it on first use.
+     * The lock sidecar is the data file path with {@code .lock} appended.
+     *
+     * @param dataFilePath The path of the data file.
+     * @return The lock manager shared by every DAO using the data file.
+     */
+    public static FileLockManager forFile(String dataFilePath) {
+        Path dataFile = Paths.get(dataFilePath).toAbsolutePath().normalize();
+        return MANAGERS.computeIfAbsent(dataFile, path -> new FileLockManager(
+            path.resolveSibling(path.getFileName() + ".lock"),
+            Long.getLong("bto.lock.timeoutMs", DEFAULT_TIMEOUT_MS)));
+    }
+
+    /**
+     * Gets every lock manager created so far, for reporting lock metrics.
+     *
+     * @return A snapshot of the lock managers.
+     */
+    public static Collection<FileLockManager> getAll() {
+        return new ArrayList<>(MANAGERS.values());
+    }
+
+    /**
+     * Acquires a shared lock, which other readers may hold at the same time.
+     *
+     * @return The held lock.
+     * @throws LockTimeoutException If the lock cannot be acquired in time.
+     */
+    public Held acquireShared() {
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        ReentrantReadWriteLock.ReadLock readLock = local.readLock();
+        lockLocally(readLock, deadline);
+
+        boolean takesOsLock = !local.isWriteLockedByCurrentThread();
+        if (takesOsLock) {
+            try {
+                acquireSharedOsLock(deadline);
+            } catch (RuntimeException e) {
+                readLock.unlock();
+                throw e;
+            }
+        }
+        recordWait(sharedAcquisitions, start);
+        return () -> {
+            if (takesOsLock) releaseSharedOsLock();
+            readLock.unlock();
+        };
+    }
+
+    /**
+     * Acquires an exclusive lock, which no other reader or writer may hold at the same time.
+     *
+     * @return The held lock.
+     * @throws LockTimeoutException If the lock cannot be acquired in time.
+     */
+    public Held acquireExclusive() {
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        ReentrantReadWriteLock.WriteLock writeLock = local.writeLock();
+        lockLocally(writeLock, deadline);
+
+        if (local.getWriteHoldCount() == 1) {
+            try {
+                exclusiveLock = pollOsLock(false, deadline);
+            } catch (RuntimeException e) {
+                writeLock.unlock();
+                throw e;
+            }
+        }
+        recordWait(exclusiveAcquisitions, start);
+        return () -> {
+            if (local.getWriteHoldCount() == 1) releaseOsLock(exclusiveLock);
+            writeLock.unlock();
+        };
+    }
+
+    /**
+     * Gets the number of shared locks acquired.
+     *
+     * @return The number of shared acquisitions.
+     */
+    public long getSharedAcquisitions() {
+        return sharedAcquisitions.sum();
+    }
+
+    /**
+     * Gets the number of exclusive locks acquired.
+     *
+     * @return The number of exclusive acquisitions.
+     */
+    public long getExclusiveAcquisitions() {
+        return exclusiveAcquisitions.sum();
+    }
+
+    /**
+     * Gets the number of acquisitions that timed out.
+     *
+     * @return The number of timeouts.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Gets the total time spent waiting for locks that were acquired.
+     *
+     * @return The total wait time in milliseconds.
+     */
+    public double getTotalWaitMillis() {
+        return totalWaitNanos.sum() / 1e6;
+    }
+
+    /**
+     * Gets the longest time spent waiting for a lock that was acquired.
+     *
+     * @return The longest wait time in milliseconds.
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * Returns a one-line summary of the lock metrics.
+     *
+     * @return The lock file name followed by its acquisition counts and wait times.
+     */
+    @Override
+    public String toString() {
+        long acquisitions = getSharedAcquisitions() + getExclusiveAcquisitions();
+        return String.format("%s: %d shared, %d exclusive, %d timeouts, avg wait %.3f ms, max wait %.3f ms",
+            lockFile.getFileName(), getSharedAcquisitions(), getExclusiveAcquisitions(), getTimeouts(),
+            acquisitions == 0 ? 0 : getTotalWaitMillis() / acquisitions, getMaxWaitMillis());
+    }
+
+    /**
+     * Takes an in-process lock, waiting until the deadline if it is not immediately available.
+     * The timed {@link Lock#tryLock(long, TimeUnit)} is used even for the first attempt: unlike the untimed
+     * {@link Lock#tryLock()}, it does not barge past a writer already queued on the read-write lock, so a steady
+     * stream of readers cannot starve writers.
+     *
+     * @param lock The lock to take.
+     * @param deadline The {@link System#nanoTime()} to give up at.
+     * @throws LockTimeoutException If the lock cannot be taken in time.
+     */
+    private void lockLocally(Lock lock, long deadline) {
+        try {
+            if (lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw timedOut();
+    }
+
+    /**
+     * Takes the shared operating system lock on behalf of one more reader in this process.
+     *
+     * @param deadline The {@link System#nanoTime()} to give up at.
+     */
+    private void acquireSharedOsLock(long deadline) {
+        lockLocally(osState, deadline);
+        try {
+            if (sharedHolders == 0) sharedLock = pollOsLock(true, deadline);
+            sharedHolders++;
+        } finally {
+            osState.unlock();
+        }
+    }
+
+    /**
+     * Releases the shared operating system lock once the last reader in this process is done.
+     */
+    private void releaseSharedOsLock() {
+        osState.lock();
+        try {
+            if (--sharedHolders == 0) {
+                releaseOsLock(sharedLock);
+                sharedLock = null;
+            }
+        } finally {
+            osState.unlock();
+        }
+    }
+
+    /**
+     * Polls for the operating system lock on the sidecar file until it is granted or the deadline passes.
+     *
+     * @param shared Whether to take a shared rather than an exclusive lock.
+     * @param deadline The {@link System#nanoTime()} to give up at.
+     * @return The granted lock.
+     * @throws LockTimeoutException If the lock is not granted in time.
+     */
+    private FileLock pollOsLock(boolean shared, long deadline) {
+        long backoff = 1;
+        try {
+            FileChannel ch = channel();
+            while (true) {
+                FileLock lock = ch.tryLock(0, Long.MAX_VALUE, shared);
+                if (lock != null) return lock;
+                if (System.nanoTime() >= deadline) throw timedOut();
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not lock " + lockFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut();
+        }
+    }
+
+    /**
+     * Releases an operating system lock.
+     *
+     * @param lock The lock to release.
+     */
+    private void releaseOsLock(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            System.err.println("Error releasing lock " + lockFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the channel of the sidecar file, opening it on first use. It stays open for the life of the process,
+     * since closing it would drop every lock held through it.
+     *
+     * @return The channel of the sidecar file.
+     * @throws IOException If the sidecar file cannot be opened.
+     */
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(lockFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+
+    /**
+     * Records how long an acquisition waited.
+     *
+     * @param counter The acquisition counter to increment.
+     * @param start The {@link System#nanoTime()} the acquisition started at.
+     */
+    private void recordWait(LongAdder counter, long start) {
+        long waited = System.nanoTime() - start;
+        counter.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * Counts a timeout and builds the exception reporting it.
+     *
+     * @return The exception to throw.
+     */
+    private LockTimeoutException timedOut() {
+        timeouts.increment();
+        return new LockTimeoutException("Timed out waiting for lock on " + lockFile);
+    }
+}
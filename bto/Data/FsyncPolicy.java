@@ -0,0 +1,42 @@
+package bto.Data;
+
+/**
+ * Enum representing when writes made through {@link DurableFiles} are forced to stable storage.
+ */
+public enum FsyncPolicy {
+    /**
+     * Writes are never forced; the operating system flushes them whenever it chooses.
+     * A power loss may lose any write, but a crash of the program alone loses nothing.
+     */
+    NEVER,
+
+    /**
+     * The content of a replaced file is forced before the rename that publishes it, in a group commit shared by the
+     * writers replacing files at the same time, so concurrent rewrites wait for one pass of forces instead of each
+     * paying for its own. The renames themselves, and appends and in-place changes, are forced together once a time
+     * interval has passed or enough writes have piled up. A power loss may lose the renames and appends of the last
+     * interval, but a replaced file is never left with content that did not reach the disk.
+     */
+    BATCHED,
+
+    /**
+     * Every write is forced before it returns.
+     */
+    ALWAYS;
+
+    /**
+     * Gets the policy selected by the {@code bto.fsync} system property.
+     *
+     * @return The selected policy, or {@link #BATCHED} if the property is not set or not a valid policy.
+     */
+    public static FsyncPolicy fromSystemProperty() {
+        String value = System.getProperty("bto.fsync");
+        if (value == null) return BATCHED;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown fsync policy " + value + ", using " + BATCHED);
+            return BATCHED;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package bto.Data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic ID allocator for a CSV data file, persisted in a small sidecar file next to it.
+ * <p>
+ * IDs are handed out from an atomic counter in O(1). The sidecar only records a high-water mark: before any ID
+ * at or above the mark is handed out, a whole block of IDs is reserved by moving the mark forward and writing it
+ * to disk. An ID is therefore never reused after a restart, at the cost of skipping the unused part of the last
+ * block. Callers inserting many rows at once can reserve a contiguous block with {@link #nextBlock(int)}.
+ * <p>
+ * The mark is never trusted below the largest ID already in the data file, so a missing, empty or damaged sidecar
+ * can only skip IDs, never hand out one that exists.
+ */
+public class IdSequence {
+    private static final Map<String, IdSequence> SEQUENCES = new ConcurrentHashMap<>();
+    private static final int DEFAULT_BLOCK_SIZE = 32;
+
+    private final File sidecar;
+    private final int blockSize;
+    private final LongSupplier maxExistingId;
+    private final AtomicLong next;
+    private volatile long limit;
+
+    /**
+     * Constructs an IdSequence backed by the specified sidecar file.
+     *
+     * @param sidecar The file holding the high-water mark.
+     * @param blockSize The number of IDs reserved each time the sequence runs out.
+     * @param maxExistingId Supplies the largest ID already in use.
+     */
+    IdSequence(File sidecar, int blockSize, LongSupplier maxExistingId) {
+        this.sidecar = sidecar;
+        this.blockSize = Math.max(1, blockSize);
+        this.maxExistingId = maxExistingId;
+        long mark = Math.max(readMark(), maxExistingId.getAsLong() + 1);
+        this.next = new AtomicLong(mark);
+        this.limit = mark;
+    }
+
+    /**
+     * Gets the sequence for a CSV data file, creating it on first use.
+     * The sidecar is the data file path with its {@code .csv} extension replaced by {@code .seq}.
+     * The block size is taken from the {@code bto.id.blockSize} system property (32 by default).
+     *
+     * @param dataFilePath The path of the CSV data file the IDs belong to.
+     * @param maxExistingId Supplies the largest ID already in the data file. It is called when the sequence is created
+     *                      and whenever the sidecar cannot be read.
+     * @return The sequence shared by every DAO using the data file.
+     */
+    public static IdSequence forFile(String dataFilePath, LongSupplier maxExistingId) {
+        return SEQUENCES.computeIfAbsent(dataFilePath, path -> new IdSequence(
+            new File(path.replaceFirst("\\.csv$", "") + ".seq"),
+            Integer.getInteger("bto.id.blockSize", DEFAULT_BLOCK_SIZE),
+            maxExistingId));
+    }
+
+    /**
+     * Allocates the next ID.
+     *
+     * @return A new unique ID.
+     * @throws UncheckedIOException If a new block had to be reserved and its high-water mark could not be written.
+     */
+    public long next() {
+        return nextBlock(1);
+    }
+
+    /**
+     * Allocates a contiguous block of IDs.
+     *
+     * @param count The number of IDs to allocate.
+     * @return The first ID of the block; the block covers {@code [first, first + count)}.
+     * @throws UncheckedIOException If a new block had to be reserved and its high-water mark could not be written.
+     */
+    public long nextBlock(int count) {
+        if (count < 1) throw new IllegalArgumentException("Block size must be positive: " + count);
+        while (true) {
+            long first = next.get();
+            if (first + count <= limit) {
+                if (next.compareAndSet(first, first + count)) return first;
+            } else {
+                reserve(first, count);
+            }
+        }
+    }
+
+    /**
+     * Moves the high-water mark far enough to cover a block of IDs and persists it.
+     * The mark is read and written under an exclusive lock, so processes sharing the sidecar never reserve the same block.
+     * The new block is only used once its mark is on disk.
+     *
+     * @param first The first ID of the block the caller is trying to allocate.
+     * @param count The number of IDs in the block.
+     * @throws UncheckedIOException If the new high-water mark cannot be written.
+     */
+    private synchronized void reserve(long first, int count) {
+        if (first + count <= limit) return;
+
+        // Another process sharing the sidecar may have moved the mark; never hand out IDs below it.
+        FileLockManager.Held held = FileLockManager.forFile(sidecar.getPath()).acquireExclusive();
+        try {
+            long mark = readMark();
+            if (mark == 0) mark = maxExistingId.getAsLong() + 1;
+            long base = next.accumulateAndGet(mark, Math::max);
+            long newLimit = base + count + blockSize;
+            writeMark(newLimit);
+            limit = newLimit;
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Reads the high-water mark from the sidecar file.
+     *
+     * @return The high-water mark, or 0 if the sidecar is missing, empty or cannot be parsed.
+     */
+    private long readMark() {
+        if (!sidecar.exists()) return 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(sidecar, StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            if (line == null) {
+                System.err.println("ID sequence " + sidecar + " is empty");
+                return 0;
+            }
+            return Long.parseLong(line.trim());
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error reading ID sequence " + sidecar + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the high-water mark to the sidecar file.
+     *
+     * @param mark The new high-water mark.
+     * @throws UncheckedIOException If the sidecar cannot be written.
+     */
+    private void writeMark(long mark) {
+        try {
+            DurableFiles.replaceText(sidecar.getPath(), writer -> writer.write(mark + "\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not reserve IDs in " + sidecar, e);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package bto.Data;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authoritative count of available units for every flat type of every project.
+ * <p>
+ * The counts live in a fixed-width binary file mapped into memory: a header followed by one 128-byte slot per
+ * (project, flat type) pair, holding the available units, a state, the project name and the flat type. Reserving
+ * units is a compare-and-set on the 4-byte count in the mapping that fails instead of going below zero, so two
+ * officers booking the last unit at the same time cannot both succeed, even in different processes mapping the same
+ * file. A booking or withdrawal therefore writes a few bytes in place and takes no file lock. Project names are
+ * matched ignoring case, like project lookups in {@link ProjectCSVDao}.
+ * <p>
+ * Adding a flat type, removing a project and growing the file are made under the exclusive {@link FileLockManager}
+ * lock on the inventory file. Slots are only ever appended; removing a project marks its slots removed and bumps a
+ * generation number in the header, which tells every process to rebuild its slot lookup. A counter in the header
+ * changes on every write and serves as the file's {@link #stamp() stamp}, since in-place writes do not reliably
+ * change the file's modification time. A file in the older CSV format next to a new inventory file is imported
+ * when the new file is created.
+ */
+public class InventoryService {
+    private static final String DEFAULT_FILEPATH = "./bto/Data/CSV/Inventory.dat";
+    private static final int MAGIC = 0x42544F49;
+    private static final int FORMAT_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int USED_OFFSET = 12;
+    private static final int CHANGES_OFFSET = 16;
+    private static final int GENERATION_OFFSET = 24;
+
+    private static final int SLOT_BYTES = 128;
+    private static final int UNITS_OFFSET = 0;
+    private static final int STATE_OFFSET = 4;
+    private static final int NAME_OFFSET = 8;
+    private static final int NAME_BYTES = 96;
+    private static final int TYPE_OFFSET = NAME_OFFSET + 2 + NAME_BYTES;
+    private static final int TYPE_BYTES = SLOT_BYTES - TYPE_OFFSET - 2;
+    private static final int LIVE = 1;
+    private static final int REMOVED = 2;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final Map<String, InventoryService> SERVICES = new ConcurrentHashMap<>();
+
+    private final String filePath;
+    private final File file;
+    private final FileLockManager locks;
+    private volatile MappedByteBuffer buffer;
+    private volatile Map<String, Integer> slots = new HashMap<>();
+    private volatile int mappedCapacity;
+    private volatile int scanned;
+    private volatile int generation;
+
+    /**
+     * Constructs an InventoryService backed by the specified file, creating the file if it does not exist.
+     *
+     * @param filePath The path to the inventory file.
+     * @throws IllegalStateException If the file exists but is not an inventory file, or cannot be mapped.
+     */
+    InventoryService(String filePath) {
+        this.filePath = filePath;
+        this.file = new File(filePath);
+        this.locks = FileLockManager.forFile(filePath);
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            boolean created = !file.exists();
+            if (created) initializeFile();
+            remap();
+            if ((int) INT.getVolatile(buffer, MAGIC_OFFSET) != MAGIC
+                    || (int) INT.getVolatile(buffer, VERSION_OFFSET) != FORMAT_VERSION) {
+                throw new IllegalStateException(filePath + " is not an inventory file");
+            }
+            refreshView();
+            if (created) importCsv(new File(filePath.replaceFirst("\\.dat$", "") + ".csv"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open inventory " + filePath + ": " + e.getMessage(), e);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Gets the inventory stored in the default inventory file, creating it on first use.
+     *
+     * @return The inventory shared by every DAO in this process.
+     */
+    public static InventoryService getDefault() {
+        return forFile(DEFAULT_FILEPATH);
+    }
+
+    /**
+     * Gets the inventory stored in the specified file, creating it on first use.
+     *
+     * @param filePath The path to the inventory file.
+     * @return The inventory shared by every DAO using the file.
+     */
+    public static InventoryService forFile(String filePath) {
+        return SERVICES.computeIfAbsent(filePath, InventoryService::new);
+    }
+
+    /**
+     * Reads a stamp that changes every time any process changes the inventory.
+     *
+     * @return The write counter, the generation and the number of slots in the header.
+     */
+    long[] stamp() {
+        MappedByteBuffer current = buffer;
+        return new long[] {
+            (long) LONG.getVolatile(current, CHANGES_OFFSET),
+            (int) INT.getVolatile(current, GENERATION_OFFSET),
+            (int) INT.getVolatile(current, USED_OFFSET)
+        };
+    }
+
+    /**
+     * Gets the number of available units of a flat type.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @return The number of available units, or {@code null} if the flat type is not tracked yet.
+     */
+    public Integer getAvailableUnits(String projectName, String flatType) {
+        int slot = slotOf(projectName, flatType);
+        return slot < 0 ? null : (int) INT.getVolatile(buffer, unitsOffset(slot));
+    }
+
+    /**
+     * Starts tracking a flat type with the specified number of available units, unless it is already tracked.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param units The number of available units to start from.
+     * @return The number of available units now tracked, which is the existing count if the flat type was already tracked.
+     */
+    public int track(String projectName, String flatType, int units) {
+        Integer tracked = getAvailableUnits(projectName, flatType);
+        if (tracked != null) return tracked;
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            int slot = slotOf(projectName, flatType);
+            if (slot < 0) slot = allocate(projectName, flatType, units);
+            return (int) INT.getVolatile(buffer, unitsOffset(slot));
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Atomically reserves units of a flat type if enough are available.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param count The number of units to reserve.
+     * @return {@code true} if the units were reserved, {@code false} if fewer than {@code count} units are available
+     *         or the flat type is not tracked.
+     */
+    public boolean tryReserve(String projectName, String flatType, int count) {
+        int slot = slotOf(projectName, flatType);
+        if (slot < 0) return false;
+        MappedByteBuffer current = buffer;
+        int offset = unitsOffset(slot);
+        while (true) {
+            int units = (int) INT.getVolatile(current, offset);
+            if (units < count) return false;
+            if (INT.compareAndSet(current, offset, units, units - count)) break;
+        }
+        written(current, offset);
+        return true;
+    }
+
+    /**
+     * Returns previously reserved units of a flat type.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param count The number of units to return.
+     */
+    public void release(String projectName, String flatType, int count) {
+        int slot = slotOf(projectName, flatType);
+        if (slot < 0) return;
+        MappedByteBuffer current = buffer;
+        INT.getAndAdd(current, unitsOffset(slot), count);
+        written(current, unitsOffset(slot));
+    }
+
+    /**
+     * Sets the number of available units of a flat type, tracking it if it is not tracked yet.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param units The number of available units.
+     */
+    public void set(String projectName, String flatType, int units) {
+        int slot = slotOf(projectName, flatType);
+        if (slot < 0) {
+            FileLockManager.Held held = locks.acquireExclusive();
+            try {
+                slot = slotOf(projectName, flatType);
+                if (slot < 0) {
+                    allocate(projectName, flatType, units);
+                    return;
+                }
+            } finally {
+                held.close();
+            }
+        }
+        MappedByteBuffer current = buffer;
+        INT.setVolatile(current, unitsOffset(slot), units);
+        written(current, unitsOffset(slot));
+    }
+
+    /**
+     * Stops tracking every flat type of a project.
+     *
+     * @param projectName The name of the project.
+     */
+    public void remove(String projectName) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshView();
+            String prefix = projectName.toLowerCase(Locale.ROOT) + "\n";
+            boolean removed = false;
+            for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) continue;
+                INT.setVolatile(buffer, slotOffset(entry.getValue()) + STATE_OFFSET, REMOVED);
+                written(buffer, slotOffset(entry.getValue()));
+                removed = true;
+            }
+            if (!removed) return;
+            INT.getAndAdd(buffer, GENERATION_OFFSET, 1);
+            refreshView();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Picks up the flat types another process has added to or removed from the inventory file.
+     * Counts need no refreshing, since every process reads them from the shared mapping.
+     */
+    public void refresh() {
+        refreshView();
+    }
+
+    /**
+     * Finds the slot of a flat type, picking up slots added by other processes first.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @return The slot number, or -1 if the flat type is not tracked.
+     */
+    private int slotOf(String projectName, String flatType) {
+        refreshView();
+        Integer slot = slots.get(key(projectName, flatType));
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Brings the mapping and the slot lookup up to date with the header.
+     * Cheap when nothing changed: three volatile reads.
+     */
+    private void refreshView() {
+        MappedByteBuffer current = buffer;
+        if ((int) INT.getVolatile(current, USED_OFFSET) == scanned
+                && (int) INT.getVolatile(current, GENERATION_OFFSET) == generation
+                && (int) INT.getVolatile(current, CAPACITY_OFFSET) <= mappedCapacity) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                if ((int) INT.getVolatile(buffer, CAPACITY_OFFSET) > mappedCapacity) remap();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+            int currentGeneration = (int) INT.getVolatile(buffer, GENERATION_OFFSET);
+            int used = (int) INT.getAcquire(buffer, USED_OFFSET);
+            Map<String, Integer> lookup = currentGeneration == generation ? new HashMap<>(slots) : new HashMap<>();
+            int from = currentGeneration == generation ? scanned : 0;
+            for (int slot = from; slot < used; slot++) {
+                int offset = slotOffset(slot);
+                if ((int) INT.getVolatile(buffer, offset + STATE_OFFSET) != LIVE) continue;
+                lookup.put(key(readString(offset + NAME_OFFSET), readString(offset + TYPE_OFFSET)), slot);
+            }
+            slots = lookup;
+            generation = currentGeneration;
+            scanned = used;
+        }
+    }
+
+    /**
+     * Appends a slot for a flat type, growing the file if it is full.
+     * Must be called with the exclusive lock on the inventory file held.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param units The number of available units.
+     * @return The new slot number.
+     * @throws IllegalArgumentException If the project name or flat type does not fit in a slot.
+     */
+    private int allocate(String projectName, String flatType, int units) {
+        byte[] name = projectName.getBytes(StandardCharsets.UTF_8);
+        byte[] type = flatType.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_BYTES || type.length > TYPE_BYTES) {
+            throw new IllegalArgumentException("Project name or flat type too long for the inventory: "
+                + projectName + ", " + flatType);
+        }
+        synchronized (this) {
+            refreshView();
+            int slot = (int) INT.getVolatile(buffer, USED_OFFSET);
+            try {
+                if (slot >= (int) INT.getVolatile(buffer, CAPACITY_OFFSET)) grow();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot grow inventory " + filePath + ": " + e.getMessage(), e);
+            }
+
+            int offset = slotOffset(slot);
+            INT.setVolatile(buffer, offset + UNITS_OFFSET, units);
+            writeString(offset + NAME_OFFSET, name);
+            writeString(offset + TYPE_OFFSET, type);
+            INT.setRelease(buffer, offset + STATE_OFFSET, LIVE);
+            INT.setRelease(buffer, USED_OFFSET, slot + 1);
+            written(buffer, offset);
+            refreshView();
+            return slot;
+        }
+    }
+
+    /**
+     * Doubles the number of slots in the file and maps the larger file.
+     * Must be called with the exclusive lock on the inventory file held.
+     *
+     * @throws IOException If the file cannot be extended.
+     */
+    private void grow() throws IOException {
+        int capacity = (int) INT.getVolatile(buffer, CAPACITY_OFFSET) * 2;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        }
+        remap();
+        INT.setVolatile(buffer, CAPACITY_OFFSET, capacity);
+        mappedCapacity = capacity;
+        written(buffer, 0);
+    }
+
+    /**
+     * Maps the whole inventory file.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    private synchronized void remap() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer = mapped;
+            mappedCapacity = (int) ((channel.size() - HEADER_BYTES) / SLOT_BYTES);
+        }
+    }
+
+    /**
+     * Creates an empty inventory file. The file is written through {@link DurableFiles}, so a crash cannot leave a
+     * half-written header behind. Must be called with the exclusive lock on the inventory file held.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    private void initializeFile() throws IOException {
+        DurableFiles.replace(filePath, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(FORMAT_VERSION);
+            data.writeInt(INITIAL_CAPACITY);
+            data.writeInt(0);
+            data.write(new byte[HEADER_BYTES - 16 + INITIAL_CAPACITY * SLOT_BYTES]);
+            data.flush();
+        });
+    }
+
+    /**
+     * Imports the counts of an inventory file in the older CSV format, if it exists.
+     * Must be called with the exclusive lock on the inventory file held.
+     *
+     * @param csvFile The CSV file, with a header and one {@code ProjectName,FlatType,AvailableUnits} line per flat type.
+     */
+    private void importCsv(File csvFile) {
+        if (!csvFile.exists()) return;
+        try (BufferedReader br = new BufferedReader(new FileReader(csvFile, StandardCharsets.UTF_8))) {
+            br.readLine(); // Skip the header
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 3) continue;
+                try {
+                    int units = Integer.parseInt(parts[2].trim());
+                    if (slotOf(parts[0], parts[1]) < 0) allocate(parts[0], parts[1], units);
+                } catch (NumberFormatException e) {
+                    System.err.println("Error parsing inventory: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Makes an in-place write durable according to the {@link DurableFiles#getPolicy() fsync policy}.
+     *
+     * @param mapped The mapping that was written.
+     * @param offset The offset of the slot or header that was written.
+     */
+    private void written(MappedByteBuffer mapped, int offset) {
+        int start = offset < HEADER_BYTES ? 0 : slotOffset((offset - HEADER_BYTES) / SLOT_BYTES);
+        int length = offset < HEADER_BYTES ? HEADER_BYTES : SLOT_BYTES;
+        LONG.getAndAdd(mapped, CHANGES_OFFSET, 1L);
+        switch (DurableFiles.getPolicy()) {
+            case ALWAYS:
+                mapped.force(start, length);
+                break;
+            case BATCHED:
+                DurableFiles.markWritten(filePath);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Reads a length-prefixed string of a slot.
+     *
+     * @param offset The offset of the length.
+     * @return The string.
+     */
+    private String readString(int offset) {
+        MappedByteBuffer current = buffer;
+        byte[] bytes = new byte[current.getShort(offset)];
+        current.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a length-prefixed string of a slot.
+     *
+     * @param offset The offset of the length.
+     * @param bytes The UTF-8 bytes of the string.
+     */
+    private void writeString(int offset, byte[] bytes) {
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + 2, bytes);
+    }
+
+    /**
+     * Gets the offset of a slot in the file.
+     *
+     * @param slot The slot number.
+     * @return The offset of the slot.
+     */
+    private static int slotOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /**
+     * Gets the offset of the available units of a slot in the file.
+     *
+     * @param slot The slot number.
+     * @return The offset of the available units.
+     */
+    private static int unitsOffset(int slot) {
+        return slotOffset(slot) + UNITS_OFFSET;
+    }
+
+    /**
+     * Builds the slot lookup key of a flat type.
+     *
+     * @param projectName The name of the project, matched ignoring case.
+     * @param flatType The flat type.
+     * @return The lookup key.
+     */
+    private static String key(String projectName, String flatType) {
+        return projectName.toLowerCase(Locale.ROOT) + "\n" + flatType;
+    }
+}
@@ -0,0 +1,303 @@
+package bto.Data;
+
+import bto.Event.ApplicationStatusEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Implementation of the {@link ApplicationDao} interface backed by the {@code applications} table of an embedded SQL
+ * database.
+ * <p>
+ * Every query is a prepared statement, and lookups by applicant, project or status use the indexes on those
+ * columns. Writes run in a single transaction, so a batch is stored whole or not at all. An update must be based on
+ * the stored version, or it fails with a {@link VersionConflictException}; the version is checked by the
+ * {@code UPDATE} itself, so concurrent writers, in this process or another, never overwrite each other.
+ */
+public class JdbcApplicationDao implements ApplicationDao {
+    private static final String COLUMNS =
+        "id, project_name, applicant_nric, flat_type, status, created_time, withdrawal_requested, version";
+    private final ConnectionPool pool;
+
+    /**
+     * Constructs a JdbcApplicationDao.
+     *
+     * @param pool The pool of the database holding the applications table.
+     */
+    public JdbcApplicationDao(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Saves a new application to the database.
+     *
+     * @param application The application to save.
+     */
+    @Override
+    public void save(Application application) {
+        saveAll(List.of(application));
+    }
+
+    /**
+     * Saves several new applications to the database in a single transaction.
+     * Applications without an ID are given IDs reserved from the application ID sequence as a single block.
+     *
+     * @param applications The applications to save.
+     */
+    @Override
+    public void saveAll(List<Application> applications) {
+        if (applications.isEmpty()) return;
+        try {
+            pool.inTransaction(connection -> {
+                int missing = (int) applications.stream()
+                    .filter(app -> app.getId() == null || app.getId().isEmpty())
+                    .count();
+                long nextId = missing == 0 ? 0 : JdbcSchema.nextBlock(connection, JdbcSchema.APPLICATION_IDS, missing);
+                long position = JdbcSchema.nextBlock(connection, JdbcSchema.POSITIONS, applications.size());
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO applications ("
+                         + COLUMNS + ", project_key, position) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (Application app : applications) {
+                        if (app.getId() == null || app.getId().isEmpty()) app.setId(String.valueOf(nextId++));
+                        bind(insert, app, app.getVersion());
+                        insert.setString(9, JdbcSchema.key(app.getProjectName()));
+                        insert.setLong(10, position++);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not save applications: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Updates an existing application in the database.
+     *
+     * @param application The application to update.
+     */
+    @Override
+    public void update(Application application) {
+        updateAll(List.of(application));
+    }
+
+    /**
+     * Updates several existing applications in the database in a single transaction.
+     * Either every application is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored application and the given copy.
+     *
+     * @param applications The applications to update.
+     * @throws VersionConflictException If an application was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Application> applications) {
+        try {
+            List<Event> events = pool.inTransaction(connection -> {
+                List<Event> changed = new ArrayList<>();
+                try (PreparedStatement select = connection.prepareStatement(
+                         "SELECT status, version FROM applications WHERE id = ?");
+                     PreparedStatement update = connection.prepareStatement("UPDATE applications SET "
+                         + "id = ?, project_name = ?, applicant_nric = ?, flat_type = ?, status = ?, created_time = ?, "
+                         + "withdrawal_requested = ?, version = ?, project_key = ? WHERE id = ? AND version = ?")) {
+                    for (Application app : applications) {
+                        select.setString(1, app.getId());
+                        ApplicationStatus previous;
+                        try (ResultSet rs = select.executeQuery()) {
+                            if (!rs.next()) continue;
+                            previous = ApplicationStatus.valueOf(rs.getString(1));
+                            int stored = rs.getInt(2);
+                            if (stored != app.getVersion()) {
+                                throw new VersionConflictException("Application", app.getId(), app.getVersion(), stored);
+                            }
+                        }
+                        bind(update, app, app.getVersion() + 1);
+                        update.setString(9, JdbcSchema.key(app.getProjectName()));
+                        update.setString(10, app.getId());
+                        update.setInt(11, app.getVersion());
+                        if (update.executeUpdate() != 1) {
+                            throw new VersionConflictException("Application", app.getId(), app.getVersion(), storedVersion(connection, app.getId()));
+                        }
+                        if (app.getStatus() != previous) changed.add(new ApplicationStatusEvent(app, previous));
+                    }
+                }
+                return changed;
+            });
+            for (Application app : applications) {
+                app.setVersion(app.getVersion() + 1);
+            }
+            EventBus.getDefault().publishAll(events);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not update applications: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes an application from the database by its ID.
+     *
+     * @param applicationId The ID of the application to delete.
+     */
+    @Override
+    public void delete(String applicationId) {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement delete = lease.connection().prepareStatement("DELETE FROM applications WHERE id = ?")) {
+            delete.setString(1, applicationId);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not delete application " + applicationId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves an application by its ID.
+     *
+     * @param applicationId The ID of the application.
+     * @return An {@code Optional} containing the application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getApplicationById(String applicationId) {
+        return query("WHERE id = ?", applicationId).stream().findFirst();
+    }
+
+    /**
+     * Retrieves the active application for a specific applicant by their NRIC.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return An {@code Optional} containing the active application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getActiveApplication(String applicantNric) {
+        return getApplicationsByApplicant(applicantNric).stream()
+            .filter(app -> !app.getStatus().isTerminal())
+            .findFirst();
+    }
+
+    /**
+     * Retrieves all applications submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of applications submitted by the applicant.
+     */
+    @Override
+    public List<Application> getApplicationsByApplicant(String applicantNric) {
+        return query("WHERE applicant_nric = ?", applicantNric);
+    }
+
+    /**
+     * Retrieves all applications with a specific status.
+     *
+     * @param status The status to filter applications by.
+     * @return A list of applications with the specified status.
+     */
+    @Override
+    public List<Application> getApplicationsByStatus(String status) {
+        return query("WHERE status = ?", status.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Retrieves all applications for a specific project.
+     *
+     * @param projectName The name of the project.
+     * @return A list of applications for the specified project.
+     */
+    @Override
+    public List<Application> getApplicationsByProject(String projectName) {
+        return query("WHERE project_key = ?", JdbcSchema.key(projectName));
+    }
+
+    /**
+     * Retrieves all applications from the database.
+     *
+     * @return A list of all applications.
+     */
+    @Override
+    public List<Application> getAllApplications() {
+        return query("", null);
+    }
+
+    /**
+     * Runs a query on the applications table.
+     *
+     * @param where The {@code WHERE} clause, with at most one parameter, or an empty string for every row.
+     * @param parameter The value of the parameter, if the clause has one.
+     * @return The applications found, in insertion order.
+     */
+    private List<Application> query(String where, String parameter) {
+        List<Application> applications = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement select = lease.connection().prepareStatement(
+                 "SELECT " + COLUMNS + " FROM applications " + where + " ORDER BY position")) {
+            if (parameter != null) select.setString(1, parameter);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    applications.add(read(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return applications;
+    }
+
+    /**
+     * Gets the stored version of an application.
+     *
+     * @param connection The connection.
+     * @param applicationId The ID of the application.
+     * @return The stored version, or -1 if the application no longer exists.
+     * @throws SQLException If the query fails.
+     */
+    private static int storedVersion(Connection connection, String applicationId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT version FROM applications WHERE id = ?")) {
+            select.setString(1, applicationId);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Binds the columns of an application to the first eight parameters of a statement, in the order of
+     * {@link #COLUMNS}.
+     *
+     * @param statement The statement.
+     * @param app The application.
+     * @param version The version to store.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private static void bind(PreparedStatement statement, Application app, int version) throws SQLException {
+        statement.setString(1, app.getId());
+        statement.setString(2, app.getProjectName());
+        statement.setString(3, app.getApplicantNric());
+        statement.setString(4, app.getFlatType());
+        statement.setString(5, app.getStatus().name());
+        if (app.getCreatedTime() != null) {
+            statement.setTimestamp(6, Timestamp.valueOf(app.getCreatedTime()));
+        } else {
+            statement.setNull(6, Types.TIMESTAMP);
+        }
+        statement.setBoolean(7, app.getWithdrawalRequested());
+        statement.setInt(8, version);
+    }
+
+    /**
+     * Reads the application at the current row of a result set selecting {@link #COLUMNS}.
+     *
+     * @param rs The result set.
+     * @return The application.
+     * @throws SQLException If a column cannot be read.
+     */
+    private static Application read(ResultSet rs) throws SQLException {
+        Timestamp created = rs.getTimestamp(6);
+        Application app = new Application(rs.getString(2), rs.getString(3), rs.getString(4))
+            .setId(rs.getString(1))
+            .setStatus(ApplicationStatus.valueOf(rs.getString(5)))
+            .setCreatedTime(created == null ? null : created.toLocalDateTime())
+            .setVersion(rs.getInt(8));
+        app.setWithdrawalRequested(rs.getBoolean(7));
+        return app;
+    }
+}
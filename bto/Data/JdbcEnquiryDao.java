@@ -0,0 +1,274 @@
+package bto.Data;
+
+import bto.Event.EnquiryReplyEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Enquiry;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Implementation of the {@link EnquiryDao} interface backed by the {@code enquiries} table of an embedded SQL
+ * database.
+ * <p>
+ * Every query is a prepared statement, and lookups by applicant or project use the indexes on those columns. Writes
+ * run in a single transaction, and an update based on anything but the stored version fails with a
+ * {@link VersionConflictException}.
+ */
+public class JdbcEnquiryDao implements EnquiryDao {
+    private static final String COLUMNS =
+        "id, applicant_nric, project_name, details, created_time, reply, replied_by, replied_time, version";
+    private final ConnectionPool pool;
+
+    /**
+     * Constructs a JdbcEnquiryDao.
+     *
+     * @param pool The pool of the database holding the enquiries table.
+     */
+    public JdbcEnquiryDao(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Saves a new enquiry to the database.
+     *
+     * @param enquiry The enquiry to save.
+     */
+    @Override
+    public void save(Enquiry enquiry) {
+        saveAll(List.of(enquiry));
+    }
+
+    /**
+     * Saves several new enquiries to the database in a single transaction.
+     * Enquiries without an ID are stored with IDs reserved from the enquiry ID sequence as a single block.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    @Override
+    public void saveAll(List<Enquiry> enquiries) {
+        if (enquiries.isEmpty()) return;
+        try {
+            pool.inTransaction(connection -> {
+                int missing = (int) enquiries.stream().filter(e -> e.getId() == 0).count();
+                int nextId = missing == 0 ? 0
+                    : Math.toIntExact(JdbcSchema.nextBlock(connection, JdbcSchema.ENQUIRY_IDS, missing));
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO enquiries ("
+                         + COLUMNS + ", project_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (Enquiry enquiry : enquiries) {
+                        if (enquiry.getId() == 0) {
+                            enquiry = new Enquiry(nextId++, enquiry.getApplicantNric(),
+                                                enquiry.getProjectName(), enquiry.getDetails(), LocalDateTime.now(),
+                                                enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+                        }
+                        bind(insert, enquiry, enquiry.getVersion());
+                        insert.setString(10, JdbcSchema.key(enquiry.getProjectName()));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not save enquiries: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Updates an existing enquiry in the database.
+     *
+     * @param enquiry The enquiry to update.
+     */
+    @Override
+    public void update(Enquiry enquiry) {
+        updateAll(List.of(enquiry));
+    }
+
+    /**
+     * Updates several existing enquiries in the database in a single transaction.
+     * Either every enquiry is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored enquiry and the given copy.
+     *
+     * @param enquiries The enquiries to update.
+     * @throws VersionConflictException If an enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Enquiry> enquiries) {
+        try {
+            List<Event> events = pool.inTransaction(connection -> {
+                List<Event> replies = new ArrayList<>();
+                try (PreparedStatement select = connection.prepareStatement(
+                         "SELECT " + COLUMNS + " FROM enquiries WHERE id = ?");
+                     PreparedStatement update = connection.prepareStatement("UPDATE enquiries SET "
+                         + "id = ?, applicant_nric = ?, project_name = ?, details = ?, created_time = ?, reply = ?, "
+                         + "replied_by = ?, replied_time = ?, version = ?, project_key = ? WHERE id = ? AND version = ?")) {
+                    for (Enquiry enquiry : enquiries) {
+                        select.setInt(1, enquiry.getId());
+                        Enquiry stored;
+                        try (ResultSet rs = select.executeQuery()) {
+                            if (!rs.next()) continue;
+                            stored = read(rs);
+                        }
+                        if (stored.getVersion() != enquiry.getVersion()) {
+                            throw new VersionConflictException("Enquiry", enquiry.getId(), enquiry.getVersion(), stored.getVersion());
+                        }
+                        bind(update, enquiry, enquiry.getVersion() + 1);
+                        update.setString(10, JdbcSchema.key(enquiry.getProjectName()));
+                        update.setInt(11, enquiry.getId());
+                        update.setInt(12, enquiry.getVersion());
+                        if (update.executeUpdate() != 1) {
+                            throw new VersionConflictException("Enquiry", enquiry.getId(), enquiry.getVersion(), stored.getVersion() + 1);
+                        }
+                        if (EnquiryReplyEvent.isNewReply(stored, enquiry)) replies.add(new EnquiryReplyEvent(enquiry));
+                    }
+                }
+                return replies;
+            });
+            for (Enquiry enquiry : enquiries) {
+                enquiry.setVersion(enquiry.getVersion() + 1);
+            }
+            EventBus.getDefault().publishAll(events);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not update enquiries: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes an enquiry from the database by its ID.
+     *
+     * @param enquiryId The ID of the enquiry to delete.
+     */
+    @Override
+    public void delete(int enquiryId) {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement delete = lease.connection().prepareStatement("DELETE FROM enquiries WHERE id = ?")) {
+            delete.setInt(1, enquiryId);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not delete enquiry " + enquiryId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return The enquiry if found, or {@code null} if not found.
+     */
+    @Override
+    public Enquiry findById(int enquiryId) {
+        List<Enquiry> found = query("WHERE id = ?", enquiryId);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Retrieves all enquiries submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of enquiries submitted by the applicant.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
+        return query("WHERE applicant_nric = ?", applicantNric);
+    }
+
+    /**
+     * Retrieves all enquiries for a specific project.
+     *
+     * @param projectName The name of the project.
+     * @return A list of enquiries for the specified project.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByProject(String projectName) {
+        return query("WHERE project_key = ?", JdbcSchema.key(projectName));
+    }
+
+    /**
+     * Retrieves all enquiries from the database.
+     *
+     * @return A list of all enquiries.
+     */
+    @Override
+    public List<Enquiry> getAllEnquiries() {
+        return query("", null);
+    }
+
+    /**
+     * Runs a query on the enquiries table.
+     *
+     * @param where The {@code WHERE} clause, with at most one parameter, or an empty string for every row.
+     * @param parameter The value of the parameter, if the clause has one.
+     * @return The enquiries found, in ID order.
+     */
+    private List<Enquiry> query(String where, Object parameter) {
+        List<Enquiry> enquiries = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement select = lease.connection().prepareStatement(
+                 "SELECT " + COLUMNS + " FROM enquiries " + where + " ORDER BY id")) {
+            if (parameter != null) select.setObject(1, parameter);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    enquiries.add(read(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return enquiries;
+    }
+
+    /**
+     * Binds the columns of an enquiry to the first nine parameters of a statement, in the order of {@link #COLUMNS}.
+     *
+     * @param statement The statement.
+     * @param enquiry The enquiry.
+     * @param version The version to store.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private static void bind(PreparedStatement statement, Enquiry enquiry, int version) throws SQLException {
+        statement.setInt(1, enquiry.getId());
+        statement.setString(2, enquiry.getApplicantNric());
+        statement.setString(3, enquiry.getProjectName());
+        statement.setString(4, enquiry.getDetails());
+        setTime(statement, 5, enquiry.getCreatedTime());
+        statement.setString(6, enquiry.getReply());
+        statement.setString(7, enquiry.getRepliedBy());
+        setTime(statement, 8, enquiry.getRepliedTime());
+        statement.setInt(9, version);
+    }
+
+    /**
+     * Binds a time, which may be {@code null}, to a parameter.
+     *
+     * @param statement The statement.
+     * @param index The index of the parameter.
+     * @param time The time.
+     * @throws SQLException If the parameter cannot be set.
+     */
+    private static void setTime(PreparedStatement statement, int index, LocalDateTime time) throws SQLException {
+        if (time != null) {
+            statement.setTimestamp(index, Timestamp.valueOf(time));
+        } else {
+            statement.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    /**
+     * Reads the enquiry at the current row of a result set selecting {@link #COLUMNS}.
+     *
+     * @param rs The result set.
+     * @return The enquiry.
+     * @throws SQLException If a column cannot be read.
+     */
+    private static Enquiry read(ResultSet rs) throws SQLException {
+        Timestamp created = rs.getTimestamp(5);
+        Timestamp replied = rs.getTimestamp(8);
+        Enquiry enquiry = new Enquiry(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+            created == null ? null : created.toLocalDateTime(),
+            rs.getString(6), rs.getString(7),
+            replied == null ? null : replied.toLocalDateTime());
+        enquiry.setVersion(rs.getInt(9));
+        return enquiry;
+    }
+}
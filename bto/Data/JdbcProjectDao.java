@@ -0,0 +1,418 @@
+package bto.Data;
+
+import bto.Model.Project;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Implementation of the {@link ProjectDao} interface backed by the {@code projects} and {@code project_flat_types}
+ * tables of an embedded SQL database.
+ * <p>
+ * Projects are looked up by the lower-case key of their name, so lookups ignore case as they do in
+ * {@link ProjectCSVDao}. Available units are changed by a single conditional {@code UPDATE} on the flat type row, so
+ * the database itself guarantees that a unit is never handed out twice; updating a project therefore changes its
+ * flat types and prices but never overwrites the available units. An update based on anything but the stored
+ * version fails with a {@link VersionConflictException}.
+ */
+public class JdbcProjectDao implements ProjectDao {
+    private static final String COLUMNS = "name, neighborhood, opening_date, closing_date, manager, officer_slots, "
+        + "assigned_officers, requested_officers, rejected_officers, visible, version";
+    private final ConnectionPool pool;
+
+    /**
+     * Constructs a JdbcProjectDao.
+     *
+     * @param pool The pool of the database holding the project tables.
+     */
+    public JdbcProjectDao(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Saves a new project to the database.
+     *
+     * @param project The project to save.
+     */
+    @Override
+    public void saveProject(Project project) {
+        saveProjects(List.of(project));
+    }
+
+    /**
+     * Saves several new projects, with their flat types, to the database in a single transaction.
+     *
+     * @param projects The projects to save.
+     */
+    @Override
+    public void saveProjects(List<Project> projects) {
+        if (projects.isEmpty()) return;
+        try {
+            pool.inTransaction(connection -> {
+                long position = JdbcSchema.nextBlock(connection, JdbcSchema.POSITIONS, projects.size());
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO projects ("
+                         + COLUMNS + ", name_key, position) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (Project project : projects) {
+                        bind(insert, project, project.getVersion());
+                        insert.setString(12, JdbcSchema.key(project.getName()));
+                        insert.setLong(13, position++);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                for (Project project : projects) {
+                    writeFlatTypes(connection, project, true);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not save projects: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Updates an existing project in the database.
+     *
+     * @param project The project to update.
+     */
+    @Override
+    public void updateProject(Project project) {
+        updateProjects(List.of(project));
+    }
+
+    /**
+     * Updates several existing projects in the database in a single transaction.
+     * Either every project is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored project and the given copy.
+     *
+     * @param projects The projects to update.
+     * @throws VersionConflictException If a project was updated by someone else since it was read.
+     */
+    @Override
+    public void updateProjects(List<Project> projects) {
+        try {
+            pool.inTransaction(connection -> {
+                try (PreparedStatement update = connection.prepareStatement("UPDATE projects SET "
+                         + "name = ?, neighborhood = ?, opening_date = ?, closing_date = ?, manager = ?, "
+                         + "officer_slots = ?, assigned_officers = ?, requested_officers = ?, rejected_officers = ?, "
+                         + "visible = ?, version = ? WHERE name_key = ? AND version = ?")) {
+                    for (Project project : projects) {
+                        bind(update, project, project.getVersion() + 1);
+                        update.setString(12, JdbcSchema.key(project.getName()));
+                        update.setInt(13, project.getVersion());
+                        if (update.executeUpdate() == 1) {
+                            writeFlatTypes(connection, project, false);
+                            continue;
+                        }
+                        int stored = storedVersion(connection, project.getName());
+                        if (stored >= 0) {
+                            throw new VersionConflictException("Project", project.getName(), project.getVersion(), stored);
+                        }
+                    }
+                }
+                return null;
+            });
+            for (Project project : projects) {
+                project.setVersion(project.getVersion() + 1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not update projects: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes a project, with its flat types, from the database by its name.
+     *
+     * @param projectId The name of the project to delete.
+     */
+    @Override
+    public void deleteProject(String projectId) {
+        try {
+            pool.inTransaction(connection -> {
+                try (PreparedStatement flatTypes = connection.prepareStatement(
+                         "DELETE FROM project_flat_types WHERE project_key = ?");
+                     PreparedStatement project = connection.prepareStatement(
+                         "DELETE FROM projects WHERE name_key = ?")) {
+                    flatTypes.setString(1, JdbcSchema.key(projectId));
+                    flatTypes.executeUpdate();
+                    project.setString(1, JdbcSchema.key(projectId));
+                    project.executeUpdate();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not delete project " + projectId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retrieves all projects from the database.
+     *
+     * @return A list of all projects, in the order they were saved.
+     */
+    @Override
+    public List<Project> getAllProjects() {
+        return query("", null);
+    }
+
+    /**
+     * Retrieves all projects. The database serves listings without rewriting any file, so there is no separate
+     * snapshot to maintain; the list is simply made unmodifiable.
+     *
+     * @return An unmodifiable list of all projects.
+     */
+    @Override
+    public List<Project> getProjectCatalog() {
+        return Collections.unmodifiableList(getAllProjects());
+    }
+
+    /**
+     * Retrieves a project by its name, ignoring case.
+     *
+     * @param projectId The name of the project.
+     * @return The project if found.
+     * @throws NoSuchElementException If the project is not found.
+     */
+    @Override
+    public Project getProjectById(String projectId) {
+        List<Project> found = query("WHERE name_key = ?", JdbcSchema.key(projectId));
+        if (found.isEmpty()) throw new NoSuchElementException("Project with name " + projectId + " not found");
+        return found.get(0);
+    }
+
+    /**
+     * Atomically decreases the available units for a specific flat type in a project, if enough units are available.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to decrease.
+     * @return {@code true} if the units were taken, {@code false} if fewer than {@code count} units are available
+     *         or the project has no such flat type.
+     */
+    @Override
+    public boolean decreaseAvailableUnits(String projectId, String flatType, int count) {
+        return changeUnits("available_units = available_units - ? WHERE project_key = ? AND flat_type = ? "
+            + "AND available_units >= ?", projectId, flatType, count, true) == 1;
+    }
+
+    /**
+     * Increases the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to increase.
+     */
+    @Override
+    public void increaseAvailableUnits(String projectId, String flatType, int count) {
+        changeUnits("available_units = available_units + ? WHERE project_key = ? AND flat_type = ?",
+            projectId, flatType, count, false);
+    }
+
+    /**
+     * Sets the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param units The number of available units.
+     */
+    @Override
+    public void setAvailableUnits(String projectId, String flatType, int units) {
+        changeUnits("available_units = ? WHERE project_key = ? AND flat_type = ?", projectId, flatType, units, false);
+    }
+
+    /**
+     * Runs an {@code UPDATE} on a flat type row.
+     *
+     * @param assignment The {@code SET} and {@code WHERE} clauses. The parameters are the unit count, the project
+     *                   key, the flat type and, if {@code guarded} is set, the unit count again.
+     * @param projectId The name of the project.
+     * @param flatType The flat type.
+     * @param units The unit count.
+     * @param guarded Whether the clauses have the fourth parameter.
+     * @return The number of rows updated.
+     * @throws IllegalStateException If the update fails.
+     */
+    private int changeUnits(String assignment, String projectId, String flatType, int units, boolean guarded) {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement update = lease.connection().prepareStatement(
+                 "UPDATE project_flat_types SET " + assignment)) {
+            update.setInt(1, units);
+            update.setString(2, JdbcSchema.key(projectId));
+            update.setString(3, flatType);
+            if (guarded) update.setInt(4, units);
+            return update.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not change the units of " + projectId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stores the flat types of a project. Existing flat types keep their available units and only have their price
+     * changed, unless {@code withUnits} is set; flat types the project no longer has are removed.
+     *
+     * @param connection The connection, inside a transaction.
+     * @param project The project.
+     * @param withUnits Whether the available units of existing flat types are overwritten too.
+     * @throws SQLException If a statement fails.
+     */
+    private static void writeFlatTypes(Connection connection, Project project, boolean withUnits) throws SQLException {
+        String key = JdbcSchema.key(project.getName());
+        Map<String, Project.FlatTypeDetails> flatTypes = project.getFlatTypes();
+        Set<String> stored = new HashSet<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                 "SELECT flat_type FROM project_flat_types WHERE project_key = ?")) {
+            select.setString(1, key);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    stored.add(rs.getString(1));
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO project_flat_types "
+                 + "(project_key, flat_type, available_units, selling_price) VALUES (?, ?, ?, ?)");
+             PreparedStatement price = connection.prepareStatement(withUnits
+                 ? "UPDATE project_flat_types SET selling_price = ?, available_units = ? WHERE project_key = ? AND flat_type = ?"
+                 : "UPDATE project_flat_types SET selling_price = ? WHERE project_key = ? AND flat_type = ?");
+             PreparedStatement delete = connection.prepareStatement(
+                 "DELETE FROM project_flat_types WHERE project_key = ? AND flat_type = ?")) {
+            for (Map.Entry<String, Project.FlatTypeDetails> entry : flatTypes.entrySet()) {
+                Project.FlatTypeDetails details = entry.getValue();
+                if (!stored.contains(entry.getKey())) {
+                    insert.setString(1, key);
+                    insert.setString(2, entry.getKey());
+                    insert.setInt(3, details.getAvailableUnits());
+                    insert.setDouble(4, details.getSellingPrice());
+                    insert.executeUpdate();
+                    continue;
+                }
+                int i = 1;
+                price.setDouble(i++, details.getSellingPrice());
+                if (withUnits) price.setInt(i++, details.getAvailableUnits());
+                price.setString(i++, key);
+                price.setString(i, entry.getKey());
+                price.executeUpdate();
+            }
+            for (String flatType : stored) {
+                if (flatTypes.containsKey(flatType)) continue;
+                delete.setString(1, key);
+                delete.setString(2, flatType);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Runs a query on the projects table and attaches the flat types of every project found.
+     *
+     * @param where The {@code WHERE} clause, with at most one parameter, or an empty string for every row.
+     * @param parameter The value of the parameter, if the clause has one.
+     * @return The projects found, in the order they were saved.
+     */
+    private List<Project> query(String where, String parameter) {
+        List<Project> projects = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement select = lease.connection().prepareStatement(
+                 "SELECT " + COLUMNS + " FROM projects " + where + " ORDER BY position");
+             PreparedStatement types = lease.connection().prepareStatement(
+                 "SELECT project_key, flat_type, available_units, selling_price FROM project_flat_types"
+                 + (where.isEmpty() ? "" : " WHERE project_key = ?"))) {
+            if (parameter != null) {
+                select.setString(1, parameter);
+                types.setString(1, parameter);
+            }
+            Map<String, Map<String, Project.FlatTypeDetails>> flatTypes = new HashMap<>();
+            try (ResultSet rs = types.executeQuery()) {
+                while (rs.next()) {
+                    flatTypes.computeIfAbsent(rs.getString(1), k -> new HashMap<>())
+                        .put(rs.getString(2), new Project.FlatTypeDetails(rs.getInt(3), rs.getDouble(4)));
+                }
+            }
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(read(rs, flatTypes));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return projects;
+    }
+
+    /**
+     * Gets the stored version of a project.
+     *
+     * @param connection The connection.
+     * @param projectName The name of the project.
+     * @return The stored version, or -1 if the project does not exist.
+     * @throws SQLException If the query fails.
+     */
+    private static int storedVersion(Connection connection, String projectName) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT version FROM projects WHERE name_key = ?")) {
+            select.setString(1, JdbcSchema.key(projectName));
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Binds the columns of a project to the first eleven parameters of a statement, in the order of {@link #COLUMNS}.
+     *
+     * @param statement The statement.
+     * @param project The project.
+     * @param version The version to store.
+     * @throws SQLException If a parameter cannot be set.
+     */
+    private static void bind(PreparedStatement statement, Project project, int version) throws SQLException {
+        statement.setString(1, project.getName());
+        statement.setString(2, project.getNeighborhood());
+        statement.setDate(3, java.sql.Date.valueOf(project.getOpeningDate()));
+        statement.setDate(4, java.sql.Date.valueOf(project.getClosingDate()));
+        statement.setString(5, project.getManager());
+        statement.setInt(6, project.getOfficerSlots());
+        statement.setString(7, String.join("|", project.getAssignedOfficers()));
+        statement.setString(8, String.join("|", project.getRequestedOfficers()));
+        statement.setString(9, String.join("|", project.getRejectedOfficers()));
+        statement.setBoolean(10, project.isVisible());
+        statement.setInt(11, version);
+    }
+
+    /**
+     * Reads the project at the current row of a result set selecting {@link #COLUMNS}.
+     *
+     * @param rs The result set.
+     * @param flatTypes The flat types of the projects read, keyed by project key.
+     * @return The project.
+     * @throws SQLException If a column cannot be read.
+     */
+    private static Project read(ResultSet rs, Map<String, Map<String, Project.FlatTypeDetails>> flatTypes)
+            throws SQLException {
+        String name = rs.getString(1);
+        Project project = new Project(
+            name,
+            rs.getString(2),
+            flatTypes.getOrDefault(JdbcSchema.key(name), new HashMap<>()),
+            rs.getDate(3).toLocalDate(),
+            rs.getDate(4).toLocalDate(),
+            rs.getString(5),
+            rs.getInt(6),
+            split(rs.getString(7)),
+            split(rs.getString(8)),
+            split(rs.getString(9)),
+            rs.getBoolean(10)
+        );
+        project.setVersion(rs.getInt(11));
+        return project;
+    }
+
+    /**
+     * Splits a stored list of officer names.
+     *
+     * @param joined The names joined with {@code |}.
+     * @return A modifiable list of the names.
+     */
+    private static List<String> split(String joined) {
+        return joined == null || joined.isEmpty()
+            ? new ArrayList<>()
+            : new ArrayList<>(Arrays.asList(joined.split("\\|")));
+    }
+}
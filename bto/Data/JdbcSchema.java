@@ -0,0 +1,288 @@
+package bto.Data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Creates the tables and indexes used by the JDBC DAOs, imports the CSV files into an empty database and hands out
+ * IDs from the {@code id_sequences} table.
+ * <p>
+ * The statements use only SQL understood by H2 and SQLite. Project names are matched ignoring case everywhere in the
+ * CSV DAOs, so every table holding a project name also holds its lower-case key, and the indexes are on the keys.
+ */
+final class JdbcSchema {
+    /** Sequence of application IDs. */
+    static final String APPLICATION_IDS = "applications";
+    /** Sequence of enquiry IDs. */
+    static final String ENQUIRY_IDS = "enquiries";
+    /** Sequence of row positions, which keep listings in insertion order as the CSV files do. */
+    static final String POSITIONS = "positions";
+
+    private static final String[] DDL = {
+        "CREATE TABLE IF NOT EXISTS id_sequences ("
+            + "name VARCHAR(32) PRIMARY KEY, next_value BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS users ("
+            + "nric VARCHAR(16) PRIMARY KEY, role VARCHAR(16) NOT NULL, name VARCHAR(255) NOT NULL, age INT NOT NULL, "
+            + "marital_status VARCHAR(16) NOT NULL, password VARCHAR(255) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS users_role ON users (role)",
+        "CREATE TABLE IF NOT EXISTS projects ("
+            + "name_key VARCHAR(255) PRIMARY KEY, name VARCHAR(255) NOT NULL, neighborhood VARCHAR(255) NOT NULL, "
+            + "opening_date DATE NOT NULL, closing_date DATE NOT NULL, manager VARCHAR(255) NOT NULL, "
+            + "officer_slots INT NOT NULL, assigned_officers VARCHAR(4000) NOT NULL, "
+            + "requested_officers VARCHAR(4000) NOT NULL, rejected_officers VARCHAR(4000) NOT NULL, "
+            + "visible BOOLEAN NOT NULL, version INT NOT NULL, position BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS project_flat_types ("
+            + "project_key VARCHAR(255) NOT NULL, flat_type VARCHAR(32) NOT NULL, available_units INT NOT NULL, "
+            + "selling_price DOUBLE NOT NULL, PRIMARY KEY (project_key, flat_type))",
+        "CREATE TABLE IF NOT EXISTS applications ("
+            + "id VARCHAR(32) PRIMARY KEY, project_name VARCHAR(255) NOT NULL, project_key VARCHAR(255) NOT NULL, "
+            + "applicant_nric VARCHAR(16) NOT NULL, flat_type VARCHAR(32) NOT NULL, status VARCHAR(16) NOT NULL, "
+            + "created_time TIMESTAMP, withdrawal_requested BOOLEAN NOT NULL, version INT NOT NULL, "
+            + "position BIGINT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS applications_nric ON applications (applicant_nric)",
+        "CREATE INDEX IF NOT EXISTS applications_project ON applications (project_key)",
+        "CREATE INDEX IF NOT EXISTS applications_status ON applications (status)",
+        "CREATE TABLE IF NOT EXISTS enquiries ("
+            + "id INT PRIMARY KEY, applicant_nric VARCHAR(16) NOT NULL, project_name VARCHAR(255) NOT NULL, "
+            + "project_key VARCHAR(255) NOT NULL, details VARCHAR(4000), created_time TIMESTAMP, "
+            + "reply VARCHAR(4000), replied_by VARCHAR(255), replied_time TIMESTAMP, version INT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS enquiries_nric ON enquiries (applicant_nric)",
+        "CREATE INDEX IF NOT EXISTS enquiries_project ON enquiries (project_key)",
+    };
+
+    private static final String[][] USER_FILES = {
+        {"Applicant", "./bto/Data/CSV/ApplicantList.csv"},
+        {"Manager", "./bto/Data/CSV/ManagerList.csv"},
+        {"Officer", "./bto/Data/CSV/OfficerList.csv"},
+    };
+
+    /**
+     * Prevents instantiation.
+     */
+    private JdbcSchema() {
+    }
+
+    /**
+     * Gets the key a project name is stored and looked up under.
+     *
+     * @param projectName The name of the project.
+     * @return The lower-case name.
+     */
+    static String key(String projectName) {
+        return projectName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates the tables, indexes and position sequence that do not exist yet.
+     *
+     * @param pool The pool of the database.
+     * @throws SQLException If a statement fails.
+     */
+    static void create(ConnectionPool pool) throws SQLException {
+        pool.inTransaction(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : DDL) {
+                    statement.execute(ddl);
+                }
+            }
+            return null;
+        });
+        seed(pool, POSITIONS, 1);
+    }
+
+    /**
+     * Imports the CSV files into every table that is still empty. Running it again on a database that already holds
+     * data changes nothing.
+     *
+     * @param pool The pool of the database.
+     * @param projects The DAO to store the imported projects with.
+     * @param applications The DAO to store the imported applications with.
+     * @param enquiries The DAO to store the imported enquiries with.
+     * @throws SQLException If a statement fails.
+     */
+    static void importCsv(ConnectionPool pool, ProjectDao projects, ApplicationDao applications, EnquiryDao enquiries)
+            throws SQLException {
+        if (isEmpty(pool, "users")) importUsers(pool);
+        if (isEmpty(pool, "projects") && new File("./bto/Data/CSV/ProjectList.csv").exists()) {
+            projects.saveProjects(new ProjectCSVDao().getAllProjects());
+        }
+        if (isEmpty(pool, "applications") && new File(ApplicationCSVDao.FILEPATH).exists()) {
+            applications.saveAll(new ApplicationCSVDao().getAllApplications());
+        }
+        if (isEmpty(pool, "enquiries") && new File("./bto/Data/CSV/Enquiries.csv").exists()) {
+            enquiries.saveAll(new EnquiryCSVDao().getAllEnquiries());
+        }
+    }
+
+    /**
+     * Creates the application and enquiry ID sequences that do not exist yet, starting above the stored IDs.
+     * The stored IDs are only scanned for a sequence that is missing.
+     *
+     * @param pool The pool of the database.
+     * @throws SQLException If a statement fails.
+     */
+    static void seedIds(ConnectionPool pool) throws SQLException {
+        if (!exists(pool, APPLICATION_IDS)) {
+            seed(pool, APPLICATION_IDS, maxNumericId(pool, "SELECT id FROM applications") + 1);
+        }
+        if (!exists(pool, ENQUIRY_IDS)) {
+            seed(pool, ENQUIRY_IDS, maxNumericId(pool, "SELECT id FROM enquiries") + 1);
+        }
+    }
+
+    /**
+     * Reserves a block of consecutive values from a sequence, inside the caller's transaction.
+     *
+     * @param connection The connection, inside a transaction.
+     * @param sequence The name of the sequence.
+     * @param count The number of values to reserve.
+     * @return The first value of the block.
+     * @throws SQLException If the sequence does not exist or a statement fails.
+     */
+    static long nextBlock(Connection connection, String sequence, int count) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                 "UPDATE id_sequences SET next_value = next_value + ? WHERE name = ?");
+             PreparedStatement select = connection.prepareStatement(
+                 "SELECT next_value FROM id_sequences WHERE name = ?")) {
+            update.setInt(1, count);
+            update.setString(2, sequence);
+            if (update.executeUpdate() != 1) throw new SQLException("ID sequence " + sequence + " does not exist");
+            select.setString(1, sequence);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1) - count;
+            }
+        }
+    }
+
+    /**
+     * Creates a sequence if it does not exist yet.
+     *
+     * @param pool The pool of the database.
+     * @param sequence The name of the sequence.
+     * @param first The first value the sequence hands out.
+     * @throws SQLException If a statement fails.
+     */
+    private static void seed(ConnectionPool pool, String sequence, long first) throws SQLException {
+        pool.inTransaction(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(
+                     "SELECT next_value FROM id_sequences WHERE name = ?")) {
+                select.setString(1, sequence);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) return null;
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO id_sequences (name, next_value) VALUES (?, ?)")) {
+                insert.setString(1, sequence);
+                insert.setLong(2, first);
+                insert.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether a sequence exists.
+     *
+     * @param pool The pool of the database.
+     * @param sequence The name of the sequence.
+     * @return {@code true} if the sequence exists.
+     * @throws SQLException If the query fails.
+     */
+    private static boolean exists(ConnectionPool pool, String sequence) throws SQLException {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement select = lease.connection().prepareStatement(
+                 "SELECT next_value FROM id_sequences WHERE name = ?")) {
+            select.setString(1, sequence);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Checks whether a table has no rows.
+     *
+     * @param pool The pool of the database.
+     * @param table The name of the table.
+     * @return {@code true} if the table is empty.
+     * @throws SQLException If the query fails.
+     */
+    private static boolean isEmpty(ConnectionPool pool, String table) throws SQLException {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             Statement statement = lease.connection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() && rs.getLong(1) == 0;
+        }
+    }
+
+    /**
+     * Finds the largest numeric ID returned by a query.
+     *
+     * @param pool The pool of the database.
+     * @param query A query returning IDs in its first column.
+     * @return The largest numeric ID, or 0 if there are none.
+     * @throws SQLException If the query fails.
+     */
+    private static long maxNumericId(ConnectionPool pool, String query) throws SQLException {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             Statement statement = lease.connection().createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            long max = 0;
+            while (rs.next()) {
+                String id = rs.getString(1);
+                if (id != null && id.matches("\\d+")) max = Math.max(max, Long.parseLong(id));
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Imports the user CSV files into the users table.
+     *
+     * @param pool The pool of the database.
+     * @throws SQLException If a statement fails.
+     */
+    private static void importUsers(ConnectionPool pool) throws SQLException {
+        pool.inTransaction(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO users (nric, role, name, age, marital_status, password) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (String[] file : USER_FILES) {
+                    if (!new File(file[1]).exists()) continue;
+                    FileLockManager.Held held = FileLockManager.forFile(file[1]).acquireShared();
+                    try (BufferedReader br = new BufferedReader(new FileReader(file[1], StandardCharsets.UTF_8))) {
+                        br.readLine(); // Skip the header
+                        String line;
+                        while ((line = br.readLine()) != null) {
+                            String[] data = line.split(",");
+                            if (data.length < 5) continue;
+                            insert.setString(1, data[1]);
+                            insert.setString(2, file[0]);
+                            insert.setString(3, data[0]);
+                            insert.setInt(4, Integer.parseInt(data[2]));
+                            insert.setString(5, data[3]);
+                            insert.setString(6, data[4]);
+                            insert.addBatch();
+                        }
+                    } catch (IOException e) {
+                        System.err.println(e.getMessage());
+                    } finally {
+                        held.close();
+                    }
+                }
+                insert.executeBatch();
+            }
+            return null;
+        });
+    }
+}
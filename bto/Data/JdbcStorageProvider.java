@@ -0,0 +1,131 @@
+package bto.Data;
+
+import java.sql.SQLException;
+
+/**
+ * Storage backend keeping every entity in an embedded SQL database reached through JDBC.
+ * <p>
+ * The database is named by the {@code bto.jdbc.url} system property (default {@code jdbc:h2:./bto/Data/bto}, an H2
+ * database in file mode) and the driver must be on the class path; {@code bto.jdbc.user} and
+ * {@code bto.jdbc.password} are passed on if set. Connections come from a {@link ConnectionPool} of
+ * {@code bto.jdbc.poolSize} connections (default 8) that waits up to {@code bto.jdbc.timeoutMs} milliseconds
+ * (default 10000) for a free one. The tables are created on first use and, while empty, filled from the CSV files.
+ * A unit of work left unfinished by a crash is recovered when the provider is built.
+ */
+public class JdbcStorageProvider implements StorageProvider {
+    /** Name of the backend. */
+    public static final String JDBC = "jdbc";
+    private static final String DEFAULT_URL = "jdbc:h2:./bto/Data/bto";
+
+    private final ConnectionPool pool;
+    private final UserDao userDao;
+    private final ApplicationDao applicationDao;
+    private final ProjectDao projectDao;
+    private final EnquiryDao enquiryDao;
+
+    /**
+     * Constructs a JdbcStorageProvider on the database named by the system properties.
+     *
+     * @throws IllegalStateException If the database cannot be opened or its tables cannot be created.
+     */
+    public JdbcStorageProvider() {
+        this(new ConnectionPool(
+            System.getProperty("bto.jdbc.url", DEFAULT_URL),
+            System.getProperty("bto.jdbc.user"),
+            System.getProperty("bto.jdbc.password"),
+            Integer.getInteger("bto.jdbc.poolSize", 8),
+            Long.getLong("bto.jdbc.timeoutMs", 10_000)));
+    }
+
+    /**
+     * Constructs a JdbcStorageProvider on the database of a pool, filling empty tables from the CSV files.
+     *
+     * @param pool The pool of the database.
+     * @throws IllegalStateException If the database cannot be opened or its tables cannot be created.
+     */
+    public JdbcStorageProvider(ConnectionPool pool) {
+        this(pool, true);
+    }
+
+    /**
+     * Constructs a JdbcStorageProvider on the database of a pool.
+     *
+     * @param pool The pool of the database.
+     * @param importCsv Whether empty tables are filled from the CSV files.
+     * @throws IllegalStateException If the database cannot be opened or its tables cannot be created.
+     */
+    public JdbcStorageProvider(ConnectionPool pool, boolean importCsv) {
+        this.pool = pool;
+        this.userDao = new JdbcUserDao(pool);
+        this.applicationDao = new JdbcApplicationDao(pool);
+        this.projectDao = new JdbcProjectDao(pool);
+        this.enquiryDao = new JdbcEnquiryDao(pool);
+        try {
+            JdbcSchema.create(pool);
+            if (importCsv) JdbcSchema.importCsv(pool, projectDao, applicationDao, enquiryDao);
+            JdbcSchema.seedIds(pool);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open database " + pool.getUrl() + ": " + e.getMessage(), e);
+        }
+        UnitOfWork.recover(projectDao, applicationDao, JDBC);
+    }
+
+    /**
+     * Gets the pool the DAOs borrow connections from, for reporting its metrics.
+     *
+     * @return The connection pool.
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the name of the backend.
+     *
+     * @return {@code jdbc}.
+     */
+    @Override
+    public String getName() {
+        return JDBC;
+    }
+
+    /**
+     * Gets the DAO for user accounts.
+     *
+     * @return The user DAO.
+     */
+    @Override
+    public UserDao getUserDao() {
+        return userDao;
+    }
+
+    /**
+     * Gets the DAO for applications.
+     *
+     * @return The application DAO.
+     */
+    @Override
+    public ApplicationDao getApplicationDao() {
+        return applicationDao;
+    }
+
+    /**
+     * Gets the DAO for projects.
+     *
+     * @return The project DAO.
+     */
+    @Override
+    public ProjectDao getProjectDao() {
+        return projectDao;
+    }
+
+    /**
+     * Gets the DAO for enquiries.
+     *
+     * @return The enquiry DAO.
+     */
+    @Override
+    public EnquiryDao getEnquiryDao() {
+        return enquiryDao;
+    }
+}
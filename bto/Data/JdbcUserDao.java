@@ -0,0 +1,83 @@
+package bto.Data;
+
+import bto.Model.*;
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Implementation of the {@link UserDao} interface backed by the {@code users} table of an embedded SQL database.
+ * Every user row carries its role, so the file names passed to {@link #readUsers(String)} only select the role.
+ */
+public class JdbcUserDao implements UserDao {
+    private final ConnectionPool pool;
+
+    /**
+     * Constructs a JdbcUserDao.
+     *
+     * @param pool The pool of the database holding the users table.
+     */
+    public JdbcUserDao(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Loads the users of one role into the system.
+     *
+     * @param filePath The path of the CSV file the role is kept in by {@link UserCSVDao}, such as
+     *                 {@code ./bto/Data/CSV/ApplicantList.csv}.
+     */
+    @Override
+    public void readUsers(String filePath) {
+        String role = new File(filePath).getName().replace("List.csv", "");
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement select = lease.connection().prepareStatement(
+                 "SELECT name, nric, age, marital_status, password FROM users WHERE role = ?")) {
+            select.setString(1, role);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    String nric = rs.getString(2);
+                    int age = rs.getInt(3);
+                    String maritalStatus = rs.getString(4);
+                    String password = rs.getString(5);
+                    switch (role) {
+                        case "Applicant":
+                            User.addUser(nric, new Applicant(name, nric, age, maritalStatus, password));
+                            break;
+                        case "Manager":
+                            User.addUser(nric, new Manager(name, nric, age, maritalStatus, password));
+                            break;
+                        case "Officer":
+                            User.addUser(nric, new Officer(name, nric, age, maritalStatus, password));
+                            break;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Updates an existing user's data in the database.
+     *
+     * @param user The user whose data is to be updated.
+     */
+    @Override
+    public void updateUser(User user) {
+        try (ConnectionPool.Lease lease = pool.acquire();
+             PreparedStatement update = lease.connection().prepareStatement(
+                 "UPDATE users SET name = ?, age = ?, marital_status = ?, password = ? WHERE nric = ?")) {
+            update.setString(1, user.getName());
+            update.setInt(2, user.getAge());
+            update.setString(3, user.getMaritalStatus());
+            update.setString(4, user.getPassword());
+            update.setString(5, user.getNric());
+            update.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package bto.Data;
+
+import bto.Model.Application;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Journaled implementation of the {@link ApplicationDao} interface.
+ * Saves, updates and deletes are appended to a journal file next to the applications CSV file instead of
+ * rewriting the whole CSV file, so each write costs O(1) disk I/O. Reads fold the journal over the base CSV file.
+ * <p>
+ * Every journal line is a record prefixed with the CRC32 of the record in hexadecimal, {@code crc,type,payload}.
+ * The journal is written and read as UTF-8, the encoding the checksums are computed over.
+ * A crash mid-append leaves a last line that is unterminated or fails its checksum; it is never replayed, and it is
+ * cut off under the exclusive lock before the next record is appended, so a new record is never glued onto it.
+ * <p>
+ * Compaction rewrites the base CSV file from the folded state and truncates the journal. It runs on demand through
+ * {@link #compact()}, and in the background once the journal holds more than the configured number of records.
+ */
+public class JournaledApplicationCSVDao extends CachedApplicationCSVDao {
+    private static final String JOURNAL_FILEPATH = "./bto/Data/CSV/Applications.journal";
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+    private static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+    private final File journal = new File(JOURNAL_FILEPATH);
+    private final int compactThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "application-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private int journalRecords;
+    private long validJournalBytes;
+    private boolean compactionScheduled;
+
+    /**
+     * Constructs a JournaledApplicationCSVDao that compacts once the journal holds more than
+     * {@code bto.journal.compactThreshold} records (1000 by default).
+     */
+    public JournaledApplicationCSVDao() {
+        this(Integer.getInteger("bto.journal.compactThreshold", DEFAULT_COMPACT_THRESHOLD));
+    }
+
+    /**
+     * Constructs a JournaledApplicationCSVDao with the specified background compaction threshold.
+     *
+     * @param compactThreshold The number of journal records that triggers a background compaction,
+     *                         or a non-positive value to only compact on demand.
+     */
+    public JournaledApplicationCSVDao(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Rewrites the base CSV file from the current state and truncates the journal.
+     *
+     * @throws UncheckedIOException If the base CSV file cannot be written. The journal is kept then.
+     */
+    public synchronized void compact() {
+        compactionScheduled = false;
+        FileLockManager.Held held = locks().acquireExclusive();
+        try {
+            refreshIfStale();
+            if (journalRecords == 0) return;
+
+            writeAll();
+            // Replaying the journal over the new base would be a no-op, so it is simply replaced with an empty one.
+            try {
+                DurableFiles.replaceText(JOURNAL_FILEPATH, writer -> { });
+                journalRecords = 0;
+                validJournalBytes = 0;
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+            recordFileState();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Gets the number of records currently in the journal.
+     *
+     * @return The number of journal records not yet compacted into the base CSV file.
+     */
+    public synchronized int getJournalSize() {
+        refreshIfStale();
+        return journalRecords;
+    }
+
+    /**
+     * Appends an upsert record for each saved or updated application to the journal in a single write.
+     *
+     * @param changed The applications that were saved or updated.
+     */
+    @Override
+    protected void persistUpserts(List<Application> changed) {
+        List<String> records = new ArrayList<>(changed.size());
+        for (Application app : changed) {
+            records.add(UPSERT + "," + ApplicationCSVDao.toCsvLine(app));
+        }
+        append(records);
+    }
+
+    /**
+     * Appends a delete record for the deleted application to the journal.
+     *
+     * @param applicationId The ID of the application that was deleted.
+     */
+    @Override
+    protected void persistDelete(String applicationId) {
+        append(List.of(DELETE + "," + applicationId));
+    }
+
+    /**
+     * Loads the base CSV file and folds every journal record that passes its checksum over it.
+     * A torn last line is left out of the valid length of the journal so the next append cuts it off; a bad line
+     * anywhere else is reported and skipped.
+     *
+     * @param target The map to fill.
+     */
+    @Override
+    protected void loadInto(Map<String, Application> target) {
+        super.loadInto(target);
+        journalRecords = 0;
+        validJournalBytes = 0;
+        if (!journal.exists()) return;
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journal.toPath());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') end++;
+            if (end == bytes.length) {
+                System.err.println("Ignoring unterminated journal record at offset " + start);
+                break;
+            }
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            String record = verify(line);
+            boolean last = end == bytes.length - 1;
+            if (record == null && last) {
+                System.err.println("Ignoring torn journal record at offset " + start);
+                break;
+            }
+            if (record == null) {
+                System.err.println("Skipping journal record that fails its checksum: " + line);
+            } else if (applyRecord(target, record)) {
+                journalRecords++;
+            }
+            start = end + 1;
+            validJournalBytes = start;
+        }
+    }
+
+    /**
+     * Gets the base CSV file and the journal, either of which may change the folded state.
+     *
+     * @return The files backing this DAO.
+     */
+    @Override
+    protected List<File> trackedFiles() {
+        return List.of(file, journal);
+    }
+
+    /**
+     * Applies a single journal record to the given map.
+     * Records that cannot be parsed are skipped.
+     *
+     * @param target The map to apply the record to.
+     * @param record The journal record.
+     * @return {@code true} if the record was applied, {@code false} if it was skipped.
+     */
+    private boolean applyRecord(Map<String, Application> target, String record) {
+        int comma = record.indexOf(',');
+        if (comma < 0) return false;
+
+        String type = record.substring(0, comma);
+        String payload = record.substring(comma + 1);
+        if (type.equals(UPSERT)) {
+            Application app = ApplicationCSVDao.parseApplication(payload);
+            if (app == null) return false;
+            target.put(app.getId(), app);
+            return true;
+        }
+        if (type.equals(DELETE)) {
+            target.remove(payload);
+            return true;
+        }
+        System.err.println("Error parsing journal record: " + record);
+        return false;
+    }
+
+    /**
+     * Checks the checksum of a journal line.
+     *
+     * @param line The journal line, without its line terminator.
+     * @return The record the line holds, or {@code null} if the line has no valid checksum.
+     */
+    private static String verify(String line) {
+        int comma = line.indexOf(',');
+        if (comma != 8) return null;
+        String record = line.substring(comma + 1);
+        try {
+            return Long.parseLong(line.substring(0, comma), 16) == checksum(record) ? record : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the checksum of a journal record.
+     *
+     * @param record The record.
+     * @return The CRC32 of the record's UTF-8 bytes.
+     */
+    private static long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Appends records to the journal and schedules a compaction if the journal has grown past the threshold.
+     * Must be called with the exclusive lock held and the cache refreshed, so the valid length of the journal is
+     * current; anything after it is the torn end of a failed append and is cut off first.
+     *
+     * @param records The journal records to append.
+     * @throws UncheckedIOException If the records cannot be appended.
+     */
+    private void append(List<String> records) {
+        try {
+            if (journal.length() > validJournalBytes) {
+                try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(validJournalBytes);
+                }
+            }
+            DurableFiles.appendText(JOURNAL_FILEPATH, writer -> {
+                for (String record : records) {
+                    writer.write(String.format("%08x,%s", checksum(record), record) + "\n");
+                }
+            });
+            journalRecords += records.size();
+            validJournalBytes = journal.length();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to " + journal, e);
+        }
+        recordFileState();
+
+        if (compactThreshold > 0 && journalRecords > compactThreshold && !compactionScheduled) {
+            compactionScheduled = true;
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (RuntimeException e) {
+                    System.err.println("Error compacting the application journal: " + e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package bto.Data;
+
+/**
+ * Thrown when a data file lock or a pooled database connection cannot be acquired within the configured timeout.
+ */
+public class LockTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a LockTimeoutException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public LockTimeoutException(String message) {
+        super(message);
+    }
+}
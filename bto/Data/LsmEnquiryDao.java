@@ -0,0 +1,705 @@
+package bto.Data;
+
+import bto.Event.EnquiryReplyEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Enquiry;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Log-structured implementation of the {@link EnquiryDao} interface.
+ * <p>
+ * Writes go to an in-memory memtable sorted by enquiry ID and are appended to a write-ahead log, so a save, update
+ * or delete costs one small append instead of a rewrite of every enquiry. A delete stores a tombstone. Once the
+ * memtable holds the configured number of entries it is flushed into an immutable {@link EnquirySegment} file sorted
+ * by ID and the log is truncated. A manifest lists the live segments from oldest to newest and is replaced
+ * atomically, so a flush or compaction either happened or did not.
+ * <p>
+ * A lookup consults the memtable and then the segments from newest to oldest, stopping at the first record for the
+ * ID. Compaction merges the segments into one, dropping shadowed records and tombstones. It runs on demand through
+ * {@link #compact()}, and in the background once the configured number of segments has been flushed; the merge
+ * happens outside the lock, and only the swap of the manifest blocks other writers.
+ * <p>
+ * Everything lives in a directory, {@code ./bto/Data/CSV/Enquiries.lsm} by default, guarded by an exclusive
+ * {@link FileLockManager} lock for writes and a shared one for reads. Changes made by another process are picked up
+ * from the stamps of the manifest and the log. The directory is filled from the enquiries CSV file the first time
+ * it is opened. The log, the manifest and the segments are all UTF-8.
+ * <p>
+ * Like the CSV DAO, lookups by applicant or project ignore case.
+ */
+public class LsmEnquiryDao implements EnquiryDao {
+    private static final String DIRECTORY = "./bto/Data/CSV/Enquiries.lsm";
+    private static final String CSV_FILE = "./bto/Data/CSV/Enquiries.csv";
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+    private static final int DEFAULT_MEMTABLE_SIZE = 1000;
+    private static final int DEFAULT_COMPACT_THRESHOLD = 4;
+
+    private final File directory;
+    private final File manifest;
+    private final File wal;
+    private final String csvFile;
+    private final int memtableSize;
+    private final int compactThreshold;
+    private final FileLockManager locks;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "enquiry-lsm-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final TreeMap<Integer, String> memtable = new TreeMap<>();
+    private List<EnquirySegment> segments = new ArrayList<>();
+    private long[] manifestState;
+    private long[] walState;
+    private boolean walTorn;
+    private boolean compactionScheduled;
+
+    /**
+     * Constructs an LsmEnquiryDao in the default directory that flushes the memtable at
+     * {@code bto.enquiry.lsm.memtableSize} entries (1000 by default) and compacts in the background once
+     * {@code bto.enquiry.lsm.compactThreshold} segments (4 by default) exist.
+     */
+    public LsmEnquiryDao() {
+        this(DIRECTORY, CSV_FILE,
+            Integer.getInteger("bto.enquiry.lsm.memtableSize", DEFAULT_MEMTABLE_SIZE),
+            Integer.getInteger("bto.enquiry.lsm.compactThreshold", DEFAULT_COMPACT_THRESHOLD));
+    }
+
+    /**
+     * Constructs an LsmEnquiryDao in the specified directory.
+     *
+     * @param directory The directory holding the manifest, the log and the segments. It is created if missing.
+     * @param csvFile The enquiries CSV file to fill a new directory from, or {@code null} to start empty.
+     * @param memtableSize The number of memtable entries that triggers a flush.
+     * @param compactThreshold The number of segments that triggers a background compaction,
+     *                         or a non-positive value to only compact on demand.
+     */
+    public LsmEnquiryDao(String directory, String csvFile, int memtableSize, int compactThreshold) {
+        this.directory = new File(directory);
+        this.manifest = new File(directory, "MANIFEST");
+        this.wal = new File(directory, "wal.log");
+        this.csvFile = csvFile;
+        this.memtableSize = Math.max(1, memtableSize);
+        this.compactThreshold = compactThreshold;
+        this.locks = FileLockManager.forFile(manifest.getPath());
+        this.directory.mkdirs();
+        initialize();
+    }
+
+    /**
+     * Saves a new enquiry.
+     *
+     * @param enquiry The enquiry to save.
+     */
+    @Override
+    public void save(Enquiry enquiry) {
+        saveAll(List.of(enquiry));
+    }
+
+    /**
+     * Saves several new enquiries with a single append to the log.
+     * Enquiries without an ID are stored with IDs reserved from the enquiry ID sequence as a single block.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    @Override
+    public synchronized void saveAll(List<Enquiry> enquiries) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            int missing = (int) enquiries.stream().filter(e -> e.getId() == 0).count();
+            int nextId = missing == 0 ? 0 : generateNewIds(missing);
+
+            Map<Integer, String> puts = new LinkedHashMap<>();
+            for (Enquiry enquiry : enquiries) {
+                if (enquiry.getId() == 0) {
+                    enquiry = new Enquiry(nextId++, enquiry.getApplicantNric(),
+                                        enquiry.getProjectName(), enquiry.getDetails(), LocalDateTime.now(),
+                                        enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+                }
+                puts.put(enquiry.getId(), EnquiryCSVDao.toCsvLine(enquiry));
+            }
+            write(puts);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Updates an existing enquiry.
+     *
+     * @param enquiry The enquiry to update.
+     */
+    @Override
+    public void update(Enquiry enquiry) {
+        updateAll(List.of(enquiry));
+    }
+
+    /**
+     * Updates several existing enquiries with a single append to the log.
+     * Either every enquiry is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored enquiry and the given copy. Enquiries that are not stored are ignored.
+     *
+     * @param enquiries The enquiries to update.
+     * @throws VersionConflictException If an enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public synchronized void updateAll(List<Enquiry> enquiries) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            List<Event> events = new ArrayList<>();
+            List<Enquiry> changed = new ArrayList<>();
+            for (Enquiry enquiry : enquiries) {
+                Enquiry stored = parse(lookup(enquiry.getId()));
+                if (stored == null) continue;
+                if (enquiry.getVersion() != stored.getVersion()) {
+                    throw new VersionConflictException("Enquiry", stored.getId(), enquiry.getVersion(), stored.getVersion());
+                }
+                if (EnquiryReplyEvent.isNewReply(stored, enquiry)) {
+                    events.add(new EnquiryReplyEvent(enquiry));
+                }
+                changed.add(enquiry);
+            }
+
+            Map<Integer, String> puts = new LinkedHashMap<>();
+            for (Enquiry enquiry : changed) {
+                Enquiry next = new Enquiry(enquiry);
+                next.setVersion(enquiry.getVersion() + 1);
+                puts.put(enquiry.getId(), EnquiryCSVDao.toCsvLine(next));
+            }
+            write(puts);
+            changed.forEach(enquiry -> enquiry.setVersion(enquiry.getVersion() + 1));
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Deletes an enquiry by storing a tombstone for its ID.
+     *
+     * @param enquiryId The ID of the enquiry to delete.
+     */
+    @Override
+    public synchronized void delete(int enquiryId) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            if (lookup(enquiryId) == null) return;
+            Map<Integer, String> tombstone = new HashMap<>();
+            tombstone.put(enquiryId, null);
+            write(tombstone);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return The enquiry if found, or {@code null} if not found.
+     */
+    @Override
+    public synchronized Enquiry findById(int enquiryId) {
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            refreshIfStale();
+            return parse(lookup(enquiryId));
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Retrieves all enquiries submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of enquiries submitted by the applicant, in ID order.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
+        return scan(Integer.MIN_VALUE, Integer.MAX_VALUE, e -> e.getApplicantNric().equalsIgnoreCase(applicantNric));
+    }
+
+    /**
+     * Retrieves all enquiries for a specific project.
+     *
+     * @param projectName The name of the project.
+     * @return A list of enquiries for the specified project, in ID order.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByProject(String projectName) {
+        return scan(Integer.MIN_VALUE, Integer.MAX_VALUE, e -> e.getProjectName().equalsIgnoreCase(projectName));
+    }
+
+    /**
+     * Retrieves all enquiries.
+     *
+     * @return A list of all enquiries, in ID order.
+     */
+    @Override
+    public List<Enquiry> getAllEnquiries() {
+        return scan(Integer.MIN_VALUE, Integer.MAX_VALUE, e -> true);
+    }
+
+    /**
+     * Retrieves the enquiries whose IDs fall in a range. Each segment only reads the records of the range.
+     *
+     * @param fromId The smallest ID of the range.
+     * @param toId The largest ID of the range.
+     * @return The enquiries in the range, in ID order.
+     */
+    public List<Enquiry> getEnquiriesInRange(int fromId, int toId) {
+        return scan(fromId, toId, e -> true);
+    }
+
+    /**
+     * Writes the memtable into a new segment and truncates the log.
+     */
+    public synchronized void flush() {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            refreshIfStale();
+            flushMemtable();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Merges every segment into one, dropping records shadowed by newer ones and tombstones.
+     * The segments are merged without holding the lock; if another writer changed the older segments in the meantime
+     * the merged segment is discarded.
+     */
+    public void compact() {
+        List<EnquirySegment> inputs;
+        synchronized (this) {
+            compactionScheduled = false;
+            FileLockManager.Held held = locks.acquireShared();
+            try {
+                refreshIfStale();
+                inputs = new ArrayList<>(segments);
+            } finally {
+                held.close();
+            }
+        }
+        if (inputs.size() < 2) return;
+
+        File output;
+        try {
+            // The inputs start with the oldest segment, so nothing older can be hidden by a dropped tombstone.
+            TreeMap<Integer, String> merged = new TreeMap<>();
+            for (EnquirySegment segment : inputs) {
+                segment.scan(Integer.MIN_VALUE, Integer.MAX_VALUE, merged::put);
+            }
+            merged.values().removeIf(Objects::isNull);
+            output = newSegmentFile();
+            EnquirySegment.write(output, merged);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            FileLockManager.Held held = locks.acquireExclusive();
+            try {
+                refreshIfStale();
+                if (segments.size() < inputs.size() || !segments.subList(0, inputs.size()).equals(inputs)) {
+                    output.delete();
+                    return;
+                }
+                List<String> names = new ArrayList<>();
+                names.add(output.getName());
+                for (EnquirySegment segment : segments.subList(inputs.size(), segments.size())) {
+                    names.add(segment.getFile().getName());
+                }
+                writeManifest(names);
+                for (EnquirySegment input : inputs) {
+                    input.getFile().delete();
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                output.delete();
+            } finally {
+                held.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of segments currently listed in the manifest.
+     *
+     * @return The number of segments.
+     */
+    public synchronized int getSegmentCount() {
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            refreshIfStale();
+            return segments.size();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Gets the number of entries, tombstones included, waiting in the memtable for the next flush.
+     *
+     * @return The number of memtable entries.
+     */
+    public synchronized int getMemtableSize() {
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            refreshIfStale();
+            return memtable.size();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Creates the manifest on first use, filling the first segment from the enquiries CSV file, and loads the state.
+     */
+    private synchronized void initialize() {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            if (!manifest.exists()) {
+                List<String> names = new ArrayList<>();
+                if (csvFile != null && new File(csvFile).exists()) {
+                    TreeMap<Integer, String> imported = new TreeMap<>();
+                    for (Enquiry enquiry : new EnquiryCSVDao(csvFile).readAllEnquiries()) {
+                        imported.put(enquiry.getId(), EnquiryCSVDao.toCsvLine(enquiry));
+                    }
+                    if (!imported.isEmpty()) {
+                        File segment = newSegmentFile();
+                        EnquirySegment.write(segment, imported);
+                        names.add(segment.getName());
+                    }
+                }
+                writeManifest(names);
+            }
+            refreshIfStale();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Appends changes to the log, applies them to the memtable, and flushes the memtable if it is full.
+     * Must be called with the exclusive lock held.
+     *
+     * @param changes The CSV line of each changed enquiry keyed by ID, or {@code null} for a deleted one.
+     * @throws UncheckedIOException If the changes cannot be appended to the log. None of them is applied then.
+     */
+    private void write(Map<Integer, String> changes) {
+        if (changes.isEmpty()) return;
+        long length = wal.length();
+        try {
+            boolean torn = walTorn;
+            DurableFiles.appendText(wal.getPath(), writer -> {
+                // A line torn by a crash mid-append is ended first so it cannot swallow the next record.
+                if (torn) writer.write("\n");
+                for (Map.Entry<Integer, String> change : changes.entrySet()) {
+                    writer.write(change.getValue() == null
+                        ? DELETE + "," + change.getKey() + "\n"
+                        : PUT + "," + change.getValue() + "\n");
+                }
+            });
+            walTorn = false;
+        } catch (IOException e) {
+            truncateWal(length, e);
+            throw new UncheckedIOException("Could not append to " + wal, e);
+        }
+        memtable.putAll(changes);
+        walState = DurableFiles.stamp(wal);
+
+        if (memtable.size() >= memtableSize) flushMemtable();
+    }
+
+    /**
+     * Cuts off whatever part of a failed append reached the log, so the changes are not replayed later.
+     * If that fails too, the next append starts on a fresh line in case a record was torn.
+     *
+     * @param length The length of the log before the append.
+     * @param failure The exception the append failed with, to which a failed truncation is added.
+     */
+    private void truncateWal(long length, IOException failure) {
+        try (RandomAccessFile raf = new RandomAccessFile(wal, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            walTorn = true;
+        }
+    }
+
+    /**
+     * Writes the memtable into a new segment, adds it to the manifest and truncates the log.
+     * Must be called with the exclusive lock held. A crash before the log is truncated only replays records the new
+     * segment already holds.
+     */
+    private void flushMemtable() {
+        if (memtable.isEmpty()) return;
+        try {
+            File segment = newSegmentFile();
+            EnquirySegment.write(segment, memtable);
+            List<String> names = new ArrayList<>();
+            for (EnquirySegment s : segments) {
+                names.add(s.getFile().getName());
+            }
+            names.add(segment.getName());
+            writeManifest(names);
+            DurableFiles.replaceText(wal.getPath(), writer -> { });
+            memtable.clear();
+            walTorn = false;
+            walState = DurableFiles.stamp(wal);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        if (compactThreshold > 0 && segments.size() >= compactThreshold && !compactionScheduled) {
+            compactionScheduled = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Replaces the manifest and opens the segments it lists.
+     * Must be called with the exclusive lock held.
+     *
+     * @param names The file names of the live segments, oldest first.
+     * @throws IOException If the manifest cannot be written.
+     */
+    private void writeManifest(List<String> names) throws IOException {
+        DurableFiles.replaceText(manifest.getPath(), writer -> {
+            for (String name : names) {
+                writer.write(name + "\n");
+            }
+        });
+        loadManifest();
+        manifestState = DurableFiles.stamp(manifest);
+    }
+
+    /**
+     * Reloads the manifest or the log if either was changed by someone else since this DAO last saw it.
+     * Must be called with a lock held.
+     */
+    private void refreshIfStale() {
+        long[] currentManifest = DurableFiles.stamp(manifest);
+        if (!Arrays.equals(currentManifest, manifestState)) {
+            loadManifest();
+            manifestState = currentManifest;
+        }
+        long[] currentWal = DurableFiles.stamp(wal);
+        if (!Arrays.equals(currentWal, walState)) {
+            loadWal();
+            walState = currentWal;
+        }
+    }
+
+    /**
+     * Opens the segments listed in the manifest, reusing those already open and closing those no longer listed.
+     */
+    private void loadManifest() {
+        Map<String, EnquirySegment> open = new HashMap<>();
+        for (EnquirySegment segment : segments) {
+            open.put(segment.getFile().getName(), segment);
+        }
+        List<EnquirySegment> loaded = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(manifest, StandardCharsets.UTF_8))) {
+            String name;
+            while ((name = br.readLine()) != null) {
+                if (name.isEmpty()) continue;
+                EnquirySegment segment = open.remove(name);
+                loaded.add(segment != null ? segment : new EnquirySegment(new File(directory, name)));
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+        for (EnquirySegment unused : open.values()) {
+            try {
+                unused.close();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        segments = loaded;
+    }
+
+    /**
+     * Rebuilds the memtable from the log.
+     * Records that cannot be parsed, such as a line torn by a crash mid-append, are skipped.
+     */
+    private void loadWal() {
+        memtable.clear();
+        walTorn = false;
+        if (!wal.exists()) return;
+
+        try (BufferedReader br = new BufferedReader(new FileReader(wal, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                applyRecord(line);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(wal, "r")) {
+            if (raf.length() > 0) {
+                raf.seek(raf.length() - 1);
+                walTorn = raf.read() != '\n';
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a single log record to the memtable.
+     *
+     * @param record The log record.
+     */
+    private void applyRecord(String record) {
+        int comma = record.indexOf(',');
+        if (comma < 0) return;
+
+        String type = record.substring(0, comma);
+        String payload = record.substring(comma + 1);
+        try {
+            if (type.equals(PUT)) {
+                Enquiry enquiry = EnquiryCSVDao.parseEnquiry(payload);
+                if (enquiry != null) memtable.put(enquiry.getId(), payload);
+                return;
+            }
+            if (type.equals(DELETE)) {
+                memtable.put(Integer.parseInt(payload), null);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to report the record.
+        }
+        System.err.println("Error parsing log record: " + record);
+    }
+
+    /**
+     * Finds the newest record of an ID. Must be called with a lock held.
+     *
+     * @param id The enquiry ID.
+     * @return The CSV line of the enquiry, or {@code null} if it was deleted or never stored.
+     */
+    private String lookup(int id) {
+        if (memtable.containsKey(id)) return memtable.get(id);
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            EnquirySegment segment = segments.get(i);
+            if (!segment.contains(id)) continue;
+            try {
+                return segment.get(id);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merges the records of a range of IDs from every segment and the memtable, newest winning.
+     *
+     * @param fromId The smallest ID of the range.
+     * @param toId The largest ID of the range.
+     * @param filter Selects the enquiries to return.
+     * @return The selected enquiries in the range, in ID order.
+     */
+    private synchronized List<Enquiry> scan(int fromId, int toId, Predicate<Enquiry> filter) {
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            refreshIfStale();
+            TreeMap<Integer, String> merged = new TreeMap<>();
+            for (EnquirySegment segment : segments) {
+                segment.scan(fromId, toId, merged::put);
+            }
+            if (fromId <= toId) merged.putAll(memtable.subMap(fromId, true, toId, true));
+            return merged.values().stream()
+                .map(this::parse)
+                .filter(e -> e != null && filter.test(e))
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Parses a stored CSV line.
+     *
+     * @param line The CSV line, or {@code null}.
+     * @return The enquiry, or {@code null} if the line is {@code null} or cannot be parsed.
+     */
+    private Enquiry parse(String line) {
+        return line == null ? null : EnquiryCSVDao.parseEnquiry(line);
+    }
+
+    /**
+     * Names a new segment file with a number from the segment sequence, which is unique across processes.
+     *
+     * @return The segment file, which does not exist yet.
+     */
+    private File newSegmentFile() {
+        long number = IdSequence.forFile(new File(directory, "segments.csv").getPath(), this::maxSegmentNumber)
+            .nextBlock(1);
+        return new File(directory, String.format("segment-%06d.seg", number));
+    }
+
+    /**
+     * Finds the largest number of a segment file in the directory, listed in the manifest or not.
+     * Keeps the segment sequence from handing out a number already in use.
+     *
+     * @return The largest segment number, or 0 if there are none.
+     */
+    private long maxSegmentNumber() {
+        long max = 0;
+        String[] names = directory.list();
+        if (names == null) return max;
+        for (String name : names) {
+            if (!name.matches("segment-\\d+\\.seg")) continue;
+            max = Math.max(max, Long.parseLong(name.substring("segment-".length(), name.length() - ".seg".length())));
+        }
+        return max;
+    }
+
+    /**
+     * Reserves a block of new unique enquiry IDs from the enquiry ID sequence of the directory.
+     *
+     * @param count The number of IDs to reserve.
+     * @return The first ID of the block.
+     */
+    private int generateNewIds(int count) {
+        return Math.toIntExact(IdSequence.forFile(new File(directory, "enquiries.csv").getPath(), this::maxEnquiryId)
+            .nextBlock(count));
+    }
+
+    /**
+     * Finds the largest enquiry ID ever stored, deleted ones included.
+     * Keeps the ID sequence from handing out an ID already in use.
+     *
+     * @return The largest enquiry ID, or 0 if there are none.
+     */
+    private long maxEnquiryId() {
+        long max = memtable.isEmpty() ? 0 : memtable.lastKey();
+        for (EnquirySegment segment : segments) {
+            max = Math.max(max, segment.maxId());
+        }
+        return max;
+    }
+}
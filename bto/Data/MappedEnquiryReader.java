@@ -0,0 +1,266 @@
+package bto.Data;
+
+import bto.Model.Enquiry;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads the enquiries CSV file through a read-only memory mapping and filters rows in place.
+ * <p>
+ * Field boundaries are found by scanning the mapped bytes, and the filter field is compared against the
+ * target value without decoding it, so rows that do not match allocate nothing. Only matching rows are
+ * decoded and parsed into {@link Enquiry} objects, using the same row parser as {@link EnquiryCSVDao}.
+ */
+class MappedEnquiryReader {
+    /**
+     * Index of the enquiry ID field.
+     */
+    static final int ID = 0;
+
+    /**
+     * Index of the applicant NRIC field.
+     */
+    static final int APPLICANT_NRIC = 1;
+
+    /**
+     * Index of the project name field.
+     */
+    static final int PROJECT_NAME = 2;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Mappings are then released by the garbage collector.
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path path;
+    private final Function<String, Enquiry> parser;
+
+    /**
+     * Constructs a MappedEnquiryReader for the specified CSV file.
+     *
+     * @param filePath The path to the enquiries CSV file.
+     * @param parser Parses a matching CSV line into an {@link Enquiry}, returning {@code null} if it is malformed.
+     */
+    MappedEnquiryReader(String filePath, Function<String, Enquiry> parser) {
+        this.path = Paths.get(filePath);
+        this.parser = parser;
+    }
+
+    /**
+     * Reads every enquiry whose field matches a value, ignoring ASCII case.
+     *
+     * @param field The index of the field to compare.
+     * @param value The value the field must match.
+     * @return A list of the matching enquiries, in file order.
+     */
+    List<Enquiry> readWhere(int field, String value) {
+        byte[] target = value.getBytes(StandardCharsets.UTF_8);
+        List<Enquiry> result = new ArrayList<>();
+        scan((buf, lineStart, fieldStart, fieldEnd, lineEnd) -> {
+            if (equalsIgnoreAsciiCase(buf, fieldStart[field], fieldEnd[field], target)) {
+                Enquiry enquiry = materialize(buf, lineStart, lineEnd);
+                if (enquiry != null) result.add(enquiry);
+            }
+            return true;
+        }, field);
+        return result;
+    }
+
+    /**
+     * Finds the enquiry with the specified ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return The enquiry if found, or {@code null} if not found.
+     */
+    Enquiry findById(int enquiryId) {
+        Enquiry[] found = new Enquiry[1];
+        scan((buf, lineStart, fieldStart, fieldEnd, lineEnd) -> {
+            if (parseInt(buf, fieldStart[ID], fieldEnd[ID]) != enquiryId) return true;
+            found[0] = materialize(buf, lineStart, lineEnd);
+            return found[0] == null;
+        }, ID);
+        return found[0];
+    }
+
+    /**
+     * Callback invoked for every data row with the offsets of its fields.
+     */
+    private interface RowVisitor {
+        /**
+         * Visits a row.
+         *
+         * @param buf The mapped file.
+         * @param lineStart The offset of the first byte of the row.
+         * @param fieldStart The start offset of each scanned field.
+         * @param fieldEnd The exclusive end offset of each scanned field.
+         * @param lineEnd The exclusive end offset of the row, excluding the line terminator.
+         * @return {@code true} to continue scanning, {@code false} to stop.
+         */
+        boolean visit(ByteBuffer buf, int lineStart, int[] fieldStart, int[] fieldEnd, int lineEnd);
+    }
+
+    /**
+     * Maps the file and calls the visitor for every data row, skipping the header.
+     *
+     * @param visitor The visitor to call.
+     * @param lastField The index of the last field the visitor needs offsets for.
+     */
+    private void scan(RowVisitor visitor, int lastField) {
+        if (!Files.exists(path)) return;
+
+        int[] fieldStart = new int[lastField + 1];
+        int[] fieldEnd = new int[lastField + 1];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return;
+            if (size > Integer.MAX_VALUE) throw new IOException("Enquiries file too large to map: " + size + " bytes");
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                int limit = (int) size;
+                int pos = skipLine(buf, 0, limit);
+                while (pos < limit) {
+                    int lineStart = pos;
+                    int field = 0;
+                    fieldStart[0] = pos;
+                    while (pos < limit && buf.get(pos) != '\n') {
+                        if (buf.get(pos) == ',' && field <= lastField) {
+                            fieldEnd[field] = pos;
+                            if (++field <= lastField) fieldStart[field] = pos + 1;
+                        }
+                        pos++;
+                    }
+                    int lineEnd = pos > lineStart && buf.get(pos - 1) == '\r' ? pos - 1 : pos;
+                    pos++;
+                    if (field <= lastField) {
+                        if (lineEnd == lineStart) continue;
+                        fieldEnd[field] = lineEnd;
+                        if (field < lastField) continue;
+                    }
+                    if (!visitor.visit(buf, lineStart, fieldStart, fieldEnd, lineEnd)) break;
+                }
+            } finally {
+                unmap(buf);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes a row and parses it into an {@link Enquiry}.
+     *
+     * @param buf The mapped file.
+     * @param start The offset of the first byte of the row.
+     * @param end The exclusive end offset of the row.
+     * @return The parsed enquiry, or {@code null} if the row is malformed.
+     */
+    private Enquiry materialize(ByteBuffer buf, int start, int end) {
+        byte[] line = new byte[end - start];
+        buf.get(start, line);
+        return parser.apply(new String(line, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the offset just past the line that starts at the given offset.
+     *
+     * @param buf The mapped file.
+     * @param pos The offset the line starts at.
+     * @param limit The size of the file.
+     * @return The offset of the next line.
+     */
+    private static int skipLine(ByteBuffer buf, int pos, int limit) {
+        while (pos < limit && buf.get(pos) != '\n') pos++;
+        return pos + 1;
+    }
+
+    /**
+     * Compares a field with a target value, folding ASCII letters to the same case.
+     *
+     * @param buf The mapped file.
+     * @param start The start offset of the field.
+     * @param end The exclusive end offset of the field.
+     * @param target The UTF-8 bytes of the target value.
+     * @return {@code true} if the field matches the target.
+     */
+    private static boolean equalsIgnoreAsciiCase(ByteBuffer buf, int start, int end, byte[] target) {
+        if (end - start != target.length) return false;
+        for (int i = 0; i < target.length; i++) {
+            byte a = buf.get(start + i);
+            byte b = target[i];
+            if (a != b && toLowerAscii(a) != toLowerAscii(b)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Converts an ASCII upper-case letter to lower case, leaving every other byte unchanged.
+     *
+     * @param b The byte to convert.
+     * @return The converted byte.
+     */
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Parses a non-negative decimal integer field in place.
+     *
+     * @param buf The mapped file.
+     * @param start The start offset of the field.
+     * @param end The exclusive end offset of the field.
+     * @return The parsed value, or -1 if the field is not a number.
+     */
+    private static int parseInt(ByteBuffer buf, int start, int end) {
+        if (start == end) return -1;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') return -1;
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Releases a mapping immediately instead of waiting for garbage collection.
+     * On Windows a mapped file cannot be truncated or replaced, so the CSV writers would fail while a mapping is alive.
+     * If the JDK does not expose {@code sun.misc.Unsafe#invokeCleaner}, the mapping is left to the garbage collector.
+     *
+     * @param buf The mapping to release.
+     */
+    private static void unmap(MappedByteBuffer buf) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buf);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to unmapping on garbage collection.
+        }
+    }
+}
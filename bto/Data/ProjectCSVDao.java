@@ -2,6 +2,8 @@ package bto.Data;
 
 import bto.Model.Project;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -9,11 +11,29 @@ import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link ProjectDao} interface for managing projects using a CSV file as the data source.
+ * Lookups by project name go through a persistent {@link ProjectNameIndex}, which is rebuilt every time this DAO
+ * rewrites the CSV file. Writes hold an exclusive {@link FileLockManager} lock on the file and reads hold a shared
+ * one, so threads and processes sharing the file never lose each other's changes. Every row carries a version, and
+ * an update based on anything but the stored version fails with a {@link VersionConflictException}.
+ * <p>
+ * Available units are owned by the {@link InventoryService}: the counts in the CSV file only seed the inventory, and
+ * every project read from the file has its counts replaced by the inventory's. Changing the available units therefore
+ * never rewrites the CSV file.
+ * <p>
+ * Listings are served from a shared {@link ProjectCatalog} snapshot, which is rebuilt after every write to the CSV
+ * file and patched after every change to the available units, so {@link #getProjectCatalog()} never reads the file
+ * or takes a lock in the common case.
  */
 public class ProjectCSVDao implements ProjectDao {
     private static final String FILEPATH = "./bto/Data/CSV/ProjectList.csv";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-    private static final String HEADER = "Project Name,Neighborhood,Type 1,Number of units for Type 1,Selling price for Type 1,Type 2,Number of units for Type 2,Selling price for Type 2,Application opening date,Application closing date,Manager,Officer Slot,Assigned Officer,Requested Officer,Rejected Officer,Visible";
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+    private static final String HEADER = "Project Name,Neighborhood,Type 1,Number of units for Type 1,Selling price for Type 1,Type 2,Number of units for Type 2,Selling price for Type 2,Application opening date,Application closing date,Manager,Officer Slot,Assigned Officer,Requested Officer,Rejected Officer,Visible,Version";
+    private final ProjectNameIndex nameIndex = new ProjectNameIndex(FILEPATH, CHARSET);
+    private final InventoryService inventory = InventoryService.getDefault();
+    private final FileLockManager locks = FileLockManager.forFile(FILEPATH);
+    private static final ProjectCatalog CATALOG = new ProjectCatalog(
+        new File(FILEPATH), FileLockManager.forFile(FILEPATH), InventoryService.getDefault());
 
     /**
      * Saves a new project to the CSV file.
@@ -22,9 +42,29 @@ public class ProjectCSVDao implements ProjectDao {
      */
     @Override
     public void saveProject(Project project) {
-        List<Project> allProjects = getAllProjects();
-        allProjects.add(project);
-        writeAllProjects(allProjects);
+        saveProjects(List.of(project));
+    }
+
+    /**
+     * Saves several new projects to the CSV file with a single rewrite.
+     *
+     * @param projects The projects to save.
+     */
+    @Override
+    public void saveProjects(List<Project> projects) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Project> allProjects = getAllProjects();
+            allProjects.addAll(projects);
+            writeAllProjects(allProjects);
+            for (Project project : projects) {
+                project.getFlatTypes().forEach((type, details) ->
+                    inventory.set(project.getName(), type, details.getAvailableUnits()));
+            }
+            CATALOG.rebuild(this::getAllProjects);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -34,10 +74,57 @@ public class ProjectCSVDao implements ProjectDao {
      */
     @Override
     public void updateProject(Project project) {
-        List<Project> allProjects = getAllProjects().stream()
-                .map(p -> p.getName().equals(project.getName()) ? project : p)
-                .collect(Collectors.toList());
-        writeAllProjects(allProjects);
+        updateProjects(List.of(project));
+    }
+
+    /**
+     * Updates several existing projects in the CSV file with a single rewrite.
+     * Either every project is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored project and the given copy.
+     *
+     * @param projects The projects to update.
+     * @throws VersionConflictException If a project was updated by someone else since it was read.
+     */
+    @Override
+    public void updateProjects(List<Project> projects) {
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            Map<String, Project> changed = new HashMap<>();
+            for (Project project : projects) {
+                changed.put(project.getName(), project);
+            }
+            List<Project> allProjects = getAllProjects();
+            List<Project> updated = new ArrayList<>();
+            for (Project stored : allProjects) {
+                Project project = changed.get(stored.getName());
+                if (project == null) continue;
+                if (project.getVersion() != stored.getVersion()) {
+                    throw new VersionConflictException("Project", stored.getName(), project.getVersion(), stored.getVersion());
+                }
+                updated.add(project);
+            }
+            allProjects = allProjects.stream()
+                    .map(p -> changed.containsKey(p.getName()) ? nextVersion(changed.get(p.getName())) : p)
+                    .collect(Collectors.toList());
+            writeAllProjects(allProjects);
+            updated.forEach(project -> project.setVersion(project.getVersion() + 1));
+            CATALOG.rebuild(this::getAllProjects);
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Copies a project about to be written with its version incremented. The caller's copy is only incremented
+     * once the write succeeded.
+     *
+     * @param project The project.
+     * @return The copy to write.
+     */
+    private static Project nextVersion(Project project) {
+        Project copy = new Project(project);
+        copy.setVersion(project.getVersion() + 1);
+        return copy;
     }
 
     /**
@@ -47,10 +134,17 @@ public class ProjectCSVDao implements ProjectDao {
      */
     @Override
     public void deleteProject(String projectId) {
-        List<Project> allProjects = getAllProjects().stream()
-                .filter(p -> !p.getName().equals(projectId))
-                .collect(Collectors.toList());
-        writeAllProjects(allProjects);
+        FileLockManager.Held held = locks.acquireExclusive();
+        try {
+            List<Project> allProjects = getAllProjects().stream()
+                    .filter(p -> !p.getName().equals(projectId))
+                    .collect(Collectors.toList());
+            writeAllProjects(allProjects);
+            inventory.remove(projectId);
+            CATALOG.rebuild(this::getAllProjects);
+        } finally {
+            held.close();
+        }
     }
 
     /**
@@ -60,19 +154,36 @@ public class ProjectCSVDao implements ProjectDao {
      */
     @Override
     public List<Project> getAllProjects() {
-        List<Project> projects = new ArrayList<>();
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(FILEPATH))) {
-            br.readLine(); // Skip the header
-            String line;
-            while ((line = br.readLine()) != null) {
-                Project p = parseProject(line);
-                if (p != null) projects.add(p);
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            List<Project> projects = new ArrayList<>();
+            inventory.refresh();
+
+            try (BufferedReader br = new BufferedReader(new FileReader(FILEPATH, StandardCharsets.UTF_8))) {
+                br.readLine(); // Skip the header
+                String line;
+                while ((line = br.readLine()) != null) {
+                    Project p = parseProject(line);
+                    if (p != null) projects.add(withInventory(p));
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
+            return projects;
+        } finally {
+            held.close();
         }
-        return projects;
+    }
+
+    /**
+     * Retrieves all projects from the shared catalog snapshot, reading the CSV file only if the snapshot may be out
+     * of date.
+     *
+     * @return An unmodifiable list of all projects, which are shared and must not be modified.
+     */
+    @Override
+    public List<Project> getProjectCatalog() {
+        return CATALOG.get(this::getAllProjects);
     }
 
     /**
@@ -84,39 +195,96 @@ public class ProjectCSVDao implements ProjectDao {
      */
     @Override
     public Project getProjectById(String projectId) {
-        return getAllProjects().stream()
-                .filter(p -> p.getName().equalsIgnoreCase(projectId))
-                .findFirst()
-                .orElseThrow(() -> new NoSuchElementException("Project with name " + projectId + " not found"));
+        FileLockManager.Held held = locks.acquireShared();
+        try {
+            String row = nameIndex.lookup(projectId);
+            Project project = row == null ? null : parseProject(row);
+            if (project == null) throw new NoSuchElementException("Project with name " + projectId + " not found");
+            inventory.refresh();
+            return withInventory(project);
+        } finally {
+            held.close();
+        }
     }
 
     /**
-     * Decreases the available units for a specific flat type in a project.
+     * Atomically decreases the available units for a specific flat type in a project, if enough units are available.
      *
      * @param projectId The name of the project.
      * @param flatType The flat type to update.
      * @param count The number of units to decrease.
+     * @return {@code true} if the units were taken, {@code false} if fewer than {@code count} units are available
+     *         or the project has no such flat type.
      */
     @Override
-    public void decreaseAvailableUnits(String projectId, String flatType, int count) {
-        List<Project> allProjects = getAllProjects();
-        allProjects.forEach(p -> {
-            if (p.getName().equals(projectId)) {
-                Project.FlatTypeDetails details = p.getFlatTypes().get(flatType);
-                if (details != null) {
-                    details.setAvailableUnits(details.getAvailableUnits() - count);
-                }
-            }
-        });
-        writeAllProjects(allProjects);
+    public boolean decreaseAvailableUnits(String projectId, String flatType, int count) {
+        trackProject(projectId, flatType);
+        boolean reserved = inventory.tryReserve(projectId, flatType, count);
+        if (reserved) CATALOG.refreshUnits(projectId);
+        return reserved;
+    }
+
+    /**
+     * Increases the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to increase.
+     */
+    @Override
+    public void increaseAvailableUnits(String projectId, String flatType, int count) {
+        trackProject(projectId, flatType);
+        inventory.release(projectId, flatType, count);
+        CATALOG.refreshUnits(projectId);
+    }
+
+    /**
+     * Sets the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param units The number of available units.
+     */
+    @Override
+    public void setAvailableUnits(String projectId, String flatType, int units) {
+        inventory.set(projectId, flatType, units);
+        CATALOG.refreshUnits(projectId);
+    }
+
+    /**
+     * Replaces the available units of every flat type of a project with the inventory's counts,
+     * seeding the inventory from the project's own counts for flat types it does not track yet.
+     *
+     * @param project The project read from the CSV file.
+     * @return The same project.
+     */
+    private Project withInventory(Project project) {
+        project.getFlatTypes().forEach((type, details) ->
+            details.setAvailableUnits(inventory.track(project.getName(), type, details.getAvailableUnits())));
+        return project;
+    }
+
+    /**
+     * Makes sure the inventory tracks a flat type, seeding it from the CSV file if needed.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type.
+     */
+    private void trackProject(String projectId, String flatType) {
+        if (inventory.getAvailableUnits(projectId, flatType) != null) return;
+        try {
+            getProjectById(projectId);
+        } catch (NoSuchElementException e) {
+            // Nothing to track; the inventory operation then has no effect.
+        }
     }
 
     /**
      * Initializes the CSV file by creating it and writing the header.
      */
     private void initializeCsvFile() {
-        try (FileWriter writer = new FileWriter(FILEPATH)) {
-            writer.write(HEADER + "\n");
+        try {
+            DurableFiles.replaceText(FILEPATH, writer -> writer.write(HEADER + "\n"));
         } catch (IOException e) {
             System.err.println(e.getMessage());
         }
@@ -128,7 +296,7 @@ public class ProjectCSVDao implements ProjectDao {
      * @param csvLine The CSV line to parse.
      * @return The parsed {@link Project} object, or {@code null} if parsing fails.
      */
-    private Project parseProject(String csvLine) {
+    static Project parseProject(String csvLine) {
         try {
             String[] parts = csvLine.split(",", -1);
             Map<String, Project.FlatTypeDetails> flatTypes = new HashMap<>();
@@ -175,6 +343,9 @@ public class ProjectCSVDao implements ProjectDao {
                 rejectedOfficers,
                 isVisible
             );
+            if (parts.length > 16 && !parts[16].isEmpty()) {
+                project.setVersion(Integer.parseInt(parts[16]));
+            }
     
             return project;
         } catch (Exception e) {
@@ -184,28 +355,50 @@ public class ProjectCSVDao implements ProjectDao {
     }
 
     /**
-     * Writes all projects to the CSV file.
+     * Writes all projects to the CSV file, leaving the file as it was if the write fails.
      *
      * @param projects The list of projects to write.
+     * @throws UncheckedIOException If the file cannot be written.
      */
     private void writeAllProjects(List<Project> projects) {
-        try (FileWriter writer = new FileWriter(FILEPATH)) {
-            writer.write(HEADER + "\n");
-            for (Project p : projects) {
-                writer.write(toCsvLine(p) + "\n");
-            }
+        Map<String, long[]> rows = new HashMap<>();
+        try {
+            DurableFiles.replace(FILEPATH, out -> {
+                long offset = writeLine(out, HEADER);
+                for (Project p : projects) {
+                    long length = writeLine(out, toCsvLine(p)) - 1;
+                    rows.putIfAbsent(ProjectNameIndex.key(p.getName()), new long[] {offset, length});
+                    offset += length + 1;
+                }
+            });
+            // The index only describes the new rows once they are in place.
+            nameIndex.replace(rows);
         } catch (IOException e) {
-            System.err.println(e.getMessage());
+            throw new UncheckedIOException("Could not write projects to " + FILEPATH, e);
         }
     }
 
+    /**
+     * Writes a line followed by a line feed.
+     *
+     * @param out The stream to write to.
+     * @param line The line to write.
+     * @return The number of bytes written, including the line feed.
+     * @throws IOException If the line cannot be written.
+     */
+    private long writeLine(OutputStream out, String line) throws IOException {
+        byte[] bytes = (line + "\n").getBytes(CHARSET);
+        out.write(bytes);
+        return bytes.length;
+    }
+
     /**
      * Converts a {@link Project} object to a CSV line.
      *
      * @param p The project to convert.
      * @return A string representing the project in CSV format.
      */
-    private String toCsvLine(Project p) {
+    static String toCsvLine(Project p) {
         Map<String, Project.FlatTypeDetails> flatTypes = p.getFlatTypes();
         List<String> types = new ArrayList<>(flatTypes.keySet());
 
@@ -225,7 +418,8 @@ public class ProjectCSVDao implements ProjectDao {
             p.getAssignedOfficers().isEmpty() ? "null" : String.join("|", p.getAssignedOfficers()),
             p.getRequestedOfficers().isEmpty() ? "null" : String.join("|", p.getRequestedOfficers()),
             p.getRejectedOfficers().isEmpty() ? "null" : String.join("|", p.getRejectedOfficers()),
-            String.valueOf(p.isVisible())
+            String.valueOf(p.isVisible()),
+            String.valueOf(p.getVersion())
         );
     }
 }
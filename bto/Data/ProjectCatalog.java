@@ -0,0 +1,190 @@
+package bto.Data;
+
+import bto.Model.Project;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Immutable snapshot of every project, replaced as a whole whenever a project changes.
+ * <p>
+ * Readers get the current snapshot with a single volatile read and never take a lock, so browsing projects never
+ * waits for a manager editing one. Writers build a new snapshot and publish it by replacing the reference: after a
+ * change to the projects file the snapshot is rebuilt from the file, and after a change to available units only the
+ * affected projects are copied with their new counts. Changes made by other processes are picked up by checking the
+ * stamps of the projects file and the inventory at most once every {@code bto.catalog.refreshMs} milliseconds
+ * (1000 by default).
+ * <p>
+ * The projects in a snapshot are shared by every reader and must not be modified.
+ */
+public final class ProjectCatalog {
+    private final File projectFile;
+    private final FileLockManager projectLocks;
+    private final InventoryService inventory;
+    private final long refreshNanos;
+    private volatile Snapshot snapshot;
+
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder unitRefreshes = new LongAdder();
+
+    /**
+     * A published list of projects and the file stamps it was built from.
+     */
+    private static class Snapshot {
+        private final List<Project> projects;
+        private final long[] stamp;
+        private final long checkedAt;
+
+        /**
+         * Constructs a Snapshot.
+         *
+         * @param projects The projects, which must not be modified afterwards.
+         * @param stamp The stamps of the projects and inventory files the projects reflect.
+         * @param checkedAt The {@link System#nanoTime()} the stamps were last compared with the files.
+         */
+        Snapshot(List<Project> projects, long[] stamp, long checkedAt) {
+            this.projects = Collections.unmodifiableList(projects);
+            this.stamp = stamp;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    /**
+     * Constructs an empty ProjectCatalog. The first read builds the first snapshot.
+     *
+     * @param projectFile The projects file.
+     * @param projectLocks The lock on the projects file.
+     * @param inventory The inventory holding the available units.
+     */
+    ProjectCatalog(File projectFile, FileLockManager projectLocks, InventoryService inventory) {
+        this.projectFile = projectFile;
+        this.projectLocks = projectLocks;
+        this.inventory = inventory;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("bto.catalog.refreshMs", 1000));
+    }
+
+    /**
+     * Gets the current snapshot, building it first if there is none yet or if the files may have been changed by
+     * another process since it was last checked.
+     *
+     * @param loader Reads every project from the projects file, with the inventory's available units.
+     * @return The projects, which must not be modified.
+     */
+    public List<Project> get(Supplier<List<Project>> loader) {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.checkedAt < refreshNanos) return current.projects;
+        return revalidate(loader);
+    }
+
+    /**
+     * Rebuilds the snapshot from the projects file and publishes it.
+     * Called after every change to the projects file, with the exclusive lock on it held.
+     *
+     * @param loader Reads every project from the projects file, with the inventory's available units.
+     */
+    synchronized void rebuild(Supplier<List<Project>> loader) {
+        // Stamp before loading, so a change made while loading is picked up by the next check.
+        long[] stamp = currentStamp();
+        publish(loader.get(), stamp);
+        rebuilds.increment();
+    }
+
+    /**
+     * Publishes a snapshot in which the flat types of one project carry the inventory's current available units.
+     * The other projects are shared with the previous snapshot.
+     *
+     * @param projectName The name of the project whose available units changed.
+     */
+    synchronized void refreshUnits(String projectName) {
+        Snapshot current = snapshot;
+        if (current == null) return;
+
+        List<Project> projects = new ArrayList<>(current.projects);
+        for (int i = 0; i < projects.size(); i++) {
+            if (!projects.get(i).getName().equalsIgnoreCase(projectName)) continue;
+            Project copy = new Project(projects.get(i));
+            copy.getFlatTypes().forEach((type, details) -> {
+                Integer units = inventory.getAvailableUnits(copy.getName(), type);
+                if (units != null) details.setAvailableUnits(units);
+            });
+            projects.set(i, copy);
+        }
+        // Keep the old stamps, so changes other processes made in the meantime are still picked up by the next check.
+        publish(projects, current.stamp);
+        unitRefreshes.increment();
+    }
+
+    /**
+     * Gets the number of times the snapshot was rebuilt from the projects file.
+     *
+     * @return The number of rebuilds.
+     */
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    /**
+     * Gets the number of times a snapshot was published for a change in available units alone.
+     *
+     * @return The number of unit refreshes.
+     */
+    public long getUnitRefreshes() {
+        return unitRefreshes.sum();
+    }
+
+    /**
+     * Compares the current snapshot's stamps with the files, and rebuilds it if they differ.
+     * The shared lock on the projects file is taken before the catalog's own lock, in the same order as writers.
+     *
+     * @param loader Reads every project from the projects file, with the inventory's available units.
+     * @return The projects of the up-to-date snapshot.
+     */
+    private List<Project> revalidate(Supplier<List<Project>> loader) {
+        FileLockManager.Held held = projectLocks.acquireShared();
+        try {
+            synchronized (this) {
+                Snapshot current = snapshot;
+                long now = System.nanoTime();
+                if (current != null && now - current.checkedAt < refreshNanos) return current.projects;
+
+                long[] stamp = currentStamp();
+                if (current != null && Arrays.equals(stamp, current.stamp)) {
+                    snapshot = new Snapshot(current.projects, stamp, now);
+                    return current.projects;
+                }
+                publish(loader.get(), stamp);
+                rebuilds.increment();
+                return snapshot.projects;
+            }
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Replaces the snapshot.
+     *
+     * @param projects The projects of the new snapshot, which must not be modified afterwards.
+     * @param stamp The stamps of the files the projects reflect.
+     */
+    private void publish(List<Project> projects, long[] stamp) {
+        snapshot = new Snapshot(new ArrayList<>(projects), stamp, System.nanoTime());
+    }
+
+    /**
+     * Reads the stamps of the projects file and the inventory.
+     *
+     * @return The two stamps, one after the other.
+     */
+    private long[] currentStamp() {
+        long[] stamp = new long[6];
+        System.arraycopy(DurableFiles.stamp(projectFile), 0, stamp, 0, 3);
+        System.arraycopy(inventory.stamp(), 0, stamp, 3, 3);
+        return stamp;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 /**
  * Data Access Object (DAO) interface for managing project-related operations.
+ * Writes that cannot be stored throw an unchecked exception and leave the stored data unchanged.
  */
 public interface ProjectDao {
 
@@ -15,6 +16,13 @@ public interface ProjectDao {
      */
     void saveProject(Project project);
 
+    /**
+     * Saves several new projects to the data source in a single write.
+     *
+     * @param projects The projects to save.
+     */
+    void saveProjects(List<Project> projects);
+
     /**
      * Updates an existing project in the data source.
      *
@@ -22,6 +30,13 @@ public interface ProjectDao {
      */
     void updateProject(Project project);
 
+    /**
+     * Updates several existing projects in the data source in a single write.
+     *
+     * @param projects The projects to update.
+     */
+    void updateProjects(List<Project> projects);
+
     /**
      * Deletes a project from the data source by its name.
      *
@@ -36,6 +51,15 @@ public interface ProjectDao {
      */
     List<Project> getAllProjects();
 
+    /**
+     * Retrieves all projects from a read-only snapshot shared by every caller, which is cheaper than
+     * {@link #getAllProjects()} for listings. The projects must not be modified; use {@link #getProjectById(String)}
+     * to get a copy to change.
+     *
+     * @return An unmodifiable list of all projects.
+     */
+    List<Project> getProjectCatalog();
+
     /**
      * Retrieves a project by its name.
      *
@@ -45,11 +69,30 @@ public interface ProjectDao {
     Project getProjectById(String projectId);
 
     /**
-     * Decreases the available units for a specific flat type in a project.
+     * Atomically decreases the available units for a specific flat type in a project, if enough units are available.
      *
      * @param projectId The name of the project.
      * @param flatType The flat type to update.
      * @param count The number of units to decrease.
+     * @return {@code true} if the units were taken, {@code false} if fewer than {@code count} units are available.
+     */
+    boolean decreaseAvailableUnits(String projectId, String flatType, int count);
+
+    /**
+     * Increases the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to increase.
+     */
+    void increaseAvailableUnits(String projectId, String flatType, int count);
+
+    /**
+     * Sets the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param units The number of available units.
      */
-    void decreaseAvailableUnits(String projectId, String flatType, int count);
+    void setAvailableUnits(String projectId, String flatType, int units);
 }
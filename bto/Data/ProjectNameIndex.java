@@ -0,0 +1,174 @@
+package bto.Data;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Persistent index from case-folded project name to the byte range of that project's row in the projects CSV file.
+ * <p>
+ * The index is kept in a sidecar file next to the CSV file, together with the {@link DurableFiles#stamp(File) stamp}
+ * of the CSV file it describes, which changes with every rewrite even within the same millisecond. A lookup checks that stamp, seeks straight to the row and reads only that row. If the CSV file
+ * was changed without going through {@link #replace(Map)}, the index is rebuilt with a single byte scan of the file.
+ */
+class ProjectNameIndex {
+    private final File dataFile;
+    private final File indexFile;
+    private final Charset charset;
+    private Map<String, long[]> entries = new HashMap<>();
+    private long[] indexedStamp = new long[0];
+
+    /**
+     * Constructs a ProjectNameIndex for the specified CSV file and loads its sidecar if one exists.
+     * The sidecar is the CSV file path with its {@code .csv} extension replaced by {@code .idx}.
+     *
+     * @param dataFilePath The path to the projects CSV file.
+     * @param charset The charset the CSV file is written in.
+     */
+    ProjectNameIndex(String dataFilePath, Charset charset) {
+        this.dataFile = new File(dataFilePath);
+        this.indexFile = new File(dataFilePath.replaceFirst("\\.csv$", "") + ".idx");
+        this.charset = charset;
+        loadSidecar();
+    }
+
+    /**
+     * Case-folds a project name into its index key.
+     *
+     * @param projectName The name of the project.
+     * @return The index key for the project.
+     */
+    static String key(String projectName) {
+        return projectName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the CSV row of a project, ignoring case.
+     *
+     * @param projectName The name of the project.
+     * @return The CSV row of the project, or {@code null} if there is no such project.
+     */
+    synchronized String lookup(String projectName) {
+        if (!dataFile.exists()) return null;
+        if (!Arrays.equals(DurableFiles.stamp(dataFile), indexedStamp)) rebuild();
+
+        long[] span = entries.get(key(projectName));
+        if (span == null) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+            byte[] row = new byte[(int) span[1]];
+            raf.seek(span[0]);
+            raf.readFully(row);
+            return new String(row, charset);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the index after the CSV file has been rewritten, and persists it.
+     *
+     * @param rows The byte offset and length of each project's row, keyed by {@link #key(String)}.
+     */
+    synchronized void replace(Map<String, long[]> rows) {
+        entries = new HashMap<>(rows);
+        indexedStamp = DurableFiles.stamp(dataFile);
+        writeSidecar();
+    }
+
+    /**
+     * Rebuilds the index by scanning the CSV file for row boundaries, and persists it.
+     * Only the project name of each row is decoded.
+     */
+    private void rebuild() {
+        Map<String, long[]> rows = new HashMap<>();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(dataFile))) {
+            ByteArrayOutputStream name = new ByteArrayOutputStream();
+            long offset = 0;
+            long rowStart = 0;
+            boolean header = true;
+            boolean inName = true;
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    addRow(rows, header, name, rowStart, offset);
+                    header = false;
+                    inName = true;
+                    name.reset();
+                    rowStart = offset + 1;
+                } else if (b == ',') {
+                    inName = false;
+                } else if (inName) {
+                    name.write(b);
+                }
+                offset++;
+            }
+            addRow(rows, header, name, rowStart, offset);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+        replace(rows);
+    }
+
+    /**
+     * Adds a scanned row to the index being rebuilt. The header row, empty rows and repeated names are skipped,
+     * so the first row with a given name wins.
+     *
+     * @param rows The index being rebuilt.
+     * @param header Whether the row is the header row.
+     * @param name The bytes of the row's project name.
+     * @param start The byte offset of the row.
+     * @param end The exclusive end offset of the row, excluding the line feed.
+     */
+    private void addRow(Map<String, long[]> rows, boolean header, ByteArrayOutputStream name, long start, long end) {
+        if (header || end <= start || name.size() == 0) return;
+        rows.putIfAbsent(key(new String(name.toByteArray(), charset)), new long[] {start, end - start});
+    }
+
+    /**
+     * Loads the index from the sidecar file, if it exists.
+     */
+    private void loadSidecar() {
+        if (!indexFile.exists()) return;
+        try (BufferedReader br = new BufferedReader(new FileReader(indexFile, StandardCharsets.UTF_8))) {
+            String[] stamp = br.readLine().split(",");
+            if (stamp.length != 3) throw new IllegalStateException("unknown stamp format");
+            Map<String, long[]> rows = new HashMap<>();
+            String line;
+            while ((line = br.readLine()) != null) {
+                int second = line.lastIndexOf(',');
+                int first = line.lastIndexOf(',', second - 1);
+                rows.put(line.substring(0, first), new long[] {
+                    Long.parseLong(line.substring(first + 1, second)),
+                    Long.parseLong(line.substring(second + 1))
+                });
+            }
+            entries = rows;
+            indexedStamp = new long[] {Long.parseLong(stamp[0]), Long.parseLong(stamp[1]), Long.parseLong(stamp[2])};
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading project index, it will be rebuilt: " + e.getMessage());
+            entries = new HashMap<>();
+            indexedStamp = new long[0];
+        }
+    }
+
+    /**
+     * Writes the index and the stamp of the CSV file it describes to the sidecar file.
+     */
+    private void writeSidecar() {
+        try {
+            DurableFiles.replaceText(indexFile.getPath(), writer -> {
+                writer.write(indexedStamp[0] + "," + indexedStamp[1] + "," + indexedStamp[2] + "\n");
+                for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1] + "\n");
+                }
+            });
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package bto.Data;
+
+import bto.Event.ApplicationStatusEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Application;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the {@link ApplicationDao} interface backed by a {@link SnapshotStore}.
+ * <p>
+ * Lookups scan the applications in memory under the store's read lock and return copies. Writes are logged as a
+ * single record, so a batch is recovered whole or not at all, and an update based on anything but the stored
+ * version fails with a {@link VersionConflictException}.
+ */
+public class SnapshotApplicationDao implements ApplicationDao {
+    private final SnapshotStore store;
+
+    /**
+     * Constructs a SnapshotApplicationDao.
+     *
+     * @param store The store holding the applications.
+     */
+    public SnapshotApplicationDao(SnapshotStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Saves a new application to the store.
+     *
+     * @param application The application to save.
+     */
+    @Override
+    public void save(Application application) {
+        saveAll(List.of(application));
+    }
+
+    /**
+     * Saves several new applications to the store as a single log record.
+     * Applications without an ID are given consecutive IDs from the application ID sequence, which is advanced in
+     * the same record.
+     *
+     * @param applications The applications to save.
+     */
+    @Override
+    public void saveAll(List<Application> applications) {
+        if (applications.isEmpty()) return;
+        store.write(() -> {
+            long nextId = store.nextId(SnapshotStore.APPLICATION_IDS);
+            List<String> records = new ArrayList<>();
+            for (Application app : applications) {
+                if (app.getId() == null || app.getId().isEmpty()) app.setId(String.valueOf(nextId++));
+                records.add(SnapshotStore.application(app));
+            }
+            if (nextId != store.nextId(SnapshotStore.APPLICATION_IDS)) {
+                records.add(SnapshotStore.sequence(SnapshotStore.APPLICATION_IDS, nextId));
+            }
+            return store.commit(records);
+        });
+    }
+
+    /**
+     * Updates an existing application in the store.
+     *
+     * @param application The application to update.
+     */
+    @Override
+    public void update(Application application) {
+        updateAll(List.of(application));
+    }
+
+    /**
+     * Updates several existing applications in the store as a single log record.
+     * Either every application is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored application and the given copy.
+     *
+     * @param applications The applications to update.
+     * @throws VersionConflictException If an application was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Application> applications) {
+        List<Event> events = new ArrayList<>();
+        store.write(() -> {
+            List<String> records = new ArrayList<>();
+            for (Application app : applications) {
+                Application stored = store.applications.get(app.getId());
+                if (stored == null) continue;
+                if (stored.getVersion() != app.getVersion()) {
+                    throw new VersionConflictException("Application", app.getId(), app.getVersion(),
+                        stored.getVersion());
+                }
+                records.add(SnapshotStore.application(new Application(app).setVersion(app.getVersion() + 1)));
+                if (app.getStatus() != stored.getStatus()) {
+                    events.add(new ApplicationStatusEvent(app, stored.getStatus()));
+                }
+            }
+            return store.commit(records);
+        });
+        for (Application app : applications) {
+            app.setVersion(app.getVersion() + 1);
+        }
+        EventBus.getDefault().publishAll(events);
+    }
+
+    /**
+     * Deletes an application from the store by its ID.
+     *
+     * @param applicationId The ID of the application to delete.
+     */
+    @Override
+    public void delete(String applicationId) {
+        store.write(() -> store.applications.containsKey(applicationId)
+            && store.commit(List.of(SnapshotStore.APPLICATION_DELETE + "," + applicationId)));
+    }
+
+    /**
+     * Retrieves an application by its ID.
+     *
+     * @param applicationId The ID of the application.
+     * @return An {@code Optional} containing a copy of the application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getApplicationById(String applicationId) {
+        return store.read(() -> Optional.ofNullable(store.applications.get(applicationId)).map(Application::new));
+    }
+
+    /**
+     * Retrieves the active application for a specific applicant by their NRIC.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return An {@code Optional} containing the active application if found, or empty if not found.
+     */
+    @Override
+    public Optional<Application> getActiveApplication(String applicantNric) {
+        return getApplicationsByApplicant(applicantNric).stream()
+            .filter(app -> !app.getStatus().isTerminal())
+            .findFirst();
+    }
+
+    /**
+     * Retrieves all applications submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of applications submitted by the applicant.
+     */
+    @Override
+    public List<Application> getApplicationsByApplicant(String applicantNric) {
+        return query(app -> app.getApplicantNric().equals(applicantNric));
+    }
+
+    /**
+     * Retrieves all applications with a specific status, ignoring case.
+     *
+     * @param status The status to filter applications by.
+     * @return A list of applications with the specified status.
+     */
+    @Override
+    public List<Application> getApplicationsByStatus(String status) {
+        return query(app -> app.getStatus().name().equalsIgnoreCase(status));
+    }
+
+    /**
+     * Retrieves all applications for a specific project, ignoring case.
+     *
+     * @param projectName The name of the project.
+     * @return A list of applications for the specified project.
+     */
+    @Override
+    public List<Application> getApplicationsByProject(String projectName) {
+        return query(app -> app.getProjectName().equalsIgnoreCase(projectName));
+    }
+
+    /**
+     * Retrieves all applications from the store.
+     *
+     * @return A list of all applications.
+     */
+    @Override
+    public List<Application> getAllApplications() {
+        return query(app -> true);
+    }
+
+    /**
+     * Copies the applications that match a filter, in the order they were saved.
+     *
+     * @param filter The filter.
+     * @return Copies of the matching applications.
+     */
+    private List<Application> query(Predicate<Application> filter) {
+        return store.read(() -> {
+            List<Application> found = new ArrayList<>();
+            for (Application app : store.applications.values()) {
+                if (filter.test(app)) found.add(new Application(app));
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package bto.Data;
+
+import bto.Event.EnquiryReplyEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Enquiry;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the {@link EnquiryDao} interface backed by a {@link SnapshotStore}.
+ * <p>
+ * Lookups scan the enquiries in memory, in ID order, under the store's read lock and return copies. Writes are
+ * logged as a single record, and an update based on anything but the stored version fails with a
+ * {@link VersionConflictException}.
+ */
+public class SnapshotEnquiryDao implements EnquiryDao {
+    private final SnapshotStore store;
+
+    /**
+     * Constructs a SnapshotEnquiryDao.
+     *
+     * @param store The store holding the enquiries.
+     */
+    public SnapshotEnquiryDao(SnapshotStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Saves a new enquiry to the store.
+     *
+     * @param enquiry The enquiry to save.
+     */
+    @Override
+    public void save(Enquiry enquiry) {
+        saveAll(List.of(enquiry));
+    }
+
+    /**
+     * Saves several new enquiries to the store as a single log record.
+     * Enquiries without an ID are stored with consecutive IDs from the enquiry ID sequence, which is advanced in the
+     * same record.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    @Override
+    public void saveAll(List<Enquiry> enquiries) {
+        if (enquiries.isEmpty()) return;
+        store.write(() -> {
+            int nextId = Math.toIntExact(store.nextId(SnapshotStore.ENQUIRY_IDS));
+            List<String> records = new ArrayList<>();
+            for (Enquiry enquiry : enquiries) {
+                if (enquiry.getId() == 0) {
+                    enquiry = new Enquiry(nextId++, enquiry.getApplicantNric(),
+                                        enquiry.getProjectName(), enquiry.getDetails(), LocalDateTime.now(),
+                                        enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+                }
+                records.add(SnapshotStore.enquiry(enquiry));
+            }
+            if (nextId != store.nextId(SnapshotStore.ENQUIRY_IDS)) {
+                records.add(SnapshotStore.sequence(SnapshotStore.ENQUIRY_IDS, nextId));
+            }
+            return store.commit(records);
+        });
+    }
+
+    /**
+     * Updates an existing enquiry in the store.
+     *
+     * @param enquiry The enquiry to update.
+     */
+    @Override
+    public void update(Enquiry enquiry) {
+        updateAll(List.of(enquiry));
+    }
+
+    /**
+     * Updates several existing enquiries in the store as a single log record.
+     * Either every enquiry is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored enquiry and the given copy.
+     *
+     * @param enquiries The enquiries to update.
+     * @throws VersionConflictException If an enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Enquiry> enquiries) {
+        List<Event> events = new ArrayList<>();
+        store.write(() -> {
+            List<String> records = new ArrayList<>();
+            for (Enquiry enquiry : enquiries) {
+                Enquiry stored = store.enquiries.get(enquiry.getId());
+                if (stored == null) continue;
+                if (stored.getVersion() != enquiry.getVersion()) {
+                    throw new VersionConflictException("Enquiry", enquiry.getId(), enquiry.getVersion(),
+                        stored.getVersion());
+                }
+                Enquiry updated = new Enquiry(enquiry);
+                updated.setVersion(enquiry.getVersion() + 1);
+                records.add(SnapshotStore.enquiry(updated));
+                if (EnquiryReplyEvent.isNewReply(stored, enquiry)) events.add(new EnquiryReplyEvent(enquiry));
+            }
+            return store.commit(records);
+        });
+        for (Enquiry enquiry : enquiries) {
+            enquiry.setVersion(enquiry.getVersion() + 1);
+        }
+        EventBus.getDefault().publishAll(events);
+    }
+
+    /**
+     * Deletes an enquiry from the store by its ID.
+     *
+     * @param enquiryId The ID of the enquiry to delete.
+     */
+    @Override
+    public void delete(int enquiryId) {
+        store.write(() -> store.enquiries.containsKey(enquiryId)
+            && store.commit(List.of(SnapshotStore.ENQUIRY_DELETE + "," + enquiryId)));
+    }
+
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return A copy of the enquiry if found, or {@code null} if not found.
+     */
+    @Override
+    public Enquiry findById(int enquiryId) {
+        return store.read(() -> {
+            Enquiry stored = store.enquiries.get(enquiryId);
+            return stored == null ? null : new Enquiry(stored);
+        });
+    }
+
+    /**
+     * Retrieves all enquiries submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of enquiries submitted by the applicant.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
+        return query(enquiry -> enquiry.getApplicantNric().equals(applicantNric));
+    }
+
+    /**
+     * Retrieves all enquiries for a specific project, ignoring case.
+     *
+     * @param projectName The name of the project.
+     * @return A list of enquiries for the specified project.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByProject(String projectName) {
+        return query(enquiry -> enquiry.getProjectName().equalsIgnoreCase(projectName));
+    }
+
+    /**
+     * Retrieves all enquiries from the store.
+     *
+     * @return A list of all enquiries.
+     */
+    @Override
+    public List<Enquiry> getAllEnquiries() {
+        return query(enquiry -> true);
+    }
+
+    /**
+     * Copies the enquiries that match a filter, in ID order.
+     *
+     * @param filter The filter.
+     * @return Copies of the matching enquiries.
+     */
+    private List<Enquiry> query(Predicate<Enquiry> filter) {
+        return store.read(() -> {
+            List<Enquiry> found = new ArrayList<>();
+            for (Enquiry enquiry : store.enquiries.values()) {
+                if (filter.test(enquiry)) found.add(new Enquiry(enquiry));
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package bto.Data;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A consistent snapshot of every entity in the {@link SnapshotStore}, taken at a log sequence number.
+ * <p>
+ * The file holds a magic number, a format version, the LSN of the last write-ahead log record the snapshot
+ * includes, the length of the content, the content and a CRC32 of the content. The content is one store record per
+ * line, in the same form as the payload lines of the write-ahead log, so loading a snapshot is replaying it onto an
+ * empty store. A snapshot is named after its LSN and written through {@link DurableFiles}, so it appears whole or
+ * not at all.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x42545350;
+    private static final int FORMAT_VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    final long lsn;
+    final String content;
+
+    /**
+     * Constructs a SnapshotFile.
+     *
+     * @param lsn The LSN of the last log record the snapshot includes.
+     * @param content The store records, one per line.
+     */
+    private SnapshotFile(long lsn, String content) {
+        this.lsn = lsn;
+        this.content = content;
+    }
+
+    /**
+     * Lists the snapshots in a directory, newest first.
+     *
+     * @param directory The directory.
+     * @return The snapshot files.
+     */
+    static List<File> list(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        List<File> snapshots = new ArrayList<>(files == null ? List.of() : Arrays.asList(files));
+        snapshots.sort(Comparator.comparingLong(SnapshotFile::lsnOf).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Gets the LSN of a snapshot from its name.
+     *
+     * @param file The snapshot file.
+     * @return The LSN of the last log record the snapshot includes.
+     */
+    static long lsnOf(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Writes a snapshot.
+     *
+     * @param directory The directory to write the snapshot to.
+     * @param lsn The LSN of the last log record the snapshot includes.
+     * @param content The store records, one per line.
+     * @return The snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    static File write(File directory, long lsn, String content) throws IOException {
+        File file = new File(directory, String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        DurableFiles.replace(file.getPath(), out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(FORMAT_VERSION);
+            data.writeLong(lsn);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+            data.writeInt((int) crc.getValue());
+            data.flush();
+        });
+        return file;
+    }
+
+    /**
+     * Reads and checks a snapshot.
+     *
+     * @param file The snapshot file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read, is not a snapshot or fails its checksum.
+     */
+    static SnapshotFile read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buffer.remaining() < 4 + 4 + 8 + 4 + 4 || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a snapshot");
+        }
+        if (buffer.getInt() != FORMAT_VERSION) throw new IOException(file + " has an unknown snapshot format");
+        long lsn = buffer.getLong();
+        int length = buffer.getInt();
+        if (length < 0 || length != buffer.remaining() - 4) throw new IOException(file + " is truncated");
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if ((int) crc.getValue() != buffer.getInt()) throw new IOException(file + " fails its checksum");
+        if (lsn != lsnOf(file)) throw new IOException(file + " holds LSN " + lsn);
+        return new SnapshotFile(lsn, new String(bytes, StandardCharsets.UTF_8));
+    }
+}
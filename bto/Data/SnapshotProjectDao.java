@@ -0,0 +1,211 @@
+package bto.Data;
+
+import bto.Model.Project;
+import java.util.*;
+
+/**
+ * Implementation of the {@link ProjectDao} interface backed by a {@link SnapshotStore}.
+ * <p>
+ * Projects are looked up by the lower-case key of their name, so lookups ignore case as they do in
+ * {@link ProjectCSVDao}. Available units are checked and changed under the store's write lock and logged on their
+ * own, so a unit is never handed out twice; updating a project therefore changes its flat types and prices but
+ * never overwrites the available units. An update based on anything but the stored version fails with a
+ * {@link VersionConflictException}.
+ */
+public class SnapshotProjectDao implements ProjectDao {
+    private final SnapshotStore store;
+
+    /**
+     * Constructs a SnapshotProjectDao.
+     *
+     * @param store The store holding the projects.
+     */
+    public SnapshotProjectDao(SnapshotStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Saves a new project to the store.
+     *
+     * @param project The project to save.
+     */
+    @Override
+    public void saveProject(Project project) {
+        saveProjects(List.of(project));
+    }
+
+    /**
+     * Saves several new projects to the store as a single log record.
+     *
+     * @param projects The projects to save.
+     */
+    @Override
+    public void saveProjects(List<Project> projects) {
+        if (projects.isEmpty()) return;
+        List<String> records = new ArrayList<>();
+        for (Project project : projects) {
+            records.add(SnapshotStore.project(project));
+        }
+        store.write(() -> store.commit(records));
+    }
+
+    /**
+     * Updates an existing project in the store.
+     *
+     * @param project The project to update.
+     */
+    @Override
+    public void updateProject(Project project) {
+        updateProjects(List.of(project));
+    }
+
+    /**
+     * Updates several existing projects in the store as a single log record.
+     * Either every project is updated or, if any of them is stale, none is. A successful update increments the
+     * version of both the stored project and the given copy.
+     *
+     * @param projects The projects to update.
+     * @throws VersionConflictException If a project was updated by someone else since it was read.
+     */
+    @Override
+    public void updateProjects(List<Project> projects) {
+        store.write(() -> {
+            List<String> records = new ArrayList<>();
+            for (Project project : projects) {
+                Project stored = store.projects.get(SnapshotStore.key(project.getName()));
+                if (stored == null) continue;
+                if (stored.getVersion() != project.getVersion()) {
+                    throw new VersionConflictException("Project", project.getName(), project.getVersion(),
+                        stored.getVersion());
+                }
+                Project updated = new Project(project);
+                updated.setVersion(project.getVersion() + 1);
+                Map<String, Project.FlatTypeDetails> flatTypes = updated.getFlatTypes();
+                stored.getFlatTypes().forEach((flatType, details) -> {
+                    if (flatTypes.containsKey(flatType)) {
+                        flatTypes.get(flatType).setAvailableUnits(details.getAvailableUnits());
+                    }
+                });
+                records.add(SnapshotStore.project(updated));
+            }
+            return store.commit(records);
+        });
+        for (Project project : projects) {
+            project.setVersion(project.getVersion() + 1);
+        }
+    }
+
+    /**
+     * Deletes a project from the store by its name.
+     *
+     * @param projectId The name of the project to delete.
+     */
+    @Override
+    public void deleteProject(String projectId) {
+        store.write(() -> store.projects.containsKey(SnapshotStore.key(projectId))
+            && store.commit(List.of(SnapshotStore.PROJECT_DELETE + "," + projectId)));
+    }
+
+    /**
+     * Retrieves all projects from the store.
+     *
+     * @return A list of copies of all projects, in the order they were saved.
+     */
+    @Override
+    public List<Project> getAllProjects() {
+        return store.read(() -> {
+            List<Project> projects = new ArrayList<>();
+            for (Project project : store.projects.values()) {
+                projects.add(new Project(project));
+            }
+            return projects;
+        });
+    }
+
+    /**
+     * Retrieves all projects. The store serves listings from memory without rewriting any file, so there is no
+     * separate catalog to maintain; the list is simply made unmodifiable.
+     *
+     * @return An unmodifiable list of all projects.
+     */
+    @Override
+    public List<Project> getProjectCatalog() {
+        return Collections.unmodifiableList(getAllProjects());
+    }
+
+    /**
+     * Retrieves a project by its name, ignoring case.
+     *
+     * @param projectId The name of the project.
+     * @return A copy of the project if found.
+     * @throws NoSuchElementException If the project is not found.
+     */
+    @Override
+    public Project getProjectById(String projectId) {
+        Project project = store.read(() -> {
+            Project stored = store.projects.get(SnapshotStore.key(projectId));
+            return stored == null ? null : new Project(stored);
+        });
+        if (project == null) throw new NoSuchElementException("Project with name " + projectId + " not found");
+        return project;
+    }
+
+    /**
+     * Atomically decreases the available units for a specific flat type in a project, if enough units are available.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to decrease.
+     * @return {@code true} if the units were taken, {@code false} if fewer than {@code count} units are available,
+     *         the project has no such flat type or the change could not be logged.
+     */
+    @Override
+    public boolean decreaseAvailableUnits(String projectId, String flatType, int count) {
+        return store.write(() -> {
+            Project.FlatTypeDetails details = details(projectId, flatType);
+            if (details == null || details.getAvailableUnits() < count) return false;
+            return store.commit(List.of(SnapshotStore.units(projectId, flatType, details.getAvailableUnits() - count)));
+        });
+    }
+
+    /**
+     * Increases the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param count The number of units to increase.
+     */
+    @Override
+    public void increaseAvailableUnits(String projectId, String flatType, int count) {
+        store.write(() -> {
+            Project.FlatTypeDetails details = details(projectId, flatType);
+            return details != null
+                && store.commit(List.of(SnapshotStore.units(projectId, flatType, details.getAvailableUnits() + count)));
+        });
+    }
+
+    /**
+     * Sets the available units for a specific flat type in a project.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type to update.
+     * @param units The number of available units.
+     */
+    @Override
+    public void setAvailableUnits(String projectId, String flatType, int units) {
+        store.write(() -> details(projectId, flatType) != null
+            && store.commit(List.of(SnapshotStore.units(projectId, flatType, units))));
+    }
+
+    /**
+     * Finds the stored details of a flat type. Must be called with a lock held.
+     *
+     * @param projectId The name of the project.
+     * @param flatType The flat type.
+     * @return The stored details, or {@code null} if there is no such project or flat type.
+     */
+    private Project.FlatTypeDetails details(String projectId, String flatType) {
+        Project project = store.projects.get(SnapshotStore.key(projectId));
+        return project == null ? null : project.getFlatTypes().get(flatType);
+    }
+}
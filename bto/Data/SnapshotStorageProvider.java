@@ -0,0 +1,103 @@
+package bto.Data;
+
+/**
+ * Storage backend keeping every entity in memory, made durable by a write-ahead log and periodic snapshots; see
+ * {@link SnapshotStore}.
+ * <p>
+ * The store lives in {@code ./bto/Data/Snapshot} and takes a snapshot every {@code bto.snapshot.interval} log
+ * records (default 1000), which bounds how much of the log is replayed on startup. A new store is filled from the
+ * CSV files. Only one process can open the store, and a unit of work left unfinished by a crash is recovered when
+ * the provider is built.
+ */
+public class SnapshotStorageProvider implements StorageProvider {
+    /** Name of the backend. */
+    public static final String SNAPSHOT = "snapshot";
+
+    private final SnapshotStore store;
+    private final UserDao userDao;
+    private final ApplicationDao applicationDao;
+    private final ProjectDao projectDao;
+    private final EnquiryDao enquiryDao;
+
+    /**
+     * Constructs a SnapshotStorageProvider on the default store.
+     *
+     * @throws IllegalStateException If the store is in use by another process or cannot be recovered.
+     */
+    public SnapshotStorageProvider() {
+        this(new SnapshotStore());
+    }
+
+    /**
+     * Constructs a SnapshotStorageProvider on a store.
+     *
+     * @param store The store holding every entity.
+     */
+    public SnapshotStorageProvider(SnapshotStore store) {
+        this.store = store;
+        this.userDao = new SnapshotUserDao(store);
+        this.applicationDao = new SnapshotApplicationDao(store);
+        this.projectDao = new SnapshotProjectDao(store);
+        this.enquiryDao = new SnapshotEnquiryDao(store);
+        UnitOfWork.recover(projectDao, applicationDao, SNAPSHOT);
+    }
+
+    /**
+     * Gets the store the DAOs read and write, for reporting how it was recovered.
+     *
+     * @return The snapshot store.
+     */
+    public SnapshotStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the name of the backend.
+     *
+     * @return {@code snapshot}.
+     */
+    @Override
+    public String getName() {
+        return SNAPSHOT;
+    }
+
+    /**
+     * Gets the DAO for user accounts.
+     *
+     * @return The user DAO.
+     */
+    @Override
+    public UserDao getUserDao() {
+        return userDao;
+    }
+
+    /**
+     * Gets the DAO for applications.
+     *
+     * @return The application DAO.
+     */
+    @Override
+    public ApplicationDao getApplicationDao() {
+        return applicationDao;
+    }
+
+    /**
+     * Gets the DAO for projects.
+     *
+     * @return The project DAO.
+     */
+    @Override
+    public ProjectDao getProjectDao() {
+        return projectDao;
+    }
+
+    /**
+     * Gets the DAO for enquiries.
+     *
+     * @return The enquiry DAO.
+     */
+    @Override
+    public EnquiryDao getEnquiryDao() {
+        return enquiryDao;
+    }
+}
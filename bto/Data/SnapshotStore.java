@@ -0,0 +1,553 @@
+package bto.Data;
+
+import bto.Model.Application;
+import bto.Model.Enquiry;
+import bto.Model.Project;
+import bto.Model.User;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Every user, project, application and enquiry, held in memory and made durable by a {@link WriteAheadLog} and
+ * periodic {@link SnapshotFile snapshots}.
+ * <p>
+ * Each write appends one log record holding every change it makes, so a batch is recovered whole or not at all, and
+ * only then applies the changes in memory. Once the configured number of records has been logged since the last
+ * snapshot, a background thread writes a new snapshot of the whole state and starts a new log segment; segments
+ * older than the oldest kept snapshot are deleted. Opening the store loads the newest snapshot that passes its
+ * checksum and replays the log after it, so recovery reads at most a snapshot interval of records however long the
+ * history is. A new store is filled from the CSV files.
+ * <p>
+ * Log records and snapshots are made of the same lines, a kind and the entity in its CSV form:
+ * <ul>
+ *   <li>{@code U,role,name,nric,age,maritalStatus,password}: a user;</li>
+ *   <li>{@code P,project} and {@code p,name}: a saved or updated project, and a deleted one;</li>
+ *   <li>{@code N,name,flatType,units}: the available units of a flat type;</li>
+ *   <li>{@code A,application} and {@code a,id}: a saved or updated application, and a deleted one;</li>
+ *   <li>{@code E,enquiry} and {@code e,id}: a saved or updated enquiry, and a deleted one;</li>
+ *   <li>{@code S,sequence,next}: the next ID an ID sequence hands out.</li>
+ * </ul>
+ * <p>
+ * Readers share a read lock and writers take the write lock, so every read sees whole writes. Only one process can
+ * open a store at a time; serve many sessions from one process with {@code --server} instead.
+ */
+public class SnapshotStore implements AutoCloseable {
+    static final String DIRECTORY = "./bto/Data/Snapshot";
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    private static final int KEPT_SNAPSHOTS = 2;
+    private static final String[][] USER_FILES = {
+        {"Applicant", "./bto/Data/CSV/ApplicantList.csv"},
+        {"Manager", "./bto/Data/CSV/ManagerList.csv"},
+        {"Officer", "./bto/Data/CSV/OfficerList.csv"},
+    };
+
+    static final String USER = "U";
+    static final String PROJECT = "P";
+    static final String PROJECT_DELETE = "p";
+    static final String UNITS = "N";
+    static final String APPLICATION = "A";
+    static final String APPLICATION_DELETE = "a";
+    static final String ENQUIRY = "E";
+    static final String ENQUIRY_DELETE = "e";
+    static final String SEQUENCE = "S";
+    static final String APPLICATION_IDS = "applications";
+    static final String ENQUIRY_IDS = "enquiries";
+
+    final Map<String, String[]> users = new LinkedHashMap<>();
+    final Map<String, Project> projects = new LinkedHashMap<>();
+    final Map<String, Application> applications = new LinkedHashMap<>();
+    final TreeMap<Integer, Enquiry> enquiries = new TreeMap<>();
+    final Map<String, Long> sequences = new HashMap<>();
+
+    private final File directory;
+    private final int snapshotInterval;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object snapshotMonitor = new Object();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final FileChannel lockChannel;
+    private final FileLock processLock;
+    private final WriteAheadLog wal;
+    private final int replayedRecords;
+    private final long recoveryMillis;
+    private volatile long snapshotLsn;
+    private int recordsSinceSnapshot;
+    private boolean snapshotScheduled;
+
+    /**
+     * Opens the store in the default directory, taking a snapshot every {@code bto.snapshot.interval} log records
+     * (1000 by default) and filling a new store from the CSV files.
+     *
+     * @throws IllegalStateException If the store is in use by another process or cannot be recovered.
+     */
+    public SnapshotStore() {
+        this(DIRECTORY, Integer.getInteger("bto.snapshot.interval", DEFAULT_SNAPSHOT_INTERVAL), true);
+    }
+
+    /**
+     * Opens the store in the specified directory and recovers its state.
+     *
+     * @param directory The directory holding the snapshots and the log. It is created if missing.
+     * @param snapshotInterval The number of log records after which a snapshot is taken in the background,
+     *                         or a non-positive value to only take snapshots through {@link #snapshot()}.
+     * @param importCsv Whether a new store is filled from the CSV files.
+     * @throws IllegalStateException If the store is in use by another process or cannot be recovered.
+     */
+    public SnapshotStore(String directory, int snapshotInterval, boolean importCsv) {
+        this.directory = new File(directory);
+        this.snapshotInterval = snapshotInterval;
+        this.directory.mkdirs();
+        long start = System.nanoTime();
+        try {
+            lockChannel = FileChannel.open(new File(directory, "store.lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock acquired;
+            try {
+                acquired = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                acquired = null;
+            }
+            if (acquired == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Snapshot store " + directory + " is in use by another process");
+            }
+            processLock = acquired;
+
+            SnapshotFile snapshot = latestSnapshot();
+            boolean fresh = snapshot == null && WriteAheadLog.segments(this.directory).isEmpty();
+            if (snapshot != null) apply(snapshot.content);
+            snapshotLsn = snapshot == null ? 0 : snapshot.lsn;
+            int[] replayed = {0};
+            wal = new WriteAheadLog(this.directory, snapshotLsn, record -> {
+                apply(record.payload);
+                replayed[0]++;
+            });
+            replayedRecords = replayed[0];
+            recordsSinceSnapshot = replayedRecords;
+            if (fresh) {
+                if (importCsv) importCsv();
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open snapshot store " + directory + ": " + e.getMessage(), e);
+        }
+        recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Runs a read under the read lock.
+     *
+     * @param <T> The type of the result.
+     * @param reader Reads the in-memory state.
+     * @return The result of the read.
+     */
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a write under the write lock, and schedules a snapshot if enough records have been logged since the last.
+     *
+     * @param <T> The type of the result.
+     * @param writer Checks the in-memory state and {@link #commit(List) commits} its changes.
+     * @return The result of the write.
+     */
+    <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            if (snapshotInterval > 0 && recordsSinceSnapshot >= snapshotInterval && !snapshotScheduled) {
+                snapshotScheduled = true;
+                snapshotter.execute(this::snapshot);
+            }
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Logs changes as a single record and applies them in memory. Must be called inside {@link #write(Supplier)}.
+     *
+     * @param records The store lines of the changes.
+     * @return {@code true}, so that a commit can end a condition.
+     * @throws UncheckedIOException If the log cannot be written, in which case nothing changed.
+     */
+    boolean commit(List<String> records) {
+        if (records.isEmpty()) return true;
+        String payload = String.join("\n", records);
+        try {
+            wal.append(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log changes to " + directory, e);
+        }
+        recordsSinceSnapshot++;
+        apply(payload);
+        return true;
+    }
+
+    /**
+     * Gets the next ID a sequence hands out. Must be called with a lock held.
+     *
+     * @param sequence The name of the sequence.
+     * @return The next ID.
+     */
+    long nextId(String sequence) {
+        return sequences.getOrDefault(sequence, 1L);
+    }
+
+    /**
+     * Writes a snapshot of the whole state, starts a new log segment and deletes snapshots and segments that are no
+     * longer needed. Writers are only held up while the state is copied; the snapshot is written after.
+     */
+    public void snapshot() {
+        synchronized (snapshotMonitor) {
+            long lsn;
+            String content;
+            // The read lock keeps writers out, which is all rolling the log needs.
+            lock.readLock().lock();
+            try {
+                snapshotScheduled = false;
+                lsn = wal.getLastLsn();
+                if (lsn == snapshotLsn && !SnapshotFile.list(directory).isEmpty()) return;
+                content = serialize();
+                wal.roll();
+                recordsSinceSnapshot = 0;
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            try {
+                SnapshotFile.write(directory, lsn, content);
+                // The log segments the snapshot replaces may only go once the snapshot itself is on disk.
+                if (DurableFiles.getPolicy() == FsyncPolicy.BATCHED) DurableFiles.sync();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+            snapshotLsn = lsn;
+
+            List<File> snapshots = SnapshotFile.list(directory);
+            for (int i = KEPT_SNAPSHOTS; i < snapshots.size(); i++) {
+                if (!snapshots.get(i).delete()) System.err.println("Cannot delete " + snapshots.get(i));
+            }
+            wal.deleteCoveredBy(SnapshotFile.lsnOf(snapshots.get(Math.min(KEPT_SNAPSHOTS, snapshots.size()) - 1)));
+        }
+    }
+
+    /**
+     * Gets the LSN of the last logged write.
+     *
+     * @return The last LSN.
+     */
+    public long getLastLsn() {
+        return read(wal::getLastLsn);
+    }
+
+    /**
+     * Gets the LSN of the newest snapshot.
+     *
+     * @return The LSN the newest snapshot was taken at.
+     */
+    public long getSnapshotLsn() {
+        return snapshotLsn;
+    }
+
+    /**
+     * Gets the number of log records replayed when the store was opened.
+     *
+     * @return The number of replayed records.
+     */
+    public int getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Gets the time it took to open the store, including loading the snapshot and replaying the log.
+     *
+     * @return The recovery time in milliseconds.
+     */
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /**
+     * Describes the store and how it was recovered.
+     *
+     * @return A one-line summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("Snapshot store %s: LSN %d, snapshot at LSN %d, recovered %d log records in %d ms",
+            directory, getLastLsn(), snapshotLsn, replayedRecords, recoveryMillis);
+    }
+
+    /**
+     * Waits for a background snapshot to finish, closes the log and releases the store to other processes.
+     *
+     * @throws IOException If the log or the lock file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            wal.close();
+            processLock.release();
+            lockChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the store line of a user.
+     *
+     * @param role The role of the user: {@code Applicant}, {@code Manager} or {@code Officer}.
+     * @param user The user.
+     * @return The store line.
+     */
+    static String user(String role, User user) {
+        return USER + "," + role + "," + user;
+    }
+
+    /**
+     * Builds the store line of a project.
+     *
+     * @param project The project.
+     * @return The store line.
+     */
+    static String project(Project project) {
+        return PROJECT + "," + ProjectCSVDao.toCsvLine(project);
+    }
+
+    /**
+     * Builds the store line of the available units of a flat type.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param units The number of available units.
+     * @return The store line.
+     */
+    static String units(String projectName, String flatType, int units) {
+        return UNITS + "," + projectName + "," + flatType + "," + units;
+    }
+
+    /**
+     * Builds the store line of an application.
+     *
+     * @param application The application.
+     * @return The store line.
+     */
+    static String application(Application application) {
+        return APPLICATION + "," + ApplicationCSVDao.toCsvLine(application);
+    }
+
+    /**
+     * Builds the store line of an enquiry.
+     *
+     * @param enquiry The enquiry.
+     * @return The store line.
+     */
+    static String enquiry(Enquiry enquiry) {
+        return ENQUIRY + "," + EnquiryCSVDao.toCsvLine(enquiry);
+    }
+
+    /**
+     * Builds the store line of an ID sequence.
+     *
+     * @param sequence The name of the sequence.
+     * @param next The next ID the sequence hands out.
+     * @return The store line.
+     */
+    static String sequence(String sequence, long next) {
+        return SEQUENCE + "," + sequence + "," + next;
+    }
+
+    /**
+     * Builds the key a project is stored under, so lookups by name ignore case.
+     *
+     * @param projectName The name of the project.
+     * @return The key.
+     */
+    static String key(String projectName) {
+        return projectName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Applies store lines to the in-memory state.
+     *
+     * @param lines The store lines, one per line.
+     * @throws IllegalStateException If a line has an unknown kind.
+     */
+    private void apply(String lines) {
+        for (String line : lines.split("\n")) {
+            if (line.isEmpty()) continue;
+            int comma = line.indexOf(',');
+            String kind = comma < 0 ? line : line.substring(0, comma);
+            String data = comma < 0 ? "" : line.substring(comma + 1);
+            switch (kind) {
+                case USER:
+                    String[] user = data.split(",", 2);
+                    users.put(user[1].split(",")[1], user);
+                    break;
+                case PROJECT:
+                    Project project = ProjectCSVDao.parseProject(data);
+                    if (project != null) projects.put(key(project.getName()), project);
+                    break;
+                case PROJECT_DELETE:
+                    projects.remove(key(data));
+                    break;
+                case UNITS:
+                    applyUnits(data);
+                    break;
+                case APPLICATION:
+                    Application application = ApplicationCSVDao.parseApplication(data);
+                    if (application != null) applications.put(application.getId(), application);
+                    break;
+                case APPLICATION_DELETE:
+                    applications.remove(data);
+                    break;
+                case ENQUIRY:
+                    Enquiry enquiry = EnquiryCSVDao.parseEnquiry(data);
+                    if (enquiry != null) enquiries.put(enquiry.getId(), enquiry);
+                    break;
+                case ENQUIRY_DELETE:
+                    enquiries.remove(Integer.parseInt(data));
+                    break;
+                case SEQUENCE:
+                    String[] sequence = data.split(",");
+                    sequences.put(sequence[0], Long.parseLong(sequence[1]));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown store record: " + line);
+            }
+        }
+    }
+
+    /**
+     * Applies the available units of a flat type. The project name comes first and may not contain a comma, like
+     * every other field of the CSV files.
+     *
+     * @param data The project name, flat type and units, separated by commas.
+     */
+    private void applyUnits(String data) {
+        String[] parts = data.split(",");
+        Project project = projects.get(key(parts[0]));
+        if (project == null) return;
+        Project.FlatTypeDetails details = project.getFlatTypes().get(parts[1]);
+        if (details != null) details.setAvailableUnits(Integer.parseInt(parts[2]));
+    }
+
+    /**
+     * Writes the whole state as store lines. Must be called with a lock held.
+     *
+     * @return The store lines, one per line.
+     */
+    private String serialize() {
+        StringBuilder content = new StringBuilder();
+        sequences.forEach((name, next) -> content.append(sequence(name, next)).append('\n'));
+        for (String[] user : users.values()) {
+            content.append(USER).append(',').append(user[0]).append(',').append(user[1]).append('\n');
+        }
+        for (Project project : projects.values()) {
+            content.append(project(project)).append('\n');
+        }
+        for (Application application : applications.values()) {
+            content.append(application(application)).append('\n');
+        }
+        for (Enquiry enquiry : enquiries.values()) {
+            content.append(enquiry(enquiry)).append('\n');
+        }
+        return content.toString();
+    }
+
+    /**
+     * Finds the newest snapshot that passes its checksum. Every newer one that does not is reported and renamed
+     * with a {@code .corrupt} suffix, so it is kept for inspection but no longer counts as one of the snapshots
+     * that the log must reach back to.
+     *
+     * @return The snapshot, or {@code null} if there is none.
+     */
+    private SnapshotFile latestSnapshot() {
+        for (File file : SnapshotFile.list(directory)) {
+            try {
+                return SnapshotFile.read(file);
+            } catch (IOException e) {
+                System.err.println("Skipping snapshot: " + e.getMessage());
+                if (!file.renameTo(new File(file.getPath() + ".corrupt"))) System.err.println("Cannot rename " + file);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills the in-memory state from the CSV files. Only called for a new store, before its first snapshot.
+     */
+    private void importCsv() {
+        for (String[] file : USER_FILES) {
+            if (!new File(file[1]).exists()) continue;
+            FileLockManager.Held held = FileLockManager.forFile(file[1]).acquireShared();
+            try (BufferedReader br = new BufferedReader(new FileReader(file[1], StandardCharsets.UTF_8))) {
+                br.readLine(); // Skip the header
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] data = line.split(",");
+                    if (data.length >= 5) users.put(data[1], new String[] {file[0], line});
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            } finally {
+                held.close();
+            }
+        }
+        if (new File("./bto/Data/CSV/ProjectList.csv").exists()) {
+            for (Project project : new ProjectCSVDao().getAllProjects()) {
+                projects.put(key(project.getName()), project);
+            }
+        }
+        long maxApplicationId = 0;
+        if (new File(ApplicationCSVDao.FILEPATH).exists()) {
+            for (Application application : new ApplicationCSVDao().getAllApplications()) {
+                applications.put(application.getId(), application);
+                try {
+                    maxApplicationId = Math.max(maxApplicationId, Long.parseLong(application.getId()));
+                } catch (NumberFormatException e) {
+                    // Only numeric IDs can clash with the sequence.
+                }
+            }
+        }
+        if (new File("./bto/Data/CSV/Enquiries.csv").exists()) {
+            for (Enquiry enquiry : new EnquiryCSVDao().getAllEnquiries()) {
+                enquiries.put(enquiry.getId(), enquiry);
+            }
+        }
+        sequences.put(APPLICATION_IDS, maxApplicationId + 1);
+        sequences.put(ENQUIRY_IDS, (enquiries.isEmpty() ? 0 : enquiries.lastKey()) + 1L);
+    }
+}
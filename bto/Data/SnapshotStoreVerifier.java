@@ -0,0 +1,121 @@
+package bto.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Command-line tool checking the integrity of a {@link SnapshotStore} without opening it.
+ * <p>
+ * Every snapshot must pass its checksum, every write-ahead log record must pass its checksum and carry the LSN after
+ * the one before it, across segments, and the log must reach back to the newest good snapshot so recovery can
+ * replay everything after it. A torn record at the very end of the log is what a crash mid-write leaves behind and
+ * is cut off when the store is next opened, and a bad segment the newest snapshot covers is never replayed, so both
+ * are reported as warnings; anything else is an error. The tool
+ * only reads, so it may be run while the store is open.
+ * <p>
+ * Usage: {@code java bto.Data.SnapshotStoreVerifier [directory]}
+ */
+public final class SnapshotStoreVerifier {
+
+    /**
+     * Prevents instantiation.
+     */
+    private SnapshotStoreVerifier() {
+    }
+
+    /**
+     * Runs the check and exits with status 1 if the store has errors.
+     *
+     * @param args Optionally the store directory (default {@code ./bto/Data/Snapshot}).
+     */
+    public static void main(String[] args) {
+        String directory = args.length > 0 ? args[0] : SnapshotStore.DIRECTORY;
+        if (!verify(directory, System.out)) System.exit(1);
+    }
+
+    /**
+     * Checks the snapshots and log segments of a store, reporting each of them.
+     *
+     * @param directory The store directory.
+     * @param out Where to write the report.
+     * @return {@code true} if the store can be recovered without losing a logged write.
+     */
+    public static boolean verify(String directory, PrintStream out) {
+        File dir = new File(directory);
+        if (!dir.isDirectory()) {
+            out.println("ERROR: no snapshot store at " + directory);
+            return false;
+        }
+        int errors = 0;
+
+        long recoverFrom = -1;
+        for (File file : SnapshotFile.list(dir)) {
+            try {
+                SnapshotFile snapshot = SnapshotFile.read(file);
+                out.printf("%s: LSN %d, %d bytes, OK%n", file.getName(), snapshot.lsn, file.length());
+                recoverFrom = Math.max(recoverFrom, snapshot.lsn);
+            } catch (IOException e) {
+                out.println("ERROR: " + e.getMessage());
+                errors++;
+            }
+        }
+
+        List<File> segments = WriteAheadLog.segments(dir);
+        long expected = -1;
+        long logStart = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            File file = segments.get(i);
+            long first = WriteAheadLog.firstLsn(file);
+            if (logStart < 0) logStart = first;
+            if (expected >= 0 && first != expected && first > recoverFrom + 1) {
+                out.printf("ERROR: %s starts at LSN %d where %d was expected%n", file.getName(), first, expected);
+                errors++;
+            }
+            WriteAheadLog.Scan scan;
+            try {
+                scan = WriteAheadLog.scan(file);
+            } catch (IOException e) {
+                out.println("ERROR: " + e.getMessage());
+                errors++;
+                continue;
+            }
+            if (scan.records.isEmpty()) {
+                out.printf("%s: no records%n", file.getName());
+            } else {
+                out.printf("%s: LSNs %d to %d, %d records%n", file.getName(), first,
+                    first + scan.records.size() - 1, scan.records.size());
+            }
+            if (scan.error != null) {
+                if (i == segments.size() - 1) {
+                    out.printf("WARNING: %s has a torn end after byte %d (%s); it is cut off on the next open%n",
+                        file.getName(), scan.validBytes, scan.error);
+                } else if (WriteAheadLog.firstLsn(segments.get(i + 1)) <= recoverFrom + 1) {
+                    out.printf("WARNING: %s is corrupt after byte %d (%s), but the newest snapshot covers it%n",
+                        file.getName(), scan.validBytes, scan.error);
+                } else {
+                    out.printf("ERROR: %s is corrupt after byte %d: %s%n", file.getName(), scan.validBytes, scan.error);
+                    errors++;
+                }
+            }
+            expected = first + scan.records.size();
+        }
+
+        long base = Math.max(recoverFrom, 0);
+        if (recoverFrom < 0 && !segments.isEmpty()) out.println("WARNING: no good snapshot; the whole log is replayed");
+        if (logStart > base + 1) {
+            out.printf("ERROR: the log starts at LSN %d, so LSNs %d to %d after the snapshot are lost%n",
+                logStart, base + 1, logStart - 1);
+            errors++;
+        }
+        long logEnd = expected < 0 ? base : expected - 1;
+        if (errors == 0) {
+            out.printf("OK: recovery loads the snapshot at LSN %d and replays %d log records%n",
+                base, Math.max(0, logEnd - base));
+        } else {
+            out.printf("%d error(s) found%n", errors);
+        }
+        return errors == 0;
+    }
+}
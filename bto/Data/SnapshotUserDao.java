@@ -0,0 +1,74 @@
+package bto.Data;
+
+import bto.Model.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the {@link UserDao} interface backed by a {@link SnapshotStore}.
+ * Every stored user carries its role, so the file names passed to {@link #readUsers(String)} only select the role.
+ */
+public class SnapshotUserDao implements UserDao {
+    private final SnapshotStore store;
+
+    /**
+     * Constructs a SnapshotUserDao.
+     *
+     * @param store The store holding the users.
+     */
+    public SnapshotUserDao(SnapshotStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Loads the users of one role into the system.
+     *
+     * @param filePath The path of the CSV file the role is kept in by {@link UserCSVDao}, such as
+     *                 {@code ./bto/Data/CSV/ApplicantList.csv}.
+     */
+    @Override
+    public void readUsers(String filePath) {
+        String role = new File(filePath).getName().replace("List.csv", "");
+        List<String> lines = store.read(() -> {
+            List<String> found = new ArrayList<>();
+            for (String[] user : store.users.values()) {
+                if (user[0].equals(role)) found.add(user[1]);
+            }
+            return found;
+        });
+        for (String line : lines) {
+            String[] data = line.split(",");
+            String name = data[0];
+            String nric = data[1];
+            int age = Integer.parseInt(data[2]);
+            String maritalStatus = data[3];
+            String password = data[4];
+            switch (role) {
+                case "Applicant":
+                    User.addUser(nric, new Applicant(name, nric, age, maritalStatus, password));
+                    break;
+                case "Manager":
+                    User.addUser(nric, new Manager(name, nric, age, maritalStatus, password));
+                    break;
+                case "Officer":
+                    User.addUser(nric, new Officer(name, nric, age, maritalStatus, password));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Updates an existing user's data in the store. The user keeps the role it is stored with.
+     *
+     * @param user The user whose data is to be updated.
+     */
+    @Override
+    public void updateUser(User user) {
+        store.write(() -> {
+            String[] stored = store.users.get(user.getNric());
+            if (stored != null) store.commit(List.of(SnapshotStore.user(stored[0], user)));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package bto.Data;
+
+/**
+ * A storage backend: one set of DAOs that every controller and session of the process shares.
+ * <p>
+ * The backend is chosen once at startup by {@link StorageProviders#getDefault()}, so switching storage engines needs
+ * no code changes. A provider builds its DAOs when it is constructed and keeps them for the life of the process.
+ */
+public interface StorageProvider {
+
+    /**
+     * Gets the name the backend is selected by.
+     *
+     * @return The name of the backend.
+     */
+    String getName();
+
+    /**
+     * Gets the DAO for user accounts.
+     *
+     * @return The user DAO.
+     */
+    UserDao getUserDao();
+
+    /**
+     * Gets the DAO for applications.
+     *
+     * @return The application DAO.
+     */
+    ApplicationDao getApplicationDao();
+
+    /**
+     * Gets the DAO for projects.
+     *
+     * @return The project DAO.
+     */
+    ProjectDao getProjectDao();
+
+    /**
+     * Gets the DAO for enquiries.
+     *
+     * @return The enquiry DAO.
+     */
+    EnquiryDao getEnquiryDao();
+}
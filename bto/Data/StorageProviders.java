@@ -0,0 +1,92 @@
+package bto.Data;
+
+import java.util.Locale;
+
+/**
+ * Selects and holds the {@link StorageProvider} of the process.
+ * <p>
+ * The backend is named by the {@code bto.storage} system property:
+ * <ul>
+ *   <li>{@code csv}: the CSV files, read and rewritten on every operation (the default);</li>
+ *   <li>{@code cached}: the CSV files, with applications served from memory and written through;</li>
+ *   <li>{@code journal}: as {@code cached}, with application writes appended to a journal;</li>
+ *   <li>{@code columnar}: the CSV files, except applications, which are kept in a columnar binary file;</li>
+ *   <li>{@code jdbc}: an embedded SQL database, see {@link JdbcStorageProvider};</li>
+ *   <li>{@code snapshot}: memory, made durable by a write-ahead log and snapshots, see
+ *       {@link SnapshotStorageProvider};</li>
+ *   <li>the fully qualified name of a {@link StorageProvider} class with a public no-argument constructor.</li>
+ * </ul>
+ * Without {@code bto.storage}, the older {@code bto.journal} and {@code bto.cache} flags still select the journal
+ * and cached backends.
+ */
+public final class StorageProviders {
+    private static volatile StorageProvider defaultProvider;
+
+    /**
+     * Prevents instantiation.
+     */
+    private StorageProviders() {
+    }
+
+    /**
+     * Gets the provider selected for this process, building it on first use.
+     *
+     * @return The default provider.
+     * @throws IllegalArgumentException If {@code bto.storage} names no known backend.
+     */
+    public static StorageProvider getDefault() {
+        StorageProvider provider = defaultProvider;
+        if (provider != null) return provider;
+        synchronized (StorageProviders.class) {
+            if (defaultProvider == null) defaultProvider = create(System.getProperty("bto.storage"));
+            return defaultProvider;
+        }
+    }
+
+    /**
+     * Builds the provider for a backend name.
+     *
+     * @param name The name of the backend, or {@code null} to fall back on the older flags.
+     * @return A new provider.
+     * @throws IllegalArgumentException If the name is not a known backend.
+     */
+    public static StorageProvider create(String name) {
+        if (name == null || name.isBlank()) {
+            if (Boolean.getBoolean("bto.journal")) return new CsvStorageProvider(CsvStorageProvider.JOURNAL);
+            if (Boolean.getBoolean("bto.cache")) return new CsvStorageProvider(CsvStorageProvider.CACHED);
+            return new CsvStorageProvider(CsvStorageProvider.CSV);
+        }
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        switch (key) {
+            case CsvStorageProvider.CSV:
+            case CsvStorageProvider.CACHED:
+            case CsvStorageProvider.JOURNAL:
+            case CsvStorageProvider.COLUMNAR:
+                return new CsvStorageProvider(key);
+            case JdbcStorageProvider.JDBC:
+                return new JdbcStorageProvider();
+            case SnapshotStorageProvider.SNAPSHOT:
+                return new SnapshotStorageProvider();
+            default:
+                return instantiate(name.trim());
+        }
+    }
+
+    /**
+     * Builds a provider from its class name.
+     *
+     * @param className The fully qualified name of the provider class.
+     * @return A new provider.
+     * @throws IllegalArgumentException If the class cannot be found or built, or is not a provider.
+     */
+    private static StorageProvider instantiate(String className) {
+        try {
+            Object provider = Class.forName(className).getDeclaredConstructor().newInstance();
+            if (provider instanceof StorageProvider) return (StorageProvider) provider;
+            throw new IllegalArgumentException(className + " is not a StorageProvider");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown storage backend: " + className
+                + " (expected csv, cached, journal, columnar, jdbc, snapshot or a StorageProvider class name)", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package bto.Data;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out among keys by hash, so operations on the same key are serialized while
+ * operations on different keys almost always run in parallel.
+ * <p>
+ * Keys are compared ignoring case, matching how project names are looked up. Two keys may share a stripe, which
+ * only costs some parallelism, never correctness. A thread holds at most one stripe at a time in this application,
+ * so stripes cannot deadlock with each other.
+ */
+public final class StripedLock {
+    private static final StripedLock PROJECT_LOCKS = new StripedLock(Integer.getInteger("bto.lock.stripes", 64));
+
+    private final ReentrantLock[] stripes;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contentions = new LongAdder();
+
+    /**
+     * A held stripe, released by {@link #close()}.
+     */
+    public interface Held extends AutoCloseable {
+        /**
+         * Releases the stripe.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Constructs a StripedLock with at least the specified number of stripes, rounded up to a power of two.
+     *
+     * @param minStripes The minimum number of stripes.
+     */
+    public StripedLock(int minStripes) {
+        int count = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        stripes = new ReentrantLock[minStripes <= 1 ? 1 : count];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the locks shared by every controller for project state transitions.
+     * The number of stripes is read from the {@code bto.lock.stripes} system property (64 by default).
+     *
+     * @return The project locks.
+     */
+    public static StripedLock projects() {
+        return PROJECT_LOCKS;
+    }
+
+    /**
+     * Locks the stripe of a key, waiting for it if another thread holds it.
+     *
+     * @param key The key to lock, compared ignoring case.
+     * @return The held stripe.
+     */
+    public Held lock(String key) {
+        ReentrantLock stripe = stripeFor(key);
+        if (!stripe.tryLock()) {
+            contentions.increment();
+            stripe.lock();
+        }
+        acquisitions.increment();
+        return stripe::unlock;
+    }
+
+    /**
+     * Gets the number of stripes.
+     *
+     * @return The number of stripes.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Gets the number of times a stripe was locked.
+     *
+     * @return The number of acquisitions.
+     */
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Gets the number of acquisitions that had to wait for another thread.
+     *
+     * @return The number of contended acquisitions.
+     */
+    public long getContentions() {
+        return contentions.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the lock metrics.
+     *
+     * @return The stripe count followed by the acquisition and contention counts.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d stripes: %d acquisitions, %d contended",
+            getStripeCount(), getAcquisitions(), getContentions());
+    }
+
+    /**
+     * Gets the stripe a key maps to.
+     *
+     * @param key The key, compared ignoring case.
+     * @return The stripe of the key.
+     */
+    private ReentrantLock stripeFor(String key) {
+        int h = key == null ? 0 : key.toLowerCase(Locale.ROOT).hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+}
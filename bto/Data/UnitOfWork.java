@@ -0,0 +1,419 @@
+package bto.Data;
+
+import bto.Model.Application;
+import bto.Model.Project;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Buffers available unit, project and application changes and commits them together, with one flush per DAO.
+ * <p>
+ * Before flushing, the buffered changes are written to a pending file. If the process dies part-way through a
+ * commit, {@link #recover(ProjectDao, ApplicationDao, String)} re-applies the pending changes on the next start, so
+ * either every change of the unit reaches the data files or, if the pending file was never completed, none of them
+ * do.
+ * Unit changes are recorded with the counts before and after them, so a unit change that was already flushed is not
+ * applied twice.
+ * If a flush fails with an exception, the changes already flushed are rolled back to the state read before the
+ * commit started. Registered changes are subject to the DAOs' version checks, so a commit based on a stale copy
+ * fails with a {@link VersionConflictException} and is rolled back like any other failed flush. Only flushes that
+ * completed are rolled back, and a failed rollback is attached to the original exception as a suppressed one. The
+ * pending file is only removed once the commit or its rollback completed, so after a failed rollback the next start
+ * completes the commit instead of leaving it half applied.
+ * Every storage backend has its own pending file, named after the backend, so an interrupted commit is only ever
+ * replayed onto the backend it was made on. Commits hold an exclusive lock on the pending file, so they never
+ * interleave, even across processes. The
+ * controllers change available units only through a unit of work, so the counts read at the start of a commit still
+ * hold when it flushes.
+ */
+public class UnitOfWork {
+    private static final String PENDING_DIRECTORY = "./bto/Data/CSV/";
+    private static final String UNITS = "N";
+    private static final String PROJECT = "P";
+    private static final String APPLICATION = "A";
+    private static final String END = "END";
+
+    private final ProjectDao projectDao;
+    private final ApplicationDao applicationDao;
+    private final String pendingPath;
+    private final FileLockManager commitLock;
+    private final List<UnitChange> unitChanges = new ArrayList<>();
+    private final Map<String, Project> projects = new LinkedHashMap<>();
+    private final Map<String, Application> applications = new LinkedHashMap<>();
+
+    /**
+     * A change to the available units of one flat type: either a number of units taken or returned, or a new count.
+     */
+    private static final class UnitChange {
+        final String projectName;
+        final String flatType;
+        final int delta;
+        final boolean absolute;
+        int before;
+        int after;
+
+        /**
+         * Constructs a UnitChange.
+         *
+         * @param projectName The name of the project.
+         * @param flatType The flat type.
+         * @param delta The number of units returned, negative for units taken, or the new count if {@code absolute}.
+         * @param absolute Whether {@code delta} is the new count.
+         */
+        UnitChange(String projectName, String flatType, int delta, boolean absolute) {
+            this.projectName = projectName;
+            this.flatType = flatType;
+            this.delta = delta;
+            this.absolute = absolute;
+        }
+    }
+
+    /**
+     * Constructs a UnitOfWork that commits through the specified DAOs.
+     *
+     * @param projectDao The DAO the project changes are written to.
+     * @param applicationDao The DAO the application changes are written to.
+     * @param storage The name of the storage backend the DAOs belong to, which selects the pending file.
+     */
+    public UnitOfWork(ProjectDao projectDao, ApplicationDao applicationDao, String storage) {
+        this.projectDao = projectDao;
+        this.applicationDao = applicationDao;
+        this.pendingPath = pendingPath(storage);
+        this.commitLock = FileLockManager.forFile(pendingPath);
+    }
+
+    /**
+     * Gets the path of the pending file of a storage backend.
+     *
+     * @param storage The name of the storage backend.
+     * @return The path of its pending file.
+     */
+    static String pendingPath(String storage) {
+        return PENDING_DIRECTORY + "UnitOfWork-" + storage.replaceAll("[^A-Za-z0-9._-]", "_") + ".pending";
+    }
+
+    /**
+     * Registers units of a flat type to be taken on commit. The commit fails, and nothing is written, if fewer units
+     * are available by then.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param count The number of units to take.
+     * @return This unit of work.
+     */
+    public UnitOfWork reserveUnits(String projectName, String flatType, int count) {
+        unitChanges.add(new UnitChange(projectName, flatType, -count, false));
+        return this;
+    }
+
+    /**
+     * Registers units of a flat type to be returned on commit.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param count The number of units to return.
+     * @return This unit of work.
+     */
+    public UnitOfWork releaseUnits(String projectName, String flatType, int count) {
+        unitChanges.add(new UnitChange(projectName, flatType, count, false));
+        return this;
+    }
+
+    /**
+     * Registers a new count of available units for a flat type, to be set on commit.
+     *
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @param units The number of available units.
+     * @return This unit of work.
+     */
+    public UnitOfWork setAvailableUnits(String projectName, String flatType, int units) {
+        unitChanges.add(new UnitChange(projectName, flatType, units, true));
+        return this;
+    }
+
+    /**
+     * Registers a changed project to be updated on commit.
+     * Registering the same project again replaces the earlier change.
+     *
+     * @param project The changed project.
+     * @return This unit of work.
+     */
+    public UnitOfWork updateProject(Project project) {
+        projects.put(project.getName(), project);
+        return this;
+    }
+
+    /**
+     * Registers a changed application to be updated on commit.
+     * Registering the same application again replaces the earlier change.
+     *
+     * @param application The changed application.
+     * @return This unit of work.
+     */
+    public UnitOfWork updateApplication(Application application) {
+        applications.put(application.getId(), application);
+        return this;
+    }
+
+    /**
+     * Writes every registered change: the available units first, then the projects, then the applications.
+     * The unit of work is empty again afterwards and can be reused.
+     *
+     * @throws IllegalStateException If fewer units are available than are to be taken, or a flat type to change has
+     *                               no stored count. Nothing is written.
+     * @throws VersionConflictException If a project or application was updated by someone else since it was read.
+     *                                  Everything already written is rolled back.
+     */
+    public void commit() {
+        if (unitChanges.isEmpty() && projects.isEmpty() && applications.isEmpty()) return;
+
+        FileLockManager.Held held = commitLock.acquireExclusive();
+        try {
+            for (UnitChange change : unitChanges) {
+                Integer stored = storedUnits(projectDao, change.projectName, change.flatType);
+                if (stored == null) {
+                    throw new IllegalStateException("No flat type " + change.flatType + " in " + change.projectName);
+                }
+                change.before = stored;
+                change.after = change.absolute ? change.delta : stored + change.delta;
+                if (change.after < 0) {
+                    throw new IllegalStateException("No available units for flat type: " + change.flatType);
+                }
+            }
+            List<Project> projectsBefore = new ArrayList<>();
+            for (String name : projects.keySet()) {
+                try {
+                    projectsBefore.add(projectDao.getProjectById(name));
+                } catch (NoSuchElementException e) {
+                    // Nothing to restore for a project that is not stored yet.
+                }
+            }
+            List<Application> applicationsBefore = new ArrayList<>();
+            for (String id : applications.keySet()) {
+                applicationDao.getApplicationById(id).ifPresent(applicationsBefore::add);
+            }
+
+            writePending(pendingPath, unitChanges, new ArrayList<>(projects.values()),
+                new ArrayList<>(applications.values()));
+            List<UnitChange> unitsFlushed = new ArrayList<>();
+            boolean projectsFlushed = false;
+            boolean settled = false;
+            try {
+                for (UnitChange change : unitChanges) {
+                    applyUnits(change);
+                    unitsFlushed.add(change);
+                }
+                if (!projects.isEmpty()) projectDao.updateProjects(new ArrayList<>(projects.values()));
+                projectsFlushed = true;
+                if (!applications.isEmpty()) applicationDao.updateAll(new ArrayList<>(applications.values()));
+                settled = true;
+            } catch (RuntimeException e) {
+                // The application flush is the last step, so it never needs rolling back.
+                boolean rolledBack = !projectsFlushed || rollback(e, () -> restoreProjects(projectDao, projectsBefore));
+                for (int i = unitsFlushed.size() - 1; i >= 0; i--) {
+                    UnitChange change = unitsFlushed.get(i);
+                    rolledBack &= rollback(e,
+                        () -> projectDao.setAvailableUnits(change.projectName, change.flatType, change.before));
+                }
+                settled = rolledBack;
+                throw e;
+            } finally {
+                // After a failed rollback the pending file stays, so the next start completes the commit.
+                if (settled) new File(pendingPath).delete();
+            }
+            unitChanges.clear();
+            projects.clear();
+            applications.clear();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Writes the count of a unit change. Units are taken with a conditional decrease, so the count never goes below
+     * zero even if it moved since it was read.
+     *
+     * @param change The unit change.
+     * @throws IllegalStateException If the units could not be taken.
+     */
+    private void applyUnits(UnitChange change) {
+        int difference = change.after - change.before;
+        if (change.absolute) {
+            projectDao.setAvailableUnits(change.projectName, change.flatType, change.after);
+        } else if (difference < 0) {
+            if (!projectDao.decreaseAvailableUnits(change.projectName, change.flatType, -difference)) {
+                throw new IllegalStateException("No available units for flat type: " + change.flatType);
+            }
+        } else if (difference > 0) {
+            projectDao.increaseAvailableUnits(change.projectName, change.flatType, difference);
+        }
+    }
+
+    /**
+     * Runs one step of a rollback, attaching its failure to the exception that caused the rollback instead of
+     * letting it hide that exception.
+     *
+     * @param cause The exception that caused the rollback.
+     * @param step The rollback step.
+     * @return {@code true} if the step succeeded.
+     */
+    private static boolean rollback(RuntimeException cause, Runnable step) {
+        try {
+            step.run();
+            return true;
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes projects back whatever their stored versions are now, by basing each on its stored version.
+     *
+     * @param projectDao The project DAO.
+     * @param projects The projects to write.
+     */
+    private static void restoreProjects(ProjectDao projectDao, List<Project> projects) {
+        List<Project> stored = new ArrayList<>();
+        for (Project p : projects) {
+            try {
+                p.setVersion(projectDao.getProjectById(p.getName()).getVersion());
+                stored.add(p);
+            } catch (NoSuchElementException e) {
+                // Nothing stored to update.
+            }
+        }
+        if (!stored.isEmpty()) projectDao.updateProjects(stored);
+    }
+
+    /**
+     * Writes applications back whatever their stored versions are now, by basing each on its stored version.
+     *
+     * @param applicationDao The application DAO.
+     * @param applications The applications to write.
+     */
+    private static void restoreApplications(ApplicationDao applicationDao, List<Application> applications) {
+        List<Application> stored = new ArrayList<>();
+        for (Application app : applications) {
+            applicationDao.getApplicationById(app.getId()).ifPresent(current -> {
+                app.setVersion(current.getVersion());
+                stored.add(app);
+            });
+        }
+        if (!stored.isEmpty()) applicationDao.updateAll(stored);
+    }
+
+    /**
+     * Reads the stored count of available units of a flat type.
+     *
+     * @param projectDao The project DAO.
+     * @param projectName The name of the project.
+     * @param flatType The flat type.
+     * @return The count, or {@code null} if there is no such project or flat type.
+     */
+    private static Integer storedUnits(ProjectDao projectDao, String projectName, String flatType) {
+        try {
+            Project.FlatTypeDetails details = projectDao.getProjectById(projectName).getFlatTypes().get(flatType);
+            return details == null ? null : details.getAvailableUnits();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Re-applies the changes of a commit that was interrupted by a crash, if there is one.
+     * Should be called once at startup, before the DAOs are used.
+     *
+     * @param projectDao The DAO the project changes are written to.
+     * @param applicationDao The DAO the application changes are written to.
+     * @param storage The name of the storage backend the DAOs belong to, which selects the pending file.
+     */
+    public static void recover(ProjectDao projectDao, ApplicationDao applicationDao, String storage) {
+        String pendingPath = pendingPath(storage);
+        File pending = new File(pendingPath);
+        if (!pending.exists()) return;
+
+        FileLockManager.Held held = FileLockManager.forFile(pendingPath).acquireExclusive();
+        try {
+            // Another process may have finished its commit while this one waited for the lock.
+            if (!pending.exists()) return;
+            List<String[]> units = new ArrayList<>();
+            List<Project> projects = new ArrayList<>();
+            List<Application> applications = new ArrayList<>();
+            boolean complete = false;
+            try (BufferedReader br = new BufferedReader(new FileReader(pending, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.equals(END)) {
+                        complete = true;
+                    } else if (line.startsWith(UNITS + ",")) {
+                        units.add(line.substring(2).split(","));
+                    } else if (line.startsWith(PROJECT + ",")) {
+                        Project p = ProjectCSVDao.parseProject(line.substring(2));
+                        if (p != null) projects.add(p);
+                    } else if (line.startsWith(APPLICATION + ",")) {
+                        Application app = ApplicationCSVDao.parseApplication(line.substring(2));
+                        if (app != null) applications.add(app);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+
+            // A pending file without its end marker was torn before any DAO was flushed; discard it.
+            if (complete) {
+                // Some of the changes may already have been flushed. A count still at its value from before the
+                // commit is moved on; one already at its new value is left alone.
+                for (String[] change : units) {
+                    Integer stored = storedUnits(projectDao, change[0], change[1]);
+                    int before = Integer.parseInt(change[2]);
+                    int after = Integer.parseInt(change[3]);
+                    if (stored != null && stored == before) {
+                        projectDao.setAvailableUnits(change[0], change[1], after);
+                    } else if (stored == null || stored != after) {
+                        System.err.println("Units of " + change[1] + " in " + change[0] + " changed since the "
+                            + "interrupted commit; leaving them at " + stored);
+                    }
+                }
+                // The replay of projects and applications is based on the stored versions.
+                restoreProjects(projectDao, projects);
+                restoreApplications(applicationDao, applications);
+            }
+            pending.delete();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * Writes the changes about to be flushed to the pending file, followed by an end marker.
+     *
+     * @param pendingPath The path of the pending file.
+     * @param units The unit changes, with their counts before and after.
+     * @param projects The changed projects.
+     * @param applications The changed applications.
+     */
+    private static void writePending(String pendingPath, List<UnitChange> units, List<Project> projects,
+                                     List<Application> applications) {
+        try {
+            DurableFiles.replaceText(pendingPath, writer -> {
+                for (UnitChange change : units) {
+                    writer.write(UNITS + "," + change.projectName + "," + change.flatType + "," + change.before + ","
+                        + change.after + "\n");
+                }
+                for (Project p : projects) {
+                    writer.write(PROJECT + "," + ProjectCSVDao.toCsvLine(p) + "\n");
+                }
+                for (Application app : applications) {
+                    writer.write(APPLICATION + "," + ApplicationCSVDao.toCsvLine(app) + "\n");
+                }
+                writer.write(END + "\n");
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record unit of work", e);
+        }
+    }
+}
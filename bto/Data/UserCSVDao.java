@@ -2,6 +2,7 @@ package bto.Data;
 
 import bto.Model.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Implementation of the {@link UserDao} interface for managing user data using CSV files.
@@ -15,7 +16,8 @@ public class UserCSVDao implements UserDao {
      */
     @Override
     public void readUsers(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        FileLockManager.Held held = FileLockManager.forFile(filePath).acquireShared();
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
             String line;
             boolean first = true;
             while ((line = br.readLine()) != null) {
@@ -40,43 +42,50 @@ public class UserCSVDao implements UserDao {
             }
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            held.close();
         }
     }
 
     /**
      * Updates an existing user's data in the corresponding CSV file.
+     * The file is rewritten under an exclusive lock, so concurrent updates of users in the same file, from any thread
+     * or process, do not overwrite each other.
      *
      * @param user The user whose data is to be updated.
      */
     @Override
     public void updateUser(User user) {
         String filePath = "./bto/Data/CSV/" + user.getClass().getSimpleName() + "List.csv";
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath, true))) {
-            StringBuilder updatedContent = new StringBuilder();
-            try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-                String line;
-                boolean first = true;
-                while ((line = br.readLine()) != null) {
-                    if (first) {
-                        updatedContent.append(line).append("\n");
-                        first = false;
-                    } else {
-                        String[] data = line.split(",");
-                        if (data[1].equals(user.getNric())) {
-                            updatedContent.append(user.toString()).append("\n");
-                        } else {
+        FileLockManager.Held held = FileLockManager.forFile(filePath).acquireExclusive();
+        try {
+            try {
+                StringBuilder updatedContent = new StringBuilder();
+                try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+                    String line;
+                    boolean first = true;
+                    while ((line = br.readLine()) != null) {
+                        if (first) {
                             updatedContent.append(line).append("\n");
+                            first = false;
+                        } else {
+                            String[] data = line.split(",");
+                            if (data[1].equals(user.getNric())) {
+                                updatedContent.append(user.toString()).append("\n");
+                            } else {
+                                updatedContent.append(line).append("\n");
+                            }
                         }
                     }
                 }
-            }
 
-            // Write the updated content back to the file
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-                writer.write(updatedContent.toString());
+                // Write the updated content back to the file
+                DurableFiles.replaceText(filePath, writer -> writer.write(updatedContent.toString()));
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } finally {
+            held.close();
         }
     }
 }
@@ -0,0 +1,22 @@
+package bto.Data;
+
+/**
+ * Thrown when an update is based on a stale copy of a row, because the stored row was updated after the copy was read.
+ * Nothing of the failed update is written; the caller should read the row again and retry.
+ */
+public class VersionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a VersionConflictException for the specified row.
+     *
+     * @param entity The kind of row, such as {@code "Application"}.
+     * @param id The ID of the row.
+     * @param staleVersion The version the update was based on.
+     * @param storedVersion The version currently stored.
+     */
+    public VersionConflictException(String entity, Object id, int staleVersion, int storedVersion) {
+        super(entity + " " + id + " was changed by someone else (version " + staleVersion + ", now "
+            + storedVersion + "). Please reload it and try again.");
+    }
+}
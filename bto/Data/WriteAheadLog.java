@@ -0,0 +1,312 @@
+package bto.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the {@link SnapshotStore}: a sequence of segment files holding checksummed records.
+ * <p>
+ * Every record carries a log sequence number (LSN) one higher than the record before it, across segments. A record
+ * is the payload length (an int), the LSN (a long), a CRC32 of the LSN and the payload (an int), and the UTF-8
+ * payload. A segment is named after the LSN of its first record, so the segments sort in log order; a new segment
+ * is started after every snapshot, so whole segments can be deleted once a snapshot covers them.
+ * <p>
+ * A crash mid-append leaves a torn record at the end of the last segment. It fails its checksum and is cut off when
+ * the log is opened. A bad record anywhere else is corruption, and opening the log fails rather than silently
+ * dropping the records after it, unless the snapshot already covers the whole segment.
+ */
+final class WriteAheadLog implements AutoCloseable {
+    static final int HEADER_BYTES = 4 + 8 + 4;
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final File directory;
+    private File segment;
+    private FileChannel channel;
+    private long lastLsn;
+
+    /**
+     * A record read back from the log.
+     */
+    static final class Record {
+        final long lsn;
+        final String payload;
+
+        /**
+         * Constructs a Record.
+         *
+         * @param lsn The log sequence number.
+         * @param payload The payload.
+         */
+        Record(long lsn, String payload) {
+            this.lsn = lsn;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * The records of one segment, up to the first bad one.
+     */
+    static final class Scan {
+        final List<Record> records;
+        final long validBytes;
+        final String error;
+
+        /**
+         * Constructs a Scan.
+         *
+         * @param records The good records, in log order.
+         * @param validBytes The length of the segment up to the end of the last good record.
+         * @param error What is wrong with the rest of the segment, or {@code null} if every record is good.
+         */
+        Scan(List<Record> records, long validBytes, String error) {
+            this.records = records;
+            this.validBytes = validBytes;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Opens the log in a directory, replays the records after a snapshot and cuts off a torn last record.
+     *
+     * @param directory The directory holding the segments.
+     * @param snapshotLsn The LSN of the snapshot the records are replayed onto; only later records are replayed.
+     * @param replay Takes every record after the snapshot, in log order.
+     * @throws IOException If a segment cannot be read or opened.
+     * @throws IllegalStateException If a segment is corrupt or the records after the snapshot are incomplete.
+     */
+    WriteAheadLog(File directory, long snapshotLsn, Consumer<Record> replay) throws IOException {
+        this.directory = directory;
+        this.lastLsn = snapshotLsn;
+        List<File> segments = segments(directory);
+        long logEnd = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            File file = segments.get(i);
+            Scan scan = scan(file);
+            boolean last = i == segments.size() - 1;
+            if (scan.error != null && !last) {
+                // Only the records after the snapshot matter; a bad segment wholly before them is left to pruning.
+                if (firstLsn(segments.get(i + 1)) > snapshotLsn + 1) {
+                    throw new IllegalStateException("Corrupt write-ahead log " + file + ": " + scan.error);
+                }
+                System.err.println("Ignoring corrupt write-ahead log " + file + " before the snapshot: " + scan.error);
+                continue;
+            }
+            for (Record record : scan.records) {
+                if (record.lsn <= snapshotLsn) continue;
+                if (record.lsn != lastLsn + 1) {
+                    throw new IllegalStateException("Write-ahead log is missing LSNs " + (lastLsn + 1)
+                        + " to " + (record.lsn - 1) + " before " + file);
+                }
+                replay.accept(record);
+                lastLsn = record.lsn;
+            }
+            logEnd = scan.records.isEmpty() ? firstLsn(file) - 1 : scan.records.get(scan.records.size() - 1).lsn;
+            if (scan.error != null) {
+                System.err.println("Cutting off the torn end of " + file + ": " + scan.error);
+                try (FileChannel torn = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    torn.truncate(scan.validBytes);
+                    torn.force(true);
+                }
+            }
+        }
+        // Records only follow on in the last segment if it ends right where the replayed state does.
+        if (logEnd == lastLsn) {
+            open(segments.get(segments.size() - 1));
+        } else {
+            open(newSegment(lastLsn + 1));
+        }
+    }
+
+    /**
+     * Lists the segments in a directory in log order.
+     *
+     * @param directory The directory.
+     * @return The segment files.
+     */
+    static List<File> segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        List<File> segments = new ArrayList<>(files == null ? List.of() : Arrays.asList(files));
+        segments.sort(Comparator.comparingLong(WriteAheadLog::firstLsn));
+        return segments;
+    }
+
+    /**
+     * Gets the LSN a segment starts at, from its name.
+     *
+     * @param segment The segment file.
+     * @return The LSN of its first record.
+     */
+    static long firstLsn(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Reads the records of a segment, stopping at the first record that is incomplete, fails its checksum or does
+     * not carry the next LSN.
+     *
+     * @param segment The segment file.
+     * @return The good records and what, if anything, is wrong with the rest.
+     * @throws IOException If the file cannot be read.
+     */
+    static Scan scan(File segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.toPath()));
+        List<Record> records = new ArrayList<>();
+        long expected = firstLsn(segment);
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            if (buffer.remaining() < HEADER_BYTES) {
+                return new Scan(records, start, "incomplete record header at offset " + start);
+            }
+            int length = buffer.getInt();
+            long lsn = buffer.getLong();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > MAX_PAYLOAD_BYTES || length > buffer.remaining()) {
+                return new Scan(records, start, "incomplete record at offset " + start);
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (checksum(lsn, payload) != checksum) {
+                return new Scan(records, start, "checksum mismatch at offset " + start + " (LSN " + lsn + ")");
+            }
+            if (lsn != expected) {
+                return new Scan(records, start, "LSN " + lsn + " at offset " + start + " where " + expected
+                    + " was expected");
+            }
+            records.add(new Record(lsn, new String(payload, StandardCharsets.UTF_8)));
+            expected++;
+        }
+        return new Scan(records, buffer.position(), null);
+    }
+
+    /**
+     * Appends a record with the next LSN and makes it durable according to the
+     * {@link DurableFiles#getPolicy() fsync policy}.
+     *
+     * @param payload The payload.
+     * @return The LSN of the record.
+     * @throws IOException If the record cannot be written.
+     */
+    long append(String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        long lsn = lastLsn + 1;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bytes.length);
+        record.putInt(bytes.length).putLong(lsn).putInt(checksum(lsn, bytes)).put(bytes).flip();
+        long end = channel.size();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, end + record.position());
+            }
+        } catch (IOException e) {
+            // Leave no partial record behind for the next append to follow.
+            channel.truncate(end);
+            throw e;
+        }
+        switch (DurableFiles.getPolicy()) {
+            case ALWAYS:
+                channel.force(false);
+                break;
+            case BATCHED:
+                DurableFiles.markWritten(segment.getPath());
+                break;
+            default:
+                break;
+        }
+        lastLsn = lsn;
+        return lsn;
+    }
+
+    /**
+     * Gets the LSN of the last record.
+     *
+     * @return The last LSN, or the LSN of the snapshot the log was opened on if there are no later records.
+     */
+    long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Starts a new segment for the records after the last one, unless the current segment is still empty.
+     *
+     * @throws IOException If the new segment cannot be created.
+     */
+    void roll() throws IOException {
+        if (channel.size() == 0) return;
+        channel.close();
+        open(newSegment(lastLsn + 1));
+    }
+
+    /**
+     * Deletes every segment whose records all have LSNs up to a snapshot's. The current segment is always kept.
+     *
+     * @param lsn The LSN of the oldest snapshot that must still be recoverable.
+     */
+    void deleteCoveredBy(long lsn) {
+        List<File> segments = segments(directory);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i).equals(segment) || firstLsn(segments.get(i + 1)) > lsn + 1) break;
+            if (!segments.get(i).delete()) System.err.println("Cannot delete " + segments.get(i));
+        }
+    }
+
+    /**
+     * Closes the current segment.
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Computes the checksum of a record.
+     *
+     * @param lsn The LSN of the record.
+     * @param payload The payload of the record.
+     * @return The CRC32 of the LSN and the payload.
+     */
+    static int checksum(long lsn, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(lsn).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Creates an empty segment through {@link DurableFiles}, so its directory entry is as durable as the policy asks.
+     *
+     * @param firstLsn The LSN of the first record the segment will hold.
+     * @return The segment file.
+     * @throws IOException If the file cannot be created.
+     */
+    private File newSegment(long firstLsn) throws IOException {
+        File file = new File(directory, String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+        if (!file.exists()) DurableFiles.replace(file.getPath(), out -> { });
+        return file;
+    }
+
+    /**
+     * Opens a segment for appending.
+     *
+     * @param file The segment file.
+     * @throws IOException If the file cannot be opened.
+     */
+    private void open(File file) throws IOException {
+        segment = file;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+    }
+}
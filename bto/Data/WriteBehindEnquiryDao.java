@@ -0,0 +1,580 @@
+package bto.Data;
+
+import bto.Event.EnquiryReplyEvent;
+import bto.Event.Event;
+import bto.Event.EventBus;
+import bto.Model.Enquiry;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Write-behind implementation of the {@link EnquiryDao} interface in front of an {@link EnquiryCSVDao}.
+ * <p>
+ * A write returns as soon as it is recorded in memory and its enquiry ID is in a bounded queue. A background writer
+ * takes every queued ID, and rewrites the CSV file once for the whole batch, so several changes to the same enquiry
+ * made between two flushes reach the disk as one. When the queue is full, writers block until the background writer
+ * catches up. Reads see the changes that are still waiting, so a caller always reads its own writes.
+ * <p>
+ * Version checks happen when a write is made, against the latest state seen by this DAO. The flush checks again
+ * against the file, and drops and reports any change whose enquiry was updated by another process in the meantime.
+ * If a flush fails, its changes stay pending and their IDs are retried with the next batch, or after the poll
+ * interval if nothing else is queued. A shutdown hook flushes every waiting change before the process exits.
+ */
+public class WriteBehindEnquiryDao implements EnquiryDao {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final EnquiryCSVDao delegate;
+    private final BlockingQueue<Integer> queue;
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private final ReentrantReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Set<Integer> retryIds = new LinkedHashSet<>();
+    private final Thread writer;
+    private volatile boolean closed;
+    private long sequence;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder blockedWrites = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    /**
+     * The latest state of an enquiry that has not been flushed yet.
+     */
+    private static class Pending {
+        private final Enquiry enquiry;
+        private final Integer baseVersion;
+        private final long sequence;
+
+        /**
+         * Constructs a Pending change.
+         *
+         * @param enquiry The new state of the enquiry, or {@code null} if it was deleted.
+         * @param baseVersion The stored version the change is based on, or {@code null} if the enquiry is new.
+         * @param sequence Orders the changes, so a flush can tell whether the enquiry changed again while it ran.
+         */
+        Pending(Enquiry enquiry, Integer baseVersion, long sequence) {
+            this.enquiry = enquiry;
+            this.baseVersion = baseVersion;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Constructs a WriteBehindEnquiryDao in front of the default enquiries CSV file, with a queue of
+     * {@code bto.enquiry.queueCapacity} writes (1024 by default).
+     */
+    public WriteBehindEnquiryDao() {
+        this(new EnquiryCSVDao(), Integer.getInteger("bto.enquiry.queueCapacity", DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Constructs a WriteBehindEnquiryDao in front of the specified DAO and starts its background writer.
+     *
+     * @param delegate The DAO the changes are flushed to.
+     * @param capacity The number of writes that may wait in the queue before writers block.
+     */
+    public WriteBehindEnquiryDao(EnquiryCSVDao delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writer = new Thread(this::runWriter, "enquiry-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "enquiry-write-behind-shutdown"));
+    }
+
+    /**
+     * Saves a new enquiry.
+     *
+     * @param enquiry The enquiry to save.
+     */
+    @Override
+    public void save(Enquiry enquiry) {
+        saveAll(List.of(enquiry));
+    }
+
+    /**
+     * Saves several new enquiries. Enquiries without an ID are given IDs reserved from the enquiry ID sequence as a
+     * single block, as {@link EnquiryCSVDao#saveAll(List)} does.
+     *
+     * @param enquiries The enquiries to save.
+     */
+    @Override
+    public void saveAll(List<Enquiry> enquiries) {
+        int missing = (int) enquiries.stream().filter(e -> e.getId() == 0).count();
+        int nextId = missing == 0 ? 0 : delegate.generateNewIds(missing);
+
+        List<Integer> ids = new ArrayList<>(enquiries.size());
+        pendingLock.writeLock().lock();
+        try {
+            for (Enquiry enquiry : enquiries) {
+                Enquiry copy = enquiry.getId() != 0 ? new Enquiry(enquiry)
+                    : new Enquiry(nextId++, enquiry.getApplicantNric(), enquiry.getProjectName(), enquiry.getDetails(),
+                        LocalDateTime.now(), enquiry.getReply(), enquiry.getRepliedBy(), enquiry.getRepliedTime());
+                pending.put(copy.getId(), new Pending(copy, null, ++sequence));
+                ids.add(copy.getId());
+            }
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        enqueue(ids);
+    }
+
+    /**
+     * Updates an existing enquiry.
+     *
+     * @param enquiry The enquiry to update.
+     * @throws VersionConflictException If the enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public void update(Enquiry enquiry) {
+        updateAll(List.of(enquiry));
+    }
+
+    /**
+     * Updates several existing enquiries. Enquiries that do not exist are ignored. Either every enquiry is updated
+     * or, if any of them is stale, none is. A successful update increments the version of the given copy.
+     *
+     * @param enquiries The enquiries to update.
+     * @throws VersionConflictException If an enquiry was updated by someone else since it was read.
+     */
+    @Override
+    public void updateAll(List<Enquiry> enquiries) {
+        List<Integer> ids = new ArrayList<>(enquiries.size());
+        List<Event> events = new ArrayList<>();
+        pendingLock.writeLock().lock();
+        try {
+            Map<Integer, Enquiry> current = new HashMap<>();
+            for (Enquiry enquiry : enquiries) {
+                Enquiry latest = latest(enquiry.getId());
+                if (latest == null) continue;
+                if (latest.getVersion() != enquiry.getVersion()) {
+                    throw new VersionConflictException("Enquiry", enquiry.getId(), enquiry.getVersion(), latest.getVersion());
+                }
+                current.put(enquiry.getId(), latest);
+            }
+            for (Enquiry enquiry : enquiries) {
+                if (!current.containsKey(enquiry.getId())) continue;
+                if (EnquiryReplyEvent.isNewReply(current.get(enquiry.getId()), enquiry)) {
+                    events.add(new EnquiryReplyEvent(enquiry));
+                }
+                Pending previous = pending.get(enquiry.getId());
+                Integer base = previous != null ? previous.baseVersion : Integer.valueOf(enquiry.getVersion());
+                enquiry.setVersion(enquiry.getVersion() + 1);
+                pending.put(enquiry.getId(), new Pending(new Enquiry(enquiry), base, ++sequence));
+                ids.add(enquiry.getId());
+            }
+            EventBus.getDefault().publishAll(events);
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        enqueue(ids);
+    }
+
+    /**
+     * Deletes an enquiry by its ID.
+     *
+     * @param enquiryId The ID of the enquiry to delete.
+     */
+    @Override
+    public void delete(int enquiryId) {
+        pendingLock.writeLock().lock();
+        try {
+            Pending previous = pending.get(enquiryId);
+            if (previous == null && delegate.findById(enquiryId) == null) return;
+            pending.put(enquiryId, new Pending(null, previous != null ? previous.baseVersion : null, ++sequence));
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        enqueue(List.of(enquiryId));
+    }
+
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return A copy of the enquiry if found, or {@code null} if not found.
+     */
+    @Override
+    public Enquiry findById(int enquiryId) {
+        pendingLock.readLock().lock();
+        try {
+            Enquiry latest = latest(enquiryId);
+            return latest == null ? null : new Enquiry(latest);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves all enquiries submitted by a specific applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @return A list of enquiries submitted by the applicant.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByApplicant(String applicantNric) {
+        pendingLock.readLock().lock();
+        try {
+            return withPending(delegate.getEnquiriesByApplicant(applicantNric),
+                e -> e.getApplicantNric().equalsIgnoreCase(applicantNric));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves all enquiries for a specific project.
+     *
+     * @param projectName The name of the project.
+     * @return A list of enquiries for the specified project.
+     */
+    @Override
+    public List<Enquiry> getEnquiriesByProject(String projectName) {
+        pendingLock.readLock().lock();
+        try {
+            return withPending(delegate.getEnquiriesByProject(projectName),
+                e -> e.getProjectName().equalsIgnoreCase(projectName));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves all enquiries.
+     *
+     * @return A list of all enquiries.
+     */
+    @Override
+    public List<Enquiry> getAllEnquiries() {
+        pendingLock.readLock().lock();
+        try {
+            return withPending(delegate.getAllEnquiries(), e -> true);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every waiting change to the CSV file and waits until it is written.
+     *
+     * @throws RuntimeException If the changes cannot be written, such as an {@link java.io.UncheckedIOException}.
+     *                          They stay pending and are retried by the background writer.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            queue.clear();
+            List<Integer> ids;
+            pendingLock.readLock().lock();
+            try {
+                ids = new ArrayList<>(pending.keySet());
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+            flushIds(ids);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes every waiting change and stops the background writer. Writes made afterwards are flushed right away.
+     * Called by the shutdown hook.
+     */
+    public void close() {
+        closed = true;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing enquiries: " + e.getMessage());
+        }
+        DurableFiles.sync();
+    }
+
+    /**
+     * Gets the number of writes waiting in the queue.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of enquiries with changes that have not been flushed yet.
+     *
+     * @return The number of pending enquiries.
+     */
+    public int getPendingCount() {
+        pendingLock.readLock().lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of enquiries written, counting every save, update and delete separately.
+     *
+     * @return The number of writes.
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /**
+     * Gets the number of writes that had to wait because the queue was full.
+     *
+     * @return The number of blocked writes.
+     */
+    public long getBlockedWrites() {
+        return blockedWrites.sum();
+    }
+
+    /**
+     * Gets the number of flushes to the CSV file.
+     *
+     * @return The number of flushes.
+     */
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    /**
+     * Gets the number of enquiry changes flushed, after coalescing several writes to the same enquiry into one.
+     *
+     * @return The number of flushed changes.
+     */
+    public long getFlushedRows() {
+        return flushedRows.sum();
+    }
+
+    /**
+     * Gets the number of changes dropped at flush time because another process had changed the enquiry.
+     *
+     * @return The number of conflicts.
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Gets the number of flushes that failed, such as because the CSV file could not be written.
+     * The changes of a failed flush are kept and retried.
+     *
+     * @return The number of failed flushes.
+     */
+    public long getFailedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * Gets the average time a flush took.
+     *
+     * @return The average flush latency in milliseconds.
+     */
+    public double getAverageFlushMillis() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : totalFlushNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * Gets the longest time a flush took.
+     *
+     * @return The maximum flush latency in milliseconds.
+     */
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1e6;
+    }
+
+    /**
+     * Returns a one-line summary of the write-behind metrics.
+     *
+     * @return The queue depth followed by the write, flush and latency figures.
+     */
+    @Override
+    public String toString() {
+        return String.format("queue %d, pending %d, %d writes (%d blocked), %d flushes of %d rows, %d conflicts, "
+                + "%d failed flushes, avg flush %.3f ms, max flush %.3f ms",
+            getQueueDepth(), getPendingCount(), getWrites(), getBlockedWrites(), getFlushes(), getFlushedRows(),
+            getConflicts(), getFailedFlushes(), getAverageFlushMillis(), getMaxFlushMillis());
+    }
+
+    /**
+     * Puts the IDs of changed enquiries in the queue, blocking while it is full.
+     * Once the DAO is closed, the changes are flushed right away instead. If the wait is interrupted, the IDs not
+     * queued yet are added to the retry set, which the background writer flushes with its next batch.
+     *
+     * @param ids The IDs of the changed enquiries.
+     */
+    private void enqueue(List<Integer> ids) {
+        writes.add(ids.size());
+        if (closed) {
+            flush();
+            return;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (queue.offer(ids.get(i))) continue;
+            blockedWrites.increment();
+            try {
+                queue.put(ids.get(i));
+            } catch (InterruptedException e) {
+                // The changes not queued yet are already pending; have the background writer retry them instead.
+                Thread.currentThread().interrupt();
+                flushLock.lock();
+                try {
+                    retryIds.addAll(ids.subList(i, ids.size()));
+                } finally {
+                    flushLock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs the background writer: waits for queued IDs and flushes everything queued so far as one batch, together
+     * with the IDs of a failed earlier flush or an interrupted enqueue.
+     */
+    private void runWriter() {
+        while (!closed) {
+            try {
+                Integer first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                Set<Integer> ids = new LinkedHashSet<>();
+                if (first != null) ids.add(first);
+                queue.drainTo(ids);
+
+                flushLock.lock();
+                try {
+                    ids.addAll(retryIds);
+                    if (!ids.isEmpty()) flushIds(ids);
+                } finally {
+                    flushLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error flushing enquiries: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes of some enquiries to the CSV file with a single rewrite, then forgets every change
+     * that was written and has not been superseded since. Must be called with the flush lock held.
+     * If the write fails, every change is kept and its ID is retried by the background writer.
+     *
+     * @param ids The IDs of the enquiries to flush. IDs with no pending change are skipped.
+     * @throws RuntimeException If the changes cannot be written.
+     */
+    private void flushIds(Collection<Integer> ids) {
+        retryIds.removeAll(ids);
+        Map<Integer, Pending> batch = new LinkedHashMap<>();
+        pendingLock.readLock().lock();
+        try {
+            for (Integer id : ids) {
+                Pending change = pending.get(id);
+                if (change != null) batch.put(id, change);
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+        if (batch.isEmpty()) return;
+
+        Map<Integer, Enquiry> changes = new LinkedHashMap<>();
+        Map<Integer, Integer> baseVersions = new HashMap<>();
+        batch.forEach((id, change) -> {
+            changes.put(id, change.enquiry);
+            if (change.baseVersion != null) baseVersions.put(id, change.baseVersion);
+        });
+
+        long start = System.nanoTime();
+        Set<Integer> rejected;
+        try {
+            rejected = delegate.applyBatch(changes, baseVersions);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            retryIds.addAll(batch.keySet());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        flushes.increment();
+        flushedRows.add(batch.size() - rejected.size());
+        conflicts.add(rejected.size());
+        totalFlushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        for (Integer id : rejected) {
+            System.err.println("Enquiry " + id + " was changed by someone else; the change made here was discarded.");
+        }
+
+        pendingLock.writeLock().lock();
+        try {
+            batch.forEach((id, flushed) -> {
+                Pending current = pending.get(id);
+                if (current == null) return;
+                if (current.sequence == flushed.sequence || rejected.contains(id)) {
+                    pending.remove(id);
+                } else if (flushed.enquiry != null && current.enquiry != null) {
+                    // Changed again during the flush: the next flush is based on what was just written.
+                    pending.put(id, new Pending(current.enquiry, flushed.enquiry.getVersion(), current.sequence));
+                }
+            });
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the latest state of an enquiry, pending or stored. Must be called with the pending lock held.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return The enquiry, which must not be modified, or {@code null} if it does not exist.
+     */
+    private Enquiry latest(int enquiryId) {
+        Pending change = pending.get(enquiryId);
+        return change != null ? change.enquiry : delegate.findById(enquiryId);
+    }
+
+    /**
+     * Overlays the pending changes on enquiries read from the CSV file. Must be called with the pending lock held.
+     *
+     * @param stored The enquiries read from the CSV file.
+     * @param filter Selects the pending enquiries that belong in the result.
+     * @return Copies of the latest state of the selected enquiries.
+     */
+    private List<Enquiry> withPending(List<Enquiry> stored, Predicate<Enquiry> filter) {
+        List<Enquiry> result = new ArrayList<>(stored.size());
+        Set<Integer> seen = new HashSet<>();
+        for (Enquiry enquiry : stored) {
+            seen.add(enquiry.getId());
+            Pending change = pending.get(enquiry.getId());
+            if (change == null) {
+                result.add(enquiry);
+            } else if (change.enquiry != null && filter.test(change.enquiry)) {
+                result.add(new Enquiry(change.enquiry));
+            }
+        }
+        pending.entrySet().stream()
+            .filter(entry -> !seen.contains(entry.getKey()))
+            .map(entry -> entry.getValue().enquiry)
+            .filter(enquiry -> enquiry != null && filter.test(enquiry))
+            .sorted(Comparator.comparingInt(Enquiry::getId))
+            .forEach(enquiry -> result.add(new Enquiry(enquiry)));
+        return result;
+    }
+}
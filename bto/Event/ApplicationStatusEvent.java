@@ -0,0 +1,86 @@
+package bto.Event;
+
+import bto.Model.Application;
+import bto.Model.ApplicationStatus;
+
+/**
+ * Published when an update changes the status of an application.
+ */
+public class ApplicationStatusEvent implements Event {
+    private final String applicationId;
+    private final String applicantNric;
+    private final String projectName;
+    private final ApplicationStatus previousStatus;
+    private final ApplicationStatus status;
+
+    /**
+     * Constructs an ApplicationStatusEvent for an application that was just written.
+     *
+     * @param application The application as written.
+     * @param previousStatus The status the application had before.
+     */
+    public ApplicationStatusEvent(Application application, ApplicationStatus previousStatus) {
+        this.applicationId = application.getId();
+        this.applicantNric = application.getApplicantNric();
+        this.projectName = application.getProjectName();
+        this.previousStatus = previousStatus;
+        this.status = application.getStatus();
+    }
+
+    /**
+     * Gets the ID of the application.
+     *
+     * @return The application ID.
+     */
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    /**
+     * Gets the NRIC of the applicant who submitted the application.
+     *
+     * @return The applicant's NRIC.
+     */
+    @Override
+    public String getApplicantNric() {
+        return applicantNric;
+    }
+
+    /**
+     * Gets the name of the project applied for.
+     *
+     * @return The project name.
+     */
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * Gets the status the application had before the update.
+     *
+     * @return The previous status.
+     */
+    public ApplicationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    /**
+     * Gets the status the application has now.
+     *
+     * @return The new status.
+     */
+    public ApplicationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets a message describing the status change.
+     *
+     * @return The message.
+     */
+    @Override
+    public String getMessage() {
+        return "Your application " + applicationId + " for " + projectName + " changed from " + previousStatus
+            + " to " + status + ".";
+    }
+}
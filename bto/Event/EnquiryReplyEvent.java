@@ -0,0 +1,95 @@
+package bto.Event;
+
+import bto.Model.Enquiry;
+
+/**
+ * Published when an update gives an enquiry a new reply.
+ */
+public class EnquiryReplyEvent implements Event {
+    private final int enquiryId;
+    private final String applicantNric;
+    private final String projectName;
+    private final String reply;
+    private final String repliedBy;
+
+    /**
+     * Constructs an EnquiryReplyEvent for an enquiry that was just written.
+     *
+     * @param enquiry The enquiry as written, with its reply.
+     */
+    public EnquiryReplyEvent(Enquiry enquiry) {
+        this.enquiryId = enquiry.getId();
+        this.applicantNric = enquiry.getApplicantNric();
+        this.projectName = enquiry.getProjectName();
+        this.reply = enquiry.getReply();
+        this.repliedBy = enquiry.getRepliedBy();
+    }
+
+    /**
+     * Checks whether an update gives an enquiry a new reply.
+     *
+     * @param stored The enquiry before the update.
+     * @param updated The enquiry after the update.
+     * @return {@code true} if the updated enquiry has a reply that differs from the stored one.
+     */
+    public static boolean isNewReply(Enquiry stored, Enquiry updated) {
+        String reply = updated.getReply();
+        return reply != null && !reply.equals("null") && !reply.equals(stored.getReply());
+    }
+
+    /**
+     * Gets the ID of the enquiry.
+     *
+     * @return The enquiry ID.
+     */
+    public int getEnquiryId() {
+        return enquiryId;
+    }
+
+    /**
+     * Gets the NRIC of the applicant who made the enquiry.
+     *
+     * @return The applicant's NRIC.
+     */
+    @Override
+    public String getApplicantNric() {
+        return applicantNric;
+    }
+
+    /**
+     * Gets the name of the project the enquiry is about.
+     *
+     * @return The project name.
+     */
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * Gets the reply.
+     *
+     * @return The reply.
+     */
+    public String getReply() {
+        return reply;
+    }
+
+    /**
+     * Gets the name of the officer or manager who replied.
+     *
+     * @return The name of the replier.
+     */
+    public String getRepliedBy() {
+        return repliedBy;
+    }
+
+    /**
+     * Gets a message describing the reply.
+     *
+     * @return The message.
+     */
+    @Override
+    public String getMessage() {
+        return repliedBy + " replied to your enquiry " + enquiryId + " about " + projectName + ": " + reply;
+    }
+}
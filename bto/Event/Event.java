@@ -0,0 +1,21 @@
+package bto.Event;
+
+/**
+ * Something that happened to an applicant's data, delivered by the {@link EventBus} to the applicant's sessions.
+ */
+public interface Event {
+
+    /**
+     * Gets the NRIC of the applicant the event concerns.
+     *
+     * @return The applicant's NRIC.
+     */
+    String getApplicantNric();
+
+    /**
+     * Gets a message describing the event, for display to the applicant.
+     *
+     * @return The message.
+     */
+    String getMessage();
+}
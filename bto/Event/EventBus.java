@@ -0,0 +1,212 @@
+package bto.Event;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus that pushes {@link Event events} to the sessions of the applicant they concern.
+ * <p>
+ * The DAOs publish an event after a write that changes an application's status or replies to an enquiry, so a
+ * session learns about it without polling the data files. A background dispatcher thread hands each event to the
+ * backlog of every subscription of its applicant, so publishing never waits for a listener. Each subscription
+ * drains its own backlog on a delivery thread, one event at a time in the order they were published, so a listener
+ * that blocks, such as on a slow session socket, only holds up its own subscription. A listener that throws, or
+ * falls more than {@code bto.events.maxBacklog} events (256 by default) behind, is unsubscribed. Only writes made by
+ * this process are published.
+ */
+public final class EventBus {
+    private static final EventBus DEFAULT = new EventBus();
+    private static final int MAX_BACKLOG = Integer.getInteger("bto.events.maxBacklog", 256);
+
+    private final Map<String, Set<Listener>> listeners = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "event-bus-dispatcher");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService deliveries = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "event-bus-delivery");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    /**
+     * An active subscription, ended by {@link #close()}.
+     */
+    public interface Subscription extends AutoCloseable {
+        /**
+         * Ends the subscription. Calling it again has no effect.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * A listener subscribed for one applicant, with the events still waiting to be handed to it.
+     */
+    private static class Listener {
+        private final String applicantNric;
+        private final Consumer<Event> consumer;
+        private final Queue<Event> backlog = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger backlogSize = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /**
+         * Constructs a Listener.
+         *
+         * @param applicantNric The NRIC of the applicant the listener is subscribed for.
+         * @param consumer The code to run for each event.
+         */
+        Listener(String applicantNric, Consumer<Event> consumer) {
+            this.applicantNric = applicantNric;
+            this.consumer = consumer;
+        }
+    }
+
+    /**
+     * Constructs an EventBus with no subscribers.
+     */
+    public EventBus() {
+    }
+
+    /**
+     * Gets the bus shared by every DAO and session in this process.
+     *
+     * @return The default bus.
+     */
+    public static EventBus getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Subscribes to the events concerning an applicant.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @param consumer The code to run for each event, on a delivery thread, never for two events at once.
+     * @return The subscription, to be closed when the session ends.
+     */
+    public Subscription subscribe(String applicantNric, Consumer<Event> consumer) {
+        Listener listener = new Listener(applicantNric, consumer);
+        listeners.compute(applicantNric, (k, set) -> {
+            Set<Listener> updated = set != null ? set : new CopyOnWriteArraySet<>();
+            updated.add(listener);
+            return updated;
+        });
+        return () -> unsubscribe(applicantNric, listener);
+    }
+
+    /**
+     * Publishes an event to the subscribers of its applicant. Events nobody is subscribed to are dropped at once.
+     *
+     * @param event The event.
+     */
+    public void publish(Event event) {
+        published.increment();
+        if (!listeners.containsKey(event.getApplicantNric())) return;
+        dispatcher.execute(() -> deliver(event));
+    }
+
+    /**
+     * Publishes several events in order.
+     *
+     * @param events The events.
+     */
+    public void publishAll(Collection<? extends Event> events) {
+        for (Event event : events) {
+            publish(event);
+        }
+    }
+
+    /**
+     * Gets the number of events published.
+     *
+     * @return The number of events published.
+     */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * Gets the number of times an event was handed to a listener.
+     *
+     * @return The number of deliveries.
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * Adds an event to the backlog of every listener of its applicant, and starts draining the backlogs that are not
+     * being drained already. Never waits for a listener. Listeners too far behind are unsubscribed.
+     *
+     * @param event The event.
+     */
+    private void deliver(Event event) {
+        Set<Listener> subscribed = listeners.get(event.getApplicantNric());
+        if (subscribed == null) return;
+        for (Listener listener : subscribed) {
+            if (listener.backlogSize.incrementAndGet() > MAX_BACKLOG) {
+                System.err.println("Dropping notifications of " + listener.applicantNric + ": the session is "
+                    + MAX_BACKLOG + " events behind");
+                unsubscribe(listener.applicantNric, listener);
+                listener.backlog.clear();
+                continue;
+            }
+            listener.backlog.add(event);
+            if (listener.draining.compareAndSet(false, true)) deliveries.execute(() -> drain(listener));
+        }
+    }
+
+    /**
+     * Hands the events in a listener's backlog to it in order, until the backlog is empty. Only one drain per
+     * listener runs at a time; a listener that throws is unsubscribed and its backlog discarded.
+     *
+     * @param listener The listener.
+     */
+    private void drain(Listener listener) {
+        do {
+            Event event;
+            while ((event = listener.backlog.poll()) != null) {
+                listener.backlogSize.decrementAndGet();
+                try {
+                    listener.consumer.accept(event);
+                    delivered.increment();
+                } catch (RuntimeException e) {
+                    System.err.println(e.getMessage());
+                    unsubscribe(listener.applicantNric, listener);
+                    listener.backlog.clear();
+                    return;
+                }
+            }
+            listener.draining.set(false);
+            // An event added after the backlog was found empty but before the flag was cleared is drained here.
+        } while (!listener.backlog.isEmpty() && listener.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Removes a listener, and the applicant's entry once it has no listeners left.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @param listener The listener.
+     */
+    private void unsubscribe(String applicantNric, Listener listener) {
+        listeners.computeIfPresent(applicantNric, (k, set) -> {
+            set.remove(listener);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
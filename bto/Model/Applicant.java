@@ -18,4 +18,14 @@ public class Applicant extends User {
     public Applicant(String name, String nric, int age, String maritalStatus, String password) {
         super(name, nric, age, maritalStatus, password);
     }
+
+    /**
+     * Creates a copy of the applicant.
+     *
+     * @return The copy.
+     */
+    @Override
+    public Applicant copy() {
+        return new Applicant(getName(), getNric(), getAge(), getMaritalStatus(), getPassword());
+    }
 }
\ No newline at end of file
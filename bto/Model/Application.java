@@ -13,6 +13,7 @@ public class Application {
     private ApplicationStatus status;
     private LocalDateTime createdTime;
     private boolean withdrawalRequested;
+    private int version;
 
     /**
      * Constructs an Application with the specified project name, applicant NRIC, and flat type.
@@ -29,6 +30,22 @@ public class Application {
         this.createdTime = LocalDateTime.now();
     }
 
+    /**
+     * Constructs a copy of the specified application.
+     *
+     * @param other The application to copy.
+     */
+    public Application(Application other) {
+        this.id = other.id;
+        this.projectName = other.projectName;
+        this.applicantNric = other.applicantNric;
+        this.flatType = other.flatType;
+        this.status = other.status;
+        this.createdTime = other.createdTime;
+        this.withdrawalRequested = other.withdrawalRequested;
+        this.version = other.version;
+    }
+
     /**
      * Gets the ID of the application.
      *
@@ -78,6 +95,13 @@ public class Application {
      */
     public boolean getWithdrawalRequested() { return withdrawalRequested; }
 
+    /**
+     * Gets the version of the application, which is incremented every time the stored application is updated.
+     *
+     * @return The version the application was read at.
+     */
+    public int getVersion() { return version; }
+
     /**
      * Sets the status of the application.
      *
@@ -111,6 +135,17 @@ public class Application {
         return this;
     }
 
+    /**
+     * Sets the version of the application.
+     *
+     * @param version The version the application was read at.
+     * @return The updated Application object.
+     */
+    public Application setVersion(int version) {
+        this.version = version;
+        return this;
+    }
+
     /**
      * Sets whether a withdrawal has been requested for the application.
      *
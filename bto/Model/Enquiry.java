@@ -15,6 +15,7 @@ public class Enquiry {
     private String reply;
     private String repliedBy;
     private LocalDateTime repliedTime;
+    private int version;
 
     /**
      * Constructs an Enquiry with the specified details.
@@ -39,6 +40,17 @@ public class Enquiry {
         this.repliedTime = repliedTime;
     }
 
+    /**
+     * Constructs a copy of the specified enquiry.
+     *
+     * @param other The enquiry to copy.
+     */
+    public Enquiry(Enquiry other) {
+        this(other.id, other.applicantNric, other.projectName, other.enquiryDetails, other.createdTime,
+            other.reply, other.repliedBy, other.repliedTime);
+        this.version = other.version;
+    }
+
     /**
      * Sets the reply to the enquiry.
      *
@@ -168,6 +180,24 @@ public class Enquiry {
         return repliedTime;
     }
 
+    /**
+     * Gets the version of the enquiry, which is incremented every time the stored enquiry is updated.
+     *
+     * @return The version the enquiry was read at.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the enquiry.
+     *
+     * @param version The version the enquiry was read at.
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Checks if the enquiry has been replied to.
      *
@@ -18,4 +18,14 @@ public class Manager extends User {
     public Manager(String name, String nric, int age, String maritalStatus, String password) {
         super(name, nric, age, maritalStatus, password);
     }
+
+    /**
+     * Creates a copy of the manager.
+     *
+     * @return The copy.
+     */
+    @Override
+    public Manager copy() {
+        return new Manager(getName(), getNric(), getAge(), getMaritalStatus(), getPassword());
+    }
 }
\ No newline at end of file
@@ -18,4 +18,14 @@ public class Officer extends User {
     public Officer(String name, String nric, int age, String maritalStatus, String password) {
         super(name, nric, age, maritalStatus, password);
     }
+
+    /**
+     * Creates a copy of the officer.
+     *
+     * @return The copy.
+     */
+    @Override
+    public Officer copy() {
+        return new Officer(getName(), getNric(), getAge(), getMaritalStatus(), getPassword());
+    }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ public class Project {
     private List<String> requestedOfficers;
     private List<String> rejectedOfficers;
     private boolean isVisible;
+    private int version;
 
     /**
      * Represents the details of a flat type in the project.
@@ -102,6 +103,28 @@ public class Project {
         this.isVisible = isVisible;
     }
 
+    /**
+     * Constructs a copy of the specified project, including copies of its flat type details and officer lists.
+     *
+     * @param other The project to copy.
+     */
+    public Project(Project other) {
+        this.projectName = other.projectName;
+        this.neighborhood = other.neighborhood;
+        this.flatTypes = new HashMap<>();
+        other.flatTypes.forEach((type, details) ->
+            this.flatTypes.put(type, new FlatTypeDetails(details.getAvailableUnits(), details.getSellingPrice())));
+        this.openingDate = other.openingDate;
+        this.closingDate = other.closingDate;
+        this.manager = other.manager;
+        this.officerSlots = other.officerSlots;
+        this.assignedOfficers = new ArrayList<>(other.assignedOfficers);
+        this.requestedOfficers = new ArrayList<>(other.requestedOfficers);
+        this.rejectedOfficers = new ArrayList<>(other.rejectedOfficers);
+        this.isVisible = other.isVisible;
+        this.version = other.version;
+    }
+
     /**
      * Checks if an applicant is eligible to apply for the project.
      *
@@ -253,6 +276,20 @@ public class Project {
      */
     public boolean getVisible() { return isVisible; }
 
+    /**
+     * Gets the version of the project, which is incremented every time the stored project is updated.
+     *
+     * @return The version the project was read at.
+     */
+    public int getVersion() { return version; }
+
+    /**
+     * Sets the version of the project.
+     *
+     * @param version The version the project was read at.
+     */
+    public void setVersion(int version) { this.version = version; }
+
     /**
      * Sets the flat types and their details for the project.
      *
@@ -1,18 +1,17 @@
 package bto.Model;
 
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents a user in the system.
  * This is an abstract class that serves as the base for specific user types such as Applicant, Manager, and Officer.
  */
 public abstract class User {
-    private static HashMap<String, User> users = new HashMap<>();
     private String name;
     private String nric;
     private int age;
     private String maritalStatus;
-    private String password;
+    private volatile String password;
 
     /**
      * Constructs a User with the specified details.
@@ -38,7 +37,7 @@ public abstract class User {
      * @param user The user to add.
      */
     public static void addUser(String id, User user) {
-        users.put(id, user);
+        UserRegistry.getInstance().register(id, user);
     }
 
     /**
@@ -48,16 +47,16 @@ public abstract class User {
      * @return The user associated with the given ID, or {@code null} if no user is found.
      */
     public static User getUser(String id) {
-        return users.get(id);
+        return UserRegistry.getInstance().get(id);
     }
 
     /**
      * Retrieves all users in the system.
      *
-     * @return A {@link HashMap} containing all users, where the key is the user's unique identifier.
+     * @return A read-only snapshot of all users, where the key is the user's unique identifier.
      */
-    public static HashMap<String, User> getAllUsers() {
-        return users;
+    public static Map<String, User> getAllUsers() {
+        return UserRegistry.getInstance().snapshot();
     }
 
     /**
@@ -150,6 +149,13 @@ public abstract class User {
         this.password = password;
     }
 
+    /**
+     * Creates a copy of the user of the same type, which can be changed without affecting this user.
+     *
+     * @return The copy.
+     */
+    public abstract User copy();
+
     /**
      * Returns a string representation of the user.
      *
@@ -0,0 +1,107 @@
+package bto.Model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe registry of every user account in the system, keyed by NRIC.
+ * <p>
+ * Reads never block. Registered users are never changed in place: an update changes and persists a copy, and then
+ * swaps it in only if the user was not replaced in the meantime, retrying on the new user otherwise. Callers only
+ * ever see read-only snapshots of the registry, never the live map.
+ */
+public final class UserRegistry {
+    private static final UserRegistry INSTANCE = new UserRegistry();
+
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to enforce use of the shared instance.
+     */
+    private UserRegistry() {
+    }
+
+    /**
+     * Gets the registry shared by the whole application.
+     *
+     * @return The shared registry.
+     */
+    public static UserRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a user, replacing any user already registered under the same identifier.
+     *
+     * @param id The unique identifier for the user.
+     * @param user The user to register.
+     * @return The user previously registered under the identifier, or {@code null} if there was none.
+     */
+    public User register(String id, User user) {
+        return users.put(id, user);
+    }
+
+    /**
+     * Registers a user unless a user is already registered under the same identifier.
+     *
+     * @param id The unique identifier for the user.
+     * @param user The user to register.
+     * @return {@code true} if the user was registered, {@code false} if the identifier was already taken.
+     */
+    public boolean registerIfAbsent(String id, User user) {
+        return users.putIfAbsent(id, user) == null;
+    }
+
+    /**
+     * Retrieves a user by their unique identifier.
+     *
+     * @param id The unique identifier of the user.
+     * @return The user associated with the given ID, or {@code null} if no user is found.
+     */
+    public User get(String id) {
+        return users.get(id);
+    }
+
+    /**
+     * Applies an update to a copy of a registered user, persists the copy, and then registers it in place of the
+     * user. The registered user is only replaced once the copy was persisted, and no I/O runs while the registry is
+     * locked. If another update replaced the user in the meantime, the update is applied and persisted again on top
+     * of it, so the last copy persisted is the one registered. If persisting throws, the registered user is left
+     * unchanged.
+     *
+     * @param id The unique identifier of the user.
+     * @param update The update to apply to the copy.
+     * @param persist Persists the updated copy.
+     * @return The updated user, or {@code null} if no user is registered under the identifier.
+     */
+    public User update(String id, Consumer<User> update, Consumer<User> persist) {
+        while (true) {
+            User current = users.get(id);
+            if (current == null) return null;
+            User updated = current.copy();
+            update.accept(updated);
+            persist.accept(updated);
+            if (users.replace(id, current, updated)) return updated;
+        }
+    }
+
+    /**
+     * Gets a read-only snapshot of every registered user.
+     * Later registrations are not reflected in the snapshot.
+     *
+     * @return An unmodifiable map of every user, where the key is the user's unique identifier.
+     */
+    public Map<String, User> snapshot() {
+        return Map.copyOf(users);
+    }
+
+    /**
+     * Gets the number of registered users.
+     *
+     * @return The number of registered users.
+     */
+    public int size() {
+        return users.size();
+    }
+}
@@ -0,0 +1,178 @@
+package bto.Server;
+
+import java.io.*;
+import java.util.Locale;
+
+/**
+ * Routes {@code System.in} and {@code System.out} to the streams of the session running on the current thread.
+ * <p>
+ * The views read from {@code System.in} and print to {@code System.out}. Once {@link #install()} has run, both are
+ * replaced by routing streams that forward to the streams bound to the calling thread with {@link #bind}, so every
+ * session drives the existing views over its own connection. Threads with no session bound, including the server's
+ * own threads, keep using the original console. The binding is not inherited: shared background threads, such as
+ * the event bus dispatcher or a compactor, may be started lazily from a session thread and must not keep printing
+ * to that session. Code that prints to a session from another thread captures {@link #out()} first.
+ */
+public final class SessionConsole {
+    private static final ThreadLocal<Streams> SESSION = new ThreadLocal<>();
+    private static InputStream consoleIn;
+    private static PrintStream consoleOut;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SessionConsole() {
+    }
+
+    /**
+     * The input and output streams of one session.
+     */
+    private static class Streams {
+        private final InputStream in;
+        private final PrintStream out;
+
+        /**
+         * Constructs a Streams pair.
+         *
+         * @param in The session input.
+         * @param out The session output.
+         */
+        Streams(InputStream in, PrintStream out) {
+            this.in = in;
+            this.out = out;
+        }
+    }
+
+    /**
+     * Replaces {@code System.in} and {@code System.out} with the routing streams. Calling it again has no effect.
+     */
+    public static synchronized void install() {
+        if (consoleIn != null) return;
+        consoleIn = System.in;
+        consoleOut = System.out;
+        System.setIn(new RoutingInputStream());
+        System.setOut(new RoutingPrintStream());
+    }
+
+    /**
+     * Binds session streams to the current thread.
+     *
+     * @param in The stream the session's input is read from.
+     * @param out The stream the session's output is printed to.
+     */
+    public static void bind(InputStream in, PrintStream out) {
+        SESSION.set(new Streams(in, out));
+    }
+
+    /**
+     * Unbinds the session streams from the current thread, which goes back to the original console.
+     */
+    public static void unbind() {
+        SESSION.remove();
+    }
+
+    /**
+     * Gets the output of the current thread's session. Unlike {@code System.out}, the stream returned keeps printing
+     * to that session when used from another thread.
+     *
+     * @return The current thread's session output, or the original console output if no session is bound.
+     */
+    public static PrintStream out() {
+        Streams streams = SESSION.get();
+        return streams != null ? streams.out : console();
+    }
+
+    /**
+     * Gets the original console output, which is unaffected by any session binding.
+     *
+     * @return The console output captured by {@link #install()}, or {@code System.out} if it has not run.
+     */
+    public static PrintStream console() {
+        return consoleOut != null ? consoleOut : System.out;
+    }
+
+    /**
+     * Input stream that reads from the current thread's session, or from the original console.
+     */
+    private static class RoutingInputStream extends InputStream {
+        /**
+         * Gets the stream to read from.
+         *
+         * @return The input of the current thread's session, or the original console input.
+         */
+        private InputStream target() {
+            Streams streams = SESSION.get();
+            return streams != null ? streams.in : consoleIn;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return target().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return target().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return target().available();
+        }
+    }
+
+    /**
+     * Print stream that delegates every call to the current thread's session output, or to the original console.
+     * Each session has its own print stream, so a slow client never holds up the output of another session.
+     */
+    private static class RoutingPrintStream extends PrintStream {
+        /**
+         * Constructs a RoutingPrintStream.
+         */
+        RoutingPrintStream() {
+            super(OutputStream.nullOutputStream());
+        }
+
+        /**
+         * Gets the stream to print to.
+         *
+         * @return The output of the current thread's session, or the original console output.
+         */
+        private PrintStream target() {
+            Streams streams = SESSION.get();
+            return streams != null ? streams.out : consoleOut;
+        }
+
+        @Override public void flush() { target().flush(); }
+        @Override public void close() { target().close(); }
+        @Override public boolean checkError() { return target().checkError(); }
+        @Override public void write(int b) { target().write(b); }
+        @Override public void write(byte[] buf, int off, int len) { target().write(buf, off, len); }
+        @Override public void print(boolean b) { target().print(b); }
+        @Override public void print(char c) { target().print(c); }
+        @Override public void print(int i) { target().print(i); }
+        @Override public void print(long l) { target().print(l); }
+        @Override public void print(float f) { target().print(f); }
+        @Override public void print(double d) { target().print(d); }
+        @Override public void print(char[] s) { target().print(s); }
+        @Override public void print(String s) { target().print(s); }
+        @Override public void print(Object obj) { target().print(obj); }
+        @Override public void println() { target().println(); }
+        @Override public void println(boolean x) { target().println(x); }
+        @Override public void println(char x) { target().println(x); }
+        @Override public void println(int x) { target().println(x); }
+        @Override public void println(long x) { target().println(x); }
+        @Override public void println(float x) { target().println(x); }
+        @Override public void println(double x) { target().println(x); }
+        @Override public void println(char[] x) { target().println(x); }
+        @Override public void println(String x) { target().println(x); }
+        @Override public void println(Object x) { target().println(x); }
+        @Override public PrintStream printf(String format, Object... args) { return target().printf(format, args); }
+        @Override public PrintStream printf(Locale l, String format, Object... args) { return target().printf(l, format, args); }
+        @Override public PrintStream format(String format, Object... args) { return target().format(format, args); }
+        @Override public PrintStream format(Locale l, String format, Object... args) { return target().format(l, format, args); }
+        @Override public PrintStream append(CharSequence csq) { return target().append(csq); }
+        @Override public PrintStream append(CharSequence csq, int start, int end) { return target().append(csq, start, end); }
+        @Override public PrintStream append(char c) { return target().append(c); }
+    }
+}
@@ -0,0 +1,112 @@
+package bto.Server;
+
+import bto.View.LoginView;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves many concurrent text sessions over a local socket, each driving the usual login and menu flows.
+ * <p>
+ * Every accepted connection gets its own thread, which has the connection bound as its console through
+ * {@link SessionConsole} and then runs {@link LoginView}. All sessions share the DAOs of the default
+ * {@link bto.Data.StorageProvider}.
+ * Sessions run on virtual threads when the JDK provides them, and on a cached pool of platform threads otherwise.
+ * A session ends when its client disconnects.
+ */
+public class SessionServer {
+    private final int port;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    /**
+     * Constructs a SessionServer that listens on the specified port of the loopback interface.
+     *
+     * @param port The port to listen on.
+     */
+    public SessionServer(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Accepts connections until the process is stopped, starting a session for each one.
+     *
+     * @throws IOException If the server socket cannot be opened.
+     */
+    public void serve() throws IOException {
+        SessionConsole.install();
+        PrintStream console = SessionConsole.console();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            console.println("BTO server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                int id = sessionIds.incrementAndGet();
+                sessions.execute(() -> runSession(id, socket));
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the number of sessions currently connected.
+     *
+     * @return The number of active sessions.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Runs one session on the current thread until its client disconnects.
+     * The session's streams are bound to this executor thread only while the session runs, and unbound before the
+     * thread is reused.
+     *
+     * @param id The number of the session, used in the server log.
+     * @param socket The connection of the session.
+     */
+    private void runSession(int id, Socket socket) {
+        PrintStream console = SessionConsole.console();
+        console.println("Session " + id + " connected from " + socket.getRemoteSocketAddress()
+            + " (" + activeSessions.incrementAndGet() + " active)");
+        try (socket;
+             InputStream in = socket.getInputStream();
+             PrintStream out = new PrintStream(socket.getOutputStream(), true, Charset.defaultCharset())) {
+            SessionConsole.bind(in, out);
+            new LoginView().displayLoginPrompt();
+        } catch (NoSuchElementException | IllegalStateException e) {
+            // The client closed the connection while a view was waiting for input.
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Session " + id + " failed: " + e);
+        } finally {
+            SessionConsole.unbind();
+            console.println("Session " + id + " closed (" + activeSessions.decrementAndGet() + " active)");
+        }
+    }
+
+    /**
+     * Creates the executor sessions run on: one virtual thread per session if the JDK supports it,
+     * or else a cached pool of daemon platform threads.
+     *
+     * @return The session executor.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadIds = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "bto-session-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package bto.View;
 
 import bto.Controller.*;
+import bto.Event.EventBus;
 import bto.Model.*;
+import bto.Server.SessionConsole;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 
@@ -9,10 +12,13 @@ import java.util.Map;
  * View class for managing applicant-related interactions with the system.
  * This class provides a menu-driven interface for applicants to perform various actions,
  * such as viewing projects, submitting applications, and managing enquiries.
+ * While the applicant is logged in, replies to their enquiries and changes to their applications' status are pushed
+ * to the session as they happen.
  */
 public class ApplicantView extends UserView {
     private final ApplicantController applicantController;
     private final User applicant;
+    private EventBus.Subscription notifications;
 
     /**
      * Constructs an ApplicantView with the specified applicant and controller.
@@ -32,6 +38,7 @@ public class ApplicantView extends UserView {
      * @param isFirstTime {@code true} if this is the first time the menu is displayed, {@code false} otherwise.
      */
     public void menu(boolean isFirstTime) {
+        if (isFirstTime) startNotifications();
         System.out.println("\n===================================");
         if (isFirstTime) {
             System.out.println("Welcome " + applicant.getName() + "!");
@@ -98,6 +105,7 @@ public class ApplicantView extends UserView {
                     menu(false);
                     break;
                 case 11:
+                    stopNotifications();
                     System.out.println("Logging out...");
                     LoginView loginView = new LoginView();
                     loginView.displayLoginPrompt();
@@ -113,6 +121,29 @@ public class ApplicantView extends UserView {
         }
     }
 
+    /**
+     * Starts pushing the applicant's notifications to this session. Calling it again has no effect.
+     */
+    public void startNotifications() {
+        if (notifications != null) return;
+        PrintStream out = SessionConsole.out();
+        notifications = EventBus.getDefault().subscribe(applicant.getNric(), event -> {
+            out.println();
+            out.println("[Notification] " + event.getMessage());
+            out.flush();
+            if (out.checkError()) throw new IllegalStateException("Session of " + applicant.getNric() + " is closed");
+        });
+    }
+
+    /**
+     * Stops pushing the applicant's notifications to this session.
+     */
+    public void stopNotifications() {
+        if (notifications == null) return;
+        notifications.close();
+        notifications = null;
+    }
+
     /**
      * Displays the list of available projects for the applicant.
      */
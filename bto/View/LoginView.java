@@ -1,12 +1,11 @@
 package bto.View;
 
 import bto.Controller.*;
-import bto.Data.ApplicationCSVDao;
 import bto.Data.ApplicationDao;
-import bto.Data.EnquiryCSVDao;
 import bto.Data.EnquiryDao;
-import bto.Data.ProjectCSVDao;
 import bto.Data.ProjectDao;
+import bto.Data.StorageProvider;
+import bto.Data.StorageProviders;
 import bto.Model.*;
 import java.util.Scanner;
 import java.util.regex.Matcher;
@@ -15,10 +14,34 @@ import java.util.regex.Pattern;
 /**
  * View class for managing the login process in the BTO Application System.
  * This class handles user authentication and redirects users to their respective views based on their roles.
+ * The controllers it creates work on the DAOs of a {@link StorageProvider}, shared by every login.
  */
 public class LoginView {
+    private final StorageProvider storage;
+    private final ApplicationDao applicationDao;
+    private final ProjectDao projectDao;
+    private final EnquiryDao enquiryDao;
     private final Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Constructs a LoginView on the storage backend selected for this process.
+     */
+    public LoginView() {
+        this(StorageProviders.getDefault());
+    }
+
+    /**
+     * Constructs a LoginView on the specified storage backend.
+     *
+     * @param storage The storage backend.
+     */
+    public LoginView(StorageProvider storage) {
+        this.storage = storage;
+        this.applicationDao = storage.getApplicationDao();
+        this.projectDao = storage.getProjectDao();
+        this.enquiryDao = storage.getEnquiryDao();
+    }
+
     /**
      * Displays the login prompt to the user and handles the login process.
      * Validates the user's NRIC and password, and redirects them to the appropriate view based on their role.
@@ -38,7 +61,7 @@ public class LoginView {
         System.out.print("Please enter your password: ");
         String password = scanner.nextLine();
 
-        AuthController authController = new AuthController();
+        AuthController authController = new AuthController(storage.getUserDao());
         User user = User.getUser(nric);
         if (user == null) {
             System.out.println("User not found. Please try again.");
@@ -47,23 +70,20 @@ public class LoginView {
         }
         boolean isValid = authController.validateLogin(user, password);
         if (isValid) {
-            ApplicationDao applicationDao = new ApplicationCSVDao();
-            ProjectDao projectDao = new ProjectCSVDao();
-            EnquiryDao enquiryDao = new EnquiryCSVDao();
             if (user instanceof Applicant) {
                 ApplicantController applicantController = new ApplicantController((Applicant)user, applicationDao, projectDao, enquiryDao);
                 ApplicantView applicantView = new ApplicantView((Applicant)user, applicantController);
                 applicantView.menu(true);
             }
             else if (user instanceof Officer) {
-                OfficerController officerController = new OfficerController((Officer)user, applicationDao, projectDao, enquiryDao);
+                OfficerController officerController = new OfficerController((Officer)user, applicationDao, projectDao, enquiryDao, storage.getName());
                 ApplicantController applicantController = new ApplicantController((User)user, applicationDao, projectDao, enquiryDao);
                 ApplicantView applicantView = new ApplicantView((User)user, applicantController);
                 OfficerView officerView = new OfficerView((Officer)user, officerController, applicantController, applicantView);
                 officerView.menu(true);
             }
             else if (user instanceof Manager) {
-                ManagerController managerController = new ManagerController((Manager)user, projectDao, applicationDao, enquiryDao);
+                ManagerController managerController = new ManagerController((Manager)user, projectDao, applicationDao, enquiryDao, storage.getName());
                 ManagerView managerView = new ManagerView((Manager)user, managerController);
                 managerView.menu(true);
             }
@@ -5,8 +5,10 @@ import bto.Model.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The ManagerView class provides the user interface for managers to interact with the system.
@@ -302,6 +304,7 @@ public class ManagerView extends UserView {
         }
     
         Map<String, Project.FlatTypeDetails> flatTypes = new HashMap<>(project.getFlatTypes());
+        Set<String> changedUnits = new HashSet<>();
         String[] allowedTypes = {"2-Room", "3-Room"};
         for (String type : allowedTypes) {
             Project.FlatTypeDetails details = flatTypes.get(type);
@@ -312,7 +315,10 @@ public class ManagerView extends UserView {
             String unitsStr = scanner.nextLine().trim();
             int units = details.getAvailableUnits();
             if (!unitsStr.isEmpty()) {
-                try { units = Integer.parseInt(unitsStr); } catch (Exception e) {}
+                try {
+                    units = Integer.parseInt(unitsStr);
+                    changedUnits.add(type);
+                } catch (Exception e) {}
             }
             System.out.print("Current " + type + " price: " + details.getSellingPrice() + ". New price (or press Enter to skip): ");
             String priceStr = scanner.nextLine().trim();
@@ -328,11 +334,13 @@ public class ManagerView extends UserView {
         try {
             managerController.editProject(
                 project.getName(),
+                project.getVersion(),
                 neighborhood,
                 flatTypes,
                 openingDate,
                 closingDate,
-                officerSlots
+                officerSlots,
+                changedUnits
             );
             System.out.println("Project updated successfully.");
         } catch (Exception e) {
@@ -37,6 +37,7 @@ public class OfficerView extends UserView {
      * @param isFirstTime Indicates if this is the first time the menu is being displayed.
      */
     public void menu(boolean isFirstTime) {
+        if (isFirstTime) applicantView.startNotifications();
         System.out.println("\n===================================");
         if (isFirstTime) {
             System.out.println("Welcome " + officer.getName() + "!");
@@ -98,6 +99,7 @@ public class OfficerView extends UserView {
                     break;
 
                 case 9:
+                    applicantView.stopNotifications();
                     System.out.println("Logging out...");
                     LoginView loginView = new LoginView();
                     loginView.displayLoginPrompt();
@@ -3,6 +3,7 @@ package bto.View;
 import java.util.Scanner;
 
 import bto.Controller.*;
+import bto.Data.StorageProviders;
 import bto.Model.*;
 
 /**
@@ -28,7 +29,7 @@ public class UserView {
      * Prompts the user to enter a new password and updates it using the AuthController.
      */
     public void changePassword() {
-        AuthController authController = new AuthController();
+        AuthController authController = new AuthController(StorageProviders.getDefault().getUserDao());
         System.out.print("Enter your new password: ");
         String newPassword = scanner.next();
         authController.changePassword(user, newPassword);